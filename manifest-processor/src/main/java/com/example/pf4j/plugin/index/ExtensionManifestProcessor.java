@@ -0,0 +1,247 @@
+package com.example.pf4j.plugin.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 扩展清单注解处理器
+ * 在插件编译期收集@Extension类的公开方法签名和参数名，生成META-INF/extension-manifest.json，
+ * 宿主据此解析和展示插件，无需运行时类路径扫描、反射或提前实例化扩展
+ *
+ * 插件在maven-compiler-plugin中通过annotationProcessorPaths和annotationProcessors启用。
+ * 本模块不依赖宿主和任何第三方库，放入annotationProcessorPaths不会把宿主的类路径带入插件编译
+ */
+@SupportedAnnotationTypes(ExtensionManifestProcessor.EXTENSION_ANNOTATION)
+public class ExtensionManifestProcessor extends AbstractProcessor {
+
+    static final String EXTENSION_ANNOTATION = "org.pf4j.Extension";
+
+    /**
+     * 以下两项与宿主 ExtensionManifest 的 RESOURCE_PATH、FORMAT_VERSION 一致，修改清单格式时需同时修改
+     */
+    static final String RESOURCE_PATH = "META-INF/extension-manifest.json";
+    static final int FORMAT_VERSION = 1;
+
+    private static final Set<String> EXCLUDED_METHODS = Set.of(
+            "equals", "hashCode", "toString", "getClass", "notify", "notifyAll", "wait");
+
+    private final Map<String, TypeElement> extensions = new LinkedHashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeManifest();
+            return false;
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    TypeElement type = (TypeElement) element;
+                    extensions.put(type.getQualifiedName().toString(), type);
+                }
+            }
+        }
+        // 不独占@Extension，PF4J自身的处理器仍需生成extensions.idx
+        return false;
+    }
+
+    private void writeManifest() {
+        if (extensions.isEmpty()) {
+            return;
+        }
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n  \"formatVersion\": ").append(FORMAT_VERSION).append(",\n  \"extensions\": [");
+        boolean first = true;
+        for (TypeElement type : extensions.values()) {
+            json.append(first ? "\n" : ",\n");
+            appendExtension(json, type);
+            first = false;
+        }
+        json.append("\n  ]\n}\n");
+
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE_PATH);
+            try (Writer writer = file.openWriter()) {
+                writer.write(json.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "生成扩展清单失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 规范化扩展名称，与宿主 ExtensionManifest.normalizeName 一致
+     */
+    static String normalizeName(String simpleName) {
+        return simpleName.toLowerCase().replace("extension", "").replace("plugin", "");
+    }
+
+    private void appendExtension(StringBuilder json, TypeElement type) {
+        String simpleName = type.getSimpleName().toString();
+        Set<String> names = new LinkedHashSet<>();
+        names.add(simpleName.toLowerCase());
+        names.add(normalizeName(simpleName));
+
+        json.append("    {\n      \"className\": ").append(quote(type.getQualifiedName().toString()));
+        json.append(",\n      \"simpleName\": ").append(quote(simpleName));
+        json.append(",\n      \"names\": ");
+        appendStrings(json, names);
+        json.append(",\n      \"extensionPoints\": ");
+        appendStrings(json, collectInterfaces(type));
+        json.append(",\n      \"methods\": [");
+        boolean first = true;
+        for (ExecutableElement method : collectMethods(type)) {
+            json.append(first ? "\n" : ",\n");
+            appendMethod(json, method);
+            first = false;
+        }
+        json.append("\n      ]\n    }");
+    }
+
+    private void appendMethod(StringBuilder json, ExecutableElement method) {
+        json.append("        {\"name\": ").append(quote(method.getSimpleName().toString()));
+        json.append(", \"returnType\": ").append(quote(simpleTypeName(method.getReturnType())));
+        json.append(", \"parameters\": [");
+        boolean first = true;
+        for (VariableElement parameter : method.getParameters()) {
+            if (!first) {
+                json.append(", ");
+            }
+            TypeMirror type = parameter.asType();
+            json.append("{\"name\": ").append(quote(parameter.getSimpleName().toString()));
+            json.append(", \"type\": ").append(quote(simpleTypeName(type)));
+            json.append(", \"typeName\": ").append(quote(erasedTypeName(type)));
+            json.append('}');
+            first = false;
+        }
+        json.append("]}");
+    }
+
+    /**
+     * 收集类及其父类中声明的公开实例方法，子类覆盖的方法只保留一次
+     */
+    private List<ExecutableElement> collectMethods(TypeElement type) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        Set<String> signatures = new LinkedHashSet<>();
+        TypeElement current = type;
+        while (current != null && !"java.lang.Object".equals(current.getQualifiedName().toString())) {
+            for (Element member : current.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) member;
+                Set<Modifier> modifiers = method.getModifiers();
+                String name = method.getSimpleName().toString();
+                if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)
+                        || EXCLUDED_METHODS.contains(name)) {
+                    continue;
+                }
+                StringBuilder signature = new StringBuilder(name).append('(');
+                for (VariableElement parameter : method.getParameters()) {
+                    signature.append(erasedTypeName(parameter.asType())).append(',');
+                }
+                if (signatures.add(signature.append(')').toString())) {
+                    methods.add(method);
+                }
+            }
+            current = superclassOf(current);
+        }
+        return methods;
+    }
+
+    private Set<String> collectInterfaces(TypeElement type) {
+        Set<String> interfaces = new LinkedHashSet<>();
+        TypeElement current = type;
+        while (current != null) {
+            for (TypeMirror mirror : current.getInterfaces()) {
+                interfaces.add(erasedTypeName(mirror));
+            }
+            current = superclassOf(current);
+        }
+        return interfaces;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private String erasedTypeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return erasedTypeName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        return erased.toString();
+    }
+
+    private String simpleTypeName(TypeMirror type) {
+        String name = erasedTypeName(type);
+        int index = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$'));
+        return index >= 0 ? name.substring(index + 1) : name;
+    }
+
+    private void appendStrings(StringBuilder json, Set<String> values) {
+        json.append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                json.append(", ");
+            }
+            json.append(quote(value));
+            first = false;
+        }
+        json.append(']');
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -1,27 +1,38 @@
 package com.example.plugin.auto;
 
+import com.example.pf4j.entity.JobExecutionHistory;
+import com.example.pf4j.scheduler.JobHandle;
+import com.example.pf4j.scheduler.JobState;
+import com.example.pf4j.scheduler.JobTrigger;
+import com.example.pf4j.scheduler.MisfirePolicy;
+import com.example.pf4j.util.SchedulerUtil;
 import org.pf4j.Extension;
 import org.pf4j.ExtensionPoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 自动化任务扩展实现
- * 提供定时任务和批处理功能
+ * 提供定时任务和批处理功能，任务由宿主共享调度器执行，插件停止时宿主自动取消其任务
  */
 @Extension
 public class AutoExtension implements ExtensionPoint {
     private static final Logger logger = LoggerFactory.getLogger(AutoExtension.class);
     
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    private final List<Map<String, Object>> taskHistory = new ArrayList<>();
+    private static final String SAMPLE_TASK = "系统监控任务";
+    
+    /**
+     * 任务名称 -> 任务句柄
+     */
+    private final Map<String, JobHandle> jobs = new ConcurrentHashMap<>();
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     public AutoExtension() {
@@ -64,9 +75,13 @@ public class AutoExtension implements ExtensionPoint {
                 case "status":
                     return getTaskStatus();
                 case "history":
-                    return getTaskHistory();
+                    return getTaskHistory((String) params.get("taskName"));
                 case "schedule":
                     return scheduleTask(params);
+                case "pause":
+                case "resume":
+                case "cancel":
+                    return controlTask(action, (String) params.get("taskName"));
                 case "stop":
                     return stopTasks();
                 case "restart":
@@ -85,7 +100,7 @@ public class AutoExtension implements ExtensionPoint {
      */
     public void initialize() {
         logger.info("自动化任务插件扩展初始化完成");
-        logger.info("定时任务调度器已启动");
+        logger.info("定时任务已交由宿主共享调度器执行");
     }
     
     /**
@@ -93,15 +108,8 @@ public class AutoExtension implements ExtensionPoint {
      */
     public void destroy() {
         logger.info("自动化任务插件扩展销毁中...");
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        jobs.values().forEach(JobHandle::cancel);
+        jobs.clear();
         logger.info("自动化任务插件扩展销毁完成");
     }
     
@@ -109,58 +117,38 @@ public class AutoExtension implements ExtensionPoint {
      * 启动示例定时任务
      */
     private void startSampleTask() {
-        // 每30秒执行一次的示例任务
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                String timestamp = LocalDateTime.now().format(formatter);
-                logger.info("执行定时任务 - {}", timestamp);
-                
-                // 记录任务执行历史
-                Map<String, Object> taskRecord = new HashMap<>();
-                taskRecord.put("taskName", "系统监控任务");
-                taskRecord.put("executeTime", timestamp);
-                taskRecord.put("status", "SUCCESS");
-                taskRecord.put("message", "系统运行正常");
-                
-                synchronized (taskHistory) {
-                    taskHistory.add(taskRecord);
-                    // 只保留最近50条记录
-                    if (taskHistory.size() > 50) {
-                        taskHistory.remove(0);
-                    }
-                }
-                
-            } catch (Exception e) {
-                logger.error("定时任务执行失败", e);
-                
-                // 记录失败的任务
-                Map<String, Object> taskRecord = new HashMap<>();
-                taskRecord.put("taskName", "系统监控任务");
-                taskRecord.put("executeTime", LocalDateTime.now().format(formatter));
-                taskRecord.put("status", "FAILED");
-                taskRecord.put("message", "任务执行失败: " + e.getMessage());
-                
-                synchronized (taskHistory) {
-                    taskHistory.add(taskRecord);
-                    if (taskHistory.size() > 50) {
-                        taskHistory.remove(0);
-                    }
-                }
-            }
-        }, 10, 30, TimeUnit.SECONDS); // 延迟10秒启动，然后每30秒执行一次
-        
+        // 延迟10秒启动，然后每30秒执行一次
+        JobHandle job = SchedulerUtil.scheduleAtFixedRate(SAMPLE_TASK, Duration.ofSeconds(30), Duration.ofSeconds(10), () -> {
+            logger.info("执行定时任务 - {}", LocalDateTime.now().format(formatter));
+        });
+        jobs.put(SAMPLE_TASK, job);
         logger.info("示例定时任务已启动，每30秒执行一次");
     }
     
+    private static Map<String, Object> describe(JobHandle job) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("jobId", job.getId());
+        info.put("taskName", job.getName());
+        info.put("state", job.getState().name());
+        info.put("running", job.isRunning());
+        info.put("nextFireTime", job.getNextFireTime());
+        info.put("executionCount", job.getExecutionCount());
+        info.put("failureCount", job.getFailureCount());
+        info.put("misfireCount", job.getMisfireCount());
+        return info;
+    }
+    
     /**
      * 获取任务状态
      */
     private Map<String, Object> getTaskStatus() {
         Map<String, Object> status = new HashMap<>();
-        status.put("schedulerActive", !scheduler.isShutdown());
-        status.put("totalTasks", taskHistory.size());
-        status.put("lastExecuteTime", taskHistory.isEmpty() ? "无" : 
-            taskHistory.get(taskHistory.size() - 1).get("executeTime"));
+        jobs.values().removeIf(job -> job.getState() == JobState.CANCELLED || job.getState() == JobState.COMPLETED);
+        status.put("schedulerActive", !jobs.isEmpty());
+        status.put("activeJobs", jobs.values().stream().map(AutoExtension::describe).collect(java.util.stream.Collectors.toList()));
+        status.put("totalTasks", jobs.values().stream().mapToLong(JobHandle::getExecutionCount).sum());
+        long lastFireTime = jobs.values().stream().mapToLong(JobHandle::getLastFireTime).max().orElse(-1L);
+        status.put("lastExecuteTime", lastFireTime < 0 ? "无" : format(lastFireTime));
         status.put("currentTime", LocalDateTime.now().format(formatter));
         
         return Map.of("success", true, "data", status);
@@ -168,53 +156,97 @@ public class AutoExtension implements ExtensionPoint {
     
     /**
      * 获取任务执行历史
+     * 历史由宿主持久化，插件重启后仍可查询
      */
-    private Map<String, Object> getTaskHistory() {
-        synchronized (taskHistory) {
-            List<Map<String, Object>> history = new ArrayList<>(taskHistory);
-            return Map.of(
-                "success", true,
-                "data", history,
-                "total", history.size()
-            );
+    private Map<String, Object> getTaskHistory(String taskName) {
+        List<Map<String, Object>> history = new ArrayList<>();
+        for (JobExecutionHistory record : SchedulerUtil.getHistory(this, taskName, 50)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("taskName", record.getJobName());
+            item.put("executeTime", record.getFireTime().format(formatter));
+            item.put("status", record.getStatus());
+            item.put("durationMs", record.getDurationMs());
+            item.put("message", record.getMessage() != null ? record.getMessage() : "");
+            item.put("nodeId", record.getNodeId() != null ? record.getNodeId() : "");
+            history.add(item);
         }
+        return Map.of(
+            "success", true,
+            "data", history,
+            "total", history.size()
+        );
+    }
+    
+    private String format(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).format(formatter);
     }
     
     /**
      * 调度新任务
+     * 支持 interval（秒，固定频率）或 cron（秒 分 时 日 月 周）两种方式，
+     * misfirePolicy 可选 FIRE_NOW（默认）或 SKIP；同名任务会替换原有任务
      */
     private Map<String, Object> scheduleTask(Map<String, Object> params) {
         String taskName = (String) params.get("taskName");
         Integer interval = (Integer) params.get("interval");
+        String cron = (String) params.get("cron");
         
-        if (taskName == null || interval == null || interval <= 0) {
-            return Map.of("success", false, "message", "任务名称和执行间隔不能为空");
+        if (taskName == null || (cron == null && (interval == null || interval <= 0))) {
+            return Map.of("success", false, "message", "任务名称和执行间隔（或cron表达式）不能为空");
         }
         
-        // 创建新的定时任务
-        scheduler.scheduleAtFixedRate(() -> {
-            String timestamp = LocalDateTime.now().format(formatter);
-            logger.info("执行自定义任务: {} - {}", taskName, timestamp);
-            
-            Map<String, Object> taskRecord = new HashMap<>();
-            taskRecord.put("taskName", taskName);
-            taskRecord.put("executeTime", timestamp);
-            taskRecord.put("status", "SUCCESS");
-            taskRecord.put("message", "自定义任务执行完成");
-            
-            synchronized (taskHistory) {
-                taskHistory.add(taskRecord);
-                if (taskHistory.size() > 50) {
-                    taskHistory.remove(0);
-                }
-            }
-        }, 5, interval, TimeUnit.SECONDS);
+        JobTrigger trigger;
+        MisfirePolicy misfirePolicy;
+        try {
+            trigger = cron != null
+                    ? JobTrigger.cron(cron)
+                    : JobTrigger.fixedRate(Duration.ofSeconds(interval), Duration.ofSeconds(5));
+            misfirePolicy = MisfirePolicy.valueOf(String.valueOf(params.getOrDefault("misfirePolicy", "FIRE_NOW")));
+        } catch (IllegalArgumentException e) {
+            return Map.of("success", false, "message", "任务参数无效: " + e.getMessage());
+        }
+        
+        JobHandle job = SchedulerUtil.schedule(taskName, trigger, misfirePolicy, () ->
+                logger.info("执行自定义任务: {} - {}", taskName, LocalDateTime.now().format(formatter)));
+        JobHandle previous = jobs.put(taskName, job);
+        if (previous != null) {
+            previous.cancel();
+        }
         
         return Map.of(
             "success", true, 
             "message", "任务调度成功",
             "taskName", taskName,
-            "interval", interval + "秒"
+            "jobId", job.getId(),
+            "trigger", cron != null ? "cron: " + cron : interval + "秒"
+        );
+    }
+    
+    /**
+     * 暂停、恢复或取消单个任务
+     */
+    private Map<String, Object> controlTask(String action, String taskName) {
+        JobHandle job = taskName != null ? jobs.get(taskName) : null;
+        if (job == null) {
+            return Map.of("success", false, "message", "任务不存在: " + taskName);
+        }
+        boolean changed;
+        switch (action) {
+            case "pause":
+                changed = job.pause();
+                break;
+            case "resume":
+                changed = job.resume();
+                break;
+            default:
+                changed = job.cancel();
+                jobs.remove(taskName, job);
+                break;
+        }
+        return Map.of(
+            "success", changed,
+            "message", changed ? "操作成功" : "任务当前状态不支持该操作",
+            "data", describe(job)
         );
     }
     
@@ -222,23 +254,23 @@ public class AutoExtension implements ExtensionPoint {
      * 停止所有任务
      */
     private Map<String, Object> stopTasks() {
-        if (!scheduler.isShutdown()) {
-            scheduler.shutdown();
-            return Map.of("success", true, "message", "所有任务已停止");
-        } else {
-            return Map.of("success", false, "message", "任务调度器已经停止");
+        if (jobs.isEmpty()) {
+            return Map.of("success", false, "message", "当前没有运行中的任务");
         }
+        jobs.values().forEach(JobHandle::cancel);
+        jobs.clear();
+        return Map.of("success", true, "message", "所有任务已停止");
     }
     
     /**
-     * 重启任务调度器
+     * 重启示例任务
      */
     private Map<String, Object> restartTasks() {
-        if (scheduler.isShutdown()) {
-            // 注意：实际应用中可能需要重新创建调度器
-            return Map.of("success", false, "message", "任务调度器已停止，需要重新初始化插件");
-        } else {
+        JobHandle sample = jobs.get(SAMPLE_TASK);
+        if (sample != null && sample.getState() == JobState.SCHEDULED) {
             return Map.of("success", true, "message", "任务调度器正在运行中");
         }
+        startSampleTask();
+        return Map.of("success", true, "message", "示例任务已重新启动");
     }
-}
\ No newline at end of file
+}
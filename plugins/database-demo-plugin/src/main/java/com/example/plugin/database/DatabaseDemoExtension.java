@@ -1,12 +1,16 @@
 package com.example.plugin.database;
 
+import com.example.pf4j.security.PermissionMatrix;
+import com.example.pf4j.store.PluginStateStore;
+import com.example.pf4j.util.PermissionUtil;
+import com.example.pf4j.util.PluginStateUtil;
 import org.pf4j.Extension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 数据库演示扩展实现类
@@ -20,8 +24,14 @@ public class DatabaseDemoExtension implements DatabaseExtension {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseDemoExtension.class);
     
-    // 模拟用户权限缓存
-    private final Map<String, Map<String, Boolean>> userPermissions = new ConcurrentHashMap<>();
+    // 默认角色，所有用户继承该角色的权限，再叠加各自保存的授予和拒绝
+    private static final String DEFAULT_ROLE = "role:default";
+    
+    // 用户权限矩阵，由宿主按插件共享，数据以插件状态存储为准，初始化时从存储加载
+    private PermissionMatrix permissionMatrix;
+    
+    // 用户权限持久化存储，保存每个用户相对默认角色的授予和拒绝
+    private PluginStateStore permissionStore;
     
     // 扩展初始化状态
     private boolean initialized = false;
@@ -89,25 +99,15 @@ public class DatabaseDemoExtension implements DatabaseExtension {
      */
     @Override
     public boolean validateUserPermission(String username, String operation) {
-        logger.info("验证用户权限: 用户={}, 操作={}", username, operation);
-        
-        if (username == null || operation == null) {
+        if (username == null || operation == null || permissionMatrix == null) {
             return false;
         }
         
-        // 获取用户权限映射
-        Map<String, Boolean> permissions = userPermissions.get(username);
-        if (permissions == null) {
-            // 为新用户初始化默认权限
-            permissions = initializeDefaultPermissions();
-            userPermissions.put(username, permissions);
-        }
+        // 未登记的用户按默认角色判断，不在校验路径上登记，任意用户名都不会让权限矩阵增长；
+        // 操作名已是小写时 toLowerCase 直接返回原字符串
+        boolean result = permissionMatrix.isAllowed(username, DEFAULT_ROLE, operation.toLowerCase(Locale.ROOT));
         
-        // 检查具体操作权限
-        Boolean hasPermission = permissions.get(operation.toLowerCase());
-        boolean result = hasPermission != null && hasPermission;
-        
-        logger.info("用户 {} 对操作 {} 的权限验证结果: {}", username, operation, result);
+        logger.debug("用户 {} 对操作 {} 的权限验证结果: {}", username, operation, result);
         return result;
     }
     
@@ -167,8 +167,10 @@ public class DatabaseDemoExtension implements DatabaseExtension {
         logger.info("=== 销毁数据库演示扩展 ===");
         
         try {
-            // 清理资源
-            userPermissions.clear();
+            // 权限矩阵由插件内的扩展实例共享，插件卸载时由宿主释放；权限数据保留在状态存储中
+            if (permissionStore != null) {
+                permissionStore.flush();
+            }
             initialized = false;
             
             logger.info("数据库演示扩展销毁成功！");
@@ -233,19 +235,22 @@ public class DatabaseDemoExtension implements DatabaseExtension {
      */
     private void initializeUserPermissions() {
         logger.info("初始化用户权限配置");
+        permissionStore = PluginStateUtil.getStore(this, "permissions");
+        permissionMatrix = PermissionUtil.getMatrix(this, "users");
+        permissionMatrix.setPermissions(DEFAULT_ROLE, initializeDefaultPermissions());
         
         // 管理员权限
-        Map<String, Boolean> adminPermissions = initializeDefaultPermissions();
+        Map<String, Boolean> adminPermissions = new HashMap<>();
         adminPermissions.put("delete_user", true);
         adminPermissions.put("create_user", true);
         adminPermissions.put("update_user", true);
-        userPermissions.put("admin", adminPermissions);
+        seedPermissions("admin", adminPermissions);
         
         // 普通用户权限
-        Map<String, Boolean> userPermissions = initializeDefaultPermissions();
+        Map<String, Boolean> userPermissions = new HashMap<>();
         userPermissions.put("delete_user", false);
         userPermissions.put("create_user", false);
-        this.userPermissions.put("user", userPermissions);
+        seedPermissions("user", userPermissions);
         
         // 访客权限
         Map<String, Boolean> guestPermissions = new HashMap<>();
@@ -255,9 +260,27 @@ public class DatabaseDemoExtension implements DatabaseExtension {
         guestPermissions.put("update_user", false);
         guestPermissions.put("delete_user", false);
         guestPermissions.put("test_connection", false);
-        this.userPermissions.put("guest", guestPermissions);
+        seedPermissions("guest", guestPermissions);
         
-        logger.info("用户权限配置初始化完成");
+        // 加载已保存的权限，包括早期版本为新用户保存的完整默认权限
+        Map<String, Map<String, Object>> stored = permissionStore.mapEntries();
+        for (Map.Entry<String, Map<String, Object>> entry : stored.entrySet()) {
+            Map<String, Boolean> permissions = new HashMap<>();
+            entry.getValue().forEach((operation, allowed) -> permissions.put(operation, Boolean.TRUE.equals(allowed)));
+            permissionMatrix.setPermissions(entry.getKey(), permissions);
+            permissionMatrix.inherit(entry.getKey(), DEFAULT_ROLE);
+        }
+        
+        logger.info("用户权限配置初始化完成，用户数: {}", stored.size());
+    }
+    
+    /**
+     * 写入内置用户相对默认角色的权限，已保存的权限不覆盖
+     */
+    private void seedPermissions(String username, Map<String, Boolean> permissions) {
+        if (!permissionStore.contains(username)) {
+            permissionStore.putMap(username, permissions);
+        }
     }
     
     /**
@@ -1,5 +1,7 @@
 package com.example.plugin.hello;
 
+import com.example.pf4j.plugin.eventlog.EventLog;
+import com.example.pf4j.util.EventLogUtil;
 import org.pf4j.Extension;
 import org.pf4j.ExtensionPoint;
 import org.slf4j.Logger;
@@ -18,7 +20,11 @@ public class HelloExtension implements ExtensionPoint {
     private static final Logger logger = LoggerFactory.getLogger(HelloExtension.class);
     
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private final List<String> greetingHistory = new ArrayList<>();
+    
+    /**
+     * 最近100条问候记录，由宿主事件日志保存，并发写入无需加锁
+     */
+    private final EventLog greetingHistory = EventLogUtil.getLog(this, "greetings", 100);
     
     // 多语言问候语
     private final Map<String, List<String>> greetings = new HashMap<String, List<String>>() {{
@@ -93,7 +99,7 @@ public class HelloExtension implements ExtensionPoint {
      * 插件销毁方法
      */
     public void destroy() {
-        logger.info("问候插件扩展销毁完成，共产生了 {} 条问候记录", greetingHistory.size());
+        logger.info("问候插件扩展销毁完成，共产生了 {} 条问候记录", greetingHistory.getAppendedCount());
     }
     
     /**
@@ -118,13 +124,7 @@ public class HelloExtension implements ExtensionPoint {
         
         // 记录问候历史
         String record = String.format("[%s] %s (%s)", timestamp, message, language);
-        synchronized (greetingHistory) {
-            greetingHistory.add(record);
-            // 只保留最近100条记录
-            if (greetingHistory.size() > 100) {
-                greetingHistory.remove(0);
-            }
-        }
+        greetingHistory.append(record);
         
         logger.info("问候用户: {}", message);
         
@@ -153,12 +153,7 @@ public class HelloExtension implements ExtensionPoint {
         
         // 记录问候历史
         String record = String.format("[%s] %s (随机-%s)", timestamp, greeting, language);
-        synchronized (greetingHistory) {
-            greetingHistory.add(record);
-            if (greetingHistory.size() > 100) {
-                greetingHistory.remove(0);
-            }
-        }
+        greetingHistory.append(record);
         
         return Map.of(
             "success", true,
@@ -189,14 +184,12 @@ public class HelloExtension implements ExtensionPoint {
      * 获取问候历史
      */
     private Map<String, Object> getGreetingHistory() {
-        synchronized (greetingHistory) {
-            List<String> history = new ArrayList<>(greetingHistory);
-            return Map.of(
-                "success", true,
-                "history", history,
-                "total", history.size()
-            );
-        }
+        List<String> history = greetingHistory.messages(100);
+        return Map.of(
+            "success", true,
+            "history", history,
+            "total", history.size()
+        );
     }
     
     /**
@@ -237,12 +230,7 @@ public class HelloExtension implements ExtensionPoint {
         String timestamp = now.format(formatter);
         String record = String.format("[%s] %s (时间问候-%s)", timestamp, greeting, language);
         
-        synchronized (greetingHistory) {
-            greetingHistory.add(record);
-            if (greetingHistory.size() > 100) {
-                greetingHistory.remove(0);
-            }
-        }
+        greetingHistory.append(record);
         
         return Map.of(
             "success", true,
@@ -262,12 +250,7 @@ public class HelloExtension implements ExtensionPoint {
         String timestamp = LocalDateTime.now().format(formatter);
         
         String record = String.format("[%s] %s (简单问候)", timestamp, greeting);
-        synchronized (greetingHistory) {
-            greetingHistory.add(record);
-            if (greetingHistory.size() > 100) {
-                greetingHistory.remove(0);
-            }
-        }
+        greetingHistory.append(record);
         
         return Map.of(
             "success", true,
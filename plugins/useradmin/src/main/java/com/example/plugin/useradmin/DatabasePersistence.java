@@ -0,0 +1,103 @@
+package com.example.plugin.useradmin;
+
+import com.example.pf4j.entity.JavaAdmin;
+import com.example.pf4j.util.DatabaseUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 基于宿主数据库扩展的持久化，用户保存在 java_admin 表
+ * 新增同步写入以取得数据库生成的ID，修改和删除由写回队列批量提交
+ */
+class DatabasePersistence implements UserPersistence {
+
+    private static final String ROLE_ADMIN = "admin";
+    private static final String ROLE_USER = "user";
+    private static final String LABEL_ADMIN = "管理员";
+    private static final String LABEL_USER = "普通用户";
+
+    @Override
+    public String getName() {
+        return "database";
+    }
+
+    @Override
+    public List<UserRecord> loadAll() {
+        List<UserRecord> records = new ArrayList<>();
+        for (JavaAdmin admin : DatabaseUtil.findAll()) {
+            records.add(new UserRecord(
+                    admin.getId(),
+                    admin.getUsername(),
+                    admin.getPassword(),
+                    admin.getEmail(),
+                    admin.getPhone(),
+                    toLabel(admin.getRole()),
+                    Integer.valueOf(1).equals(admin.getStatus()) ? UserRecord.STATUS_ACTIVE : UserRecord.STATUS_DISABLED,
+                    admin.getCreateTime(),
+                    admin.getUpdateTime(),
+                    admin.getRemark()));
+        }
+        return records;
+    }
+
+    @Override
+    public UserRecord insert(UserRecord record) {
+        // 用户管理接口不设置密码，java_admin 要求密码非空，生成随机初始密码，由宿主重置
+        String password = record.getPassword() != null ? record.getPassword() : UUID.randomUUID().toString();
+        JavaAdmin saved = DatabaseUtil.save(toEntity(record, null, password));
+        return new UserRecord(saved.getId(), saved.getUsername(), saved.getPassword(), saved.getEmail(),
+                saved.getPhone(), record.getRole(), record.getStatus(), saved.getCreateTime(),
+                saved.getUpdateTime(), saved.getRemark());
+    }
+
+    @Override
+    public void writeBatch(List<UserRecord> upserts, List<Long> deletes) {
+        if (!upserts.isEmpty()) {
+            List<JavaAdmin> entities = new ArrayList<>(upserts.size());
+            for (UserRecord record : upserts) {
+                entities.add(toEntity(record, record.getId(), record.getPassword()));
+            }
+            DatabaseUtil.saveAll(entities);
+        }
+        if (!deletes.isEmpty()) {
+            DatabaseUtil.deleteByIds(deletes);
+        }
+    }
+
+    private static JavaAdmin toEntity(UserRecord record, Long id, String password) {
+        JavaAdmin admin = new JavaAdmin(record.getUsername(), password, record.getEmail());
+        admin.setId(id);
+        admin.setPhone(record.getPhone());
+        admin.setRole(toCode(record.getRole()));
+        admin.setStatus(UserRecord.STATUS_ACTIVE.equals(record.getStatus()) ? 1 : 0);
+        admin.setRemark(record.getRemark());
+        if (record.getCreateTime() != null) {
+            admin.setCreateTime(record.getCreateTime());
+        }
+        admin.setUpdateTime(record.getUpdateTime() != null ? record.getUpdateTime() : LocalDateTime.now());
+        return admin;
+    }
+
+    private static String toCode(String role) {
+        if (LABEL_ADMIN.equals(role)) {
+            return ROLE_ADMIN;
+        }
+        if (role == null || LABEL_USER.equals(role)) {
+            return ROLE_USER;
+        }
+        return role;
+    }
+
+    private static String toLabel(String role) {
+        if (ROLE_ADMIN.equals(role)) {
+            return LABEL_ADMIN;
+        }
+        if (role == null || ROLE_USER.equals(role)) {
+            return LABEL_USER;
+        }
+        return role;
+    }
+}
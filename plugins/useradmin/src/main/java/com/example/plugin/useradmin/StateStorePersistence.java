@@ -0,0 +1,79 @@
+package com.example.plugin.useradmin;
+
+import com.example.pf4j.store.PluginStateStore;
+import com.example.pf4j.util.PluginStateUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于宿主插件状态存储的持久化，单机部署的默认方式
+ * 每个用户以JSON保存在 users 命名空间，ID计数器保存在 sequences 命名空间
+ */
+class StateStorePersistence implements UserPersistence {
+
+    private static final String NEXT_ID_KEY = "users.nextId";
+
+    private final PluginStateStore users;
+    private final PluginStateStore sequences;
+
+    StateStorePersistence(Object caller) {
+        this.users = PluginStateUtil.getStore(caller, "users");
+        this.sequences = PluginStateUtil.getStore(caller, "sequences");
+    }
+
+    @Override
+    public String getName() {
+        return "state";
+    }
+
+    @Override
+    public List<UserRecord> loadAll() {
+        List<UserRecord> records = new ArrayList<>();
+        for (Map<String, Object> map : users.mapEntries().values()) {
+            records.add(new UserRecord(
+                    Long.parseLong(String.valueOf(map.get("id"))),
+                    (String) map.get("username"),
+                    null,
+                    (String) map.get("email"),
+                    null,
+                    (String) map.get("role"),
+                    (String) map.get("status"),
+                    UserRecord.parse(map.get("createTime")),
+                    UserRecord.parse(map.get("updateTime")),
+                    null));
+        }
+        return records;
+    }
+
+    /**
+     * 由 {@link UserStorage} 在创建锁内调用，计数器的读写不会交错
+     */
+    @Override
+    public UserRecord insert(UserRecord record) {
+        long id = sequences.getLong(NEXT_ID_KEY, 1);
+        sequences.putLong(NEXT_ID_KEY, id + 1);
+        UserRecord inserted = record.withId(id);
+        users.putMap(String.valueOf(id), toMap(inserted));
+        return inserted;
+    }
+
+    @Override
+    public void writeBatch(List<UserRecord> upserts, List<Long> deletes) {
+        for (UserRecord record : upserts) {
+            users.putMap(String.valueOf(record.getId()), toMap(record));
+        }
+        for (Long id : deletes) {
+            users.delete(String.valueOf(id));
+        }
+        users.flush();
+    }
+
+    private static Map<String, Object> toMap(UserRecord record) {
+        Map<String, Object> map = new LinkedHashMap<>(record.toMap());
+        map.put("email", record.getEmail());
+        return map;
+    }
+}
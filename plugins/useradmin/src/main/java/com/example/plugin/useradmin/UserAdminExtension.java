@@ -9,18 +9,23 @@ import java.util.*;
 
 /**
  * 用户管理扩展实现
- * 提供用户增删改查功能
+ * 提供用户增删改查功能，用户数据由插件内共享的 {@link UserStorage} 管理，读取全部来自内存
  */
 @Extension
 public class UserAdminExtension implements ExtensionPoint {
     private static final Logger logger = LoggerFactory.getLogger(UserAdminExtension.class);
     
-    // 模拟用户数据存储
-    private final Map<String, Map<String, Object>> users = new HashMap<>();
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    private final UserStorage storage;
     
     public UserAdminExtension() {
-        // 初始化一些示例用户数据
-        initSampleUsers();
+        this.storage = UserStorage.getInstance(this);
+        // 使用插件状态存储且首次启动时初始化示例用户数据
+        if (storage.size() == 0 && "state".equals(storage.getStorageName())) {
+            initSampleUsers();
+        }
     }
     
     /**
@@ -56,7 +61,7 @@ public class UserAdminExtension implements ExtensionPoint {
             
             switch (action) {
                 case "list":
-                    return listUsers();
+                    return listUsers(params);
                 case "create":
                     return createUser(params);
                 case "update":
@@ -65,13 +70,15 @@ public class UserAdminExtension implements ExtensionPoint {
                     return deleteUser(params);
                 case "get":
                     return getUser(params);
+                case "stats":
+                    return Map.of("success", true, "data", storage.getStats());
                 default:
                     return Map.of("error", "不支持的操作: " + action);
             }
         }
         
-        // 默认返回用户列表
-        return listUsers();
+        // 默认返回用户列表第一页
+        return listUsers(Collections.emptyMap());
     }
     
     /**
@@ -79,52 +86,59 @@ public class UserAdminExtension implements ExtensionPoint {
      */
     public void initialize() {
         logger.info("用户管理插件扩展初始化完成");
-        logger.info("当前用户数量: {}", users.size());
+        logger.info("当前用户数量: {}, 存储方式: {}", storage.size(), storage.getStorageName());
     }
     
     /**
      * 插件销毁方法
+     * 存储由插件内所有扩展实例共享，这里只写回待写回的修改，插件停止时才关闭存储
      */
     public void destroy() {
+        try {
+            storage.flush();
+        } catch (Exception e) {
+            logger.warn("写回用户修改失败，将在后台重试: {}", e.getMessage());
+        }
         logger.info("用户管理插件扩展销毁完成");
-        users.clear();
     }
     
     /**
      * 初始化示例用户数据
      */
     private void initSampleUsers() {
-        Map<String, Object> admin = new HashMap<>();
-        admin.put("id", "1");
-        admin.put("username", "admin");
-        admin.put("email", "admin@example.com");
-        admin.put("role", "管理员");
-        admin.put("status", "ACTIVE");
-        admin.put("createTime", new Date());
-        users.put("1", admin);
-        
-        Map<String, Object> user = new HashMap<>();
-        user.put("id", "2");
-        user.put("username", "user");
-        user.put("email", "user@example.com");
-        user.put("role", "普通用户");
-        user.put("status", "ACTIVE");
-        user.put("createTime", new Date());
-        users.put("2", user);
-        
-        logger.info("初始化了 {} 个示例用户", users.size());
+        storage.create("admin", "admin@example.com", "管理员");
+        storage.create("user", "user@example.com", "普通用户");
+        logger.info("初始化了 {} 个示例用户", storage.size());
     }
     
     /**
-     * 获取用户列表
+     * 分页获取用户列表，按ID升序
+     * 支持 page/size 页码分页，或 afterId/size 从上一页最后一个ID之后继续读取
      */
-    private Map<String, Object> listUsers() {
-        logger.info("获取用户列表，当前用户数量: {}", users.size());
-        return Map.of(
-            "success", true,
-            "data", new ArrayList<>(users.values()),
-            "total", users.size()
-        );
+    private Map<String, Object> listUsers(Map<String, Object> params) {
+        int size = Math.max(1, Math.min(intParam(params, "size", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+        int page = Math.max(0, intParam(params, "page", 0));
+        Long afterId = params.get("afterId") != null ? parseId(params.get("afterId")) : null;
+        
+        List<UserRecord> records = afterId != null
+                ? storage.page(afterId, 0, size)
+                : storage.page(null, page * size, size);
+        List<Map<String, Object>> data = new ArrayList<>(records.size());
+        for (UserRecord record : records) {
+            data.add(record.toMap());
+        }
+        logger.info("获取用户列表，返回: {}, 当前用户数量: {}", data.size(), storage.size());
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", true);
+        result.put("data", data);
+        result.put("total", storage.size());
+        result.put("page", page);
+        result.put("size", size);
+        if (records.size() == size) {
+            result.put("nextAfterId", String.valueOf(records.get(records.size() - 1).getId()));
+        }
+        return result;
     }
     
     /**
@@ -139,65 +153,40 @@ public class UserAdminExtension implements ExtensionPoint {
             return Map.of("success", false, "message", "用户名不能为空");
         }
         
-        // 检查用户名是否已存在
-        for (Map<String, Object> user : users.values()) {
-            if (username.equals(user.get("username"))) {
-                return Map.of("success", false, "message", "用户名已存在");
-            }
+        UserRecord created = storage.create(username, email != null ? email : "", role != null ? role : "普通用户");
+        if (created == null) {
+            return Map.of("success", false, "message", "用户名已存在");
         }
-        
-        String id = String.valueOf(users.size() + 1);
-        Map<String, Object> newUser = new HashMap<>();
-        newUser.put("id", id);
-        newUser.put("username", username);
-        newUser.put("email", email != null ? email : "");
-        newUser.put("role", role != null ? role : "普通用户");
-        newUser.put("status", "ACTIVE");
-        newUser.put("createTime", new Date());
-        
-        users.put(id, newUser);
         logger.info("创建用户成功: {}", username);
         
-        return Map.of("success", true, "message", "用户创建成功", "data", newUser);
+        return Map.of("success", true, "message", "用户创建成功", "data", created.toMap());
     }
     
     /**
      * 更新用户
      */
     private Map<String, Object> updateUser(Map<String, Object> params) {
-        String id = (String) params.get("id");
-        if (id == null || !users.containsKey(id)) {
+        Long id = parseId(params.get("id"));
+        UserRecord updated = id == null ? null : storage.update(id, params);
+        if (updated == null) {
             return Map.of("success", false, "message", "用户不存在");
         }
         
-        Map<String, Object> user = users.get(id);
-        if (params.containsKey("email")) {
-            user.put("email", params.get("email"));
-        }
-        if (params.containsKey("role")) {
-            user.put("role", params.get("role"));
-        }
-        if (params.containsKey("status")) {
-            user.put("status", params.get("status"));
-        }
-        user.put("updateTime", new Date());
-        
-        logger.info("更新用户成功: {}", user.get("username"));
-        return Map.of("success", true, "message", "用户更新成功", "data", user);
+        logger.info("更新用户成功: {}", updated.getUsername());
+        return Map.of("success", true, "message", "用户更新成功", "data", updated.toMap());
     }
     
     /**
      * 删除用户
      */
     private Map<String, Object> deleteUser(Map<String, Object> params) {
-        String id = (String) params.get("id");
-        if (id == null || !users.containsKey(id)) {
+        Long id = parseId(params.get("id"));
+        UserRecord removed = id == null ? null : storage.delete(id);
+        if (removed == null) {
             return Map.of("success", false, "message", "用户不存在");
         }
         
-        Map<String, Object> user = users.remove(id);
-        logger.info("删除用户成功: {}", user.get("username"));
-        
+        logger.info("删除用户成功: {}", removed.getUsername());
         return Map.of("success", true, "message", "用户删除成功");
     }
     
@@ -205,12 +194,38 @@ public class UserAdminExtension implements ExtensionPoint {
      * 获取单个用户
      */
     private Map<String, Object> getUser(Map<String, Object> params) {
-        String id = (String) params.get("id");
-        if (id == null || !users.containsKey(id)) {
+        Long id = parseId(params.get("id"));
+        UserRecord user = id == null ? null : storage.get(id);
+        if (user == null) {
             return Map.of("success", false, "message", "用户不存在");
         }
         
-        Map<String, Object> user = users.get(id);
-        return Map.of("success", true, "data", user);
+        return Map.of("success", true, "data", user.toMap());
+    }
+    
+    private static Long parseId(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private static int intParam(Map<String, Object> params, String name, int defaultValue) {
+        Object value = params.get(name);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
     }
-}
\ No newline at end of file
+}
@@ -26,6 +26,8 @@ public class UserAdminPlugin extends Plugin {
     @Override
     public void stop() {
         logger.info("用户管理插件停止中... 插件ID: {}", getWrapper().getPluginId());
+        // 写回尚未持久化的用户修改
+        UserStorage.shutdown();
         logger.info("用户管理插件已停止！");
     }
     
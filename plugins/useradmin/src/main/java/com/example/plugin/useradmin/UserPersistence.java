@@ -0,0 +1,36 @@
+package com.example.plugin.useradmin;
+
+import java.util.List;
+
+/**
+ * 用户持久化方式
+ * 读取全部由内存工作集提供，持久化层只在启动时加载一次，之后接收新增和批量写回
+ */
+interface UserPersistence {
+
+    /**
+     * 存储方式名称，用于日志和统计
+     */
+    String getName();
+
+    /**
+     * 加载全部用户
+     */
+    List<UserRecord> loadAll();
+
+    /**
+     * 新增用户并分配ID，同步执行
+     *
+     * @param record 不带ID的记录
+     * @return 带ID的记录
+     */
+    UserRecord insert(UserRecord record);
+
+    /**
+     * 批量写回修改和删除
+     *
+     * @param upserts 修改后的记录
+     * @param deletes 删除的用户ID
+     */
+    void writeBatch(List<UserRecord> upserts, List<Long> deletes);
+}
@@ -0,0 +1,127 @@
+package com.example.plugin.useradmin;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 用户记录
+ * 不可变对象，修改时生成新记录整体替换，并发读取不会看到修改了一半的用户
+ */
+public final class UserRecord {
+
+    static final String STATUS_ACTIVE = "ACTIVE";
+    static final String STATUS_DISABLED = "DISABLED";
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long id;
+    private final String username;
+    private final String password;
+    private final String email;
+    private final String phone;
+    private final String role;
+    private final String status;
+    private final LocalDateTime createTime;
+    private final LocalDateTime updateTime;
+    private final String remark;
+
+    UserRecord(long id, String username, String password, String email, String phone, String role, String status,
+               LocalDateTime createTime, LocalDateTime updateTime, String remark) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.phone = phone;
+        this.role = role;
+        this.status = status;
+        this.createTime = createTime;
+        this.updateTime = updateTime;
+        this.remark = remark;
+    }
+
+    /**
+     * 生成带ID的新记录，用于持久化层分配ID之后
+     */
+    UserRecord withId(long newId) {
+        return new UserRecord(newId, username, password, email, phone, role, status, createTime, updateTime, remark);
+    }
+
+    /**
+     * 按参数修改邮箱、角色和状态，未提供的字段保持不变
+     */
+    UserRecord withChanges(Map<String, Object> params) {
+        return new UserRecord(id, username, password,
+                params.containsKey("email") ? (String) params.get("email") : email,
+                phone,
+                params.containsKey("role") ? (String) params.get("role") : role,
+                params.containsKey("status") ? (String) params.get("status") : status,
+                createTime, LocalDateTime.now(), remark);
+    }
+
+    /**
+     * 转换为接口返回的Map，不包含密码
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", String.valueOf(id));
+        map.put("username", username);
+        map.put("email", email != null ? email : "");
+        map.put("role", role);
+        map.put("status", status);
+        map.put("createTime", format(createTime));
+        if (updateTime != null) {
+            map.put("updateTime", format(updateTime));
+        }
+        return map;
+    }
+
+    static String format(LocalDateTime time) {
+        return time == null ? null : time.format(TIME_FORMATTER);
+    }
+
+    static LocalDateTime parse(Object value) {
+        return value == null ? null : LocalDateTime.parse(value.toString(), TIME_FORMATTER);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.plugin.useradmin;
+
+import com.example.pf4j.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户存储
+ * 全部用户常驻内存：按ID有序的跳表提供读取和分页，用户名索引保证用户名唯一，两者都可以并发访问。
+ * 新增同步写入持久化层；修改和删除只记入待写回表，同一用户的多次修改合并为一次，由后台线程按批次写回，
+ * 写回失败的记录保留到下次重试，期间更新的修改优先。
+ * 插件内所有扩展实例共享同一个存储，插件停止时写回剩余修改
+ */
+final class UserStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStorage.class);
+
+    /**
+     * 存储方式，-Duseradmin.storage=database 时使用宿主数据库，默认使用插件状态存储
+     */
+    static final String STORAGE_PROPERTY = "useradmin.storage";
+
+    private static final long FLUSH_INTERVAL_MS = 1000L;
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 用户名已占用但新增尚未完成的占位ID
+     */
+    private static final long RESERVED = -1L;
+
+    private static UserStorage instance;
+
+    private final UserPersistence persistence;
+    private final ConcurrentSkipListMap<Long, UserRecord> users = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> usernames = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * 用户ID -> 待写回的最新记录，删除时值为 {@link PendingWrite#DELETE}
+     */
+    private final ConcurrentHashMap<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    private UserStorage(UserPersistence persistence) {
+        this.persistence = persistence;
+        for (UserRecord record : persistence.loadAll()) {
+            users.put(record.getId(), record);
+            usernames.put(record.getUsername(), record.getId());
+        }
+        count.set(users.size());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "useradmin-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取插件的用户存储，首次调用时按配置创建并加载全部用户
+     *
+     * @param caller 调用方，用于确定插件状态存储的归属
+     */
+    static synchronized UserStorage getInstance(Object caller) {
+        if (instance == null) {
+            instance = new UserStorage(createPersistence(caller));
+            logger.info("用户存储已加载, 方式: {}, 用户数量: {}", instance.persistence.getName(), instance.size());
+        }
+        return instance;
+    }
+
+    /**
+     * 写回剩余修改并停止后台线程，插件停止时调用
+     */
+    static synchronized void shutdown() {
+        if (instance == null) {
+            return;
+        }
+        instance.flusher.shutdown();
+        try {
+            instance.flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        instance.flushQuietly();
+        if (!instance.pending.isEmpty()) {
+            logger.warn("用户存储关闭时仍有 {} 条修改未能写回", instance.pending.size());
+        }
+        instance = null;
+    }
+
+    private static UserPersistence createPersistence(Object caller) {
+        if ("database".equalsIgnoreCase(System.getProperty(STORAGE_PROPERTY))) {
+            if (DatabaseUtil.isAvailable()) {
+                return new DatabasePersistence();
+            }
+            logger.warn("宿主数据库扩展不可用，用户存储改用插件状态存储");
+        }
+        return new StateStorePersistence(caller);
+    }
+
+    String getStorageName() {
+        return persistence.getName();
+    }
+
+    int size() {
+        return count.get();
+    }
+
+    UserRecord get(long id) {
+        return users.get(id);
+    }
+
+    /**
+     * 按ID顺序分页读取，只遍历返回的这一页
+     *
+     * @param afterId 从该ID之后开始，为null时从第一个用户开始
+     * @param offset 跳过的用户数
+     * @param limit 最大条数
+     */
+    List<UserRecord> page(Long afterId, int offset, int limit) {
+        Iterator<UserRecord> iterator = (afterId == null ? users : users.tailMap(afterId, false)).values().iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        List<UserRecord> page = new ArrayList<>(Math.min(limit, 256));
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * 新增用户
+     *
+     * @return 新增的记录，用户名已存在时返回null
+     */
+    UserRecord create(String username, String email, String role) {
+        if (usernames.putIfAbsent(username, RESERVED) != null) {
+            return null;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            UserRecord record;
+            synchronized (persistence) {
+                record = persistence.insert(new UserRecord(0L, username, null, email, null, role,
+                        UserRecord.STATUS_ACTIVE, now, null, null));
+            }
+            users.put(record.getId(), record);
+            usernames.put(username, record.getId());
+            count.incrementAndGet();
+            return record;
+        } catch (RuntimeException e) {
+            usernames.remove(username, RESERVED);
+            throw e;
+        }
+    }
+
+    /**
+     * 修改用户，修改在内存中立即生效，随后写回
+     *
+     * @return 修改后的记录，用户不存在时返回null
+     */
+    UserRecord update(long id, Map<String, Object> params) {
+        UserRecord[] updated = new UserRecord[1];
+        // 在待写回表的同一个键上完成修改和登记，与同一用户的删除互斥，修改不会覆盖已登记的删除
+        pending.compute(id, (key, previous) -> {
+            updated[0] = users.computeIfPresent(id, (userId, current) -> current.withChanges(params));
+            return updated[0] != null ? new PendingWrite(updated[0]) : previous;
+        });
+        return updated[0];
+    }
+
+    /**
+     * 删除用户
+     *
+     * @return 被删除的记录，用户不存在时返回null
+     */
+    UserRecord delete(long id) {
+        UserRecord[] removed = new UserRecord[1];
+        pending.compute(id, (key, previous) -> {
+            removed[0] = users.remove(id);
+            return removed[0] != null ? PendingWrite.DELETE : previous;
+        });
+        if (removed[0] != null) {
+            count.decrementAndGet();
+            usernames.remove(removed[0].getUsername(), id);
+        }
+        return removed[0];
+    }
+
+    /**
+     * 写回待写回表中的修改，每批最多 BATCH_SIZE 个用户
+     */
+    synchronized void flush() {
+        while (!pending.isEmpty()) {
+            List<Long> ids = new ArrayList<>(Math.min(BATCH_SIZE, pending.size()));
+            for (Long id : pending.keySet()) {
+                ids.add(id);
+                if (ids.size() == BATCH_SIZE) {
+                    break;
+                }
+            }
+            Map<Long, PendingWrite> batch = new LinkedHashMap<>();
+            for (Long id : ids) {
+                PendingWrite write = pending.remove(id);
+                if (write != null) {
+                    batch.put(id, write);
+                }
+            }
+            List<UserRecord> upserts = new ArrayList<>();
+            List<Long> deletes = new ArrayList<>();
+            for (Map.Entry<Long, PendingWrite> entry : batch.entrySet()) {
+                if (entry.getValue() == PendingWrite.DELETE) {
+                    deletes.add(entry.getKey());
+                } else {
+                    upserts.add(entry.getValue().record);
+                }
+            }
+            try {
+                synchronized (persistence) {
+                    persistence.writeBatch(upserts, deletes);
+                }
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                // 放回待写回表，期间产生的新修改优先
+                batch.forEach(pending::putIfAbsent);
+                writeFailures.incrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("用户修改写回失败, 待写回: {}, 错误: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 获取存储统计
+     */
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("storage", persistence.getName());
+        stats.put("users", size());
+        stats.put("pendingWrites", pending.size());
+        stats.put("written", written.get());
+        stats.put("writeFailures", writeFailures.get());
+        return stats;
+    }
+
+    /**
+     * 待写回的修改
+     */
+    private static final class PendingWrite {
+        static final PendingWrite DELETE = new PendingWrite(null);
+
+        private final UserRecord record;
+
+        PendingWrite(UserRecord record) {
+            this.record = record;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * PF4J动态加载脚手架主启动类
@@ -13,6 +14,7 @@ import org.springframework.context.ConfigurableApplicationContext;
  * 支持插件的热加载、热卸载和动态管理
  */
 @SpringBootApplication(scanBasePackages = {"com.example.pf4j", "com.example.pf4jscaffold"})
+@EnableScheduling
 public class Pf4jScaffoldApplication {
     
     private static final Logger logger = LoggerFactory.getLogger(Pf4jScaffoldApplication.class);
@@ -0,0 +1,91 @@
+package com.example.pf4j.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 堆外缓存的值序列化器
+ * 缓存只在堆外保存序列化后的字节，读取时反序列化出新的对象，调用方修改返回的对象不会影响缓存内容
+ *
+ * @param <V> 值类型
+ */
+public interface CacheSerializer<V> {
+
+    byte[] serialize(V value);
+
+    V deserialize(byte[] bytes);
+
+    /**
+     * 原始字节，不做转换
+     */
+    static CacheSerializer<byte[]> bytes() {
+        return new CacheSerializer<byte[]>() {
+            @Override
+            public byte[] serialize(byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] deserialize(byte[] bytes) {
+                return bytes;
+            }
+        };
+    }
+
+    /**
+     * UTF-8 字符串
+     */
+    static CacheSerializer<String> string() {
+        return new CacheSerializer<String>() {
+            @Override
+            public byte[] serialize(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * JSON，适合 Map 树和普通的 Java Bean
+     */
+    static <T> CacheSerializer<T> json(ObjectMapper objectMapper, Class<T> type) {
+        return json(objectMapper, objectMapper.constructType(type));
+    }
+
+    /**
+     * JSON，泛型类型通过 TypeReference 指定，例如 {@code new TypeReference<Map<String, Object>>() {}}
+     */
+    static <T> CacheSerializer<T> json(ObjectMapper objectMapper, TypeReference<T> type) {
+        return json(objectMapper, objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private static <T> CacheSerializer<T> json(ObjectMapper objectMapper, JavaType type) {
+        return new CacheSerializer<T>() {
+            @Override
+            public byte[] serialize(T value) {
+                try {
+                    return objectMapper.writeValueAsBytes(value);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("缓存值序列化失败: " + e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public T deserialize(byte[] bytes) {
+                try {
+                    return objectMapper.readValue(bytes, type);
+                } catch (IOException e) {
+                    throw new IllegalStateException("缓存值反序列化失败: " + e.getMessage(), e);
+                }
+            }
+        };
+    }
+}
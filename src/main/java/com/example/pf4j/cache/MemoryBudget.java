@@ -0,0 +1,66 @@
+package com.example.pf4j.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 堆外内存预算
+ * 预算可以分层：插件预算的父级为全局预算，预留时逐级检查，任一级超限则整体失败并回滚
+ */
+public final class MemoryBudget {
+
+    private final String name;
+    private final long limit;
+    private final MemoryBudget parent;
+    private final AtomicLong reserved = new AtomicLong();
+
+    public MemoryBudget(String name, long limit, MemoryBudget parent) {
+        this.name = name;
+        this.limit = limit;
+        this.parent = parent;
+    }
+
+    /**
+     * 预留内存
+     *
+     * @param bytes 字节数
+     * @return 预算是否足够
+     */
+    public boolean tryReserve(long bytes) {
+        while (true) {
+            long current = reserved.get();
+            if (current + bytes > limit) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + bytes)) {
+                break;
+            }
+        }
+        if (parent != null && !parent.tryReserve(bytes)) {
+            reserved.addAndGet(-bytes);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 归还预留的内存
+     */
+    public void release(long bytes) {
+        reserved.addAndGet(-bytes);
+        if (parent != null) {
+            parent.release(bytes);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getReserved() {
+        return reserved.get();
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.pf4j.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 堆外缓存
+ * 值序列化后保存在直接内存的1MB页中，页按槽位大小（64B起，逐级翻倍到1MB）划分为不同的分级，
+ * 与 memcached 的 slab 分配方式相同：页同一时刻只属于一个分级，释放的槽位在分级内复用，不产生碎片。
+ * 堆上只保留键和槽位地址，GC 扫描的对象数与值的大小无关。
+ * 内存达到缓存上限或插件预算后，优先把完全空闲的页转给需要的分级；否则按全局访问顺序淘汰最久未访问的条目，
+ * 该条目不在目标分级时连同它所在页的其他条目一起淘汰，再把整页转给目标分级，避免值大小分布变化后某些分级永远分配不到内存。
+ * 单个值不能超过1MB。
+ * 所有操作在一把锁内完成，锁内只做索引维护和内存拷贝，序列化和反序列化都在锁外
+ *
+ * @param <V> 值类型
+ */
+public final class OffHeapCache<V> {
+
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int MIN_SLOT_SHIFT = 6;
+    private static final int CLASS_COUNT = 20 - MIN_SLOT_SHIFT + 1;
+
+    private final String name;
+    private final long maxBytes;
+    private final MemoryBudget budget;
+    private final CacheSerializer<V> serializer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final SlabClass[] classes = new SlabClass[CLASS_COUNT];
+    private final List<ByteBuffer> pages = new ArrayList<>();
+
+    /**
+     * 页号 -> 所属分级
+     */
+    private int[] pageClasses = new int[16];
+
+    /**
+     * 页号 -> 页内存活条目数
+     */
+    private int[] pageLiveSlots = new int[16];
+
+    /**
+     * 访问时钟，条目按最后访问的时钟值参与全局淘汰
+     */
+    private long clock;
+
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+    private long pageReassignments;
+    private long rejected;
+    private boolean closed;
+
+    /**
+     * @param name 缓存名称
+     * @param maxBytes 缓存自身的内存上限，按1MB页计算
+     * @param budget 所属的内存预算
+     * @param serializer 值序列化器
+     */
+    public OffHeapCache(String name, long maxBytes, MemoryBudget budget, CacheSerializer<V> serializer) {
+        if (maxBytes < PAGE_SIZE) {
+            throw new IllegalArgumentException("堆外缓存上限不能小于1MB: " + maxBytes);
+        }
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.budget = budget;
+        this.serializer = serializer;
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            classes[i] = new SlabClass(1 << (MIN_SLOT_SHIFT + i));
+        }
+    }
+
+    /**
+     * 读取缓存值
+     *
+     * @return 反序列化的新对象，不存在时返回null
+     */
+    public V get(String key) {
+        byte[] bytes = getBytes(key);
+        return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    /**
+     * 读取缓存值，不存在时通过loader加载并放入缓存
+     * 并发请求同一个不存在的键时loader可能被调用多次
+     */
+    public V get(String key, Function<String, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private byte[] getBytes(String key) {
+        lock.lock();
+        try {
+            Entry entry = closed ? null : entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            SlabClass slabClass = classes[entry.slabClass];
+            slabClass.unlink(entry);
+            slabClass.linkFirst(entry);
+            entry.lastAccess = ++clock;
+            byte[] bytes = new byte[entry.length];
+            ByteBuffer page = pages.get((int) (entry.address >>> 32)).duplicate();
+            page.position((int) entry.address);
+            page.get(bytes);
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 放入缓存，覆盖已有的值
+     *
+     * @return 是否已缓存；值超过1MB，或内存不足且没有可淘汰的条目时返回false，此时已有的值保持不变
+     */
+    public boolean put(String key, V value) {
+        byte[] bytes = serializer.serialize(value);
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (bytes.length > PAGE_SIZE) {
+                rejected++;
+                return false;
+            }
+            int slabClass = classFor(bytes.length);
+            long address = allocate(slabClass);
+            if (address < 0) {
+                rejected++;
+                return false;
+            }
+            // 新槽位分配成功后才释放旧值；分配过程中旧值可能已被淘汰，以索引中的当前条目为准
+            Entry existing = entries.remove(key);
+            if (existing != null) {
+                free(existing);
+            }
+            ByteBuffer page = pages.get((int) (address >>> 32)).duplicate();
+            page.position((int) address);
+            page.put(bytes);
+            Entry entry = new Entry(key, slabClass, address, bytes.length);
+            entry.lastAccess = ++clock;
+            classes[slabClass].linkFirst(entry);
+            pageLiveSlots[(int) (address >>> 32)]++;
+            entries.put(key, entry);
+            usedBytes += bytes.length;
+            puts++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 移除缓存值
+     *
+     * @return 键是否存在
+     */
+    public boolean remove(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            free(entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean containsKey(String key) {
+        lock.lock();
+        try {
+            return entries.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清空所有条目，已分配的页保留给后续写入
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (Entry entry : entries.values()) {
+                classes[entry.slabClass].unlink(entry);
+                classes[entry.slabClass].free.push(entry.address);
+            }
+            entries.clear();
+            Arrays.fill(pageLiveSlots, 0);
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭缓存并归还内存预算
+     * 直接内存在页缓冲区被GC回收时才真正释放
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            entries.clear();
+            budget.release((long) pages.size() * PAGE_SIZE);
+            pages.clear();
+            for (int i = 0; i < CLASS_COUNT; i++) {
+                classes[i] = new SlabClass(classes[i].slotSize);
+            }
+            Arrays.fill(pageLiveSlots, 0);
+            usedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 为分级分配一个槽位：先复用空闲槽位，其次申请新页，再接管其他分级完全空闲的页，
+     * 最后按全局访问顺序淘汰最久未访问的条目
+     *
+     * @return 槽位地址（页号在高32位，页内偏移在低32位），无法分配时返回-1
+     */
+    private long allocate(int slabClassIndex) {
+        SlabClass slabClass = classes[slabClassIndex];
+        if (!slabClass.free.isEmpty()) {
+            return slabClass.free.pop();
+        }
+        if ((long) (pages.size() + 1) * PAGE_SIZE <= maxBytes && budget.tryReserve(PAGE_SIZE)) {
+            ByteBuffer page;
+            try {
+                page = ByteBuffer.allocateDirect(PAGE_SIZE);
+            } catch (OutOfMemoryError e) {
+                // 直接内存达到 -XX:MaxDirectMemorySize，按预算不足处理
+                budget.release(PAGE_SIZE);
+                page = null;
+            }
+            if (page != null) {
+                int pageIndex = pages.size();
+                pages.add(page);
+                if (pageIndex == pageClasses.length) {
+                    pageClasses = Arrays.copyOf(pageClasses, pageIndex * 2);
+                    pageLiveSlots = Arrays.copyOf(pageLiveSlots, pageIndex * 2);
+                }
+                assignPage(pageIndex, slabClassIndex);
+                return slabClass.free.pop();
+            }
+        }
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            if (pageLiveSlots[pageIndex] == 0 && pageClasses[pageIndex] != slabClassIndex) {
+                reassignPage(pageIndex, slabClassIndex);
+                return slabClass.free.pop();
+            }
+        }
+        Entry victim = null;
+        for (SlabClass candidate : classes) {
+            if (candidate.tail != null && (victim == null || candidate.tail.lastAccess < victim.lastAccess)) {
+                victim = candidate.tail;
+            }
+        }
+        if (victim == null) {
+            return -1L;
+        }
+        if (victim.slabClass == slabClassIndex) {
+            evict(victim);
+            return slabClass.free.pop();
+        }
+        // 最久未访问的条目在其他分级：清空它所在的页并整页转给目标分级
+        int pageIndex = (int) (victim.address >>> 32);
+        Entry entry = classes[victim.slabClass].head;
+        while (entry != null) {
+            Entry next = entry.next;
+            if ((int) (entry.address >>> 32) == pageIndex) {
+                evict(entry);
+            }
+            entry = next;
+        }
+        reassignPage(pageIndex, slabClassIndex);
+        return slabClass.free.pop();
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.key);
+        free(entry);
+        evictions++;
+    }
+
+    /**
+     * 把没有存活条目的页从原分级转给目标分级
+     */
+    private void reassignPage(int pageIndex, int slabClassIndex) {
+        SlabClass donor = classes[pageClasses[pageIndex]];
+        donor.free.removeIf(address -> (int) (address >>> 32) == pageIndex);
+        donor.pages--;
+        pageReassignments++;
+        assignPage(pageIndex, slabClassIndex);
+    }
+
+    private void assignPage(int pageIndex, int slabClassIndex) {
+        SlabClass slabClass = classes[slabClassIndex];
+        pageClasses[pageIndex] = slabClassIndex;
+        slabClass.pages++;
+        for (int offset = PAGE_SIZE - slabClass.slotSize; offset >= 0; offset -= slabClass.slotSize) {
+            slabClass.free.push(((long) pageIndex << 32) | offset);
+        }
+    }
+
+    private void free(Entry entry) {
+        SlabClass slabClass = classes[entry.slabClass];
+        slabClass.unlink(entry);
+        slabClass.free.push(entry.address);
+        pageLiveSlots[(int) (entry.address >>> 32)]--;
+        usedBytes -= entry.length;
+    }
+
+    private static int classFor(int length) {
+        int shift = length <= 1 << MIN_SLOT_SHIFT ? MIN_SLOT_SHIFT : 32 - Integer.numberOfLeadingZeros(length - 1);
+        return shift - MIN_SLOT_SHIFT;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", name);
+            stats.put("entries", entries.size());
+            stats.put("maxBytes", maxBytes);
+            stats.put("allocatedBytes", (long) pages.size() * PAGE_SIZE);
+            stats.put("usedBytes", usedBytes);
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+            stats.put("hitRate", hits + misses > 0 ? Math.round(hits * 1000.0 / (hits + misses)) / 10.0 : 0.0);
+            stats.put("puts", puts);
+            stats.put("evictions", evictions);
+            stats.put("pageReassignments", pageReassignments);
+            stats.put("rejected", rejected);
+            List<Map<String, Object>> slabs = new ArrayList<>();
+            for (SlabClass slabClass : classes) {
+                if (slabClass.pages == 0) {
+                    continue;
+                }
+                Map<String, Object> slab = new LinkedHashMap<>();
+                slab.put("slotSize", slabClass.slotSize);
+                slab.put("pages", slabClass.pages);
+                slab.put("freeSlots", slabClass.free.size);
+                slabs.add(slab);
+            }
+            stats.put("slabs", slabs);
+            stats.put("closed", closed);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 缓存条目的堆上索引，值在堆外
+     */
+    private static final class Entry {
+        private final String key;
+        private final int slabClass;
+        private final long address;
+        private final int length;
+        private long lastAccess;
+        private Entry prev;
+        private Entry next;
+
+        Entry(String key, int slabClass, long address, int length) {
+            this.key = key;
+            this.slabClass = slabClass;
+            this.address = address;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 同一槽位大小的页、空闲槽位和按访问顺序排列的条目链表（头部最近访问）
+     */
+    private static final class SlabClass {
+        private final int slotSize;
+        private final LongStack free = new LongStack();
+        private Entry head;
+        private Entry tail;
+        private int pages;
+
+        SlabClass(int slotSize) {
+            this.slotSize = slotSize;
+        }
+
+        void linkFirst(Entry entry) {
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+            if (tail == null) {
+                tail = entry;
+            }
+        }
+
+        void unlink(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    /**
+     * 空闲槽位地址栈，避免装箱
+     */
+    private static final class LongStack {
+        private long[] values = new long[16];
+        private int size;
+
+        void push(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * 原地删除满足条件的地址
+         */
+        void removeIf(LongPredicate predicate) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!predicate.test(values[i])) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
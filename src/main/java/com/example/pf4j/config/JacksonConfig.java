@@ -0,0 +1,26 @@
+package com.example.pf4j.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson配置类
+ * Module类型的Bean会被Spring Boot自动注册到全局ObjectMapper
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * 注册Blackbird模块
+     * 为ApiResponse等POJO生成直接调用的属性访问器，减少序列化时的反射开销。
+     * 插件类由插件类加载器加载，无法生成访问器时Blackbird会自动回退到反射
+     */
+    @Bean
+    @ConditionalOnProperty(name = "pf4j.jackson.blackbird.enabled", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.pf4j.config;
 
+import com.example.pf4j.plugin.loader.AccountingPluginManager;
 import com.example.pf4j.util.DatabaseUtil;
 import org.pf4j.DefaultPluginManager;
 import org.pf4j.PluginManager;
@@ -28,8 +29,8 @@ public class PluginManagerConfig {
      */
     @Bean
     public PluginManager pluginManager() {
-        // 创建默认插件管理器
-        DefaultPluginManager pluginManager = new DefaultPluginManager(Paths.get(pluginPath));
+        // 创建插件管理器，使用带内存统计的插件类加载器
+        DefaultPluginManager pluginManager = new AccountingPluginManager(Paths.get(pluginPath));
         
         // 设置系统版本
         pluginManager.setSystemVersion("1.0.0");
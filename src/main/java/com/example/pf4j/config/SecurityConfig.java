@@ -1,9 +1,15 @@
 package com.example.pf4j.config;
 
+import com.example.pf4j.security.ApiTokenAuthenticationFilter;
+import com.example.pf4j.service.ApiTokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -11,6 +17,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 /**
@@ -44,10 +51,41 @@ public class SecurityConfig {
         return new InMemoryUserDetailsManager(admin);
     }
 
+    /**
+     * 暴露认证管理器，供令牌签发接口校验用户名密码
+     */
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
+        return configuration.getAuthenticationManager();
+    }
+
+    /**
+     * 配置API的无状态安全规则
+     * API客户端使用Bearer令牌或API Key认证，不创建会话；
+     * 已登录的控制台页面仍可以沿用现有会话调用API
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, ApiTokenService tokenService) throws Exception {
+        http
+            .requestMatcher(new AntPathRequestMatcher("/api/**"))
+            .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+            .addFilterBefore(new ApiTokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.NEVER))
+            // 只读取已有会话中的认证信息，令牌认证的结果不会写回会话
+            .securityContext(context -> context.requireExplicitSave(true))
+            .requestCache(cache -> cache.disable())
+            .csrf(csrf -> csrf.disable())
+            .headers(headers -> headers.frameOptions().sameOrigin());
+
+        return http.build();
+    }
+
     /**
      * 配置HTTP安全规则
      */
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             // 配置授权规则
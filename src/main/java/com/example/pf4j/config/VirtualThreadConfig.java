@@ -0,0 +1,51 @@
+package com.example.pf4j.config;
+
+import com.example.pf4j.util.VirtualThreads;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 虚拟线程配置类
+ * 开启 pf4j.virtual-threads.enabled 且运行在JDK 21+时，Tomcat为每个请求创建一个虚拟线程，
+ * 插件中的JDBC等阻塞调用不再占用平台线程；低版本JDK上保持原有的平台线程池，行为不变
+ */
+@Configuration
+@ConditionalOnProperty(name = "pf4j.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Value("${pf4j.virtual-threads.trace-pinned:short}")
+    private String tracePinned;
+
+    @PostConstruct
+    public void init() {
+        if (!VirtualThreads.isSupported()) {
+            logger.warn("已配置虚拟线程，但当前JDK版本 {} 不支持，继续使用平台线程池", Runtime.version());
+            return;
+        }
+        // 必须在创建第一个虚拟线程之前设置
+        VirtualThreads.tracePinnedThreads(tracePinned);
+    }
+
+    /**
+     * 用每个请求一个虚拟线程的执行器替换Tomcat的工作线程池
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (VirtualThreads.isSupported()) {
+                protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-vt-"));
+                logger.info("Tomcat请求处理已切换为虚拟线程");
+            }
+        };
+    }
+}
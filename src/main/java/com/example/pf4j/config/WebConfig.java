@@ -1,11 +1,22 @@
 package com.example.pf4j.config;
 
+import com.example.pf4j.interceptor.PluginPermissionInterceptor;
+import com.example.pf4j.interceptor.RateLimitInterceptor;
 import com.example.pf4j.interceptor.SecurityInterceptor;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web配置类
  * 配置拦截器和其他Web相关设置
@@ -16,6 +27,15 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private SecurityInterceptor securityInterceptor;
 
+    @Autowired
+    private PluginPermissionInterceptor pluginPermissionInterceptor;
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
     /**
      * 注册拦截器
      */
@@ -24,5 +44,27 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addInterceptor(securityInterceptor)
                 .addPathPatterns("/api/admin/**") // 只拦截需要管理员权限的API
                 .excludePathPatterns("/login", "/logout", "/css/**", "/js/**", "/images/**", "/api/**", "/database/api/**", "/actuator/**");
+
+        // 插件调用的细粒度授权，由 pf4j.security.plugin-policy.enabled 开启
+        registry.addInterceptor(pluginPermissionInterceptor)
+                .addPathPatterns("/api/plugins/method/**", "/api/plugins/execute/**", "/api/plugins/stream/**", "/api/plugins/ingest/**", "/api-docs/call/**");
+
+        // 插件调用限流，先授权再计入限流
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/plugins/method/**", "/api/plugins/execute/**", "/api/plugins/stream/**", "/api/plugins/ingest/**", "/api-docs/call/**");
+    }
+
+    /**
+     * 注册CBOR和Smile消息转换器
+     * 追加在JSON转换器之后，只有请求明确声明 Accept 或 Content-Type 为 application/cbor、
+     * application/x-jackson-smile 时才会使用，默认仍返回JSON。
+     * 二进制格式沿用全局ObjectMapper的模块和日期配置
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
     }
-}
\ No newline at end of file
+}
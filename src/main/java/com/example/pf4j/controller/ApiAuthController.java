@@ -0,0 +1,61 @@
+package com.example.pf4j.controller;
+
+import com.example.pf4j.service.ApiTokenService;
+import com.example.pf4jscaffold.common.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * API认证控制器
+ * 为API客户端签发无状态访问令牌
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class ApiAuthController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiAuthController.class);
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private ApiTokenService tokenService;
+
+    /**
+     * 使用用户名和密码换取访问令牌
+     * 令牌在有效期内通过 Authorization: Bearer 请求头使用，无需再次校验密码
+     *
+     * @param credentials 包含username和password
+     * @return 访问令牌
+     */
+    @PostMapping("/token")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> issueToken(@RequestBody Map<String, String> credentials) {
+        String username = credentials.get("username");
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, credentials.get("password")));
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("accessToken", tokenService.issueToken(authentication));
+            data.put("tokenType", "Bearer");
+            data.put("expiresIn", tokenService.getTtlSeconds());
+            logger.info("签发API令牌: {}", username);
+            return ResponseEntity.ok(ApiResponse.success(data));
+        } catch (AuthenticationException e) {
+            logger.warn("API令牌签发失败: {}, 错误: {}", username, e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.custom(401, "用户名或密码错误", null));
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.pf4j.controller;
 
 import com.example.pf4j.plugin.PluginInterface;
+import com.example.pf4j.plugin.index.ExtensionManifest.MethodInfo;
+import com.example.pf4j.plugin.index.ExtensionManifest.ParameterInfo;
+import com.example.pf4j.service.ExtensionIndexService;
+import com.example.pf4j.service.ExtensionIndexService.IndexedExtension;
+import com.example.pf4j.service.PluginLifecycleTracker;
 import com.example.pf4j.service.PluginService;
+import com.example.pf4j.util.JsonSnapshot;
 import com.example.pf4jscaffold.common.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.*;
@@ -26,17 +36,42 @@ public class ApiDocController {
     @Autowired
     private PluginService pluginService;
     
+    @Autowired
+    private ExtensionIndexService extensionIndexService;
+    
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * 系统API列表，内容固定，只构建一次
+     */
+    private static final List<Map<String, Object>> SYSTEM_APIS = Collections.unmodifiableList(buildSystemApis());
+    
+    /**
+     * 应用启动标识，加入页面ETag，保证升级后模板变化能被浏览器感知
+     */
+    private static final String STARTUP_TAG = Long.toHexString(System.currentTimeMillis());
+    
+    /**
+     * 当前插件版本对应的文档模型
+     */
+    private volatile ApiDocModel docModel;
+    
     /**
      * 显示API文档页面
      */
     @GetMapping
-    public String apiDocsPage(Model model) {
-        // 获取所有插件信息
-        List<PluginInterface> plugins = pluginService.getAllPlugins();
-        List<Map<String, Object>> pluginDocs = generatePluginDocs(plugins);
+    public String apiDocsPage(Model model, WebRequest webRequest) {
+        ApiDocModel doc = getDocModel();
+        if (webRequest.checkNotModified(doc.pageEtag)) {
+            return null;
+        }
         
-        model.addAttribute("plugins", pluginDocs);
-        model.addAttribute("systemApis", getSystemApis());
+        model.addAttribute("plugins", doc.pluginDocs);
+        model.addAttribute("systemApis", SYSTEM_APIS);
         
         return "api-docs";
     }
@@ -45,19 +80,48 @@ public class ApiDocController {
     
     /**
      * 获取插件API文档数据
+     * 返回预序列化的JSON，客户端携带匹配的If-None-Match时返回304
      */
     @GetMapping("/data")
     @ResponseBody
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getApiDocsData() {
+    public ResponseEntity<byte[]> getApiDocsData(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+        return getDocModel().snapshot.toResponse(ifNoneMatch, request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+    
+    /**
+     * 获取文档模型，插件集合版本变化后重新生成
+     */
+    private ApiDocModel getDocModel() {
+        long version = lifecycleTracker.getVersion();
+        ApiDocModel doc = docModel;
+        if (doc == null || doc.version != version) {
+            synchronized (this) {
+                doc = docModel;
+                if (doc == null || doc.version != version) {
+                    doc = buildDocModel(version);
+                    docModel = doc;
+                }
+            }
+        }
+        return doc;
+    }
+    
+    /**
+     * 生成文档模型并序列化为JSON
+     */
+    private ApiDocModel buildDocModel(long version) {
         List<PluginInterface> plugins = pluginService.getAllPlugins();
-        List<Map<String, Object>> pluginDocs = generatePluginDocs(plugins);
+        List<Map<String, Object>> pluginDocs = Collections.unmodifiableList(generatePluginDocs(plugins));
         
         Map<String, Object> data = new HashMap<>();
         data.put("plugins", pluginDocs);
-        data.put("systemApis", getSystemApis());
+        data.put("systemApis", SYSTEM_APIS);
         data.put("count", pluginDocs.size());
         
-        return ResponseEntity.ok(ApiResponse.success(data));
+        JsonSnapshot snapshot = JsonSnapshot.of(objectMapper, ApiResponse.success(data));
+        return new ApiDocModel(version, pluginDocs, snapshot);
     }
     
     /**
@@ -111,6 +175,30 @@ public class ApiDocController {
     private List<Map<String, Object>> analyzePluginMethods(PluginInterface plugin) {
         List<Map<String, Object>> methods = new ArrayList<>();
         
+        // 插件提供了扩展清单时直接使用清单中的方法签名
+        IndexedExtension indexed = extensionIndexService.findByClassName(plugin.getClass().getName());
+        if (indexed != null) {
+            for (MethodInfo method : indexed.getInfo().getMethods()) {
+                if (isPluginMethodName(method.getName())) {
+                    Map<String, Object> methodInfo = new HashMap<>();
+                    methodInfo.put("name", method.getName());
+                    methodInfo.put("returnType", method.getReturnType());
+                    
+                    List<Map<String, String>> parameters = new ArrayList<>();
+                    for (ParameterInfo param : method.getParameters()) {
+                        Map<String, String> paramInfo = new HashMap<>();
+                        paramInfo.put("name", param.getName());
+                        paramInfo.put("type", param.getType());
+                        parameters.add(paramInfo);
+                    }
+                    methodInfo.put("parameters", parameters);
+                    
+                    methods.add(methodInfo);
+                }
+            }
+            return methods;
+        }
+        
         Class<?> pluginClass = plugin.getClass();
         Method[] allMethods = pluginClass.getMethods();
         
@@ -151,6 +239,13 @@ public class ApiDocController {
             return false;
         }
         
+        return isPluginMethodName(methodName);
+    }
+    
+    /**
+     * 按方法名判断是否为插件自定义方法
+     */
+    private boolean isPluginMethodName(String methodName) {
         // 排除PluginInterface的默认方法
         if (methodName.equals("initialize") || methodName.equals("destroy")) {
             return false;
@@ -165,15 +260,16 @@ public class ApiDocController {
     }
     
     /**
-     * 获取系统API列表
+     * 构建系统API列表
      */
-    private List<Map<String, Object>> getSystemApis() {
+    private static List<Map<String, Object>> buildSystemApis() {
         List<Map<String, Object>> systemApis = new ArrayList<>();
         
         // 插件管理API
         systemApis.add(createApiDoc("GET", "/api/plugins", "获取所有插件列表", "获取系统中所有已加载的插件信息"));
         systemApis.add(createApiDoc("GET", "/api/plugins/info", "获取插件详细信息", "获取所有插件的详细状态信息"));
         systemApis.add(createApiDoc("POST", "/api/plugins/execute/{pluginName}", "执行插件", "执行指定名称的插件"));
+        systemApis.add(createApiDoc("POST", "/api/plugins/ingest/{pluginName}", "流式输入执行插件", "请求体不绑定为对象，由插件逐个元素读取，适合大数组和NDJSON"));
         systemApis.add(createApiDoc("POST", "/api/plugins/start/{pluginId}", "启动插件", "启动指定ID的插件"));
         systemApis.add(createApiDoc("POST", "/api/plugins/stop/{pluginId}", "停止插件", "停止指定ID的插件"));
         systemApis.add(createApiDoc("POST", "/api/plugins/reload", "重新加载插件", "重新加载所有插件"));
@@ -192,7 +288,7 @@ public class ApiDocController {
     /**
      * 创建API文档条目
      */
-    private Map<String, Object> createApiDoc(String method, String path, String name, String description) {
+    private static Map<String, Object> createApiDoc(String method, String path, String name, String description) {
         Map<String, Object> api = new HashMap<>();
         api.put("method", method);
         api.put("path", path);
@@ -200,4 +296,22 @@ public class ApiDocController {
         api.put("description", description);
         return api;
     }
+    
+    /**
+     * 文档模型缓存
+     */
+    private static final class ApiDocModel {
+        private final long version;
+        private final List<Map<String, Object>> pluginDocs;
+        private final JsonSnapshot snapshot;
+        private final String pageEtag;
+        
+        ApiDocModel(long version, List<Map<String, Object>> pluginDocs, JsonSnapshot snapshot) {
+            this.version = version;
+            this.pluginDocs = pluginDocs;
+            this.snapshot = snapshot;
+            String etag = snapshot.getEtag();
+            this.pageEtag = etag.substring(0, etag.length() - 1) + "-" + STARTUP_TAG + "\"";
+        }
+    }
 }
\ No newline at end of file
@@ -1,12 +1,20 @@
 package com.example.pf4j.controller;
 
 import com.example.pf4j.plugin.PluginInterface;
+import com.example.pf4j.service.PluginIngestService;
 import com.example.pf4j.service.PluginService;
+import com.example.pf4j.service.PluginStreamService;
 import com.example.pf4jscaffold.common.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +32,12 @@ public class PluginController {
     @Autowired
     private PluginService pluginService;
     
+    @Autowired
+    private PluginStreamService pluginStreamService;
+    
+    @Autowired
+    private PluginIngestService pluginIngestService;
+    
     /**
      * 获取所有插件列表
      * @return 插件列表
@@ -78,6 +92,37 @@ public class PluginController {
         return ResponseEntity.ok(ApiResponse.success(data));
     }
     
+    /**
+     * 以流式输入执行插件
+     * 请求体本身就是输入（不需要包在input字段中），不绑定为 Map/List，由插件从解析器逐个元素读取。
+     * 支持JSON数组、NDJSON，以及 application/cbor、application/x-jackson-smile
+     * @param pluginName 插件名称，插件需实现 StreamingInputPluginInterface
+     * @param request HTTP请求，读取其请求体
+     * @return 执行结果
+     * @throws IOException 无法读取请求体
+     */
+    @PostMapping("/ingest/{pluginName}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> ingestPlugin(
+            @PathVariable String pluginName,
+            HttpServletRequest request) throws IOException {
+        Object result = pluginIngestService.ingest(pluginName, request.getInputStream(), request.getContentType());
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("pluginName", pluginName);
+        data.put("result", result);
+        
+        return ResponseEntity.ok(ApiResponse.success(data));
+    }
+    
+    /**
+     * 获取所有支持流式输入的插件名称
+     * @return 插件名称列表
+     */
+    @GetMapping("/ingests")
+    public ResponseEntity<ApiResponse<List<String>>> getIngestPlugins() {
+        return ResponseEntity.ok(ApiResponse.success(pluginIngestService.getIngestPluginNames()));
+    }
+    
     /**
      * 启动插件
      * @param pluginId 插件ID
@@ -145,4 +190,61 @@ public class PluginController {
         Map<String, Object> stats = pluginService.getPluginStats();
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
-}
\ No newline at end of file
+    
+    /**
+     * 获取所有流式插件
+     * @return 流式插件名称列表
+     */
+    @GetMapping("/streams")
+    public ResponseEntity<ApiResponse<List<String>>> getStreamingPlugins() {
+        return ResponseEntity.ok(ApiResponse.success(pluginStreamService.getStreamingPluginNames()));
+    }
+    
+    /**
+     * 流式执行插件，以NDJSON格式逐行返回结果
+     * 输入参数可以放在请求体的input字段中，也可以通过input查询参数传递
+     * @param pluginName 插件名称
+     * @param input 查询参数中的输入
+     * @param requestBody 请求体，包含输入参数
+     * @return NDJSON响应
+     */
+    @RequestMapping(value = "/stream/{pluginName}", method = {RequestMethod.GET, RequestMethod.POST},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamPlugin(
+            @PathVariable String pluginName,
+            @RequestParam(value = "input", required = false) String input,
+            @RequestBody(required = false) Map<String, Object> requestBody) {
+        ResponseBodyEmitter emitter = pluginStreamService.streamNdjson(pluginName, resolveInput(input, requestBody));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .cacheControl(CacheControl.noStore())
+                // 禁止反向代理缓冲，保证第一条记录立即到达客户端
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+    
+    /**
+     * 流式执行插件，以SSE事件逐条返回结果
+     * 每个结果一个data事件，结束时发送complete事件，出错时发送error事件
+     * @param pluginName 插件名称
+     * @param input 查询参数中的输入
+     * @param requestBody 请求体，包含输入参数
+     * @return SSE连接
+     */
+    @RequestMapping(value = "/stream/{pluginName}", method = {RequestMethod.GET, RequestMethod.POST},
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPluginEvents(
+            @PathVariable String pluginName,
+            @RequestParam(value = "input", required = false) String input,
+            @RequestBody(required = false) Map<String, Object> requestBody) {
+        SseEmitter emitter = pluginStreamService.streamSse(pluginName, resolveInput(input, requestBody));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+    
+    private static Object resolveInput(String input, Map<String, Object> requestBody) {
+        return requestBody != null ? requestBody.get("input") : input;
+    }
+}
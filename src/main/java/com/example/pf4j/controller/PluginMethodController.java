@@ -1,19 +1,25 @@
 package com.example.pf4j.controller;
 
+import com.example.pf4j.service.PluginIngestService;
 import com.example.pf4j.service.PluginMethodService;
+import com.example.pf4j.util.JsonSnapshot;
 import com.example.pf4jscaffold.common.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Map;
 
 /**
  * 插件方法调用控制器
  * 支持动态调用插件中的指定方法
  * 调用格式: /api/plugins/method/{pluginName}/{methodName}
+ * 大输入使用 /api/plugins/method/{pluginName}/{methodName}/ingest，请求体以流式输入交给只有一个 JsonInput 参数的方法
  */
 @RestController
 @RequestMapping("/api/plugins/method")
@@ -24,6 +30,9 @@ public class PluginMethodController {
     @Autowired
     private PluginMethodService pluginMethodService;
     
+    @Autowired
+    private PluginIngestService pluginIngestService;
+    
     /**
      * 执行插件的指定方法
      * 
@@ -83,20 +92,51 @@ public class PluginMethodController {
     }
     
     /**
-     * 获取插件的所有可调用方法
+     * 以流式输入执行插件方法
+     * 请求体不绑定为参数映射，直接作为 JsonInput 交给方法读取，支持JSON、NDJSON、CBOR和Smile
      * 
      * @param pluginName 插件名称
-     * @return 方法列表
+     * @param methodName 方法名称，方法必须只有一个 JsonInput 参数
+     * @param request HTTP请求，读取其请求体
+     * @return 方法执行结果
      */
-    @GetMapping("/{pluginName}/methods")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getPluginMethods(@PathVariable String pluginName) {
+    @PostMapping("/{pluginName}/{methodName}/ingest")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> ingestPluginMethod(
+            @PathVariable String pluginName,
+            @PathVariable String methodName,
+            HttpServletRequest request) {
+        
+        logger.info("以流式输入执行插件方法调用: {}#{}", pluginName, methodName);
+        
         try {
-            Map<String, Object> methods = pluginMethodService.getPluginMethods(pluginName);
+            Object result = pluginIngestService.ingestMethod(pluginName, methodName,
+                    request.getInputStream(), request.getContentType());
             Map<String, Object> data = Map.of(
                 "plugin", pluginName,
-                "methods", methods
+                "method", methodName,
+                "result", result
             );
             return ResponseEntity.ok(ApiResponse.success(data));
+        } catch (Exception e) {
+            logger.error("插件方法执行失败(流式输入): {}#{}, 错误: {}", pluginName, methodName, e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error("插件方法执行失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 获取插件的所有可调用方法
+     * 返回预序列化的方法目录，支持If-None-Match和If-Modified-Since条件请求
+     * 
+     * @param pluginName 插件名称
+     * @return 方法列表
+     */
+    @GetMapping("/{pluginName}/methods")
+    public ResponseEntity<?> getPluginMethods(@PathVariable String pluginName,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                              WebRequest request) {
+        try {
+            JsonSnapshot snapshot = pluginMethodService.getPluginMethodsSnapshot(pluginName);
+            return snapshot.toResponse(ifNoneMatch, request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE));
         } catch (Exception e) {
             logger.error("获取插件方法列表失败: {}, 错误: {}", pluginName, e.getMessage());
             return ResponseEntity.badRequest().body(ApiResponse.error("获取插件方法列表失败: " + e.getMessage()));
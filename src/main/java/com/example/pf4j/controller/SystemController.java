@@ -1,11 +1,29 @@
 package com.example.pf4j.controller;
 
+import com.example.pf4j.service.AuthService;
+import com.example.pf4j.scheduler.JobHandle;
+import com.example.pf4j.entity.JobExecutionHistory;
+import com.example.pf4j.service.ConsoleStreamService;
+import com.example.pf4j.service.JobHistoryService;
+import com.example.pf4j.service.PermissionMatrixService;
+import com.example.pf4j.service.PluginCacheService;
+import com.example.pf4j.service.PluginEventLogService;
+import com.example.pf4j.service.PluginSchedulerService;
+import com.example.pf4j.service.PluginStateService;
+import com.example.pf4j.service.RateLimitService;
+import com.example.pf4j.service.SystemTelemetryCollector;
+import com.example.pf4j.service.SystemTelemetrySnapshot;
 import com.example.pf4jscaffold.common.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -20,48 +38,209 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class SystemController {
     
+    @Autowired
+    private SystemTelemetryCollector telemetryCollector;
+    
+    @Autowired
+    private ConsoleStreamService consoleStreamService;
+    
+    @Autowired
+    private RateLimitService rateLimitService;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private PluginSchedulerService schedulerService;
+    
+    @Autowired
+    private JobHistoryService jobHistoryService;
+    
+    @Autowired
+    private PluginEventLogService eventLogService;
+    
+    @Autowired
+    private PluginStateService stateService;
+    
+    @Autowired
+    private PluginCacheService cacheService;
+    
+    @Autowired
+    private PermissionMatrixService permissionMatrixService;
+    
     /**
      * 获取系统状态
+     * 返回后台采集的最新快照，支持条件请求
      * @return 系统状态信息
      */
     @GetMapping("/status")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getSystemStatus() {
-        Map<String, Object> status = new HashMap<>();
-        status.put("status", "running");
-        status.put("timestamp", LocalDateTime.now());
-        status.put("version", "1.0.0");
-        status.put("framework", "PF4J Dynamic Loading Scaffold");
-        
-        // 获取JVM信息
-        Runtime runtime = Runtime.getRuntime();
-        Map<String, Object> jvmInfo = new HashMap<>();
-        jvmInfo.put("totalMemory", runtime.totalMemory());
-        jvmInfo.put("freeMemory", runtime.freeMemory());
-        jvmInfo.put("usedMemory", runtime.totalMemory() - runtime.freeMemory());
-        jvmInfo.put("maxMemory", runtime.maxMemory());
-        jvmInfo.put("processors", runtime.availableProcessors());
-        
-        status.put("jvm", jvmInfo);
-        
-        return ResponseEntity.ok(ApiResponse.success(status));
+    public ResponseEntity<byte[]> getSystemStatus(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                  WebRequest request) {
+        return telemetryCollector.getSnapshot().getStatusResponse()
+                .toResponse(ifNoneMatch, request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+    
+    /**
+     * 控制台实时推送
+     * 连接后先收到snapshot事件，之后按分区（plugins、metrics、system、database）推送变化字段，
+     * 插件状态变化时推送pluginState事件
+     * @return SSE连接
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return consoleStreamService.subscribe();
+    }
+    
+    /**
+     * 获取插件调用限流配置
+     * @return 限流配置
+     */
+    @GetMapping("/rate-limit")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRateLimitConfig() {
+        return ResponseEntity.ok(ApiResponse.success(rateLimitService.getConfig()));
+    }
+    
+    /**
+     * 运行时修改插件调用限流配置，仅管理员可用
+     * @param update 需要修改的配置项
+     * @return 修改后的配置
+     */
+    @PutMapping("/rate-limit")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> updateRateLimitConfig(@RequestBody Map<String, Object> update) {
+        if (!authService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.custom(403, "需要管理员权限", null));
+        }
+        try {
+            rateLimitService.updateConfig(update);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("限流配置无效: " + e.getMessage()));
+        }
+        return ResponseEntity.ok(ApiResponse.success(rateLimitService.getConfig()));
+    }
+    
+    /**
+     * 获取共享调度器概况和全部定时任务
+     * @return 调度器信息
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getJobs() {
+        return ResponseEntity.ok(ApiResponse.success(schedulerService.getSummary()));
+    }
+    
+    /**
+     * 获取插件事件日志统计，包括各插件的容量配额使用情况
+     * @return 事件日志统计
+     */
+    @GetMapping("/event-logs")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getEventLogs() {
+        return ResponseEntity.ok(ApiResponse.success(eventLogService.getStats()));
+    }
+    
+    /**
+     * 获取插件状态存储统计，包括各插件的段文件、数据量和失效数据占比
+     * @return 状态存储统计
+     */
+    @GetMapping("/state-stores")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStateStores() {
+        return ResponseEntity.ok(ApiResponse.success(stateService.getStats()));
+    }
+    
+    /**
+     * 获取插件堆外缓存统计，包括各插件的内存预算使用情况和命中率
+     * @return 堆外缓存统计
+     */
+    @GetMapping("/offheap-caches")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getOffHeapCaches() {
+        return ResponseEntity.ok(ApiResponse.success(cacheService.getStats()));
+    }
+    
+    /**
+     * 获取插件权限矩阵统计，包括各矩阵的主体数、操作数和位图占用
+     * @return 权限矩阵统计
+     */
+    @GetMapping("/permission-matrices")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPermissionMatrices() {
+        return ResponseEntity.ok(ApiResponse.success(permissionMatrixService.getStats()));
+    }
+    
+    /**
+     * 查询定时任务执行历史，按触发时间倒序
+     * @param jobName 任务名称
+     * @param owner 所属插件ID
+     * @param status 执行状态：SUCCESS、FAILED、MISFIRED
+     * @param from 触发时间下限，格式 yyyy-MM-dd HH:mm:ss
+     * @param to 触发时间上限，格式 yyyy-MM-dd HH:mm:ss
+     * @param page 页码（从0开始）
+     * @param size 每页大小，最大500
+     * @return 分页的执行历史
+     */
+    @GetMapping("/jobs/history")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getJobHistory(
+            @RequestParam(required = false) String jobName,
+            @RequestParam(required = false) String owner,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Page<JobExecutionHistory> result = jobHistoryService.query(jobName, owner, status, from, to, page, size);
+        Map<String, Object> data = new HashMap<>();
+        data.put("content", result.getContent());
+        data.put("page", result.getNumber());
+        data.put("size", result.getSize());
+        data.put("totalElements", result.getTotalElements());
+        data.put("totalPages", result.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.success(data));
+    }
+    
+    /**
+     * 暂停、恢复或取消定时任务，仅管理员可用
+     * @param id 任务ID
+     * @param action pause、resume或cancel
+     * @return 任务信息
+     */
+    @PostMapping("/jobs/{id}/{action}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> controlJob(@PathVariable long id, @PathVariable String action) {
+        if (!authService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.custom(403, "需要管理员权限", null));
+        }
+        JobHandle job = schedulerService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.custom(404, "任务不存在或已结束: " + id, null));
+        }
+        boolean changed;
+        switch (action) {
+            case "pause":
+                changed = job.pause();
+                break;
+            case "resume":
+                changed = job.resume();
+                break;
+            case "cancel":
+                changed = job.cancel();
+                break;
+            default:
+                return ResponseEntity.badRequest().body(ApiResponse.error("不支持的操作: " + action));
+        }
+        String message = changed ? "操作成功" : "任务当前状态不支持该操作";
+        return ResponseEntity.ok(ApiResponse.success(message, PluginSchedulerService.describe(job)));
     }
     
     /**
      * 健康检查接口
+     * 数据库、插件管理器和磁盘空间由后台定时检查，任一检查失败时返回503
      * @return 健康状态
      */
     @GetMapping("/health")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> healthCheck() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
-        health.put("timestamp", LocalDateTime.now());
-        health.put("checks", Map.of(
-            "database", "UP",
-            "pluginManager", "UP",
-            "diskSpace", "UP"
-        ));
-        
-        return ResponseEntity.ok(ApiResponse.success(health));
+    public ResponseEntity<byte[]> healthCheck() {
+        SystemTelemetrySnapshot snapshot = telemetryCollector.getSnapshot();
+        ResponseEntity<byte[]> response = snapshot.getHealthResponse().toResponse(null, -1);
+        if (snapshot.isHealthy()) {
+            return response;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .headers(response.getHeaders())
+                .body(response.getBody());
     }
     
     /**
@@ -69,26 +248,10 @@ public class SystemController {
      * @return 系统详细信息
      */
     @GetMapping("/info")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getSystemInfo() {
-        Map<String, Object> info = new HashMap<>();
-        
-        // 系统属性
-        Map<String, String> systemProps = new HashMap<>();
-        systemProps.put("java.version", System.getProperty("java.version"));
-        systemProps.put("java.vendor", System.getProperty("java.vendor"));
-        systemProps.put("os.name", System.getProperty("os.name"));
-        systemProps.put("os.version", System.getProperty("os.version"));
-        systemProps.put("os.arch", System.getProperty("os.arch"));
-        systemProps.put("user.dir", System.getProperty("user.dir"));
-        
-        info.put("system", systemProps);
-        info.put("application", Map.of(
-            "name", "PF4J Dynamic Loading Scaffold",
-            "version", "1.0.0",
-            "description", "基于PF4J的动态插件加载脚手架"
-        ));
-        
-        return ResponseEntity.ok(ApiResponse.success(info));
+    public ResponseEntity<byte[]> getSystemInfo(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                WebRequest request) {
+        return telemetryCollector.getSnapshot().getInfoResponse()
+                .toResponse(ifNoneMatch, request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE));
     }
     
     /**
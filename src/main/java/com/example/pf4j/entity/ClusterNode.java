@@ -0,0 +1,114 @@
+package com.example.pf4j.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 集群节点实体类
+ * 对应数据库表：pf4j_cluster_node
+ * 各节点定时写入心跳，心跳未过期的节点参与任务分片分配
+ * 
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "pf4j_cluster_node")
+public class ClusterNode implements Persistable<String> {
+    
+    /**
+     * 节点ID
+     */
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+    
+    /**
+     * 最近一次心跳时间（毫秒时间戳）
+     */
+    @Column(name = "heartbeat_time", nullable = false)
+    private long heartbeatTime;
+    
+    /**
+     * 节点启动时间
+     */
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+    
+    @Transient
+    private boolean newNode = true;
+    
+    public ClusterNode() {
+    }
+    
+    public ClusterNode(String nodeId, long heartbeatTime) {
+        this.nodeId = nodeId;
+        this.heartbeatTime = heartbeatTime;
+        this.startTime = LocalDateTime.now();
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.newNode = false;
+    }
+    
+    @Override
+    public String getId() {
+        return nodeId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newNode;
+    }
+    
+    // Getter and Setter methods
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+    
+    public long getHeartbeatTime() {
+        return heartbeatTime;
+    }
+    
+    public void setHeartbeatTime(long heartbeatTime) {
+        this.heartbeatTime = heartbeatTime;
+    }
+    
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(nodeId, ((ClusterNode) o).nodeId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeId);
+    }
+    
+    @Override
+    public String toString() {
+        return "ClusterNode{" +
+                "nodeId='" + nodeId + '\'' +
+                ", heartbeatTime=" + heartbeatTime +
+                ", startTime=" + startTime +
+                '}';
+    }
+}
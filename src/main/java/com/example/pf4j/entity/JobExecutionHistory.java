@@ -0,0 +1,181 @@
+package com.example.pf4j.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 定时任务执行历史实体类
+ * 对应数据库表：pf4j_job_history
+ * 只追加写入，按任务名称、所属插件、状态和触发时间建立索引，过期记录由保留策略定期删除
+ * 
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "pf4j_job_history", indexes = {
+        @Index(name = "idx_job_history_fire_time", columnList = "fire_time"),
+        @Index(name = "idx_job_history_name_time", columnList = "job_name, fire_time"),
+        @Index(name = "idx_job_history_owner_time", columnList = "owner, fire_time"),
+        @Index(name = "idx_job_history_status_time", columnList = "status, fire_time")
+})
+public class JobExecutionHistory {
+    
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_MISFIRED = "MISFIRED";
+    
+    /**
+     * 主键ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    /**
+     * 调度器内的任务ID，节点重启后会重新编号
+     */
+    @Column(name = "job_id", nullable = false)
+    private long jobId;
+    
+    /**
+     * 任务名称
+     */
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+    
+    /**
+     * 所属插件ID，宿主任务为空
+     */
+    @Column(name = "owner", length = 100)
+    private String owner;
+    
+    /**
+     * 执行节点ID
+     */
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+    
+    /**
+     * 执行状态：SUCCESS、FAILED、MISFIRED
+     */
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+    
+    /**
+     * 触发时间，错过触发时为计划触发时间
+     */
+    @Column(name = "fire_time", nullable = false)
+    private LocalDateTime fireTime;
+    
+    /**
+     * 执行耗时（毫秒）
+     */
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+    
+    /**
+     * 失败原因或补充说明
+     */
+    @Column(name = "message", length = 500)
+    private String message;
+    
+    // Getter and Setter methods
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public long getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(long jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getJobName() {
+        return jobName;
+    }
+    
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getFireTime() {
+        return fireTime;
+    }
+    
+    public void setFireTime(LocalDateTime fireTime) {
+        this.fireTime = fireTime;
+    }
+    
+    public long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(id, ((JobExecutionHistory) o).id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+    
+    @Override
+    public String toString() {
+        return "JobExecutionHistory{" +
+                "id=" + id +
+                ", jobName='" + jobName + '\'' +
+                ", owner='" + owner + '\'' +
+                ", status='" + status + '\'' +
+                ", fireTime=" + fireTime +
+                ", durationMs=" + durationMs +
+                '}';
+    }
+}
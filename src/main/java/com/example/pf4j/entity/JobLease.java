@@ -0,0 +1,153 @@
+package com.example.pf4j.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 定时任务租约实体类
+ * 对应数据库表：pf4j_job_lease
+ * 每个集群任务（或任务分片）一行，只有持有未过期租约的节点才执行该任务
+ * 
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "pf4j_job_lease")
+public class JobLease implements Persistable<String> {
+    
+    /**
+     * 租约键：插件ID:任务名称#分片号
+     */
+    @Id
+    @Column(name = "lease_key", length = 191)
+    private String leaseKey;
+    
+    /**
+     * 持有租约的节点ID，未被持有时为空
+     */
+    @Column(name = "owner", length = 100)
+    private String owner;
+    
+    /**
+     * 租约过期时间（毫秒时间戳）
+     */
+    @Column(name = "expire_time", nullable = false)
+    private long expireTime;
+    
+    /**
+     * 租约令牌，每次易主时加一，用于排查任务在节点间的迁移
+     */
+    @Column(name = "fence_token", nullable = false)
+    private long fenceToken;
+    
+    /**
+     * 更新时间
+     */
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+    
+    /**
+     * 新建的租约只能插入，不能覆盖其他节点已写入的同键记录
+     */
+    @Transient
+    private boolean newLease = true;
+    
+    public JobLease() {
+    }
+    
+    public JobLease(String leaseKey, String owner, long expireTime) {
+        this.leaseKey = leaseKey;
+        this.owner = owner;
+        this.expireTime = expireTime;
+        this.fenceToken = 1L;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updateTime = LocalDateTime.now();
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.newLease = false;
+    }
+    
+    @Override
+    public String getId() {
+        return leaseKey;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return newLease;
+    }
+    
+    // Getter and Setter methods
+    
+    public String getLeaseKey() {
+        return leaseKey;
+    }
+    
+    public void setLeaseKey(String leaseKey) {
+        this.leaseKey = leaseKey;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public long getExpireTime() {
+        return expireTime;
+    }
+    
+    public void setExpireTime(long expireTime) {
+        this.expireTime = expireTime;
+    }
+    
+    public long getFenceToken() {
+        return fenceToken;
+    }
+    
+    public void setFenceToken(long fenceToken) {
+        this.fenceToken = fenceToken;
+    }
+    
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+    
+    public void setUpdateTime(LocalDateTime updateTime) {
+        this.updateTime = updateTime;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(leaseKey, ((JobLease) o).leaseKey);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(leaseKey);
+    }
+    
+    @Override
+    public String toString() {
+        return "JobLease{" +
+                "leaseKey='" + leaseKey + '\'' +
+                ", owner='" + owner + '\'' +
+                ", expireTime=" + expireTime +
+                ", fenceToken=" + fenceToken +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.pf4j.extension;
+
+import org.pf4j.ExtensionPoint;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 插件健康检查扩展点接口
+ * 插件可以实现该接口，把自身依赖的外部资源（连接、缓存、后台任务等）的状态汇总到系统健康检查中。
+ * 检查结果由宿主按固定间隔在后台刷新并缓存，超时的检查视为失败
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public interface PluginHealthCheck extends ExtensionPoint {
+
+    /**
+     * 获取检查项名称，同一插件内应唯一
+     *
+     * @return 检查项名称
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 执行健康检查
+     *
+     * @return 检查结果
+     */
+    Result check();
+
+    /**
+     * 健康检查结果
+     */
+    final class Result {
+        private final boolean healthy;
+        private final String message;
+        private final Map<String, Object> details;
+
+        private Result(boolean healthy, String message, Map<String, Object> details) {
+            this.healthy = healthy;
+            this.message = message;
+            this.details = details == null ? Collections.emptyMap() : Collections.unmodifiableMap(details);
+        }
+
+        public static Result up() {
+            return new Result(true, null, null);
+        }
+
+        public static Result up(Map<String, Object> details) {
+            return new Result(true, null, details);
+        }
+
+        public static Result down(String message) {
+            return new Result(false, message, null);
+        }
+
+        public static Result down(String message, Map<String, Object> details) {
+            return new Result(false, message, details);
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Map<String, Object> getDetails() {
+            return details;
+        }
+    }
+}
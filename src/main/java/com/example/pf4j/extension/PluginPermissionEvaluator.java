@@ -0,0 +1,26 @@
+package com.example.pf4j.extension;
+
+import com.example.pf4j.security.PrincipalSnapshot;
+import org.pf4j.ExtensionPoint;
+
+/**
+ * 插件权限评估扩展点接口
+ * 插件可以实现该接口，对插件方法调用追加细粒度的授权规则。
+ * 只有策略表和所有评估器都允许时调用才会放行
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public interface PluginPermissionEvaluator extends ExtensionPoint {
+
+    /**
+     * 判断是否允许调用插件方法
+     * 该方法在每次调用的请求路径上执行，实现中不应访问数据库或远程服务
+     *
+     * @param principal 当前请求的认证信息
+     * @param pluginName 插件ID，已由请求中的插件名称解析得到
+     * @param methodName 方法名称，调用插件入口或查询方法列表时为null
+     * @return 是否允许
+     */
+    boolean isAllowed(PrincipalSnapshot principal, String pluginName, String methodName);
+}
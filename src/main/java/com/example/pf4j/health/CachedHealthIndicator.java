@@ -0,0 +1,140 @@
+package com.example.pf4j.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 带缓存的健康检查基类
+ * 检查结果在有效期内直接返回；过期后只有一个线程在后台线程上刷新，其余调用方继续拿到上一次的结果。
+ * 检查超过超时时间时返回DOWN，不会让探活请求堆积在慢检查上
+ */
+public abstract class CachedHealthIndicator implements HealthIndicator {
+
+    private final ExecutorService executor;
+
+    private final AtomicReference<CompletableFuture<Health>> inFlight = new AtomicReference<>();
+
+    private volatile Cached cached;
+
+    protected CachedHealthIndicator(String name) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 执行实际的检查，只在后台线程上调用
+     *
+     * @return 检查结果
+     */
+    protected abstract Health doCheck();
+
+    /**
+     * 结果有效期
+     *
+     * @return 毫秒
+     */
+    protected abstract long getTtlMillis();
+
+    /**
+     * 单次检查超时时间
+     *
+     * @return 毫秒
+     */
+    protected abstract long getTimeoutMillis();
+
+    @Override
+    public Health health() {
+        Cached current = cached;
+        if (current != null && System.nanoTime() - current.checkedAt < TimeUnit.MILLISECONDS.toNanos(getTtlMillis())) {
+            return current.health;
+        }
+        return refresh(current);
+    }
+
+    private Health refresh(Cached previous) {
+        CompletableFuture<Health> future = inFlight.get();
+        if (future != null) {
+            // 已有线程在刷新，优先返回旧结果
+            if (previous != null) {
+                return previous.health;
+            }
+        } else {
+            CompletableFuture<Health> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                future = created;
+                executor.execute(() -> {
+                    Health health = safeCheck();
+                    cached = new Cached(health);
+                    inFlight.set(null);
+                    created.complete(health);
+                });
+            } else if (previous != null) {
+                return previous.health;
+            } else {
+                future = inFlight.get();
+                if (future == null) {
+                    Cached latest = cached;
+                    return latest != null ? latest.health : Health.unknown().build();
+                }
+            }
+        }
+
+        try {
+            return future.get(getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Health timeout = Health.down()
+                    .withDetail("error", "健康检查超时: " + getTimeoutMillis() + "ms")
+                    .build();
+            // 超时结果同样缓存，检查完成前后续调用直接返回该结果
+            cached = new Cached(timeout);
+            return timeout;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Health.unknown().withDetail("error", "健康检查被中断").build();
+        } catch (ExecutionException e) {
+            return Health.down(e.getCause()).build();
+        }
+    }
+
+    private Health safeCheck() {
+        try {
+            return doCheck();
+        } catch (Exception e) {
+            return Health.down(e).build();
+        }
+    }
+
+    /**
+     * 丢弃缓存结果，下一次调用时重新检查
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Cached {
+        private final Health health;
+        private final long checkedAt;
+
+        Cached(Health health) {
+            this.health = health;
+            this.checkedAt = System.nanoTime();
+        }
+    }
+}
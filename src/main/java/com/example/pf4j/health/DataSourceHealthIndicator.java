@@ -0,0 +1,68 @@
+package com.example.pf4j.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * 数据源健康检查
+ * 从连接池借出连接并用 {@link Connection#isValid(int)} 验证，不创建新的物理连接；
+ * 结果附带连接池的活动、空闲和等待连接数
+ */
+@Component("databaseHealthIndicator")
+public class DataSourceHealthIndicator extends CachedHealthIndicator {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${pf4j.health.database.ttl-ms:5000}")
+    private long ttlMillis;
+
+    @Value("${pf4j.health.database.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    public DataSourceHealthIndicator() {
+        super("database");
+    }
+
+    @Override
+    protected Health doCheck() {
+        long start = System.nanoTime();
+        Health.Builder builder;
+        try (Connection connection = dataSource.getConnection()) {
+            int timeoutSeconds = (int) Math.max(1L, timeoutMillis / 1000L);
+            builder = connection.isValid(timeoutSeconds) ? Health.up() : Health.down().withDetail("error", "连接验证失败");
+            builder.withDetail("database", connection.getMetaData().getDatabaseProductName());
+        } catch (Exception e) {
+            builder = Health.down().withDetail("error", e.getMessage());
+        }
+        builder.withDetail("validationMillis", (System.nanoTime() - start) / 1_000_000L);
+
+        if (dataSource instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            if (pool != null) {
+                builder.withDetail("activeConnections", pool.getActiveConnections());
+                builder.withDetail("idleConnections", pool.getIdleConnections());
+                builder.withDetail("totalConnections", pool.getTotalConnections());
+                builder.withDetail("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    @Override
+    protected long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.pf4j.health;
+
+import com.example.pf4j.extension.PluginHealthCheck;
+import com.example.pf4j.service.PluginLifecycleListener;
+import com.example.pf4j.service.PluginLifecycleTracker;
+import com.example.pf4j.service.PluginServiceBus;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.pf4j.PluginWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 插件健康检查
+ * 汇总每个插件的状态、启动失败原因以及插件实现的 {@link PluginHealthCheck} 检查结果。
+ * 只有 pf4j.health.plugins.required 中列出的插件未启动、启动失败或检查失败时整体为DOWN，
+ * 其他插件的问题只作为详情报告，不会让实例退出负载均衡；配置为 * 时所有插件都是必需的。
+ * 插件状态变化时立即丢弃缓存结果
+ */
+@Component("pluginsHealthIndicator")
+public class PluginHealthIndicator extends CachedHealthIndicator implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginHealthIndicator.class);
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private PluginServiceBus serviceBus;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Value("${pf4j.health.plugins.ttl-ms:5000}")
+    private long ttlMillis;
+
+    @Value("${pf4j.health.plugins.timeout-ms:3000}")
+    private long timeoutMillis;
+
+    @Value("${pf4j.health.plugins.check-timeout-ms:1000}")
+    private long checkTimeoutMillis;
+
+    @Value("${pf4j.health.plugins.required:}")
+    private String requiredPlugins;
+
+    private Set<String> required = Collections.emptySet();
+    private boolean allRequired;
+
+    private final ExecutorService checkExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "health-plugin-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 尚未完成的插件检查，检查卡住时不会重复提交
+     */
+    private final Map<PluginHealthCheck, CompletableFuture<PluginHealthCheck.Result>> pending = new ConcurrentHashMap<>();
+
+    public PluginHealthIndicator() {
+        super("plugins");
+    }
+
+    @PostConstruct
+    public void init() {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : requiredPlugins.split(",")) {
+            if (!id.trim().isEmpty()) {
+                ids.add(id.trim());
+            }
+        }
+        allRequired = ids.remove("*");
+        required = Collections.unmodifiableSet(ids);
+        lifecycleTracker.addListener(this);
+    }
+
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        invalidate();
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        invalidate();
+    }
+
+    @Override
+    protected Health doCheck() {
+        Map<String, List<PluginHealthCheck>> checksByPlugin = new HashMap<>();
+        for (PluginHealthCheck check : serviceBus.getServices(PluginHealthCheck.class)) {
+            PluginWrapper owner = pluginManager.whichPlugin(check.getClass());
+            if (owner != null) {
+                checksByPlugin.computeIfAbsent(owner.getPluginId(), id -> new ArrayList<>()).add(check);
+            }
+        }
+
+        // 先全部提交再统一等待，总耗时取决于最慢的检查
+        Map<PluginHealthCheck, CompletableFuture<PluginHealthCheck.Result>> futures = new HashMap<>();
+        checksByPlugin.values().forEach(checks -> checks.forEach(check -> futures.put(check, submit(check))));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkTimeoutMillis);
+
+        boolean healthy = true;
+        int started = 0;
+        int failed = 0;
+        List<String> degraded = new ArrayList<>();
+        Map<String, Object> plugins = new LinkedHashMap<>();
+        for (PluginWrapper plugin : pluginManager.getPlugins()) {
+            PluginState state = plugin.getPluginState();
+            boolean pluginRequired = isRequired(plugin.getPluginId());
+            boolean pluginHealthy = state == PluginState.STARTED;
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("state", state.toString());
+            detail.put("version", plugin.getDescriptor().getVersion());
+            detail.put("required", pluginRequired);
+            if (state == PluginState.STARTED) {
+                started++;
+            } else if (state == PluginState.FAILED) {
+                failed++;
+                Throwable cause = plugin.getFailedException();
+                detail.put("error", cause != null ? cause.getMessage() : "插件启动失败");
+            }
+
+            List<PluginHealthCheck> checks = checksByPlugin.get(plugin.getPluginId());
+            if (checks != null) {
+                Map<String, Object> results = new LinkedHashMap<>();
+                for (PluginHealthCheck check : checks) {
+                    PluginHealthCheck.Result result = await(futures.get(check), deadline);
+                    pluginHealthy &= result.isHealthy();
+                    results.put(check.getName(), toDetail(result));
+                }
+                detail.put("checks", results);
+            }
+            if (!pluginHealthy && (state != PluginState.DISABLED || pluginRequired)) {
+                degraded.add(plugin.getPluginId());
+                healthy &= !pluginRequired;
+            }
+            plugins.put(plugin.getPluginId(), detail);
+        }
+
+        // 必需但未加载的插件
+        List<String> missing = new ArrayList<>();
+        for (String id : required) {
+            if (!plugins.containsKey(id)) {
+                missing.add(id);
+                healthy = false;
+            }
+        }
+
+        Health.Builder builder = (healthy ? Health.up() : Health.down())
+                .withDetail("total", plugins.size())
+                .withDetail("started", started)
+                .withDetail("failed", failed)
+                .withDetail("degraded", degraded);
+        if (!missing.isEmpty()) {
+            builder.withDetail("missing", missing);
+        }
+        return builder.withDetail("plugins", plugins).build();
+    }
+
+    private boolean isRequired(String pluginId) {
+        return allRequired || required.contains(pluginId);
+    }
+
+    private CompletableFuture<PluginHealthCheck.Result> submit(PluginHealthCheck check) {
+        CompletableFuture<PluginHealthCheck.Result> future = new CompletableFuture<>();
+        CompletableFuture<PluginHealthCheck.Result> existing = pending.putIfAbsent(check, future);
+        if (existing != null) {
+            return existing;
+        }
+        checkExecutor.execute(() -> {
+            PluginHealthCheck.Result result;
+            try {
+                result = check.check();
+                if (result == null) {
+                    result = PluginHealthCheck.Result.down("检查未返回结果");
+                }
+            } catch (Exception e) {
+                logger.debug("插件健康检查失败: {}, 错误: {}", check.getName(), e.getMessage());
+                result = PluginHealthCheck.Result.down(e.getMessage());
+            }
+            pending.remove(check, future);
+            future.complete(result);
+        });
+        return future;
+    }
+
+    private PluginHealthCheck.Result await(CompletableFuture<PluginHealthCheck.Result> future, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        try {
+            return future.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PluginHealthCheck.Result.down("检查被中断");
+        } catch (Exception e) {
+            return PluginHealthCheck.Result.down("检查超时: " + checkTimeoutMillis + "ms");
+        }
+    }
+
+    private static Map<String, Object> toDetail(PluginHealthCheck.Result result) {
+        Map<String, Object> detail = new LinkedHashMap<>();
+        detail.put("status", result.isHealthy() ? "UP" : "DOWN");
+        if (result.getMessage() != null) {
+            detail.put("message", result.getMessage());
+        }
+        if (!result.getDetails().isEmpty()) {
+            detail.put("details", result.getDetails());
+        }
+        return detail;
+    }
+
+    @Override
+    protected long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    @Override
+    protected long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        super.shutdown();
+        checkExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.pf4j.interceptor;
+
+import com.example.pf4j.security.PrincipalSnapshot;
+import com.example.pf4j.service.AuthService;
+import com.example.pf4j.service.PluginAuthorizationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * 插件调用权限拦截器
+ * 按插件和方法对插件调用接口进行细粒度授权，未启用插件授权策略时直接放行
+ */
+@Component
+public class PluginPermissionInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginPermissionInterceptor.class);
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PluginAuthorizationService authorizationService;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!authorizationService.isEnabled()) {
+            return true;
+        }
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get("pluginName") == null) {
+            return true;
+        }
+        String pluginName = variables.get("pluginName");
+        String methodName = variables.get("methodName");
+
+        PrincipalSnapshot principal = authService.getPrincipalSnapshot();
+        if (authorizationService.isAllowed(principal, pluginName, methodName)) {
+            return true;
+        }
+
+        logger.debug("插件调用被拒绝: {}#{} by {}", pluginName, methodName, principal.getUsername());
+        response.setStatus(principal.isAuthenticated() ? HttpServletResponse.SC_FORBIDDEN : HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"权限不足\",\"message\":\"无权调用插件: " + pluginName + "\"}");
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.pf4j.interceptor;
+
+import com.example.pf4j.security.PrincipalSnapshot;
+import com.example.pf4j.service.AuthService;
+import com.example.pf4j.service.RateLimitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * 插件调用限流拦截器
+ * 按客户端（已认证用户名，否则为客户端IP）和按插件方法限流，超限时返回429并附带Retry-After
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get("pluginName") == null) {
+            return true;
+        }
+        String pluginName = variables.get("pluginName");
+        String methodName = variables.get("methodName");
+
+        PrincipalSnapshot principal = authService.getPrincipalSnapshot();
+        String clientId = principal.isAuthenticated() ? "user:" + principal.getUsername() : "ip:" + request.getRemoteAddr();
+
+        long waitMillis = rateLimitService.tryAcquire(clientId, pluginName, methodName);
+        if (waitMillis == 0L) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1L, (waitMillis + 999L) / 1000L);
+        logger.debug("插件调用被限流: {}#{} by {}, 重试等待: {}ms", pluginName, methodName, clientId, waitMillis);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"code\":429,\"message\":\"请求过于频繁，请" + retryAfterSeconds + "秒后重试\"}");
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.pf4j.interceptor;
 
+import com.example.pf4j.security.PrincipalSnapshot;
 import com.example.pf4j.service.AuthService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +32,9 @@ public class SecurityInterceptor implements HandlerInterceptor {
         
         // 对于API请求进行额外的权限检查
         if (requestURI.startsWith("/api/")) {
-            if (!authService.isAuthenticated()) {
+            // 同一请求内只读取一次认证信息
+            PrincipalSnapshot principal = authService.getPrincipalSnapshot();
+            if (!principal.isAuthenticated()) {
                 logger.warn("未认证用户尝试访问API: {}", requestURI);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json;charset=UTF-8");
@@ -40,15 +43,15 @@ public class SecurityInterceptor implements HandlerInterceptor {
             }
             
             // 检查管理员权限（所有API操作都需要管理员权限）
-            if (!authService.isAdmin()) {
-                logger.warn("非管理员用户尝试访问API: {} by {}", requestURI, authService.getCurrentUsername());
+            if (!principal.isAdmin()) {
+                logger.warn("非管理员用户尝试访问API: {} by {}", requestURI, principal.getUsername());
                 response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                 response.setContentType("application/json;charset=UTF-8");
                 response.getWriter().write("{\"error\":\"权限不足\",\"message\":\"需要管理员权限\"}");
                 return false;
             }
             
-            logger.info("管理员 {} 访问API: {}", authService.getCurrentUsername(), requestURI);
+            logger.debug("管理员 {} 访问API: {}", principal.getUsername(), requestURI);
         }
         
         return true;
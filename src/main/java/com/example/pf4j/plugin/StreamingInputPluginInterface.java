@@ -0,0 +1,31 @@
+package com.example.pf4j.plugin;
+
+import com.example.pf4j.plugin.stream.JsonInput;
+import org.pf4j.ExtensionPoint;
+
+import java.io.IOException;
+
+/**
+ * 流式输入插件接口定义
+ * 与 {@link PluginInterface} 并列，适用于输入很大的插件（大数组、批量导入）。
+ * 宿主不再把请求体绑定为 Map/List，而是把基于Jackson流式解析器的 {@link JsonInput} 交给插件按需读取，
+ * 内存占用只取决于插件自己保留的数据，与请求体大小无关
+ */
+public interface StreamingInputPluginInterface extends ExtensionPoint {
+
+    /**
+     * 获取插件名称
+     * @return 插件名称
+     */
+    String getPluginName();
+
+    /**
+     * 读取流式输入并返回结果
+     * 输入在方法返回后由宿主关闭，不能在后台线程中继续读取
+     *
+     * @param input 流式输入
+     * @return 执行结果
+     * @throws IOException 读取或解析输入失败
+     */
+    Object ingest(JsonInput input) throws IOException;
+}
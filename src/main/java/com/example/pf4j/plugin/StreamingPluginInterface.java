@@ -0,0 +1,33 @@
+package com.example.pf4j.plugin;
+
+import org.pf4j.ExtensionPoint;
+
+import java.util.concurrent.Flow;
+
+/**
+ * 流式插件接口定义
+ * 与 {@link PluginInterface} 并列，适用于结果较大或逐步产生结果的插件。
+ * 插件返回 {@link Flow.Publisher}，宿主按客户端的接收速度逐批请求数据并以NDJSON或SSE推送，
+ * 插件不需要在内存中保存完整结果
+ *
+ * <p>逐条拉取数据时可以直接使用 {@link com.example.pf4j.plugin.stream.IteratorPublisher}；
+ * 由后台线程推送数据时可以使用JDK的 {@link java.util.concurrent.SubmissionPublisher}，
+ * 其缓冲区已满时 submit 会阻塞，从而把背压传递给生产者</p>
+ */
+public interface StreamingPluginInterface extends ExtensionPoint {
+
+    /**
+     * 获取插件名称
+     * @return 插件名称
+     */
+    String getPluginName();
+
+    /**
+     * 以流的方式执行插件功能
+     * 每次调用返回新的数据流，只有在订阅并请求数据后才开始产生数据
+     *
+     * @param input 输入参数
+     * @return 结果数据流，每个元素序列化为一条NDJSON记录或一个SSE事件
+     */
+    Flow.Publisher<?> stream(Object input);
+}
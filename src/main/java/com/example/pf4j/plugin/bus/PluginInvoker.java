@@ -0,0 +1,112 @@
+package com.example.pf4j.plugin.bus;
+
+import com.example.pf4jscaffold.common.BusinessException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * 插件方法调用器
+ * 持有绑定到扩展实例的MethodHandle，参数和返回值直接以对象传递，不经过JSON序列化。
+ * 目标插件重新加载后，下一次调用时自动重新解析
+ *
+ * @param <R> 返回值类型
+ */
+public final class PluginInvoker<R> {
+
+    private final String extensionName;
+    private final String methodName;
+    private final Class<R> returnType;
+    private final Class<?>[] parameterTypes;
+    private final LongSupplier versionSupplier;
+    private final TargetResolver resolver;
+
+    private volatile Target target;
+
+    public PluginInvoker(String extensionName, String methodName, Class<R> returnType, Class<?>[] parameterTypes,
+                         LongSupplier versionSupplier, TargetResolver resolver) {
+        this.extensionName = extensionName;
+        this.methodName = methodName;
+        this.returnType = returnType;
+        this.parameterTypes = parameterTypes.clone();
+        this.versionSupplier = versionSupplier;
+        this.resolver = resolver;
+    }
+
+    /**
+     * 调用目标方法
+     *
+     * @param args 方法参数，数量必须与声明的参数类型一致
+     * @return 方法返回值，void方法返回null
+     */
+    public R invoke(Object... args) {
+        if (args.length != parameterTypes.length) {
+            throw new BusinessException("参数数量不匹配: " + describe() + ", 实际参数数量: " + args.length);
+        }
+        Target current = target;
+        long version = versionSupplier.getAsLong();
+        if (current == null || current.version != version) {
+            current = refresh(version);
+        }
+        try {
+            return returnType.cast((Object) current.handle.invokeExact(args));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BusinessException("插件方法调用失败: " + describe() + ", 错误: " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized Target refresh(long version) {
+        Target current = target;
+        if (current == null || current.version != version) {
+            MethodHandle handle = resolver.resolve(extensionName, methodName, parameterTypes);
+            // 统一为 (Object[])Object 形式，调用时使用invokeExact避免逐次类型适配
+            MethodHandle spreader = handle
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            current = new Target(version, spreader);
+            target = current;
+        }
+        return current;
+    }
+
+    /**
+     * 释放对目标扩展实例的引用，插件卸载时调用
+     */
+    public void reset() {
+        target = null;
+    }
+
+    public String getExtensionName() {
+        return extensionName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    private String describe() {
+        return extensionName + "#" + methodName + Arrays.toString(parameterTypes);
+    }
+
+    /**
+     * 目标方法解析器，返回已绑定扩展实例的MethodHandle
+     */
+    @FunctionalInterface
+    public interface TargetResolver {
+        MethodHandle resolve(String extensionName, String methodName, Class<?>[] parameterTypes);
+    }
+
+    private static final class Target {
+        private final long version;
+        private final MethodHandle handle;
+
+        Target(long version, MethodHandle handle) {
+            this.version = version;
+            this.handle = handle;
+        }
+    }
+}
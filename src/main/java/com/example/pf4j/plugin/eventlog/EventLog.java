@@ -0,0 +1,172 @@
+package com.example.pf4j.plugin.eventlog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有界事件日志
+ * 多生产者覆盖式环形缓冲区：写入时原子递增序号领取槽位，写满后覆盖最旧的记录，追加为O(1)且不加锁；
+ * 读取时按序号校验槽位，得到不加锁的一致快照。被覆盖的记录可交给溢出处理器（例如写入磁盘）
+ */
+public final class EventLog {
+
+    private final String name;
+    private final int mask;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final Consumer<Entry> overflowSink;
+
+    /**
+     * @param name 日志名称
+     * @param capacity 容量，会向上取整为2的幂
+     * @param overflowSink 被覆盖记录的处理器，为null时直接丢弃；在写入线程上调用，不得阻塞
+     */
+    public EventLog(String name, int capacity, Consumer<Entry> overflowSink) {
+        if (capacity <= 0 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("事件日志容量必须在1到2^24之间: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.name = name;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.overflowSink = overflowSink;
+    }
+
+    /**
+     * 追加一条记录，可由任意线程并发调用
+     *
+     * @param message 内容
+     * @return 记录序号
+     */
+    public long append(String message) {
+        long sequence = cursor.getAndIncrement();
+        Entry entry = new Entry(sequence, System.currentTimeMillis(), message);
+        int index = (int) (sequence & mask);
+        while (true) {
+            Entry previous = slots.get(index);
+            if (previous != null && previous.sequence > sequence) {
+                // 写入线程被长时间挂起期间，槽位已被更新的记录占用，本条记录视为已被覆盖
+                overflow(entry);
+                return sequence;
+            }
+            if (slots.compareAndSet(index, previous, entry)) {
+                if (previous != null) {
+                    overflow(previous);
+                }
+                return sequence;
+            }
+        }
+    }
+
+    private void overflow(Entry entry) {
+        if (overflowSink != null) {
+            overflowSink.accept(entry);
+        }
+    }
+
+    /**
+     * 获取当前保留的全部记录，按序号升序
+     */
+    public List<Entry> snapshot() {
+        return snapshot(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取最近的记录，按序号升序
+     * 正在写入或已被覆盖的槽位会被跳过，因此结果可能少于limit条
+     *
+     * @param limit 最大条数
+     * @return 记录列表
+     */
+    public List<Entry> snapshot(int limit) {
+        long end = cursor.get();
+        long start = Math.max(0L, end - Math.min((long) getCapacity(), Math.max(0, limit)));
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        List<Entry> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = slots.get((int) (sequence & mask));
+            if (entry != null && entry.sequence == sequence) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 获取最近的记录内容，按写入顺序
+     *
+     * @param limit 最大条数
+     * @return 内容列表
+     */
+    public List<String> messages(int limit) {
+        List<Entry> entries = snapshot(limit);
+        List<String> messages = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            messages.add(entry.message);
+        }
+        return messages;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 当前保留的记录数
+     */
+    public int size() {
+        return (int) Math.min(cursor.get(), getCapacity());
+    }
+
+    /**
+     * 累计追加的记录数
+     */
+    public long getAppendedCount() {
+        return cursor.get();
+    }
+
+    /**
+     * 累计被覆盖的记录数
+     */
+    public long getOverwrittenCount() {
+        return Math.max(0L, cursor.get() - getCapacity());
+    }
+
+    /**
+     * 日志记录，不可变
+     */
+    public static final class Entry {
+
+        private final long sequence;
+        private final long timestamp;
+        private final String message;
+
+        Entry(long sequence, long timestamp, String message) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.message = message;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -1,22 +1,62 @@
 package com.example.pf4j.plugin.impl;
 
 import com.example.pf4j.plugin.PluginInterface;
+import com.example.pf4j.plugin.StreamingInputPluginInterface;
+import com.example.pf4j.plugin.StreamingPluginInterface;
+import com.example.pf4j.plugin.stream.IteratorPublisher;
+import com.example.pf4j.plugin.stream.JsonInput;
 import org.pf4j.Extension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * 数据处理示例插件
- * 演示数据处理和转换功能
+ * 演示数据处理和转换功能，同时支持逐条输出处理结果的流式调用。
+ * 数字列表一次遍历算出全部统计值，超过 {@link #PARALLEL_THRESHOLD} 个元素时分段并行计算；
+ * 超过 {@link #LARGE_STRING_THRESHOLD} 个字符的字符串只生成派生结果的预览；
+ * 大字符串和大列表的 originalData 同样只回显预览，并以 originalTruncated 标记。
+ * 以流式输入调用时数字数组直接从解析器读入 double 数组计算统计值，不生成列表
  */
 @Extension
-public class DataProcessorPlugin implements PluginInterface {
+public class DataProcessorPlugin implements PluginInterface, StreamingPluginInterface, StreamingInputPluginInterface {
     
     private static final Logger logger = LoggerFactory.getLogger(DataProcessorPlugin.class);
     
+    /**
+     * 列表元素达到该数量且支持随机访问时，统计值在 ForkJoin 公共线程池中分段并行计算
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    /**
+     * 并行计算时每个子任务处理的元素数
+     */
+    private static final int LEAF_SIZE = 1 << 14;
+    
+    /**
+     * 元素拆箱后暂存的 double 数组长度
+     */
+    private static final int CHUNK_SIZE = 4096;
+    
+    /**
+     * 字符串超过该长度时，大小写转换和反转只生成预览，不再复制整个输入
+     */
+    static final int LARGE_STRING_THRESHOLD = 1 << 20;
+    
+    static final int PREVIEW_LENGTH = 4096;
+    
+    /**
+     * 列表元素达到 {@link #PARALLEL_THRESHOLD} 个时，originalData 只回显开头的元素数
+     */
+    static final int PREVIEW_ELEMENTS = 1000;
+    
     @Override
     public String getPluginName() {
         return "DataProcessorPlugin";
@@ -34,7 +74,9 @@ public class DataProcessorPlugin implements PluginInterface {
     
     @Override
     public Object execute(Object input) {
-        logger.info("DataProcessorPlugin 开始执行，输入参数: {}", input);
+        // 大输入的 toString 代价很高，完整参数只在调试级别输出
+        logger.info("DataProcessorPlugin 开始执行，输入类型: {}", input != null ? input.getClass().getSimpleName() : null);
+        logger.debug("输入参数: {}", input);
         
         Map<String, Object> result = new HashMap<>();
         result.put("pluginName", getPluginName());
@@ -72,25 +114,124 @@ public class DataProcessorPlugin implements PluginInterface {
     
     /**
      * 处理字符串数据
+     * ASCII字符串一次扫描同时得出单词数、大写、小写和反转结果，含非ASCII字符时回退到 String 的方法；
+     * 超长字符串的原始数据和大小写转换只取开头、反转只取结尾的 PREVIEW_LENGTH 个字符
      */
-    private Map<String, Object> processString(String input) {
+    Map<String, Object> processString(String input) {
         Map<String, Object> result = new HashMap<>();
-        result.put("originalData", input);
         result.put("dataType", "String");
         result.put("length", input.length());
-        result.put("upperCase", input.toUpperCase());
-        result.put("lowerCase", input.toLowerCase());
-        result.put("wordCount", input.split("\\s+").length);
-        result.put("reversed", new StringBuilder(input).reverse().toString());
+        if (input.length() <= LARGE_STRING_THRESHOLD) {
+            if (!transformAscii(input, result)) {
+                result.put("wordCount", countWords(input));
+                result.put("upperCase", input.toUpperCase());
+                result.put("lowerCase", input.toLowerCase());
+                result.put("reversed", new StringBuilder(input).reverse().toString());
+            }
+            result.put("originalData", input);
+        } else {
+            result.put("wordCount", countWords(input));
+            String head = head(input, PREVIEW_LENGTH);
+            result.put("originalData", head);
+            result.put("originalTruncated", true);
+            result.put("upperCase", head.toUpperCase());
+            result.put("lowerCase", head.toLowerCase());
+            result.put("reversed", new StringBuilder(tail(input, PREVIEW_LENGTH)).reverse().toString());
+            result.put("previewLength", PREVIEW_LENGTH);
+            result.put("derivedTruncated", true);
+        }
         return result;
     }
     
+    /**
+     * 单次扫描ASCII字符串，写入单词数、大写、小写和反转结果
+     * 默认语言的大小写规则对ASCII字母有特殊处理时（如土耳其语的 i）不使用该路径
+     *
+     * @return 字符串含非ASCII字符或不适用时返回false，result 不会被修改
+     */
+    private static boolean transformAscii(String input, Map<String, Object> result) {
+        String language = Locale.getDefault().getLanguage();
+        if ("tr".equals(language) || "az".equals(language) || "lt".equals(language)) {
+            return false;
+        }
+        int length = input.length();
+        byte[] upper = new byte[length];
+        byte[] lower = new byte[length];
+        byte[] reversed = new byte[length];
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            upper[i] = (byte) (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c);
+            lower[i] = (byte) (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+            reversed[length - 1 - i] = (byte) c;
+            boolean whitespace = c == ' ' || (c >= '\t' && c <= '\r');
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        result.put("wordCount", words);
+        result.put("upperCase", new String(upper, StandardCharsets.ISO_8859_1));
+        result.put("lowerCase", new String(lower, StandardCharsets.ISO_8859_1));
+        result.put("reversed", new String(reversed, StandardCharsets.ISO_8859_1));
+        return true;
+    }
+    
+    /**
+     * 统计以空白分隔的单词数，空白与正则 \s 相同
+     */
+    static int countWords(CharSequence input) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            boolean whitespace = c == ' ' || (c >= '\t' && c <= '\r');
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        return words;
+    }
+    
+    /**
+     * 取开头最多 length 个字符，不拆开代理对
+     */
+    private static String head(String input, int length) {
+        int end = Math.min(length, input.length());
+        if (end > 0 && end < input.length() && Character.isHighSurrogate(input.charAt(end - 1))) {
+            end--;
+        }
+        return input.substring(0, end);
+    }
+    
+    /**
+     * 取结尾最多 length 个字符，不拆开代理对
+     */
+    private static String tail(String input, int length) {
+        int start = Math.max(0, input.length() - length);
+        if (start > 0 && Character.isLowSurrogate(input.charAt(start))) {
+            start++;
+        }
+        return input.substring(start);
+    }
+    
     /**
      * 处理列表数据
+     * 元素达到 PARALLEL_THRESHOLD 个时原始数据只回显开头的 PREVIEW_ELEMENTS 个元素
      */
-    private Map<String, Object> processList(List<?> input) {
+    Map<String, Object> processList(List<?> input) {
         Map<String, Object> result = new HashMap<>();
-        result.put("originalData", input);
+        if (input.size() < PARALLEL_THRESHOLD) {
+            result.put("originalData", input);
+        } else {
+            result.put("originalData", new ArrayList<>(input.subList(0, PREVIEW_ELEMENTS)));
+            result.put("originalTruncated", true);
+        }
         result.put("dataType", "List");
         result.put("size", input.size());
         
@@ -100,24 +241,16 @@ public class DataProcessorPlugin implements PluginInterface {
             
             // 如果是数字列表，计算统计信息
             if (input.get(0) instanceof Number) {
-                List<Double> numbers = new ArrayList<>();
-                for (Object item : input) {
-                    if (item instanceof Number) {
-                        numbers.add(((Number) item).doubleValue());
-                    }
-                }
+                NumericSummary summary = summarize(input);
                 
-                if (!numbers.isEmpty()) {
-                    double sum = numbers.stream().mapToDouble(Double::doubleValue).sum();
-                    double avg = sum / numbers.size();
-                    double max = numbers.stream().mapToDouble(Double::doubleValue).max().orElse(0);
-                    double min = numbers.stream().mapToDouble(Double::doubleValue).min().orElse(0);
+                if (summary.count > 0) {
+                    double sum = summary.getSum();
                     
                     Map<String, Double> statistics = new HashMap<>();
                     statistics.put("sum", sum);
-                    statistics.put("average", avg);
-                    statistics.put("max", max);
-                    statistics.put("min", min);
+                    statistics.put("average", sum / summary.count);
+                    statistics.put("max", summary.max);
+                    statistics.put("min", summary.min);
                     result.put("statistics", statistics);
                 }
             }
@@ -126,6 +259,65 @@ public class DataProcessorPlugin implements PluginInterface {
         return result;
     }
     
+    /**
+     * 计算列表中数字元素的统计值，非数字元素跳过
+     */
+    static NumericSummary summarize(List<?> input) {
+        if (input.size() >= PARALLEL_THRESHOLD && input instanceof RandomAccess) {
+            return ForkJoinPool.commonPool().invoke(new SummaryTask(input, 0, input.size()));
+        }
+        NumericSummary summary = new NumericSummary();
+        double[] chunk = new double[CHUNK_SIZE];
+        int length = 0;
+        for (Object item : input) {
+            if (item instanceof Number) {
+                chunk[length++] = ((Number) item).doubleValue();
+                if (length == CHUNK_SIZE) {
+                    summary.accept(chunk, length);
+                    length = 0;
+                }
+            }
+        }
+        summary.accept(chunk, length);
+        return summary;
+    }
+    
+    /**
+     * 流式输入处理
+     * 数字数组（或NDJSON中的数字）按块读入 double 数组后累加统计值，非数字元素跳过并计数，内存占用与输入大小无关
+     */
+    @Override
+    public Object ingest(JsonInput input) throws IOException {
+        NumericSummary summary = new NumericSummary();
+        double[] chunk = new double[CHUNK_SIZE];
+        int length;
+        while ((length = input.readDoubles(chunk)) > 0) {
+            summary.accept(chunk, length);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("pluginName", getPluginName());
+        result.put("timestamp", LocalDateTime.now());
+        result.put("dataType", input.isArray() ? "Array" : "Sequence");
+        result.put("size", summary.count + input.getSkippedCount());
+        result.put("numericCount", summary.count);
+        result.put("skippedCount", input.getSkippedCount());
+        result.put("bytesRead", input.getBytesRead());
+        if (summary.count > 0) {
+            double sum = summary.getSum();
+            
+            Map<String, Double> statistics = new HashMap<>();
+            statistics.put("sum", sum);
+            statistics.put("average", sum / summary.count);
+            statistics.put("max", summary.max);
+            statistics.put("min", summary.min);
+            result.put("statistics", statistics);
+        }
+        result.put("success", true);
+        logger.info("DataProcessorPlugin 流式输入处理完成，数字: {}, 跳过: {}", summary.count, input.getSkippedCount());
+        return result;
+    }
+    
     /**
      * 处理Map数据
      */
@@ -147,6 +339,198 @@ public class DataProcessorPlugin implements PluginInterface {
         return result;
     }
     
+    /**
+     * 流式处理数据
+     * 列表逐个元素输出，数字元素附带累计统计；字符串逐行输出；Map逐个键值对输出。
+     * 每条结果只在客户端请求时才计算
+     */
+    @Override
+    public Flow.Publisher<?> stream(Object input) {
+        if (input instanceof List) {
+            return IteratorPublisher.of(() -> new ListRecordIterator((List<?>) input));
+        }
+        if (input instanceof String) {
+            String[] lines = ((String) input).split("\\R");
+            return IteratorPublisher.of(() -> new Iterator<Map<String, Object>>() {
+                private int lineNumber;
+
+                @Override
+                public boolean hasNext() {
+                    return lineNumber < lines.length;
+                }
+
+                @Override
+                public Map<String, Object> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    String line = lines[lineNumber++];
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("line", lineNumber);
+                    record.put("length", line.length());
+                    record.put("wordCount", countWords(line));
+                    record.put("upperCase", line.toUpperCase());
+                    return record;
+                }
+            });
+        }
+        if (input instanceof Map) {
+            return IteratorPublisher.of(() -> ((Map<?, ?>) input).entrySet().stream()
+                    .map(entry -> {
+                        Map<String, Object> record = new LinkedHashMap<>();
+                        record.put("key", entry.getKey());
+                        record.put("value", entry.getValue());
+                        record.put("valueType", entry.getValue() != null ? entry.getValue().getClass().getSimpleName() : "null");
+                        return record;
+                    })
+                    .iterator());
+        }
+        return IteratorPublisher.fromIterable(Collections.singletonList(execute(input)));
+    }
+    
+    /**
+     * 列表元素逐条处理，维护累计统计
+     */
+    private static final class ListRecordIterator implements Iterator<Map<String, Object>> {
+        private final List<?> input;
+        private int index;
+        private long numericCount;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        
+        ListRecordIterator(List<?> input) {
+            this.input = input;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return index < input.size();
+        }
+        
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object item = input.get(index);
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("index", index++);
+            record.put("value", item);
+            record.put("dataType", item != null ? item.getClass().getSimpleName() : "null");
+            if (item instanceof Number) {
+                double value = ((Number) item).doubleValue();
+                numericCount++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                record.put("runningSum", sum);
+                record.put("runningAverage", sum / numericCount);
+                record.put("runningMin", min);
+                record.put("runningMax", max);
+            }
+            return record;
+        }
+    }
+    
+    /**
+     * 数字统计值
+     * 求和使用 Neumaier 补偿求和，与 DoubleStream.sum 的算法不同，结果只在舍入误差范围内一致；
+     * 并行计算时各段的合并顺序不固定，结果的最后几位可能因此不同
+     */
+    static final class NumericSummary {
+        private long count;
+        private double sum;
+        private double compensation;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        
+        /**
+         * 累加一段已拆箱的数值
+         */
+        void accept(double[] values, int length) {
+            double s = sum;
+            double c = compensation;
+            double lo = min;
+            double hi = max;
+            for (int i = 0; i < length; i++) {
+                double value = values[i];
+                double t = s + value;
+                c += Math.abs(s) >= Math.abs(value) ? (s - t) + value : (value - t) + s;
+                s = t;
+                lo = Math.min(lo, value);
+                hi = Math.max(hi, value);
+            }
+            sum = s;
+            compensation = c;
+            min = lo;
+            max = hi;
+            count += length;
+        }
+        
+        /**
+         * 合并另一段的统计值
+         */
+        void combine(NumericSummary other) {
+            double t = sum + other.sum;
+            compensation += Math.abs(sum) >= Math.abs(other.sum) ? (sum - t) + other.sum : (other.sum - t) + sum;
+            compensation += other.compensation;
+            sum = t;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            count += other.count;
+        }
+        
+        double getSum() {
+            double result = sum + compensation;
+            // 出现无穷大时补偿项会变成NaN，此时以简单求和为准
+            return Double.isNaN(result) && Double.isInfinite(sum) ? sum : result;
+        }
+    }
+    
+    /**
+     * 分段并行计算统计值，每个子任务把自己的区间拆箱到 double 数组后累加
+     */
+    private static final class SummaryTask extends RecursiveTask<NumericSummary> {
+        private final List<?> input;
+        private final int from;
+        private final int to;
+        
+        SummaryTask(List<?> input, int from, int to) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected NumericSummary compute() {
+            if (to - from <= LEAF_SIZE) {
+                NumericSummary summary = new NumericSummary();
+                double[] chunk = new double[CHUNK_SIZE];
+                int length = 0;
+                for (int i = from; i < to; i++) {
+                    Object item = input.get(i);
+                    if (item instanceof Number) {
+                        chunk[length++] = ((Number) item).doubleValue();
+                        if (length == CHUNK_SIZE) {
+                            summary.accept(chunk, length);
+                            length = 0;
+                        }
+                    }
+                }
+                summary.accept(chunk, length);
+                return summary;
+            }
+            int middle = (from + to) >>> 1;
+            SummaryTask left = new SummaryTask(input, from, middle);
+            left.fork();
+            NumericSummary right = new SummaryTask(input, middle, to).compute();
+            NumericSummary result = left.join();
+            result.combine(right);
+            return result;
+        }
+    }
+    
     @Override
     public void initialize() {
         logger.info("DataProcessorPlugin 初始化完成");
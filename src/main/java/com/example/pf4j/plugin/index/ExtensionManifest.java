@@ -0,0 +1,167 @@
+package com.example.pf4j.plugin.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 插件扩展清单
+ * 由 manifest-processor 模块中的ExtensionManifestProcessor在插件编译期生成，宿主加载插件时读取。
+ * 处理器独立构建，RESOURCE_PATH、FORMAT_VERSION 和 normalizeName 在处理器中各有一份，修改时需保持一致
+ */
+public class ExtensionManifest {
+
+    /**
+     * 清单在插件JAR中的位置
+     */
+    public static final String RESOURCE_PATH = "META-INF/extension-manifest.json";
+
+    /**
+     * 清单格式版本
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private int formatVersion;
+    private List<ExtensionInfo> extensions = new ArrayList<>();
+
+    /**
+     * 规范化扩展名称，与宿主按类名模糊匹配插件的规则保持一致
+     * @param simpleName 类简单名称
+     * @return 去掉extension和plugin后的小写名称
+     */
+    public static String normalizeName(String simpleName) {
+        return simpleName.toLowerCase().replace("extension", "").replace("plugin", "");
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public void setFormatVersion(int formatVersion) {
+        this.formatVersion = formatVersion;
+    }
+
+    public List<ExtensionInfo> getExtensions() {
+        return extensions;
+    }
+
+    public void setExtensions(List<ExtensionInfo> extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * 扩展类信息
+     */
+    public static class ExtensionInfo {
+        private String className;
+        private String simpleName;
+        private List<String> names = new ArrayList<>();
+        private List<String> extensionPoints = new ArrayList<>();
+        private List<MethodInfo> methods = new ArrayList<>();
+
+        public String getClassName() {
+            return className;
+        }
+
+        public void setClassName(String className) {
+            this.className = className;
+        }
+
+        public String getSimpleName() {
+            return simpleName;
+        }
+
+        public void setSimpleName(String simpleName) {
+            this.simpleName = simpleName;
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        public void setNames(List<String> names) {
+            this.names = names;
+        }
+
+        public List<String> getExtensionPoints() {
+            return extensionPoints;
+        }
+
+        public void setExtensionPoints(List<String> extensionPoints) {
+            this.extensionPoints = extensionPoints;
+        }
+
+        public List<MethodInfo> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<MethodInfo> methods) {
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * 公开方法签名
+     */
+    public static class MethodInfo {
+        private String name;
+        private String returnType;
+        private List<ParameterInfo> parameters = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getReturnType() {
+            return returnType;
+        }
+
+        public void setReturnType(String returnType) {
+            this.returnType = returnType;
+        }
+
+        public List<ParameterInfo> getParameters() {
+            return parameters;
+        }
+
+        public void setParameters(List<ParameterInfo> parameters) {
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * 方法参数，name为源码中的参数名
+     */
+    public static class ParameterInfo {
+        private String name;
+        private String type;
+        private String typeName;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public void setTypeName(String typeName) {
+            this.typeName = typeName;
+        }
+    }
+}
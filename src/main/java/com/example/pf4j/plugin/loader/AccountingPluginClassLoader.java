@@ -0,0 +1,125 @@
+package com.example.pf4j.plugin.loader;
+
+import org.pf4j.PluginClassLoader;
+import org.pf4j.PluginDescriptor;
+import org.pf4j.PluginManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 带内存统计的插件类加载器
+ * 记录插件自身定义的类数量和字节码大小，供类加载器泄漏检测使用
+ */
+public class AccountingPluginClassLoader extends PluginClassLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountingPluginClassLoader.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ClassLoaderFootprint footprint;
+
+    /**
+     * 类名到字节码大小的索引，首次定义类时按需构建
+     */
+    private volatile Map<String, Long> classSizes;
+
+    public AccountingPluginClassLoader(PluginManager pluginManager, PluginDescriptor pluginDescriptor, ClassLoader parent) {
+        super(pluginManager, pluginDescriptor, parent);
+        this.footprint = new ClassLoaderFootprint(pluginDescriptor.getPluginId());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        Class<?> clazz = super.findClass(name);
+        Long size = getClassSizes().get(name);
+        footprint.recordClass(size != null ? size : 0L);
+        return clazz;
+    }
+
+    /**
+     * 获取内存统计对象
+     */
+    public ClassLoaderFootprint getFootprint() {
+        return footprint;
+    }
+
+    private Map<String, Long> getClassSizes() {
+        Map<String, Long> sizes = classSizes;
+        if (sizes == null) {
+            synchronized (this) {
+                sizes = classSizes;
+                if (sizes == null) {
+                    sizes = indexClassSizes();
+                    classSizes = sizes;
+                }
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * 扫描插件类路径，读取每个类文件的大小
+     * 只读取目录项和ZIP中央目录，不解压类文件内容
+     */
+    private Map<String, Long> indexClassSizes() {
+        Map<String, Long> sizes = new HashMap<>();
+        for (URL url : getURLs()) {
+            if (!"file".equals(url.getProtocol())) {
+                continue;
+            }
+            try {
+                Path path = Paths.get(url.toURI());
+                if (Files.isDirectory(path)) {
+                    indexDirectory(path, sizes);
+                } else if (Files.isRegularFile(path)) {
+                    indexArchive(path, sizes);
+                }
+            } catch (IOException | URISyntaxException e) {
+                logger.debug("统计插件类大小失败: {}", url, e);
+            }
+        }
+        return sizes;
+    }
+
+    private void indexDirectory(Path root, Map<String, Long> sizes) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(file -> file.toString().endsWith(CLASS_SUFFIX)).forEach(file -> {
+                String relative = root.relativize(file).toString().replace('\\', '/');
+                try {
+                    sizes.put(toClassName(relative), Files.size(file));
+                } catch (IOException e) {
+                    logger.debug("读取类文件大小失败: {}", file, e);
+                }
+            });
+        }
+    }
+
+    private void indexArchive(Path archive, Map<String, Long> sizes) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(CLASS_SUFFIX)) {
+                    sizes.put(toClassName(entry.getName()), entry.getSize());
+                }
+            }
+        }
+    }
+
+    private static String toClassName(String resourcePath) {
+        return resourcePath.substring(0, resourcePath.length() - CLASS_SUFFIX.length()).replace('/', '.');
+    }
+}
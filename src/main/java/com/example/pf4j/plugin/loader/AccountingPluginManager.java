@@ -0,0 +1,80 @@
+package com.example.pf4j.plugin.loader;
+
+import org.pf4j.CompoundPluginLoader;
+import org.pf4j.DefaultPluginLoader;
+import org.pf4j.DefaultPluginManager;
+import org.pf4j.DevelopmentPluginLoader;
+import org.pf4j.JarPluginLoader;
+import org.pf4j.PluginClassLoader;
+import org.pf4j.PluginDescriptor;
+import org.pf4j.PluginLoader;
+import org.pf4j.PluginManager;
+
+import java.nio.file.Path;
+
+/**
+ * 带内存统计的插件管理器
+ * 与DefaultPluginManager的加载规则一致，只是所有插件都使用AccountingPluginClassLoader加载
+ */
+public class AccountingPluginManager extends DefaultPluginManager {
+
+    public AccountingPluginManager(Path... pluginsRoots) {
+        super(pluginsRoots);
+    }
+
+    @Override
+    protected PluginLoader createPluginLoader() {
+        return new CompoundPluginLoader()
+                .add(new AccountingDevelopmentPluginLoader(this), this::isDevelopment)
+                .add(new AccountingJarPluginLoader(this), () -> !isDevelopment())
+                .add(new AccountingDefaultPluginLoader(this), () -> !isDevelopment());
+    }
+
+    /**
+     * JAR插件加载器
+     */
+    static class AccountingJarPluginLoader extends JarPluginLoader {
+
+        AccountingJarPluginLoader(PluginManager pluginManager) {
+            super(pluginManager);
+        }
+
+        @Override
+        public ClassLoader loadPlugin(Path pluginPath, PluginDescriptor pluginDescriptor) {
+            PluginClassLoader pluginClassLoader = new AccountingPluginClassLoader(
+                    pluginManager, pluginDescriptor, getClass().getClassLoader());
+            pluginClassLoader.addFile(pluginPath.toFile());
+            return pluginClassLoader;
+        }
+    }
+
+    /**
+     * 目录插件加载器
+     */
+    static class AccountingDefaultPluginLoader extends DefaultPluginLoader {
+
+        AccountingDefaultPluginLoader(PluginManager pluginManager) {
+            super(pluginManager);
+        }
+
+        @Override
+        protected PluginClassLoader createPluginClassLoader(Path pluginPath, PluginDescriptor pluginDescriptor) {
+            return new AccountingPluginClassLoader(pluginManager, pluginDescriptor, getClass().getClassLoader());
+        }
+    }
+
+    /**
+     * 开发模式插件加载器
+     */
+    static class AccountingDevelopmentPluginLoader extends DevelopmentPluginLoader {
+
+        AccountingDevelopmentPluginLoader(PluginManager pluginManager) {
+            super(pluginManager);
+        }
+
+        @Override
+        protected PluginClassLoader createPluginClassLoader(Path pluginPath, PluginDescriptor pluginDescriptor) {
+            return new AccountingPluginClassLoader(pluginManager, pluginDescriptor, getClass().getClassLoader());
+        }
+    }
+}
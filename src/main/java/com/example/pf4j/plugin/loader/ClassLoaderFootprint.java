@@ -0,0 +1,47 @@
+package com.example.pf4j.plugin.loader;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 插件类加载器内存占用统计
+ * 独立于类加载器本身存在，类加载器被回收后统计数据依然可读
+ */
+public class ClassLoaderFootprint {
+
+    private final String pluginId;
+    private final LongAdder loadedClasses = new LongAdder();
+    private final LongAdder classBytes = new LongAdder();
+
+    public ClassLoaderFootprint(String pluginId) {
+        this.pluginId = pluginId;
+    }
+
+    /**
+     * 记录一个由插件类加载器定义的类
+     * @param bytecodeSize 类字节码大小，未知时为0
+     */
+    void recordClass(long bytecodeSize) {
+        loadedClasses.increment();
+        if (bytecodeSize > 0) {
+            classBytes.add(bytecodeSize);
+        }
+    }
+
+    public String getPluginId() {
+        return pluginId;
+    }
+
+    /**
+     * 获取已定义的类数量
+     */
+    public long getLoadedClasses() {
+        return loadedClasses.sum();
+    }
+
+    /**
+     * 获取已定义类的字节码总大小，用于估算元空间和堆占用
+     */
+    public long getClassBytes() {
+        return classBytes.sum();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.pf4j.plugin.stream;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 基于迭代器的数据流
+ * 只在订阅者请求数据时才调用迭代器取下一个元素，生产速度完全由消费方决定。
+ * 迭代器实现 {@link AutoCloseable} 时（例如数据库游标），在完成、出错或取消后自动关闭
+ *
+ * @param <T> 元素类型
+ */
+public final class IteratorPublisher<T> implements Flow.Publisher<T> {
+
+    private final Supplier<? extends Iterator<? extends T>> source;
+
+    private IteratorPublisher(Supplier<? extends Iterator<? extends T>> source) {
+        this.source = source;
+    }
+
+    /**
+     * 创建数据流，每个订阅者都会从source获取一个新的迭代器
+     *
+     * @param source 迭代器来源
+     * @return 数据流
+     */
+    public static <T> IteratorPublisher<T> of(Supplier<? extends Iterator<? extends T>> source) {
+        return new IteratorPublisher<>(Objects.requireNonNull(source, "source"));
+    }
+
+    /**
+     * 基于可重复遍历的数据源创建数据流
+     *
+     * @param iterable 数据源
+     * @return 数据流
+     */
+    public static <T> IteratorPublisher<T> fromIterable(Iterable<? extends T> iterable) {
+        Objects.requireNonNull(iterable, "iterable");
+        return new IteratorPublisher<>(iterable::iterator);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Iterator<? extends T> iterator;
+        try {
+            iterator = source.get();
+        } catch (Throwable e) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(e);
+            return;
+        }
+        subscriber.onSubscribe(new IteratorSubscription<>(subscriber, iterator));
+    }
+
+    /**
+     * 迭代器订阅
+     * 请求量累加在自身的计数中，由一个drain循环串行地发送元素，
+     * 订阅者在onNext中再次request不会产生递归
+     */
+    private static final class IteratorSubscription<T> extends AtomicLong implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Iterator<? extends T> iterator;
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        IteratorSubscription(Flow.Subscriber<? super T> subscriber, Iterator<? extends T> iterator) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (!cancelled) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("请求数量必须大于0: " + n));
+                }
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+                next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                if (wip.getAndIncrement() == 0) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long requested = get();
+                long emitted = 0L;
+                while (emitted != requested) {
+                    if (cancelled) {
+                        close();
+                        return;
+                    }
+                    T item;
+                    try {
+                        if (!iterator.hasNext()) {
+                            cancelled = true;
+                            close();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        item = Objects.requireNonNull(iterator.next(), "数据流元素不能为null");
+                    } catch (Throwable e) {
+                        cancelled = true;
+                        close();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    subscriber.onNext(item);
+                    emitted++;
+                }
+                if (cancelled) {
+                    close();
+                    return;
+                }
+                if (emitted != 0L && requested != Long.MAX_VALUE) {
+                    addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void close() {
+            if (iterator instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) iterator).close();
+                } catch (Exception ignored) {
+                    // 关闭失败不影响数据流结果
+                }
+            }
+        }
+    }
+
+    private enum EmptySubscription implements Flow.Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+            // 数据流已结束
+        }
+
+        @Override
+        public void cancel() {
+            // 数据流已结束
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.pf4j.plugin.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+/**
+ * 流式输入
+ * 请求体不预先绑定为 Map/List，而是由插件按需从解析器拉取，任何时刻只有当前元素在内存中。
+ * 输入可以是一个顶层数组，也可以是连续的多个顶层值（NDJSON），两种形式都按“元素”逐个读取：
+ * <ul>
+ *     <li>{@link #records(Class)} 每次把一个元素绑定为对象</li>
+ *     <li>{@link #readDoubles(double[])} 把数字元素直接读入 double 数组，不创建装箱对象</li>
+ *     <li>{@link #parser()} 直接按token读取，适合深层嵌套的结构</li>
+ * </ul>
+ * 同一个输入只能读取一次，由宿主在调用结束后关闭
+ */
+public final class JsonInput implements AutoCloseable {
+
+    private final JsonParser parser;
+
+    /**
+     * 是否已经确定输入形式
+     */
+    private boolean started;
+
+    /**
+     * 顶层是数组时为true，元素读到 END_ARRAY 结束；否则读到输入结束
+     */
+    private boolean array;
+
+    /**
+     * 确定输入形式时已读出第一个顶层值的token，下次读取元素时直接返回
+     */
+    private boolean pushBack;
+
+    private boolean finished;
+    private long skipped;
+
+    public JsonInput(JsonParser parser) {
+        this.parser = Objects.requireNonNull(parser, "parser");
+    }
+
+    /**
+     * 底层解析器，需要按token读取时使用
+     * 直接读取后不要再混用本类的按元素读取方法
+     */
+    public JsonParser parser() {
+        return parser;
+    }
+
+    /**
+     * 输入是否为顶层数组，空输入返回false
+     */
+    public boolean isArray() throws IOException {
+        start();
+        return array;
+    }
+
+    /**
+     * 读取下一个元素的第一个token
+     *
+     * @return 元素的第一个token，没有更多元素时返回null
+     */
+    public JsonToken nextElement() throws IOException {
+        start();
+        if (finished) {
+            return null;
+        }
+        if (pushBack) {
+            pushBack = false;
+            return parser.currentToken();
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            finished = true;
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * 把数字元素读入缓冲区，非数字元素跳过并计入 {@link #getSkippedCount()}
+     *
+     * @param buffer 缓冲区
+     * @return 本次读入的个数，没有更多元素时返回-1
+     */
+    public int readDoubles(double[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            JsonToken token = nextElement();
+            if (token == null) {
+                return length == 0 ? -1 : length;
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                buffer[length++] = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+                skipped++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 逐个处理数字元素，内部按块读取
+     *
+     * @return 处理的数字个数
+     */
+    public long forEachDouble(DoubleConsumer consumer) throws IOException {
+        double[] buffer = new double[1024];
+        long count = 0;
+        int length;
+        while ((length = readDoubles(buffer)) > 0) {
+            for (int i = 0; i < length; i++) {
+                consumer.accept(buffer[i]);
+            }
+            count += length;
+        }
+        return count;
+    }
+
+    /**
+     * 逐个把元素绑定为指定类型，每次只解析一个元素
+     * 解析出错时迭代器抛出 {@link UncheckedIOException}
+     *
+     * @param type 元素类型，例如 Map.class
+     * @return 元素迭代器
+     */
+    public <T> Iterator<T> records(Class<T> type) {
+        return new Iterator<T>() {
+            private JsonToken next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !finished) {
+                    try {
+                        next = nextElement();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                next = null;
+                try {
+                    return parser.readValueAs(type);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * 把整个输入绑定为指定类型，只适合小输入，不能与按元素读取混用
+     */
+    public <T> T readValue(Class<T> type) throws IOException {
+        if (started) {
+            throw new IllegalStateException("输入已开始按元素读取");
+        }
+        started = true;
+        finished = true;
+        return parser.nextToken() == null ? null : parser.readValueAs(type);
+    }
+
+    /**
+     * 因不是数字而被 {@link #readDoubles(double[])} 跳过的元素数
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * 已读取的字节数，解析器基于字符输入创建时为字符数
+     */
+    public long getBytesRead() {
+        long bytes = parser.getCurrentLocation().getByteOffset();
+        return bytes >= 0 ? bytes : parser.getCurrentLocation().getCharOffset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        JsonToken first = parser.nextToken();
+        if (first == null) {
+            finished = true;
+        } else if (first == JsonToken.START_ARRAY) {
+            array = true;
+        } else {
+            // 顶层不是数组，把第一个值当作第一个元素，后续顶层值依次作为元素
+            pushBack = true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pf4j.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 以GCRA（通用信元速率算法）实现，与令牌桶等价：只保存一个"理论到达时间"，
+ * 每次获取令牌是一次CAS，不需要后台补充线程，也不需要加锁
+ */
+public final class TokenBucket {
+
+    /**
+     * 每个令牌对应的时间间隔（纳秒）
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * 允许的突发容量对应的时间（纳秒）
+     */
+    private final long burstToleranceNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond 每秒产生的令牌数
+     * @param burst 桶容量，即允许的最大突发请求数
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("速率必须大于0且容量至少为1");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - burstToleranceNanos - emissionIntervalNanos);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @return 获取成功返回0，否则返回需要等待的纳秒数
+     */
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = Math.max(tat, now);
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * 归还一个令牌，用于获取成功后因其他条件未能放行的调用
+     * 最多恢复到桶满的状态，不会超出容量
+     */
+    public void refund() {
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            if (tat <= now) {
+                return;
+            }
+            if (theoreticalArrival.compareAndSet(tat, Math.max(tat - emissionIntervalNanos, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 桶是否已补满，补满的桶可以安全丢弃
+     *
+     * @return 是否已补满
+     */
+    public boolean isIdle() {
+        return theoreticalArrival.get() <= System.nanoTime();
+    }
+}
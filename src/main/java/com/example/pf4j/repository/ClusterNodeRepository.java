@@ -0,0 +1,52 @@
+package com.example.pf4j.repository;
+
+import com.example.pf4j.entity.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * ClusterNode Repository接口
+ * 
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+    
+    /**
+     * 更新节点心跳
+     * 
+     * @param nodeId 节点ID
+     * @param heartbeatTime 心跳时间
+     * @return 影响行数，0表示节点记录不存在
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClusterNode n SET n.heartbeatTime = :heartbeatTime WHERE n.nodeId = :nodeId")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("heartbeatTime") long heartbeatTime);
+    
+    /**
+     * 查询心跳未过期的节点
+     * 
+     * @param since 心跳时间下限
+     * @return 节点列表，按节点ID排序
+     */
+    List<ClusterNode> findByHeartbeatTimeGreaterThanEqualOrderByNodeIdAsc(long since);
+    
+    /**
+     * 删除长时间没有心跳的节点记录
+     * 
+     * @param before 心跳时间上限
+     * @return 删除数量
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterNode n WHERE n.heartbeatTime < :before")
+    int deleteByHeartbeatTimeBefore(@Param("before") long before);
+}
@@ -0,0 +1,54 @@
+package com.example.pf4j.repository;
+
+import com.example.pf4j.entity.JobExecutionHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * JobExecutionHistory Repository接口
+ * 写入由 JobHistoryService 通过JDBC批量插入，这里只负责查询和保留策略
+ * 
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+@Repository
+public interface JobExecutionHistoryRepository extends JpaRepository<JobExecutionHistory, Long>,
+        JpaSpecificationExecutor<JobExecutionHistory> {
+    
+    /**
+     * 查询最小ID
+     * 
+     * @return 最小ID，表为空时返回null
+     */
+    @Query("SELECT MIN(h.id) FROM JobExecutionHistory h")
+    Long findMinId();
+    
+    /**
+     * 查询指定时间之前的最大ID
+     * 
+     * @param before 时间点
+     * @return 最大ID，没有记录时返回null
+     */
+    @Query("SELECT MAX(h.id) FROM JobExecutionHistory h WHERE h.fireTime < :before")
+    Long findMaxIdBefore(@Param("before") LocalDateTime before);
+    
+    /**
+     * 按ID区间删除指定时间之前的记录，每次只删除一个区间以避免长事务和大范围锁
+     * 
+     * @param fromId 起始ID（包含）
+     * @param toId 结束ID（不包含）
+     * @param before 时间点
+     * @return 删除数量
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JobExecutionHistory h WHERE h.id >= :fromId AND h.id < :toId AND h.fireTime < :before")
+    int deleteRangeBefore(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("before") LocalDateTime before);
+}
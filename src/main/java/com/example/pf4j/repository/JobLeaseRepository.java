@@ -0,0 +1,89 @@
+package com.example.pf4j.repository;
+
+import com.example.pf4j.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JobLease Repository接口
+ * 租约的获取、续期和释放都是单条带条件的UPDATE，由数据库保证同一时刻只有一个节点成功
+ * 
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+    
+    /**
+     * 抢占已过期的租约，成功时租约令牌加一
+     * 
+     * @param leaseKey 租约键
+     * @param owner 节点ID
+     * @param expireTime 新的过期时间
+     * @param staleBefore 只有过期时间早于该值的租约才能被抢占
+     * @param updateTime 更新时间
+     * @return 影响行数，1表示抢占成功
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.expireTime = :expireTime, l.fenceToken = l.fenceToken + 1, " +
+           "l.updateTime = :updateTime WHERE l.leaseKey = :leaseKey AND l.expireTime < :staleBefore")
+    int acquire(@Param("leaseKey") String leaseKey, @Param("owner") String owner, @Param("expireTime") long expireTime,
+                @Param("staleBefore") long staleBefore, @Param("updateTime") LocalDateTime updateTime);
+    
+    /**
+     * 批量续期本节点仍然持有的租约
+     * 
+     * @param leaseKeys 租约键列表
+     * @param owner 节点ID
+     * @param expireTime 新的过期时间
+     * @param updateTime 更新时间
+     * @return 续期成功的数量
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLease l SET l.expireTime = :expireTime, l.updateTime = :updateTime " +
+           "WHERE l.leaseKey IN :leaseKeys AND l.owner = :owner")
+    int renew(@Param("leaseKeys") Collection<String> leaseKeys, @Param("owner") String owner,
+              @Param("expireTime") long expireTime, @Param("updateTime") LocalDateTime updateTime);
+    
+    /**
+     * 释放本节点持有的租约，过期时间记为释放时间，分片的首选节点可以立即抢占
+     * 
+     * @param leaseKeys 租约键列表
+     * @param owner 节点ID
+     * @param releaseTime 释放时间
+     * @param updateTime 更新时间
+     * @return 释放的数量
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLease l SET l.owner = NULL, l.expireTime = :releaseTime, l.updateTime = :updateTime " +
+           "WHERE l.leaseKey IN :leaseKeys AND l.owner = :owner")
+    int release(@Param("leaseKeys") Collection<String> leaseKeys, @Param("owner") String owner,
+                @Param("releaseTime") long releaseTime, @Param("updateTime") LocalDateTime updateTime);
+    
+    /**
+     * 查询指定租约
+     * 
+     * @param leaseKeys 租约键列表
+     * @return 租约列表
+     */
+    List<JobLease> findByLeaseKeyIn(Collection<String> leaseKeys);
+    
+    /**
+     * 查询节点持有的租约
+     * 
+     * @param owner 节点ID
+     * @return 租约列表
+     */
+    List<JobLease> findByOwner(String owner);
+}
@@ -0,0 +1,13 @@
+package com.example.pf4j.scheduler;
+
+/**
+ * 可能在某次触发中不实际执行的任务，例如集群模式下本节点未持有租约。
+ * 调度器据此决定是否计入执行次数和执行历史
+ */
+public interface ConditionalTask extends Runnable {
+
+    /**
+     * 最近一次 {@link #run()} 是否实际执行了任务，由调度器在同一线程中run返回后调用
+     */
+    boolean lastRunExecuted();
+}
@@ -0,0 +1,279 @@
+package com.example.pf4j.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 哈希时间轮
+ * 所有定时项按到期tick散列到环形槽位中，单个tick线程每个tick只处理一个槽位，
+ * 添加和取消都是O(1)，数万个定时项也只需要一个线程推进时间。
+ * 到期回调在tick线程上执行，只应做把任务交给工作线程这类轻量操作
+ */
+public final class HashedTimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    /**
+     * 每个tick最多从待添加队列转移的定时项数量，避免大量新增时长时间占用tick线程
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final Thread tickThread;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * 创建并启动时间轮
+     *
+     * @param tickDuration 每个tick的时长
+     * @param unit 时间单位
+     * @param wheelSize 槽位数量，会向上取整为2的幂
+     * @param threadName tick线程名称
+     */
+    public HashedTimingWheel(long tickDuration, TimeUnit unit, int wheelSize, String threadName) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tick时长必须大于0: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("槽位数量必须在1到2^30之间: " + wheelSize);
+        }
+        int normalized = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (wheelSize == 1) {
+            normalized = 1;
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[normalized];
+        for (int i = 0; i < normalized; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = normalized - 1;
+        this.startTime = System.nanoTime();
+        this.tickThread = new Thread(this::run, threadName);
+        this.tickThread.setDaemon(true);
+        this.tickThread.start();
+    }
+
+    /**
+     * 添加定时项
+     *
+     * @param task 到期回调，在tick线程上执行
+     * @param delay 延迟时间
+     * @param unit 时间单位
+     * @return 定时项句柄，可用于取消
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("时间轮已停止");
+        }
+        long deadline = System.nanoTime() - startTime + Math.max(0L, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, task, deadline);
+        size.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 当前未到期且未取消的定时项数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 已到期执行的定时项总数
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    public long getTickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    public int getWheelSize() {
+        return wheel.length;
+    }
+
+    /**
+     * 停止时间轮，未到期的定时项不再执行
+     */
+    public void stop() {
+        running = false;
+        tickThread.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            if (!waitForNextTick()) {
+                continue;
+            }
+            transferPending();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    /**
+     * 等待到下一个tick
+     *
+     * @return 时间轮已停止时返回false
+     */
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - current + 999_999L) / 1_000_000L;
+            if (sleepMillis <= 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 定时项句柄
+     */
+    public static final class Timeout {
+
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedTimingWheel timingWheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedTimingWheel timingWheel, Runnable task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消定时项
+         * 只做状态标记，槽位中的节点在tick线程下次经过该槽位时移除
+         *
+         * @return 取消成功返回true，已到期或已取消返回false
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(INIT, CANCELLED)) {
+                timingWheel.size.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(INIT, EXPIRED)) {
+                return;
+            }
+            timingWheel.size.decrementAndGet();
+            timingWheel.expiredCount.incrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.warn("时间轮定时项执行失败: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 槽位，双向链表，只由tick线程访问
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    // 槽位按到期tick计算，轮次归零时到期时间一定不晚于当前tick
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
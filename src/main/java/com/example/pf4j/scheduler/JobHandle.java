@@ -0,0 +1,67 @@
+package com.example.pf4j.scheduler;
+
+/**
+ * 任务句柄
+ * 由调度服务返回，用于查询、暂停、恢复和取消单个任务
+ */
+public interface JobHandle {
+
+    /**
+     * 任务ID，全局唯一
+     */
+    long getId();
+
+    /**
+     * 任务名称
+     */
+    String getName();
+
+    /**
+     * 任务所属插件ID，宿主任务为null
+     */
+    String getOwner();
+
+    JobState getState();
+
+    /**
+     * 是否正在执行
+     */
+    boolean isRunning();
+
+    /**
+     * 下一次触发时间（毫秒时间戳），没有下一次触发时返回-1
+     */
+    long getNextFireTime();
+
+    /**
+     * 上一次开始执行的时间（毫秒时间戳），尚未执行时返回-1
+     */
+    long getLastFireTime();
+
+    long getExecutionCount();
+
+    long getFailureCount();
+
+    long getMisfireCount();
+
+    /**
+     * 暂停任务，正在进行的执行不受影响
+     *
+     * @return 状态是否发生变化
+     */
+    boolean pause();
+
+    /**
+     * 恢复任务，暂停期间错过的触发按错过触发策略处理
+     *
+     * @return 状态是否发生变化
+     */
+    boolean resume();
+
+    /**
+     * 取消任务，正在进行的执行不受影响
+     *
+     * @return 状态是否发生变化
+     */
+    boolean cancel();
+}
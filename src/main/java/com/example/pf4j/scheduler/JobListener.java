@@ -0,0 +1,28 @@
+package com.example.pf4j.scheduler;
+
+/**
+ * 任务执行监听器
+ * 错过触发在tick线程上回调，执行结束在工作线程上回调，回调时不持有任务的锁；
+ * 实现仍不应阻塞，否则会推迟同一tick上其他任务的触发
+ */
+public interface JobListener {
+
+    /**
+     * 任务执行结束
+     *
+     * @param job 任务
+     * @param fireTime 实际触发时间（毫秒时间戳）
+     * @param durationMillis 执行耗时
+     * @param error 执行失败时的异常，成功时为null
+     */
+    void onExecuted(JobHandle job, long fireTime, long durationMillis, Throwable error);
+
+    /**
+     * 任务错过触发
+     *
+     * @param job 任务
+     * @param scheduledTime 计划触发时间（毫秒时间戳）
+     * @param fired 按错过触发策略是否补执行
+     */
+    void onMisfire(JobHandle job, long scheduledTime, boolean fired);
+}
@@ -0,0 +1,448 @@
+package com.example.pf4j.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 任务调度器
+ * 用一个哈希时间轮维护所有任务的下一次触发时间，到期后交给共享的工作线程池执行。
+ * 同一个任务不会并发执行，上一次执行未结束时的触发按错过触发处理
+ */
+public final class JobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    private final HashedTimingWheel timingWheel;
+    private final ExecutorService workers;
+    private final long misfireThresholdMillis;
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong();
+    private volatile JobListener listener;
+
+    /**
+     * @param timingWheel 时间轮
+     * @param workers 执行任务的线程池，同一任务同一时刻最多占用一个队列位置
+     * @param misfireThresholdMillis 实际触发晚于计划时间超过该值时视为错过触发
+     */
+    public JobScheduler(HashedTimingWheel timingWheel, ExecutorService workers, long misfireThresholdMillis) {
+        this.timingWheel = timingWheel;
+        this.workers = workers;
+        this.misfireThresholdMillis = misfireThresholdMillis;
+    }
+
+    /**
+     * 调度任务
+     *
+     * @param name 任务名称
+     * @param owner 所属插件ID，宿主任务为null
+     * @param trigger 触发器
+     * @param misfirePolicy 错过触发策略
+     * @param task 任务
+     * @param classLoader 执行任务时使用的线程上下文类加载器
+     * @return 任务句柄
+     */
+    public JobHandle schedule(String name, String owner, JobTrigger trigger, MisfirePolicy misfirePolicy,
+                              Runnable task, ClassLoader classLoader) {
+        Objects.requireNonNull(trigger, "trigger");
+        Objects.requireNonNull(task, "task");
+        Job job = new Job(idGenerator.incrementAndGet(), name, owner, trigger,
+                misfirePolicy != null ? misfirePolicy : MisfirePolicy.FIRE_NOW, task, classLoader);
+        jobs.put(job.id, job);
+        synchronized (job) {
+            job.arm(trigger.nextFireTime(System.currentTimeMillis()));
+        }
+        logger.debug("任务已调度: {}#{} [{}], 所属: {}", name, job.id, trigger, owner);
+        return job;
+    }
+
+    /**
+     * 获取任务
+     *
+     * @param id 任务ID
+     * @return 任务句柄，不存在或已结束时返回null
+     */
+    public JobHandle getJob(long id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * 获取所有未结束的任务
+     */
+    public List<JobHandle> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * 获取指定插件的未结束任务
+     */
+    public List<JobHandle> getJobs(String owner) {
+        List<JobHandle> result = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (Objects.equals(owner, job.owner)) {
+                result.add(job);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取消指定插件的所有任务
+     *
+     * @param owner 插件ID
+     * @return 取消的任务数量
+     */
+    public int cancelAll(String owner) {
+        int cancelled = 0;
+        for (Job job : jobs.values()) {
+            if (Objects.equals(owner, job.owner) && job.cancel()) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * 设置任务执行监听器
+     *
+     * @param listener 监听器，为null时不通知
+     */
+    public void setListener(JobListener listener) {
+        this.listener = listener;
+    }
+
+    private void notifyExecuted(JobHandle job, long fireTime, long durationMillis, Throwable error) {
+        JobListener current = listener;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.onExecuted(job, fireTime, durationMillis, error);
+        } catch (RuntimeException e) {
+            logger.warn("任务监听器执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void notifyMisfire(JobHandle job, long scheduledTime, boolean fired) {
+        JobListener current = listener;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.onMisfire(job, scheduledTime, fired);
+        } catch (RuntimeException e) {
+            logger.warn("任务监听器执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    public int getJobCount() {
+        return jobs.size();
+    }
+
+    public HashedTimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    /**
+     * 停止调度，正在执行的任务在线程池关闭时被中断
+     */
+    public void shutdown() {
+        timingWheel.stop();
+        workers.shutdownNow();
+        jobs.clear();
+    }
+
+    private final class Job implements JobHandle {
+
+        private final long id;
+        private final String name;
+        private final String owner;
+        private final JobTrigger trigger;
+        private final MisfirePolicy misfirePolicy;
+        private final Runnable task;
+        private final ClassLoader classLoader;
+        private final AtomicLong executionCount = new AtomicLong();
+        private final AtomicLong failureCount = new AtomicLong();
+        private final AtomicLong misfireCount = new AtomicLong();
+
+        private volatile JobState state = JobState.SCHEDULED;
+        private volatile long nextFireTime = -1L;
+        private volatile long lastFireTime = -1L;
+        private volatile long submitTime;
+
+        /**
+         * 是否正在执行或已提交待执行，与 {@link #pendingFire} 一起只在持有当前对象的锁时修改
+         */
+        private volatile boolean running;
+
+        /**
+         * 执行期间到达的FIRE_NOW补执行请求，当前执行结束后立即再执行一次
+         */
+        private boolean pendingFire;
+
+        private HashedTimingWheel.Timeout timeout;
+
+        Job(long id, String name, String owner, JobTrigger trigger, MisfirePolicy misfirePolicy,
+            Runnable task, ClassLoader classLoader) {
+            this.id = id;
+            this.name = name;
+            this.owner = owner;
+            this.trigger = trigger;
+            this.misfirePolicy = misfirePolicy;
+            this.task = task;
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * 设置下一次触发，调用方持有当前对象的锁
+         */
+        private void arm(long fireAt) {
+            nextFireTime = fireAt;
+            if (fireAt < 0) {
+                state = JobState.COMPLETED;
+                jobs.remove(id);
+                return;
+            }
+            long delay = Math.max(0L, fireAt - System.currentTimeMillis());
+            timeout = timingWheel.schedule(() -> fire(fireAt), delay, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 时间轮到期回调，在tick线程上执行
+         * 只在锁内决定是否执行和设置下一次触发，监听器通知和提交到线程池都在释放锁之后进行，
+         * 避免慢监听器或执行中的任务阻塞时间轮
+         */
+        private void fire(long scheduledAt) {
+            long now;
+            boolean late;
+            boolean busy;
+            boolean dispatch;
+            synchronized (this) {
+                if (state != JobState.SCHEDULED) {
+                    return;
+                }
+                now = System.currentTimeMillis();
+                late = now - scheduledAt > misfireThresholdMillis;
+                busy = running;
+                if (!late && !busy) {
+                    dispatch = claim(now);
+                    arm(trigger.nextFireTime(scheduledAt));
+                } else {
+                    misfireCount.incrementAndGet();
+                    dispatch = misfirePolicy == MisfirePolicy.FIRE_NOW && claim(now);
+                    arm(trigger.nextFireTime(now));
+                }
+            }
+            if (late || busy) {
+                logger.debug("任务错过触发: {}#{}, 计划时间: {}, 延迟: {}ms, 上次执行未结束: {}, 策略: {}",
+                        name, id, scheduledAt, now - scheduledAt, busy, misfirePolicy);
+                notifyMisfire(this, scheduledAt, misfirePolicy == MisfirePolicy.FIRE_NOW);
+            }
+            if (dispatch) {
+                dispatch();
+            }
+        }
+
+        /**
+         * 占用执行权，调用方持有当前对象的锁
+         * 上一次执行未结束时记录补执行请求，由执行结束时在同一把锁内消费
+         *
+         * @return 是否取得执行权，取得后调用方在释放锁之后调用 {@link #dispatch()}
+         */
+        private boolean claim(long now) {
+            if (running) {
+                pendingFire = pendingFire || misfirePolicy == MisfirePolicy.FIRE_NOW;
+                return false;
+            }
+            running = true;
+            submitTime = now;
+            return true;
+        }
+
+        /**
+         * 提交到线程池，不持有当前对象的锁
+         */
+        private void dispatch() {
+            try {
+                workers.execute(this::execute);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running = false;
+                    pendingFire = false;
+                }
+                logger.warn("任务提交失败，调度器已关闭: {}#{}", name, id);
+            }
+        }
+
+        private void execute() {
+            Thread thread = Thread.currentThread();
+            ClassLoader previous = thread.getContextClassLoader();
+            if (classLoader != null) {
+                thread.setContextClassLoader(classLoader);
+            }
+            long fireTime = submitTime;
+            long startNanos = System.nanoTime();
+            Throwable error = null;
+            boolean executed = true;
+            try {
+                task.run();
+                if (task instanceof ConditionalTask) {
+                    executed = ((ConditionalTask) task).lastRunExecuted();
+                }
+            } catch (Throwable e) {
+                error = e;
+                logger.warn("任务执行失败: {}#{}, 所属: {}, 错误: {}", name, id, owner, e.getMessage(), e);
+            } finally {
+                thread.setContextClassLoader(previous);
+            }
+            try {
+                if (executed) {
+                    lastFireTime = fireTime;
+                    if (error == null) {
+                        executionCount.incrementAndGet();
+                    } else {
+                        failureCount.incrementAndGet();
+                    }
+                    notifyExecuted(this, fireTime, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), error);
+                }
+            } finally {
+                // 释放执行权和消费补执行请求在同一把锁内完成，期间到达的触发要么被本次消费，要么看到任务空闲而直接提交
+                boolean again;
+                synchronized (this) {
+                    // 暂停和取消会清除补执行请求，触发器已结束时仍补上已承诺的这一次
+                    again = pendingFire;
+                    pendingFire = false;
+                    if (again) {
+                        submitTime = System.currentTimeMillis();
+                    } else {
+                        running = false;
+                    }
+                }
+                if (again) {
+                    dispatch();
+                }
+            }
+        }
+
+        @Override
+        public synchronized boolean pause() {
+            if (state != JobState.SCHEDULED) {
+                return false;
+            }
+            state = JobState.PAUSED;
+            pendingFire = false;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean resume() {
+            long now;
+            long missedFireTime = -1L;
+            boolean dispatch = false;
+            synchronized (this) {
+                if (state != JobState.PAUSED) {
+                    return false;
+                }
+                state = JobState.SCHEDULED;
+                now = System.currentTimeMillis();
+                if (nextFireTime >= 0 && now - nextFireTime > misfireThresholdMillis) {
+                    // 暂停期间错过了触发
+                    missedFireTime = nextFireTime;
+                    misfireCount.incrementAndGet();
+                    dispatch = misfirePolicy == MisfirePolicy.FIRE_NOW && claim(now);
+                    arm(trigger.nextFireTime(now));
+                } else {
+                    arm(nextFireTime);
+                }
+            }
+            if (missedFireTime >= 0) {
+                notifyMisfire(this, missedFireTime, misfirePolicy == MisfirePolicy.FIRE_NOW);
+            }
+            if (dispatch) {
+                dispatch();
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean cancel() {
+            if (state == JobState.CANCELLED || state == JobState.COMPLETED) {
+                return false;
+            }
+            state = JobState.CANCELLED;
+            pendingFire = false;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            jobs.remove(id);
+            return true;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOwner() {
+            return owner;
+        }
+
+        @Override
+        public JobState getState() {
+            return state;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public long getNextFireTime() {
+            return state == JobState.SCHEDULED ? nextFireTime : -1L;
+        }
+
+        @Override
+        public long getLastFireTime() {
+            return lastFireTime;
+        }
+
+        @Override
+        public long getExecutionCount() {
+            return executionCount.get();
+        }
+
+        @Override
+        public long getFailureCount() {
+            return failureCount.get();
+        }
+
+        @Override
+        public long getMisfireCount() {
+            return misfireCount.get();
+        }
+
+        @Override
+        public String toString() {
+            return name + "#" + id + " [" + trigger + ", " + state + "]";
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pf4j.scheduler;
+
+/**
+ * 任务状态
+ */
+public enum JobState {
+
+    /**
+     * 等待下一次触发
+     */
+    SCHEDULED,
+
+    /**
+     * 已暂停，恢复前不会触发
+     */
+    PAUSED,
+
+    /**
+     * 触发器没有下一次触发时间，任务已结束
+     */
+    COMPLETED,
+
+    /**
+     * 已取消
+     */
+    CANCELLED
+}
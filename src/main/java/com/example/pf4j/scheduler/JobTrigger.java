@@ -0,0 +1,117 @@
+package com.example.pf4j.scheduler;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * 任务触发器
+ * 根据给定时间计算下一次触发时间，实现必须是无状态的
+ */
+public interface JobTrigger {
+
+    /**
+     * 计算严格晚于给定时间的下一次触发时间
+     *
+     * @param afterMillis 毫秒时间戳
+     * @return 下一次触发的毫秒时间戳，没有下一次触发时返回-1
+     */
+    long nextFireTime(long afterMillis);
+
+    /**
+     * cron触发器，使用系统默认时区
+     *
+     * @param expression Spring格式的cron表达式（秒 分 时 日 月 周）
+     * @return 触发器
+     */
+    static JobTrigger cron(String expression) {
+        return cron(expression, ZoneId.systemDefault());
+    }
+
+    /**
+     * cron触发器
+     *
+     * @param expression Spring格式的cron表达式（秒 分 时 日 月 周）
+     * @param zone 时区
+     * @return 触发器
+     */
+    static JobTrigger cron(String expression, ZoneId zone) {
+        CronExpression cron = CronExpression.parse(expression);
+        return new JobTrigger() {
+            @Override
+            public long nextFireTime(long afterMillis) {
+                ZonedDateTime next = cron.next(ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), zone));
+                return next != null ? next.toInstant().toEpochMilli() : -1L;
+            }
+
+            @Override
+            public String toString() {
+                return "cron(" + expression + ")";
+            }
+        };
+    }
+
+    /**
+     * 固定频率触发器，从当前时间起每隔period触发一次
+     *
+     * @param period 触发间隔
+     * @return 触发器
+     */
+    static JobTrigger fixedRate(Duration period) {
+        return fixedRate(period, period);
+    }
+
+    /**
+     * 固定频率触发器
+     * 触发时间固定为 start + n * period，不受执行耗时和调度延迟影响
+     *
+     * @param period 触发间隔
+     * @param initialDelay 首次触发延迟
+     * @return 触发器
+     */
+    static JobTrigger fixedRate(Duration period, Duration initialDelay) {
+        long periodMillis = period.toMillis();
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("触发间隔必须大于0: " + period);
+        }
+        long start = System.currentTimeMillis() + Math.max(0L, initialDelay.toMillis());
+        return new JobTrigger() {
+            @Override
+            public long nextFireTime(long afterMillis) {
+                if (afterMillis < start) {
+                    return start;
+                }
+                return start + ((afterMillis - start) / periodMillis + 1) * periodMillis;
+            }
+
+            @Override
+            public String toString() {
+                return "fixedRate(" + periodMillis + "ms)";
+            }
+        };
+    }
+
+    /**
+     * 只触发一次的触发器
+     *
+     * @param delay 延迟时间
+     * @return 触发器
+     */
+    static JobTrigger once(Duration delay) {
+        long fireAt = System.currentTimeMillis() + Math.max(0L, delay.toMillis());
+        return new JobTrigger() {
+            @Override
+            public long nextFireTime(long afterMillis) {
+                return afterMillis < fireAt ? fireAt : -1L;
+            }
+
+            @Override
+            public String toString() {
+                return "once(" + Instant.ofEpochMilli(fireAt) + ")";
+            }
+        };
+    }
+}
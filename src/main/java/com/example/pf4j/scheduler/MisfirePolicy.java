@@ -0,0 +1,18 @@
+package com.example.pf4j.scheduler;
+
+/**
+ * 错过触发时间的处理策略
+ * 以下情况视为错过触发：调度延迟超过阈值、上一次执行尚未结束、任务在暂停期间错过了触发时间
+ */
+public enum MisfirePolicy {
+
+    /**
+     * 立即补执行一次，多次错过也只补一次，之后按触发器继续调度
+     */
+    FIRE_NOW,
+
+    /**
+     * 放弃错过的执行，等待下一个触发时间
+     */
+    SKIP
+}
@@ -0,0 +1,18 @@
+package com.example.pf4j.scheduler;
+
+/**
+ * 分片任务
+ * 任务数据按分片号划分，集群模式下每个分片每次触发只在一个节点上执行，
+ * 不同分片分散到不同节点，节点越多整体吞吐越高
+ */
+@FunctionalInterface
+public interface ShardedTask {
+
+    /**
+     * 执行一个分片
+     *
+     * @param partition 分片号，从0开始
+     * @param partitionCount 分片总数
+     */
+    void run(int partition, int partitionCount);
+}
@@ -0,0 +1,66 @@
+package com.example.pf4j.security;
+
+import com.example.pf4j.service.ApiTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * API令牌认证过滤器
+ * 从 Authorization: Bearer 或 X-API-Key 请求头读取凭证并在本地校验，
+ * 校验通过后只写入当前请求的SecurityContext，不创建会话。
+ * 未携带凭证的请求原样放行，由后续的授权规则处理
+ */
+public class ApiTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiTokenAuthenticationFilter.class);
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ApiTokenService tokenService;
+
+    public ApiTokenAuthenticationFilter(ApiTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String apiKey = request.getHeader(API_KEY_HEADER);
+
+        Authentication authentication = null;
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            authentication = tokenService.verifyToken(authorization.substring(BEARER_PREFIX.length()).trim());
+        } else if (apiKey != null && !apiKey.isEmpty()) {
+            authentication = tokenService.verifyApiKey(apiKey);
+        } else {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (authentication == null) {
+            logger.debug("API凭证校验失败: {}", request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write("{\"error\":\"未授权访问\",\"message\":\"令牌无效或已过期\"}");
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        filterChain.doFilter(request, response);
+    }
+}
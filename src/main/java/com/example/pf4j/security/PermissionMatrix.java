@@ -0,0 +1,403 @@
+package com.example.pf4j.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 权限矩阵
+ * 用户和角色统称主体，主体与操作分别映射为连续的整数ID，每个主体的有效权限是一个按操作ID索引的位图。
+ * 主体可以继承其他主体（角色），有效权限 = (所有父主体的有效权限 | 直接授予) & ~直接拒绝。
+ * 修改时只重新计算受影响的主体及其后代，按拓扑顺序逐行发布新位图，每次修改的开销只与受影响的主体数有关；
+ * 位图表只在容量翻倍时重新分配，新增主体不复制已有的行。
+ * 权限判断不加锁、不分配对象，只需读取一行位图和其中一个long。已发布的位图不再修改，读取方看到的每一行都是完整的
+ */
+public final class PermissionMatrix {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final String name;
+    private final Map<String, Integer> subjectIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> operationIds = new ConcurrentHashMap<>();
+
+    /**
+     * 主体ID -> 有效权限位图，逐行发布：修改时替换对应行的数组，已发布的数组不再写入；
+     * 容量不足时复制引用到翻倍的新表后再发布
+     */
+    private volatile AtomicReferenceArray<long[]> effective = new AtomicReferenceArray<>(16);
+
+    /**
+     * 以下字段只在持有本对象锁时访问
+     */
+    private final List<Subject> subjects = new ArrayList<>();
+    private final List<String> operations = new ArrayList<>();
+    private long updates;
+
+    public PermissionMatrix(String name) {
+        this.name = name;
+    }
+
+    // ==================== 权限判断 ====================
+
+    /**
+     * 判断主体是否拥有操作权限，未登记的主体或操作一律拒绝
+     */
+    public boolean isAllowed(String subject, String operation) {
+        Integer subjectId = subjectIds.get(subject);
+        Integer operationId = operationIds.get(operation);
+        return subjectId != null && operationId != null && isAllowed(subjectId, operationId);
+    }
+
+    /**
+     * 判断主体是否拥有操作权限，未登记的主体按默认主体（通常是默认角色）的权限判断
+     * 不会为未登记的主体分配ID，调用方传入任意多的主体名也不会让矩阵增长
+     *
+     * @param subject 主体
+     * @param defaultSubject 主体未登记时代为判断的主体
+     * @param operation 操作
+     */
+    public boolean isAllowed(String subject, String defaultSubject, String operation) {
+        Integer subjectId = subjectIds.get(subject);
+        if (subjectId == null) {
+            subjectId = subjectIds.get(defaultSubject);
+        }
+        Integer operationId = operationIds.get(operation);
+        return subjectId != null && operationId != null && isAllowed(subjectId, operationId);
+    }
+
+    /**
+     * 按ID判断权限，ID可由 {@link #subjectId(String)} 和 {@link #operationId(String)} 预先取得
+     */
+    public boolean isAllowed(int subjectId, int operationId) {
+        AtomicReferenceArray<long[]> table = effective;
+        if (subjectId < 0 || subjectId >= table.length() || operationId < 0) {
+            return false;
+        }
+        long[] bits = table.get(subjectId);
+        int word = operationId >>> 6;
+        return bits != null && word < bits.length && (bits[word] & (1L << operationId)) != 0;
+    }
+
+    /**
+     * 获取主体ID，未登记时返回-1
+     */
+    public int subjectId(String subject) {
+        Integer id = subjectIds.get(subject);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * 获取操作ID，未登记时返回-1
+     */
+    public int operationId(String operation) {
+        Integer id = operationIds.get(operation);
+        return id != null ? id : -1;
+    }
+
+    public boolean hasSubject(String subject) {
+        return subjectIds.containsKey(subject);
+    }
+
+    // ==================== 修改 ====================
+
+    /**
+     * 授予权限，同时撤销对该操作的直接拒绝
+     */
+    public synchronized void grant(String subject, String... operations) {
+        Subject target = intern(subject);
+        for (String operation : operations) {
+            int id = internOperation(operation);
+            target.grants = set(target.grants, id);
+            target.denies = clear(target.denies, id);
+        }
+        recompute(target);
+    }
+
+    /**
+     * 拒绝权限，优先于继承得到的授予
+     */
+    public synchronized void deny(String subject, String... operations) {
+        Subject target = intern(subject);
+        for (String operation : operations) {
+            int id = internOperation(operation);
+            target.denies = set(target.denies, id);
+            target.grants = clear(target.grants, id);
+        }
+        recompute(target);
+    }
+
+    /**
+     * 撤销直接授予和直接拒绝，恢复为继承得到的权限
+     */
+    public synchronized void reset(String subject, String... operations) {
+        Subject target = intern(subject);
+        for (String operation : operations) {
+            int id = internOperation(operation);
+            target.grants = clear(target.grants, id);
+            target.denies = clear(target.denies, id);
+        }
+        recompute(target);
+    }
+
+    /**
+     * 按Map设置主体的直接权限，true为授予，false为拒绝，替换原有的直接权限
+     */
+    public synchronized void setPermissions(String subject, Map<String, Boolean> permissions) {
+        Subject target = intern(subject);
+        target.grants = EMPTY;
+        target.denies = EMPTY;
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            int id = internOperation(entry.getKey());
+            if (Boolean.TRUE.equals(entry.getValue())) {
+                target.grants = set(target.grants, id);
+            } else {
+                target.denies = set(target.denies, id);
+            }
+        }
+        recompute(target);
+    }
+
+    /**
+     * 让主体继承父主体（通常是角色）的权限
+     *
+     * @throws IllegalArgumentException 形成循环继承时
+     */
+    public synchronized void inherit(String subject, String parent) {
+        Subject child = intern(subject);
+        Subject base = intern(parent);
+        if (child == base || reaches(child, base)) {
+            throw new IllegalArgumentException("循环继承: " + subject + " -> " + parent);
+        }
+        if (!child.parents.contains(base)) {
+            child.parents.add(base);
+            base.children.add(child);
+            recompute(child);
+        }
+    }
+
+    /**
+     * 取消继承
+     */
+    public synchronized void disinherit(String subject, String parent) {
+        Integer childId = subjectIds.get(subject);
+        Integer parentId = subjectIds.get(parent);
+        if (childId == null || parentId == null) {
+            return;
+        }
+        Subject child = subjects.get(childId);
+        Subject base = subjects.get(parentId);
+        if (child.parents.remove(base)) {
+            base.children.remove(child);
+            recompute(child);
+        }
+    }
+
+    /**
+     * 清除主体的直接权限和继承关系，ID保留不复用，继承它的主体随之失去相应权限
+     */
+    public synchronized void removeSubject(String subject) {
+        Integer id = subjectIds.get(subject);
+        if (id == null) {
+            return;
+        }
+        Subject target = subjects.get(id);
+        target.grants = EMPTY;
+        target.denies = EMPTY;
+        for (Subject parent : target.parents) {
+            parent.children.remove(target);
+        }
+        target.parents.clear();
+        recompute(target);
+    }
+
+    private Subject intern(String name) {
+        Integer id = subjectIds.get(name);
+        if (id != null) {
+            return subjects.get(id);
+        }
+        Subject subject = new Subject(subjects.size(), name);
+        subjects.add(subject);
+        AtomicReferenceArray<long[]> table = effective;
+        if (subject.id >= table.length()) {
+            AtomicReferenceArray<long[]> grown = new AtomicReferenceArray<>(table.length() * 2);
+            for (int i = 0; i < subject.id; i++) {
+                grown.set(i, table.get(i));
+            }
+            table = grown;
+        }
+        table.set(subject.id, EMPTY);
+        effective = table;
+        // 位图表发布后再登记名称，按名称查到ID时对应槽位一定已存在
+        subjectIds.put(name, subject.id);
+        return subject;
+    }
+
+    private int internOperation(String operation) {
+        Integer id = operationIds.get(operation);
+        if (id != null) {
+            return id;
+        }
+        int newId = operations.size();
+        operations.add(operation);
+        operationIds.put(operation, newId);
+        return newId;
+    }
+
+    /**
+     * 判断from是否能沿继承关系到达target
+     */
+    private boolean reaches(Subject from, Subject target) {
+        List<Subject> stack = new ArrayList<>(target.parents);
+        Set<Subject> visited = new HashSet<>();
+        while (!stack.isEmpty()) {
+            Subject current = stack.remove(stack.size() - 1);
+            if (current == from) {
+                return true;
+            }
+            if (visited.add(current)) {
+                stack.addAll(current.parents);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 重新计算主体及其全部后代的有效权限
+     * 后序遍历后代得到逆拓扑序，反转后保证计算每个主体时它的父主体都已是最新结果
+     */
+    private void recompute(Subject root) {
+        List<Subject> order = new ArrayList<>();
+        collectPostOrder(root, new HashSet<>(), order);
+        Collections.reverse(order);
+        // 按拓扑顺序逐行发布，计算每个主体时它的父主体都已是新位图；读取方看到的每一行要么是旧位图要么是新位图
+        AtomicReferenceArray<long[]> table = effective;
+        for (Subject subject : order) {
+            long[] bits = subject.grants.clone();
+            for (Subject parent : subject.parents) {
+                bits = or(bits, table.get(parent.id));
+            }
+            table.set(subject.id, andNot(bits, subject.denies));
+        }
+        updates++;
+    }
+
+    private void collectPostOrder(Subject subject, Set<Subject> visited, List<Subject> order) {
+        if (!visited.add(subject)) {
+            return;
+        }
+        for (Subject child : subject.children) {
+            collectPostOrder(child, visited, order);
+        }
+        order.add(subject);
+    }
+
+    private static long[] set(long[] bits, int index) {
+        long[] result = Arrays.copyOf(bits, Math.max(bits.length, (index >>> 6) + 1));
+        result[index >>> 6] |= 1L << index;
+        return result;
+    }
+
+    private static long[] clear(long[] bits, int index) {
+        if ((index >>> 6) >= bits.length) {
+            return bits;
+        }
+        long[] result = bits.clone();
+        result[index >>> 6] &= ~(1L << index);
+        return result;
+    }
+
+    private static long[] or(long[] bits, long[] other) {
+        long[] result = bits.length >= other.length ? bits : Arrays.copyOf(bits, other.length);
+        for (int i = 0; i < other.length; i++) {
+            result[i] |= other[i];
+        }
+        return result;
+    }
+
+    private static long[] andNot(long[] bits, long[] mask) {
+        for (int i = 0; i < Math.min(bits.length, mask.length); i++) {
+            bits[i] &= ~mask[i];
+        }
+        return bits;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 获取主体的有效权限列表
+     */
+    public synchronized List<String> effectivePermissions(String subject) {
+        Integer id = subjectIds.get(subject);
+        if (id == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (int operation = 0; operation < operations.size(); operation++) {
+            if (isAllowed(id, operation)) {
+                result.add(operations.get(operation));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取主体直接继承的父主体
+     */
+    public synchronized List<String> parents(String subject) {
+        Integer id = subjectIds.get(subject);
+        if (id == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (Subject parent : subjects.get(id).parents) {
+            result.add(parent.name);
+        }
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取矩阵统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        long bitmapBytes = 0;
+        AtomicReferenceArray<long[]> table = effective;
+        for (int i = 0; i < subjects.size(); i++) {
+            bitmapBytes += (long) table.get(i).length * Long.BYTES;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("subjects", subjects.size());
+        stats.put("operations", operations.size());
+        stats.put("bitmapBytes", bitmapBytes);
+        stats.put("updates", updates);
+        return stats;
+    }
+
+    /**
+     * 主体的直接权限和继承关系
+     */
+    private static final class Subject {
+        private final int id;
+        private final String name;
+        private long[] grants = EMPTY;
+        private long[] denies = EMPTY;
+        private final List<Subject> parents = new ArrayList<>(2);
+        private final List<Subject> children = new ArrayList<>(2);
+
+        Subject(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pf4j.security;
+
+/**
+ * 当前请求的认证信息快照
+ * 每个请求只从SecurityContext读取并计算一次，之后的认证和角色判断都基于该快照
+ */
+public final class PrincipalSnapshot {
+
+    public static final PrincipalSnapshot ANONYMOUS = new PrincipalSnapshot(null, false, 0L, 0L);
+
+    private final String username;
+    private final boolean authenticated;
+    private final long roleBits;
+    private final long adminBit;
+
+    public PrincipalSnapshot(String username, boolean authenticated, long roleBits, long adminBit) {
+        this.username = username;
+        this.authenticated = authenticated;
+        this.roleBits = roleBits;
+        this.adminBit = adminBit;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    /**
+     * 获取角色位图
+     * @return 角色位图
+     */
+    public long getRoleBits() {
+        return roleBits;
+    }
+
+    public boolean isAdmin() {
+        return adminBit != 0L && (roleBits & adminBit) != 0L;
+    }
+
+    /**
+     * 判断是否拥有任一指定角色
+     * @param mask 角色位图
+     * @return 是否拥有
+     */
+    public boolean hasAnyRole(long mask) {
+        return (roleBits & mask) != 0L;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.pf4j.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 角色位图注册表
+ * 为每个角色分配一个固定的位，角色集合可以用一个long表示，权限判断只需一次按位与
+ */
+@Component
+public class RoleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+
+    public static final String ROLE_PREFIX = "ROLE_";
+    public static final String ADMIN = "ADMIN";
+
+    /**
+     * long最多容纳64个角色
+     */
+    private static final int MAX_ROLES = Long.SIZE;
+
+    private final Map<String, Long> roleBits = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBit = new AtomicInteger();
+
+    public RoleRegistry() {
+        // 管理员固定占用第0位
+        bit(ADMIN);
+    }
+
+    /**
+     * 获取角色对应的位，首次出现的角色自动分配
+     *
+     * @param role 角色名，可以带ROLE_前缀
+     * @return 角色位，超出容量时返回0
+     */
+    public long bit(String role) {
+        String name = role.startsWith(ROLE_PREFIX) ? role.substring(ROLE_PREFIX.length()) : role;
+        Long bit = roleBits.get(name);
+        if (bit != null) {
+            return bit;
+        }
+        return roleBits.computeIfAbsent(name, key -> {
+            int index = nextBit.getAndIncrement();
+            if (index >= MAX_ROLES) {
+                logger.warn("角色数量超过上限 {}，忽略角色: {}", MAX_ROLES, key);
+                return 0L;
+            }
+            return 1L << index;
+        });
+    }
+
+    /**
+     * 计算角色集合的位图
+     *
+     * @param roles 角色名集合
+     * @return 位图
+     */
+    public long mask(Collection<String> roles) {
+        long mask = 0L;
+        for (String role : roles) {
+            mask |= bit(role.trim());
+        }
+        return mask;
+    }
+
+    /**
+     * 获取管理员角色位
+     *
+     * @return 管理员角色位
+     */
+    public long adminBit() {
+        return bit(ADMIN);
+    }
+}
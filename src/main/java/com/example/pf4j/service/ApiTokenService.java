@@ -0,0 +1,302 @@
+package com.example.pf4j.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * API令牌服务
+ * 签发和校验HMAC签名的无状态令牌，以及面向机器客户端的API Key。
+ * 令牌只在本地校验签名，校验通过的令牌会缓存到过期为止，不需要服务端会话
+ *
+ * <pre>
+ * pf4j:
+ *   security:
+ *     token:
+ *       secret: 集群内所有节点使用相同的密钥
+ *       ttl-seconds: 3600
+ *     api-keys:
+ *       - name: ci-runner
+ *         key-sha256: API Key的SHA-256十六进制摘要
+ *         roles: ADMIN
+ * </pre>
+ */
+@Service
+public class ApiTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiTokenService.class);
+
+    private static final String TOKEN_VERSION = "v1";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${pf4j.security.token.secret:}")
+    private String secret;
+
+    @Value("${pf4j.security.token.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${pf4j.security.token.cache-size:10000}")
+    private int cacheSize;
+
+    private SecretKeySpec signingKey;
+
+    /**
+     * 已校验令牌缓存，令牌到认证对象
+     */
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * API Key摘要到认证对象
+     */
+    private volatile Map<String, Authentication> apiKeys = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isEmpty()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            logger.warn("未配置 pf4j.security.token.secret，使用随机密钥，重启后或其他节点签发的令牌将失效");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        signingKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+
+        List<ApiKeyConfig> keys = Binder.get(environment)
+                .bind("pf4j.security.api-keys", Bindable.listOf(ApiKeyConfig.class))
+                .orElse(Collections.emptyList());
+        Map<String, Authentication> compiled = new HashMap<>();
+        for (ApiKeyConfig key : keys) {
+            if (key.getKeySha256() == null || key.getName() == null) {
+                logger.warn("忽略不完整的API Key配置: {}", key.getName());
+                continue;
+            }
+            compiled.put(key.getKeySha256().toLowerCase(), createAuthentication(key.getName(),
+                    AuthorityUtils.commaSeparatedStringToAuthorityList(toAuthorities(key.getRoles()))));
+        }
+        apiKeys = compiled;
+        logger.info("API令牌服务初始化完成, 令牌有效期: {}秒, API Key数量: {}", ttlSeconds, compiled.size());
+    }
+
+    /**
+     * 为已认证用户签发令牌
+     *
+     * @param authentication 认证对象
+     * @return 令牌
+     */
+    public String issueToken(Authentication authentication) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = encode(authentication.getName() + "\n" + roles + "\n" + expiresAt);
+        String body = TOKEN_VERSION + "." + payload;
+        return body + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    /**
+     * 获取令牌有效期
+     * @return 有效期（秒）
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * 校验令牌
+     *
+     * @param token 令牌
+     * @return 认证对象，令牌无效或已过期时返回null
+     */
+    public Authentication verifyToken(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (cached.expiresAtMillis > now) {
+                return cached.authentication;
+            }
+            verifiedTokens.remove(token);
+            return null;
+        }
+
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !TOKEN_VERSION.equals(parts[0])) {
+            return null;
+        }
+        byte[] signature;
+        String[] fields;
+        try {
+            signature = DECODER.decode(parts[2]);
+            fields = new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (fields.length != 3 || !MessageDigest.isEqual(signature, sign(parts[0] + "." + parts[1]))) {
+            return null;
+        }
+        long expiresAtMillis;
+        try {
+            expiresAtMillis = Long.parseLong(fields[2]) * 1000;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAtMillis <= now) {
+            return null;
+        }
+
+        Authentication authentication = createAuthentication(fields[0],
+                AuthorityUtils.commaSeparatedStringToAuthorityList(fields[1]));
+        if (verifiedTokens.size() >= cacheSize) {
+            evictExpired(now);
+        }
+        if (verifiedTokens.size() < cacheSize) {
+            verifiedTokens.put(token, new VerifiedToken(authentication, expiresAtMillis));
+        }
+        return authentication;
+    }
+
+    /**
+     * 校验API Key
+     *
+     * @param apiKey API Key
+     * @return 认证对象，无效时返回null
+     */
+    public Authentication verifyApiKey(String apiKey) {
+        Map<String, Authentication> keys = apiKeys;
+        if (keys.isEmpty()) {
+            return null;
+        }
+        return keys.get(sha256Hex(apiKey));
+    }
+
+    private void evictExpired(long now) {
+        verifiedTokens.values().removeIf(verified -> verified.expiresAtMillis <= now);
+        if (verifiedTokens.size() >= cacheSize) {
+            // 仍然已满说明有效令牌过多，清空后重新校验
+            verifiedTokens.clear();
+        }
+    }
+
+    private Authentication createAuthentication(String username, Collection<? extends GrantedAuthority> authorities) {
+        return new UsernamePasswordAuthenticationToken(username, null, authorities);
+    }
+
+    private String toAuthorities(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .collect(Collectors.joining(","));
+    }
+
+    private byte[] sign(String body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("令牌签名失败", e);
+        }
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 计算SHA-256十六进制摘要
+     *
+     * @param value 原文
+     * @return 十六进制摘要
+     */
+    public static String sha256Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    private static class VerifiedToken {
+        private final Authentication authentication;
+        private final long expiresAtMillis;
+
+        VerifiedToken(Authentication authentication, long expiresAtMillis) {
+            this.authentication = authentication;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * API Key配置
+     */
+    public static class ApiKeyConfig {
+        private String name;
+        private String keySha256;
+        private String roles;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getKeySha256() {
+            return keySha256;
+        }
+
+        public void setKeySha256(String keySha256) {
+            this.keySha256 = keySha256;
+        }
+
+        public String getRoles() {
+            return roles;
+        }
+
+        public void setRoles(String roles) {
+            this.roles = roles;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.pf4j.service;
 
+import com.example.pf4j.security.PrincipalSnapshot;
+import com.example.pf4j.security.RoleRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * 认证服务类
@@ -12,55 +18,100 @@ import org.springframework.stereotype.Service;
 @Service
 public class AuthService {
 
+    /**
+     * 请求属性名，保存当前请求的认证信息快照
+     */
+    private static final String SNAPSHOT_ATTRIBUTE = AuthService.class.getName() + ".PRINCIPAL_SNAPSHOT";
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    /**
+     * 获取当前请求的认证信息快照
+     * 同一请求内只读取一次SecurityContext，非请求线程中每次重新计算
+     *
+     * @return 认证信息快照
+     */
+    public PrincipalSnapshot getPrincipalSnapshot() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return createSnapshot(getCurrentAuthentication());
+        }
+        Authentication authentication = getCurrentAuthentication();
+        Object cached = attributes.getAttribute(SNAPSHOT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof CachedSnapshot && ((CachedSnapshot) cached).authentication == authentication) {
+            return ((CachedSnapshot) cached).snapshot;
+        }
+        PrincipalSnapshot snapshot = createSnapshot(authentication);
+        attributes.setAttribute(SNAPSHOT_ATTRIBUTE, new CachedSnapshot(authentication, snapshot),
+                RequestAttributes.SCOPE_REQUEST);
+        return snapshot;
+    }
+
+    private PrincipalSnapshot createSnapshot(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return PrincipalSnapshot.ANONYMOUS;
+        }
+        Object principal = authentication.getPrincipal();
+        String username = principal instanceof UserDetails
+                ? ((UserDetails) principal).getUsername()
+                : String.valueOf(principal);
+        long roleBits = 0L;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (authority.getAuthority() != null && authority.getAuthority().startsWith(RoleRegistry.ROLE_PREFIX)) {
+                roleBits |= roleRegistry.bit(authority.getAuthority());
+            }
+        }
+        boolean authenticated = !"anonymousUser".equals(authentication.getName());
+        return new PrincipalSnapshot(username, authenticated, roleBits, roleRegistry.adminBit());
+    }
+
     /**
      * 获取当前登录用户的用户名
-     * 
+     *
      * @return 当前用户名，如果未登录返回null
      */
     public String getCurrentUsername() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            Object principal = authentication.getPrincipal();
-            if (principal instanceof UserDetails) {
-                return ((UserDetails) principal).getUsername();
-            } else {
-                return principal.toString();
-            }
-        }
-        return null;
+        return getPrincipalSnapshot().getUsername();
     }
 
     /**
      * 检查当前用户是否已认证
-     * 
+     *
      * @return 如果已认证返回true，否则返回false
      */
     public boolean isAuthenticated() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication != null && authentication.isAuthenticated() 
-               && !"anonymousUser".equals(authentication.getName());
+        return getPrincipalSnapshot().isAuthenticated();
     }
 
     /**
      * 检查当前用户是否具有管理员权限
-     * 
+     *
      * @return 如果是管理员返回true，否则返回false
      */
     public boolean isAdmin() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            return authentication.getAuthorities().stream()
-                    .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
-        }
-        return false;
+        return getPrincipalSnapshot().isAdmin();
     }
 
     /**
      * 获取当前用户的认证信息
-     * 
+     *
      * @return 认证对象
      */
     public Authentication getCurrentAuthentication() {
         return SecurityContextHolder.getContext().getAuthentication();
     }
-}
\ No newline at end of file
+
+    /**
+     * 与认证对象绑定的快照，登录、登出后认证对象变化时重新计算
+     */
+    private static class CachedSnapshot {
+        private final Authentication authentication;
+        private final PrincipalSnapshot snapshot;
+
+        CachedSnapshot(Authentication authentication, PrincipalSnapshot snapshot) {
+            this.authentication = authentication;
+            this.snapshot = snapshot;
+        }
+    }
+}
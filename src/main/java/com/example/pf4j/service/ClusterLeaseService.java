@@ -0,0 +1,553 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.entity.ClusterNode;
+import com.example.pf4j.entity.JobLease;
+import com.example.pf4j.repository.ClusterNodeRepository;
+import com.example.pf4j.repository.JobLeaseRepository;
+import com.example.pf4j.scheduler.ConditionalTask;
+import com.example.pf4j.scheduler.JobHandle;
+import com.example.pf4j.scheduler.JobState;
+import com.example.pf4j.scheduler.ShardedTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 集群任务租约服务
+ * 多节点部署时，每个定时任务（或任务分片）在数据库租约表中对应一行，节点只有持有未过期的租约才执行。
+ * 租约由心跳批量续期，节点宕机后租约过期，其他节点在下一次触发时接管。
+ * 心跳在独立线程上执行，不受共享调度线程上其他定时任务的延迟影响；
+ * 任务在提交副作用前可通过 {@link #ensureLeaseHeld()} 确认租约仍然有效。
+ * 各分片按最高随机权重哈希（rendezvous hashing）在存活节点间分配首选节点，首选节点在租约过期后立即抢占，
+ * 其他节点需再等待一个租约时长，以兼容只在部分节点上部署了该插件的情况。
+ * 租约时间使用各节点本地时钟，节点间时钟偏差需远小于租约时长
+ */
+@Service
+public class ClusterLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterLeaseService.class);
+
+    /**
+     * 单条IN语句中的租约键数量上限
+     */
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+
+    @Autowired
+    private ClusterNodeRepository nodeRepository;
+
+    @Value("${pf4j.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pf4j.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${pf4j.cluster.lease-ttl-ms:30000}")
+    private long leaseTtlMillis;
+
+    @Value("${pf4j.cluster.heartbeat-ms:5000}")
+    private long heartbeatMillis;
+
+    @Value("${pf4j.cluster.node-ttl-ms:15000}")
+    private long nodeTtlMillis;
+
+    @Value("${pf4j.cluster.clock-skew-ms:1000}")
+    private long clockSkewMillis;
+
+    private String nodeId;
+
+    /**
+     * 存活节点ID，按ID排序
+     */
+    private volatile List<String> liveNodes = Collections.emptyList();
+
+    /**
+     * 存活节点集合每变化一次加一
+     */
+    private volatile int membershipVersion;
+
+    private final Set<LeasedTask> tasks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 租约键 -> 本节点对该租约的本地视图
+     */
+    private final Map<String, LeaseState> leases = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在执行的分片对应的租约键
+     */
+    private final ThreadLocal<String> currentLease = new ThreadLocal<>();
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    @PostConstruct
+    public void init() {
+        nodeId = StringUtils.hasText(configuredNodeId) ? configuredNodeId : defaultNodeId();
+        liveNodes = Collections.singletonList(nodeId);
+        if (enabled) {
+            heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cluster-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+            logger.info("集群任务租约已启用, 节点ID: {}, 租约时长: {}ms", nodeId, leaseTtlMillis);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (!enabled) {
+            return;
+        }
+        heartbeatExecutor.shutdownNow();
+        // 主动释放租约并注销节点，其他节点无需等待租约过期即可接管
+        try {
+            List<String> held = leases.entrySet().stream()
+                    .filter(entry -> entry.getValue().heldUntil > 0)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            release(held, System.currentTimeMillis());
+            nodeRepository.deleteById(nodeId);
+            logger.info("集群节点已注销: {}, 释放租约: {}", nodeId, held.size());
+        } catch (Exception e) {
+            logger.warn("集群节点注销失败: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 包装需要集群互斥执行的任务
+     *
+     * @param key 任务在集群内的唯一键
+     * @param partitionCount 分片数量，不分片的任务为1
+     * @param task 任务
+     * @return 包装后的任务，调度后需调用 {@link LeasedTask#bind(JobHandle)}
+     */
+    public LeasedTask leased(String key, int partitionCount, ShardedTask task) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("分片数量必须大于0: " + partitionCount);
+        }
+        LeasedTask leasedTask = new LeasedTask(key, partitionCount, task);
+        tasks.add(leasedTask);
+        return leasedTask;
+    }
+
+    /**
+     * 确认当前线程正在执行的分片仍持有租约
+     * 租约在本地视图中即将过期时同步续期一次，续期失败说明租约已被其他节点接管。
+     * 不在租约任务中调用时直接返回
+     *
+     * @throws IllegalStateException 租约已失效，本次执行不应再提交任何副作用
+     */
+    public void ensureLeaseHeld() {
+        String leaseKey = currentLease.get();
+        if (leaseKey == null) {
+            return;
+        }
+        LeaseState state = leases.get(leaseKey);
+        long now = System.currentTimeMillis();
+        if (state != null && state.heldUntil > now + clockSkewMillis) {
+            return;
+        }
+        if (state != null && state.heldUntil > 0) {
+            long expireTime = now + leaseTtlMillis;
+            if (leaseRepository.renew(Collections.singletonList(leaseKey), nodeId, expireTime, LocalDateTime.now()) == 1) {
+                state.heldUntil = expireTime;
+                return;
+            }
+            state.heldUntil = 0;
+        }
+        logger.warn("任务租约已失效，放弃本次执行: {}", leaseKey);
+        throw new IllegalStateException("任务租约已失效: " + leaseKey);
+    }
+
+    /**
+     * 节点心跳：刷新存活节点、续期本节点持有的租约、释放已结束任务和需要再平衡的租约
+     */
+    private void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            refreshMembership(now);
+            maintainLeases(now);
+        } catch (Exception e) {
+            logger.warn("集群心跳失败, 节点: {}, 错误: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void refreshMembership(long now) {
+        if (nodeRepository.heartbeat(nodeId, now) == 0) {
+            try {
+                nodeRepository.saveAndFlush(new ClusterNode(nodeId, now));
+                logger.info("集群节点已注册: {}", nodeId);
+            } catch (DataIntegrityViolationException e) {
+                nodeRepository.heartbeat(nodeId, now);
+            }
+        }
+        List<String> nodes = nodeRepository.findByHeartbeatTimeGreaterThanEqualOrderByNodeIdAsc(now - nodeTtlMillis)
+                .stream().map(ClusterNode::getNodeId).collect(Collectors.toCollection(ArrayList::new));
+        if (!nodes.contains(nodeId)) {
+            nodes.add(nodeId);
+            Collections.sort(nodes);
+        }
+        if (!nodes.equals(liveNodes)) {
+            logger.info("集群节点变化: {} -> {}", liveNodes, nodes);
+            liveNodes = Collections.unmodifiableList(nodes);
+            membershipVersion++;
+        }
+        nodeRepository.deleteByHeartbeatTimeBefore(now - nodeTtlMillis * 10);
+    }
+
+    private void maintainLeases(long now) {
+        // 租约键 -> 使用该租约的任务是否正在执行
+        Map<String, Boolean> active = new HashMap<>();
+        for (LeasedTask task : tasks) {
+            if (task.isFinished()) {
+                tasks.remove(task);
+                continue;
+            }
+            boolean running = task.handle != null && task.handle.isRunning();
+            for (String leaseKey : task.leaseKeys) {
+                active.merge(leaseKey, running, Boolean::logicalOr);
+            }
+        }
+
+        List<String> toRelease = new ArrayList<>();
+        List<String> toRenew = new ArrayList<>();
+        for (Map.Entry<String, LeaseState> entry : leases.entrySet()) {
+            String leaseKey = entry.getKey();
+            LeaseState state = entry.getValue();
+            Boolean running = active.get(leaseKey);
+            if (running == null) {
+                leases.remove(leaseKey);
+                if (state.heldUntil > 0) {
+                    toRelease.add(leaseKey);
+                }
+            } else if (state.heldUntil > 0) {
+                boolean rebalance = !nodeId.equals(preferredNode(leaseKey)) && state.stickyVersion != membershipVersion;
+                if (rebalance && !running) {
+                    state.heldUntil = 0;
+                    toRelease.add(leaseKey);
+                } else {
+                    toRenew.add(leaseKey);
+                }
+            }
+        }
+        if (!toRelease.isEmpty()) {
+            release(toRelease, now);
+            logger.debug("释放租约: {}", toRelease);
+        }
+        renew(toRenew, now);
+    }
+
+    private void renew(List<String> leaseKeys, long now) {
+        long expireTime = now + leaseTtlMillis;
+        for (List<String> batch : partition(leaseKeys)) {
+            int renewed = leaseRepository.renew(batch, nodeId, expireTime, LocalDateTime.now());
+            Set<String> lost = new HashSet<>();
+            if (renewed < batch.size()) {
+                // 心跳中断超过租约时长时，租约可能已被其他节点接管
+                for (JobLease lease : leaseRepository.findByLeaseKeyIn(batch)) {
+                    if (!nodeId.equals(lease.getOwner())) {
+                        lost.add(lease.getLeaseKey());
+                    }
+                }
+            }
+            for (String leaseKey : batch) {
+                LeaseState state = leases.get(leaseKey);
+                if (state == null) {
+                    continue;
+                }
+                if (lost.contains(leaseKey)) {
+                    state.heldUntil = 0;
+                    logger.warn("任务租约已被其他节点接管: {}", leaseKey);
+                } else {
+                    state.heldUntil = expireTime;
+                }
+            }
+        }
+    }
+
+    private void release(List<String> leaseKeys, long now) {
+        for (List<String> batch : partition(leaseKeys)) {
+            leaseRepository.release(batch, nodeId, now, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 尝试持有租约，在任务执行线程上调用
+     *
+     * @return 本节点持有该租约时返回true
+     */
+    private boolean tryHold(String leaseKey, long now) {
+        LeaseState state = leases.computeIfAbsent(leaseKey, key -> new LeaseState());
+        if (state.heldUntil > now + clockSkewMillis) {
+            return true;
+        }
+        long expireTime = now + leaseTtlMillis;
+        if (state.heldUntil > 0) {
+            // 心跳未能及时续期，执行前单独续期一次
+            if (leaseRepository.renew(Collections.singletonList(leaseKey), nodeId, expireTime, LocalDateTime.now()) == 1) {
+                state.heldUntil = expireTime;
+                return true;
+            }
+            state.heldUntil = 0;
+            logger.warn("任务租约已被其他节点接管: {}", leaseKey);
+        }
+        if (state.otherUntil > now) {
+            return false;
+        }
+
+        boolean preferred = nodeId.equals(preferredNode(leaseKey));
+        long staleBefore = preferred ? now : now - leaseTtlMillis;
+        if (leaseRepository.acquire(leaseKey, nodeId, expireTime, staleBefore, LocalDateTime.now()) == 1) {
+            return onAcquired(leaseKey, state, expireTime, preferred);
+        }
+
+        JobLease lease = leaseRepository.findById(leaseKey).orElse(null);
+        if (lease == null) {
+            // 首次执行，插入未被持有的租约行，由首选节点优先抢占
+            try {
+                leaseRepository.saveAndFlush(new JobLease(leaseKey, null, now - 1));
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("租约已由其他节点创建: {}", leaseKey);
+            }
+            if (leaseRepository.acquire(leaseKey, nodeId, expireTime, staleBefore, LocalDateTime.now()) == 1) {
+                return onAcquired(leaseKey, state, expireTime, preferred);
+            }
+            return false;
+        }
+        if (nodeId.equals(lease.getOwner()) && lease.getExpireTime() > now) {
+            // 同名任务重新调度时沿用本节点已持有的租约
+            state.heldUntil = lease.getExpireTime();
+            state.stickyVersion = preferred ? -1 : membershipVersion;
+            return true;
+        }
+        // 非首选节点在租约过期后再等待一个租约时长，给首选节点留出接管时间
+        long waitUntil = preferred ? lease.getExpireTime() : lease.getExpireTime() + leaseTtlMillis;
+        // 首选节点最多等待一个心跳周期后重新检查，以便尽快接管其他节点因再平衡释放的租约
+        state.otherUntil = preferred ? Math.min(waitUntil, now + heartbeatMillis) : waitUntil;
+        return false;
+    }
+
+    private boolean onAcquired(String leaseKey, LeaseState state, long expireTime, boolean preferred) {
+        state.heldUntil = expireTime;
+        state.otherUntil = 0;
+        // 非首选节点接管后，在节点集合变化前不再因再平衡释放，避免首选节点未部署该插件时反复交接
+        state.stickyVersion = preferred ? -1 : membershipVersion;
+        logger.info("节点 {} 获得任务租约: {}{}", nodeId, leaseKey, preferred ? "" : "（非首选节点接管）");
+        return true;
+    }
+
+    /**
+     * 按最高随机权重哈希选出首选节点，节点增减时只有少量分片的首选节点发生变化
+     */
+    private String preferredNode(String leaseKey) {
+        String best = nodeId;
+        long bestScore = Long.MIN_VALUE;
+        int keyHash = leaseKey.hashCode();
+        for (String node : liveNodes) {
+            long score = mix(((long) node.hashCode() << 32) ^ (keyHash & 0xffffffffL));
+            if (score > bestScore || (score == bestScore && node.compareTo(best) < 0)) {
+                bestScore = score;
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static List<List<String>> partition(List<String> keys) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += BATCH_SIZE) {
+            batches.add(keys.subList(i, Math.min(keys.size(), i + BATCH_SIZE)));
+        }
+        return batches;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+        return host + "-" + pid + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 获取集群概况
+     *
+     * @return 节点和租约信息
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("enabled", enabled);
+        summary.put("nodeId", nodeId);
+        if (!enabled) {
+            return summary;
+        }
+        long now = System.currentTimeMillis();
+        summary.put("liveNodes", liveNodes);
+        summary.put("leaseTtlMillis", leaseTtlMillis);
+        summary.put("heldLeases", leases.entrySet().stream()
+                .filter(entry -> entry.getValue().heldUntil > now)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList()));
+        summary.put("leasedJobs", tasks.size());
+        return summary;
+    }
+
+    /**
+     * 本节点对单个租约的本地视图
+     */
+    private static final class LeaseState {
+
+        /**
+         * 本节点持有的租约的过期时间，未持有时为0
+         */
+        private volatile long heldUntil;
+
+        /**
+         * 已知其他节点持有该租约直到该时间，此前不再访问数据库
+         */
+        private volatile long otherUntil;
+
+        /**
+         * 非首选节点接管时的节点集合版本
+         */
+        private volatile int stickyVersion = -1;
+    }
+
+    /**
+     * 带集群租约的任务，每次触发只执行本节点持有租约的分片
+     */
+    public final class LeasedTask implements ConditionalTask {
+
+        private final String key;
+        private final int partitionCount;
+        private final ShardedTask task;
+        private final List<String> leaseKeys;
+        private volatile JobHandle handle;
+        private volatile boolean executed;
+
+        private LeasedTask(String key, int partitionCount, ShardedTask task) {
+            this.key = key;
+            this.partitionCount = partitionCount;
+            this.task = Objects.requireNonNull(task, "task");
+            List<String> keys = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                keys.add(key + "#" + i);
+            }
+            this.leaseKeys = Collections.unmodifiableList(keys);
+        }
+
+        /**
+         * 绑定任务句柄，任务取消或结束后在下一次心跳时释放租约
+         */
+        public void bind(JobHandle handle) {
+            this.handle = handle;
+        }
+
+        private boolean isFinished() {
+            JobHandle current = handle;
+            return current != null && (current.getState() == JobState.CANCELLED || current.getState() == JobState.COMPLETED);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getPartitionCount() {
+            return partitionCount;
+        }
+
+        @Override
+        public void run() {
+            RuntimeException failure = null;
+            executed = false;
+            for (int partition = 0; partition < partitionCount; partition++) {
+                String leaseKey = leaseKeys.get(partition);
+                boolean held;
+                try {
+                    // 每个分片按执行时刻判断，前面的分片耗时较长时不会沿用过期的时间
+                    held = tryHold(leaseKey, System.currentTimeMillis());
+                } catch (Exception e) {
+                    logger.warn("获取任务租约失败，跳过本次执行: {}, 错误: {}", leaseKey, e.getMessage());
+                    continue;
+                }
+                if (!held) {
+                    continue;
+                }
+                executed = true;
+                currentLease.set(leaseKey);
+                try {
+                    task.run(partition, partitionCount);
+                } catch (RuntimeException e) {
+                    // 一个分片失败不影响其他分片，全部执行完后再向调度器报告
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                } finally {
+                    currentLease.remove();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public boolean lastRunExecuted() {
+            return executed;
+        }
+
+        @Override
+        public String toString() {
+            return "leased(" + key + ", " + partitionCount + ")";
+        }
+    }
+}
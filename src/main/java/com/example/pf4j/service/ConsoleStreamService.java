@@ -0,0 +1,244 @@
+package com.example.pf4j.service;
+
+import com.example.pf4jscaffold.service.DatabaseConfigService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.pf4j.PluginState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 控制台实时推送服务
+ * 定时计算插件统计、调用指标、系统状态和数据库状态，只把变化的字段序列化一次后推送给所有连接的控制台，
+ * 服务端开销只与数据变化有关，与观看的控制台数量无关。
+ * 快照和增量都在同一个推送线程上发送，新连接总是先收到快照，再收到快照之后的增量
+ */
+@Service
+public class ConsoleStreamService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsoleStreamService.class);
+
+    private static final String SECTION_PLUGINS = "plugins";
+    private static final String SECTION_METRICS = "metrics";
+    private static final String SECTION_SYSTEM = "system";
+    private static final String SECTION_DATABASE = "database";
+
+    @Autowired
+    private PluginService pluginService;
+
+    @Autowired
+    private PluginInvocationMetrics invocationMetrics;
+
+    @Autowired
+    private SystemTelemetryCollector telemetryCollector;
+
+    @Autowired
+    private DatabaseConfigService databaseConfigService;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pf4j.console.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${pf4j.console.database-interval-ms:30000}")
+    private long databaseIntervalMillis;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    /**
+     * 各数据分区最近一次推送的完整状态，新连接以此作为初始快照
+     */
+    private final Map<String, Map<String, Object>> sections = new ConcurrentHashMap<>();
+
+    private final AtomicLong eventId = new AtomicLong();
+
+    /**
+     * 推送线程，sections 的计算、快照发送和增量广播都只在该线程上执行
+     */
+    private final ExecutorService pushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "console-push");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean pluginsChanged = true;
+    private volatile long databaseCheckedAt;
+
+    @PostConstruct
+    public void init() {
+        lifecycleTracker.addListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        pluginsChanged = true;
+        Map<String, Object> event = new HashMap<>();
+        event.put("pluginId", pluginId);
+        event.put("state", state.toString());
+        push(() -> broadcast("pluginState", event));
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        pluginsChanged = true;
+        Map<String, Object> event = new HashMap<>();
+        event.put("pluginId", pluginId);
+        event.put("state", "UNLOADED");
+        push(() -> broadcast("pluginState", event));
+    }
+
+    /**
+     * 订阅控制台推送
+     * 连接建立后先在推送线程上发送当前完整快照，发送完成后才加入广播列表，
+     * 因此不会出现增量先于快照到达的情况
+     *
+     * @return SSE连接
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        push(() -> sendSnapshot(emitter));
+        return emitter;
+    }
+
+    private void sendSnapshot(SseEmitter emitter) {
+        if (emitters.isEmpty()) {
+            // 没有连接时不计算数据，第一个连接到来时先补齐一次
+            refresh(true);
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("snapshot")
+                    .id(String.valueOf(eventId.incrementAndGet()))
+                    .data(serialize(new HashMap<>(sections)), MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+            return;
+        }
+        emitters.add(emitter);
+        logger.debug("控制台订阅推送, 当前连接数: {}", emitters.size());
+    }
+
+    /**
+     * 定时计算各分区数据并推送变化
+     */
+    @Scheduled(fixedDelayString = "${pf4j.console.push-interval-ms:2000}")
+    public void tick() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        push(() -> refresh(false));
+    }
+
+    private void push(Runnable task) {
+        try {
+            pushExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("控制台推送线程已关闭");
+        }
+    }
+
+    private void refresh(boolean full) {
+        if (full || pluginsChanged) {
+            pluginsChanged = false;
+            publish(SECTION_PLUGINS, pluginService.getPluginStats());
+        }
+        publish(SECTION_METRICS, invocationMetrics.snapshot());
+        publish(SECTION_SYSTEM, telemetryCollector.getSnapshot().getStatus());
+
+        long now = System.currentTimeMillis();
+        if (full || now - databaseCheckedAt >= databaseIntervalMillis) {
+            databaseCheckedAt = now;
+            Map<String, Object> database = new HashMap<>();
+            database.put("isConnected", databaseConfigService.isConnected());
+            publish(SECTION_DATABASE, database);
+        }
+    }
+
+    /**
+     * 与上次推送的状态比较，只推送新增、变化和删除的字段
+     */
+    private void publish(String section, Map<String, Object> current) {
+        Map<String, Object> previous = sections.getOrDefault(section, Map.of());
+        Map<String, Object> delta = new LinkedHashMap<>();
+        current.forEach((key, value) -> {
+            if (!Objects.equals(previous.get(key), value)) {
+                delta.put(key, value);
+            }
+        });
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                delta.put(key, null);
+            }
+        }
+        sections.put(section, current);
+        if (!delta.isEmpty()) {
+            broadcast(section, delta);
+        }
+    }
+
+    private void broadcast(String eventName, Object data) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        // 每个事件只序列化一次，所有连接共享同一份数据
+        String json = serialize(data);
+        String id = String.valueOf(eventId.incrementAndGet());
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).id(id).data(json, MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                emitters.remove(emitter);
+                logger.debug("控制台连接已断开: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String serialize(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取当前连接的控制台数量
+     * @return 连接数
+     */
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+}
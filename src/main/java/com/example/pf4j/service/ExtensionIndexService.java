@@ -0,0 +1,307 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.index.ExtensionManifest;
+import com.example.pf4j.plugin.index.ExtensionManifest.ExtensionInfo;
+import com.example.pf4j.plugin.index.ExtensionManifest.MethodInfo;
+import com.example.pf4j.plugin.index.ExtensionManifest.ParameterInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.pf4j.PluginWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 扩展清单索引服务
+ * 读取插件编译期生成的扩展清单，按名称解析插件扩展并按需实例化，
+ * 避免对所有插件的所有扩展进行实例化和反射扫描
+ */
+@Service
+public class ExtensionIndexService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtensionIndexService.class);
+
+    private static final ObjectMapper MANIFEST_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = Map.of(
+            "boolean", boolean.class, "byte", byte.class, "short", short.class, "char", char.class,
+            "int", int.class, "long", long.class, "float", float.class, "double", double.class);
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    /**
+     * 插件ID到清单索引的缓存，插件状态变化时失效
+     */
+    private final Map<String, PluginIndex> pluginIndexes = new ConcurrentHashMap<>();
+
+    private volatile Map<String, IndexedExtension> nameIndex = Collections.emptyMap();
+    private volatile long nameIndexVersion = -1;
+
+    @PostConstruct
+    public void init() {
+        lifecycleTracker.addListener(this);
+    }
+
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        pluginIndexes.remove(pluginId);
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        pluginIndexes.remove(pluginId);
+    }
+
+    /**
+     * 按名称解析扩展
+     * 名称可以是扩展类简单名称、去掉Extension/Plugin后缀的名称，或仅有一个扩展的插件ID；
+     * 指向多个扩展的名称不会被解析
+     *
+     * @param name 插件名称
+     * @return 扩展索引，未找到或插件未提供清单时返回null
+     */
+    public IndexedExtension resolve(String name) {
+        if (name == null) {
+            return null;
+        }
+        return getNameIndex().get(name.toLowerCase());
+    }
+
+    /**
+     * 按扩展类全名查找扩展
+     *
+     * @param className 扩展类全名
+     * @return 扩展索引，未找到时返回null
+     */
+    public IndexedExtension findByClassName(String className) {
+        return getNameIndex().get(className);
+    }
+
+    /**
+     * 获取扩展实例，每个插件加载周期内只实例化一次
+     *
+     * @param extension 扩展索引
+     * @return 扩展实例
+     */
+    public Object getInstance(IndexedExtension extension) {
+        PluginIndex index = getPluginIndex(extension.getPluginId());
+        if (index == null) {
+            throw new IllegalStateException("插件未启动: " + extension.getPluginId());
+        }
+        return index.instances.computeIfAbsent(extension.getInfo().getClassName(), className -> {
+            Class<?> extensionClass = loadExtensionClass(extension);
+            logger.debug("按扩展清单实例化扩展: {}", className);
+            return pluginManager.getExtensionFactory().create(extensionClass);
+        });
+    }
+
+    /**
+     * 加载扩展类
+     *
+     * @param extension 扩展索引
+     * @return 扩展类
+     */
+    public Class<?> loadExtensionClass(IndexedExtension extension) {
+        PluginWrapper plugin = pluginManager.getPlugin(extension.getPluginId());
+        if (plugin == null) {
+            throw new IllegalStateException("插件未找到: " + extension.getPluginId());
+        }
+        try {
+            return plugin.getPluginClassLoader().loadClass(extension.getInfo().getClassName());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("扩展类加载失败: " + extension.getInfo().getClassName(), e);
+        }
+    }
+
+    /**
+     * 根据清单中的方法签名获取方法，只做一次精确查找而不遍历全部方法
+     *
+     * @param extensionClass 扩展类
+     * @param methodInfo 方法签名
+     * @return 方法
+     * @throws NoSuchMethodException 方法不存在
+     */
+    public Method resolveMethod(Class<?> extensionClass, MethodInfo methodInfo) throws NoSuchMethodException {
+        List<ParameterInfo> parameters = methodInfo.getParameters();
+        Class<?>[] parameterTypes = new Class<?>[parameters.size()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = resolveType(parameters.get(i).getTypeName(), extensionClass.getClassLoader());
+        }
+        return extensionClass.getMethod(methodInfo.getName(), parameterTypes);
+    }
+
+    private Class<?> resolveType(String typeName, ClassLoader classLoader) throws NoSuchMethodException {
+        if (typeName.endsWith("[]")) {
+            Class<?> componentType = resolveType(typeName.substring(0, typeName.length() - 2), classLoader);
+            return Array.newInstance(componentType, 0).getClass();
+        }
+        Class<?> primitive = PRIMITIVE_TYPES.get(typeName);
+        if (primitive != null) {
+            return primitive;
+        }
+        try {
+            return Class.forName(typeName, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new NoSuchMethodException("参数类型未找到: " + typeName);
+        }
+    }
+
+    /**
+     * 判断插件是否提供了扩展清单
+     *
+     * @param pluginId 插件ID
+     * @return 是否提供清单
+     */
+    public boolean hasManifest(String pluginId) {
+        PluginIndex index = getPluginIndex(pluginId);
+        return index != null && index.manifest != null;
+    }
+
+    private Map<String, IndexedExtension> getNameIndex() {
+        long version = lifecycleTracker.getVersion();
+        if (nameIndexVersion != version) {
+            synchronized (this) {
+                if (nameIndexVersion != version) {
+                    nameIndex = buildNameIndex();
+                    nameIndexVersion = version;
+                }
+            }
+        }
+        return nameIndex;
+    }
+
+    /**
+     * 构建名称索引
+     * 同一名称指向多个扩展时视为有歧义，不放入索引并记录警告，与 {@link PluginNameResolver} 的规则一致
+     */
+    private Map<String, IndexedExtension> buildNameIndex() {
+        Map<String, List<IndexedExtension>> candidates = new HashMap<>();
+        for (PluginWrapper plugin : pluginManager.getStartedPlugins()) {
+            PluginIndex pluginIndex = getPluginIndex(plugin.getPluginId());
+            if (pluginIndex == null || pluginIndex.manifest == null) {
+                continue;
+            }
+            List<ExtensionInfo> extensions = pluginIndex.manifest.getExtensions();
+            for (ExtensionInfo info : extensions) {
+                IndexedExtension extension = new IndexedExtension(plugin.getPluginId(), info);
+                addCandidate(candidates, info.getClassName(), extension);
+                for (String name : info.getNames()) {
+                    addCandidate(candidates, name.toLowerCase(), extension);
+                }
+                if (extensions.size() == 1) {
+                    addCandidate(candidates, plugin.getPluginId().toLowerCase(), extension);
+                }
+            }
+        }
+        Map<String, IndexedExtension> index = new HashMap<>();
+        candidates.forEach((name, matches) -> {
+            if (matches.size() == 1) {
+                index.put(name, matches.get(0));
+            } else {
+                logger.warn("扩展名称有歧义，按名称调用将被拒绝: {} -> {}", name, matches.stream()
+                        .map(match -> match.getPluginId() + ":" + match.getInfo().getClassName())
+                        .collect(Collectors.toList()));
+            }
+        });
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static void addCandidate(Map<String, List<IndexedExtension>> candidates, String name,
+                                     IndexedExtension extension) {
+        List<IndexedExtension> matches = candidates.computeIfAbsent(name, key -> new ArrayList<>(1));
+        if (!matches.contains(extension)) {
+            matches.add(extension);
+        }
+    }
+
+    private PluginIndex getPluginIndex(String pluginId) {
+        PluginWrapper plugin = pluginManager.getPlugin(pluginId);
+        if (plugin == null || plugin.getPluginState() != PluginState.STARTED) {
+            return null;
+        }
+        return pluginIndexes.computeIfAbsent(pluginId, id -> new PluginIndex(readManifest(plugin)));
+    }
+
+    /**
+     * 从插件自身的类路径读取扩展清单，不委托给父类加载器
+     */
+    private ExtensionManifest readManifest(PluginWrapper plugin) {
+        ClassLoader classLoader = plugin.getPluginClassLoader();
+        URL resource = classLoader instanceof URLClassLoader
+                ? ((URLClassLoader) classLoader).findResource(ExtensionManifest.RESOURCE_PATH)
+                : classLoader.getResource(ExtensionManifest.RESOURCE_PATH);
+        if (resource == null) {
+            logger.debug("插件未提供扩展清单，将回退到反射解析: {}", plugin.getPluginId());
+            return null;
+        }
+        try {
+            URLConnection connection = resource.openConnection();
+            // 不缓存JAR文件句柄，避免插件卸载后文件仍被占用
+            connection.setUseCaches(false);
+            try (InputStream inputStream = connection.getInputStream()) {
+                ExtensionManifest manifest = MANIFEST_MAPPER.readValue(inputStream, ExtensionManifest.class);
+                logger.info("加载插件扩展清单: {}, 扩展数量: {}", plugin.getPluginId(), manifest.getExtensions().size());
+                return manifest;
+            }
+        } catch (Exception e) {
+            logger.warn("读取插件扩展清单失败: {}", plugin.getPluginId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 单个插件的清单和扩展实例缓存
+     */
+    private static class PluginIndex {
+        private final ExtensionManifest manifest;
+        private final Map<String, Object> instances = new ConcurrentHashMap<>();
+
+        PluginIndex(ExtensionManifest manifest) {
+            this.manifest = manifest;
+        }
+    }
+
+    /**
+     * 已索引的扩展
+     */
+    public static class IndexedExtension {
+        private final String pluginId;
+        private final ExtensionInfo info;
+
+        IndexedExtension(String pluginId, ExtensionInfo info) {
+            this.pluginId = pluginId;
+            this.info = info;
+        }
+
+        public String getPluginId() {
+            return pluginId;
+        }
+
+        public ExtensionInfo getInfo() {
+            return info;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.entity.JobExecutionHistory;
+import com.example.pf4j.repository.JobExecutionHistoryRepository;
+import com.example.pf4j.scheduler.JobHandle;
+import com.example.pf4j.scheduler.JobListener;
+import com.example.pf4j.util.MpscRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.criteria.Predicate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定时任务执行历史服务
+ * 调度器线程只把执行记录写入无锁环形缓冲区，从不阻塞；后台按批次通过JDBC批量插入历史表，
+ * 数据库暂时不可用时保留当前批次重试，缓冲区写满后新记录直接丢弃并计数。
+ * 历史表按触发时间保留 retention-days 天，过期记录按ID区间分批删除
+ */
+@Service
+public class JobHistoryService implements JobListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobHistoryService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO pf4j_job_history "
+            + "(job_id, job_name, owner, node_id, status, fire_time, duration_ms, message) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 保留策略每次删除的ID区间长度
+     */
+    private static final long PURGE_CHUNK = 10_000L;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private JobExecutionHistoryRepository historyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterLeaseService leaseService;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Value("${pf4j.scheduler.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pf4j.scheduler.history.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${pf4j.scheduler.history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${pf4j.scheduler.history.retention-days:90}")
+    private int retentionDays;
+
+    private MpscRingBuffer<Record> buffer;
+
+    /**
+     * 写入失败待重试的批次，只由flush访问
+     */
+    private List<Record> pendingBatch;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private volatile long lastPurged;
+
+    @PostConstruct
+    public void init() {
+        buffer = new MpscRingBuffer<>(bufferSize);
+        logger.info("任务执行历史已{}, 缓冲区: {}, 批量: {}, 保留: {}天",
+                enabled ? "启用" : "禁用", buffer.capacity(), batchSize, retentionDays);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    @Override
+    public void onExecuted(JobHandle job, long fireTime, long durationMillis, Throwable error) {
+        String message = error == null ? null : error.getClass().getSimpleName() + ": " + error.getMessage();
+        record(job, error == null ? JobExecutionHistory.STATUS_SUCCESS : JobExecutionHistory.STATUS_FAILED,
+                fireTime, durationMillis, message);
+    }
+
+    @Override
+    public void onMisfire(JobHandle job, long scheduledTime, boolean fired) {
+        record(job, JobExecutionHistory.STATUS_MISFIRED, scheduledTime, 0L, fired ? "错过触发，已立即补执行" : "错过触发，已跳过");
+    }
+
+    private void record(JobHandle job, String status, long fireTime, long durationMillis, String message) {
+        if (!enabled) {
+            return;
+        }
+        Record record = new Record(job.getId(), job.getName(), job.getOwner(), status, fireTime, durationMillis,
+                truncate(message, 500));
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 把缓冲区中的记录批量写入数据库
+     */
+    @Scheduled(fixedDelayString = "${pf4j.scheduler.history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        while (true) {
+            List<Record> batch = pendingBatch;
+            if (batch == null) {
+                List<Record> drained = new ArrayList<>(Math.min(batchSize, buffer.size()));
+                buffer.drain(drained::add, batchSize);
+                if (drained.isEmpty()) {
+                    return;
+                }
+                batch = drained;
+            }
+            try {
+                write(batch);
+                pendingBatch = null;
+                written.addAndGet(batch.size());
+            } catch (Exception e) {
+                // 保留当前批次下次重试，期间新记录继续进入缓冲区，写满后丢弃
+                pendingBatch = batch;
+                writeFailures.incrementAndGet();
+                logger.warn("任务执行历史写入失败, 待重试: {}, 错误: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void write(List<Record> batch) {
+        String nodeId = leaseService.getNodeId();
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+            ps.setLong(1, record.jobId);
+            ps.setString(2, truncate(record.jobName, 100));
+            ps.setString(3, record.owner);
+            ps.setString(4, nodeId);
+            ps.setString(5, record.status);
+            ps.setTimestamp(6, new Timestamp(record.fireTime));
+            ps.setLong(7, record.durationMillis);
+            ps.setString(8, record.message);
+        });
+    }
+
+    /**
+     * 删除超过保留天数的记录
+     */
+    @Scheduled(cron = "${pf4j.scheduler.history.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        if (!enabled || retentionDays <= 0) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        try {
+            Long minId = historyRepository.findMinId();
+            Long maxId = historyRepository.findMaxIdBefore(before);
+            if (minId == null || maxId == null) {
+                return;
+            }
+            long deleted = 0;
+            for (long fromId = minId; fromId <= maxId; fromId += PURGE_CHUNK) {
+                deleted += historyRepository.deleteRangeBefore(fromId, Math.min(fromId + PURGE_CHUNK, maxId + 1), before);
+            }
+            lastPurged = deleted;
+            logger.info("清理任务执行历史完成, 删除: {}, 保留{}天", deleted, retentionDays);
+        } catch (Exception e) {
+            logger.warn("清理任务执行历史失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查询执行历史，按触发时间倒序
+     *
+     * @param jobName 任务名称（可选，精确匹配）
+     * @param owner 所属插件ID（可选）
+     * @param status 执行状态（可选）
+     * @param from 触发时间下限（可选，包含）
+     * @param to 触发时间上限（可选，不包含）
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @return 分页结果
+     */
+    public Page<JobExecutionHistory> query(String jobName, String owner, String status,
+                                           LocalDateTime from, LocalDateTime to, int page, int size) {
+        Specification<JobExecutionHistory> spec = (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(jobName)) {
+                predicates.add(criteriaBuilder.equal(root.get("jobName"), jobName));
+            }
+            if (StringUtils.hasText(owner)) {
+                predicates.add(criteriaBuilder.equal(root.get("owner"), owner));
+            }
+            if (StringUtils.hasText(status)) {
+                predicates.add(criteriaBuilder.equal(root.get("status"), status.toUpperCase()));
+            }
+            if (from != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("fireTime"), from));
+            }
+            if (to != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("fireTime"), to));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return historyRepository.findAll(spec, PageRequest.of(Math.max(0, page), pageSize,
+                Sort.by(Sort.Direction.DESC, "fireTime", "id")));
+    }
+
+    /**
+     * 查询调用方所在插件的执行历史，插件只能查看自己的任务，宿主调用时不限制所属。
+     * 归属按调用栈确定，插件传入宿主类的对象仍只能查到自己的任务
+     *
+     * @param caller 调用方对象，只在宿主代插件查询时按该对象确定归属
+     * @param jobName 任务名称（可选）
+     * @param limit 最大条数
+     * @return 最近的执行历史
+     */
+    public List<JobExecutionHistory> queryForCaller(Object caller, String jobName, int limit) {
+        String owner = nameResolver.ownerOfCaller(caller);
+        if (PluginNameResolver.HOST_OWNER.equals(owner)) {
+            owner = null;
+        }
+        return query(jobName, owner, null, null, null, 0, limit).getContent();
+    }
+
+    /**
+     * 获取历史写入统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("buffered", buffer.size());
+        stats.put("bufferCapacity", buffer.capacity());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("writeFailures", writeFailures.get());
+        stats.put("retentionDays", retentionDays);
+        stats.put("lastPurged", lastPurged);
+        return stats;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * 缓冲区中的执行记录
+     */
+    private static final class Record {
+        private final long jobId;
+        private final String jobName;
+        private final String owner;
+        private final String status;
+        private final long fireTime;
+        private final long durationMillis;
+        private final String message;
+
+        Record(long jobId, String jobName, String owner, String status, long fireTime, long durationMillis, String message) {
+            this.jobId = jobId;
+            this.jobName = jobName;
+            this.owner = owner;
+            this.status = status;
+            this.fireTime = fireTime;
+            this.durationMillis = durationMillis;
+            this.message = message;
+        }
+    }
+}
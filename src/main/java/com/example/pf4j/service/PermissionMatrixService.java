@@ -0,0 +1,81 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.security.PermissionMatrix;
+import com.example.pf4j.util.PermissionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 权限矩阵服务
+ * 按插件登记权限矩阵，插件内同名矩阵共享；插件卸载时丢弃其矩阵
+ */
+@Service
+public class PermissionMatrixService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PermissionMatrixService.class);
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    /**
+     * 插件ID -> 矩阵名称 -> 权限矩阵
+     */
+    private final Map<String, Map<String, PermissionMatrix>> registry = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        lifecycleTracker.addListener(this);
+        PermissionUtil.initialize(this);
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        Map<String, PermissionMatrix> matrices = registry.remove(pluginId);
+        if (matrices != null) {
+            logger.info("插件已卸载，释放权限矩阵: {}, 数量: {}", pluginId, matrices.size());
+        }
+    }
+
+    /**
+     * 获取或创建调用方所在插件的权限矩阵
+     *
+     * @param caller 调用方对象，归属按调用栈确定，只在宿主代插件调用时按该对象确定
+     * @param name 矩阵名称
+     * @return 权限矩阵
+     */
+    public PermissionMatrix getMatrix(Object caller, String name) {
+        String owner = nameResolver.ownerOfCaller(caller);
+        return registry.computeIfAbsent(owner, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, PermissionMatrix::new);
+    }
+
+    /**
+     * 获取权限矩阵统计，按插件列出主体数、操作数和位图占用
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> plugins = new TreeMap<>();
+        for (Map.Entry<String, Map<String, PermissionMatrix>> entry : registry.entrySet()) {
+            List<Map<String, Object>> matrices = new ArrayList<>();
+            for (PermissionMatrix matrix : entry.getValue().values()) {
+                matrices.add(matrix.getStats());
+            }
+            plugins.put(entry.getKey(), matrices);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("plugins", plugins);
+        return stats;
+    }
+}
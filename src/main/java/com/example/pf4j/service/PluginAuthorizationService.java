@@ -0,0 +1,200 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.extension.PluginPermissionEvaluator;
+import com.example.pf4j.security.PrincipalSnapshot;
+import com.example.pf4j.security.RoleRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 插件调用授权服务
+ * 启动时把配置的授权规则编译为 插件ID -> 方法 -> 角色位图 的策略表，
+ * 请求路径上只做两次哈希查找和一次按位与。
+ * 请求中的插件名称先由 {@link PluginNameResolver} 解析为插件ID，与调用分发使用同一套规则，
+ * 无法解析或有歧义的名称一律拒绝
+ *
+ * <pre>
+ * pf4j:
+ *   security:
+ *     plugin-policy:
+ *       enabled: true
+ *       default-roles: ADMIN
+ *       rules:
+ *         - plugin: hello
+ *           roles: ADMIN,USER
+ *         - plugin: useradmin
+ *           method: deleteUser
+ *           roles: ADMIN
+ * </pre>
+ */
+@Service
+public class PluginAuthorizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginAuthorizationService.class);
+
+    private static final String WILDCARD = "*";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private PluginServiceBus serviceBus;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Value("${pf4j.security.plugin-policy.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pf4j.security.plugin-policy.default-roles:ADMIN}")
+    private String defaultRoles;
+
+    private volatile Map<String, PluginPolicy> policyTable = Collections.emptyMap();
+    private volatile long defaultMask;
+
+    @PostConstruct
+    public void init() {
+        List<PolicyRule> rules = Binder.get(environment)
+                .bind("pf4j.security.plugin-policy.rules", Bindable.listOf(PolicyRule.class))
+                .orElse(Collections.emptyList());
+        compile(rules);
+    }
+
+    /**
+     * 编译授权规则
+     *
+     * @param rules 授权规则
+     */
+    public synchronized void compile(List<PolicyRule> rules) {
+        Map<String, PluginPolicy> table = new HashMap<>();
+        for (PolicyRule rule : rules) {
+            if (rule.getPlugin() == null || rule.getRoles() == null) {
+                logger.warn("忽略不完整的插件授权规则: plugin={}, method={}", rule.getPlugin(), rule.getMethod());
+                continue;
+            }
+            long mask = roleRegistry.mask(Arrays.asList(rule.getRoles().split(",")));
+            PluginPolicy policy = table.computeIfAbsent(rule.getPlugin(), plugin -> new PluginPolicy());
+            String method = rule.getMethod() == null ? WILDCARD : rule.getMethod();
+            if (WILDCARD.equals(method)) {
+                policy.pluginMask = mask;
+            } else {
+                policy.methodMasks.put(method, mask);
+            }
+        }
+        this.defaultMask = roleRegistry.mask(Arrays.asList(defaultRoles.split(",")));
+        this.policyTable = table;
+        logger.info("插件授权策略编译完成, 启用: {}, 规则数量: {}", enabled, rules.size());
+    }
+
+    /**
+     * 是否启用插件调用授权
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 判断是否允许调用插件方法
+     *
+     * @param principal 当前请求的认证信息
+     * @param pluginName 插件名称
+     * @param methodName 方法名称，可以为null
+     * @return 是否允许
+     */
+    public boolean isAllowed(PrincipalSnapshot principal, String pluginName, String methodName) {
+        if (!enabled) {
+            return true;
+        }
+        if (!principal.isAuthenticated()) {
+            return false;
+        }
+        String pluginId = nameResolver.resolvePluginId(pluginName);
+        if (pluginId == null) {
+            logger.debug("插件名称无法解析为唯一插件，拒绝调用: {}", pluginName);
+            return false;
+        }
+        if (!principal.hasAnyRole(requiredMask(pluginId, methodName))) {
+            return false;
+        }
+        // 插件提供的评估器按插件加载周期缓存，不会在每次请求时重新实例化
+        for (PluginPermissionEvaluator evaluator : serviceBus.getServices(PluginPermissionEvaluator.class)) {
+            if (!evaluator.isAllowed(principal, pluginId, methodName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long requiredMask(String pluginId, String methodName) {
+        PluginPolicy policy = policyTable.get(pluginId);
+        if (policy == null) {
+            return defaultMask;
+        }
+        if (methodName != null) {
+            Long methodMask = policy.methodMasks.get(methodName);
+            if (methodMask != null) {
+                return methodMask;
+            }
+        }
+        return policy.pluginMask != 0L ? policy.pluginMask : defaultMask;
+    }
+
+    /**
+     * 单个插件编译后的策略
+     */
+    private static class PluginPolicy {
+        private long pluginMask;
+        private final Map<String, Long> methodMasks = new HashMap<>();
+    }
+
+    /**
+     * 插件授权规则配置，plugin 为插件ID
+     */
+    public static class PolicyRule {
+        private String plugin;
+        private String method;
+        private String roles;
+
+        public String getPlugin() {
+            return plugin;
+        }
+
+        public void setPlugin(String plugin) {
+            this.plugin = plugin;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getRoles() {
+            return roles;
+        }
+
+        public void setRoles(String roles) {
+            this.roles = roles;
+        }
+    }
+}
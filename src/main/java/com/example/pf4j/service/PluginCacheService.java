@@ -0,0 +1,149 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.cache.CacheSerializer;
+import com.example.pf4j.cache.MemoryBudget;
+import com.example.pf4j.cache.OffHeapCache;
+import com.example.pf4j.util.OffHeapCacheUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件堆外缓存服务
+ * 按插件登记堆外缓存，每个插件的缓存共享一份内存预算，所有插件共享全局预算；插件卸载时关闭其缓存并归还预算
+ */
+@Service
+public class PluginCacheService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginCacheService.class);
+
+    private static final long MB = 1024L * 1024L;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pf4j.offheap-cache.total-mb:1024}")
+    private long totalMb;
+
+    @Value("${pf4j.offheap-cache.plugin-budget-mb:256}")
+    private long pluginBudgetMb;
+
+    private MemoryBudget totalBudget;
+
+    /**
+     * 插件ID -> 该插件的缓存
+     */
+    private final Map<String, PluginCaches> registry = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        totalBudget = new MemoryBudget("total", totalMb * MB, null);
+        lifecycleTracker.addListener(this);
+        OffHeapCacheUtil.initialize(this);
+        logger.info("堆外缓存预算: 全局{}MB, 每个插件{}MB", totalMb, pluginBudgetMb);
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        PluginCaches caches = registry.remove(pluginId);
+        if (caches == null) {
+            return;
+        }
+        synchronized (caches) {
+            for (OffHeapCache<?> cache : caches.caches.values()) {
+                cache.close();
+            }
+            logger.info("插件已卸载，关闭堆外缓存: {}, 数量: {}", pluginId, caches.caches.size());
+            caches.caches.clear();
+        }
+    }
+
+    /**
+     * 获取或创建调用方所在插件的堆外缓存
+     * 同名缓存在插件内共享，已存在时沿用创建时的上限和序列化器
+     *
+     * @param caller 调用方对象，归属按调用栈确定，只在宿主代插件调用时按该对象确定
+     * @param name 缓存名称
+     * @param maxBytes 缓存自身的内存上限
+     * @param serializer 值序列化器
+     * @return 堆外缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <V> OffHeapCache<V> getCache(Object caller, String name, long maxBytes, CacheSerializer<V> serializer) {
+        String owner = nameResolver.ownerOfCaller(caller);
+        PluginCaches caches = registry.computeIfAbsent(owner,
+                key -> new PluginCaches(new MemoryBudget(key, pluginBudgetMb * MB, totalBudget)));
+        synchronized (caches) {
+            OffHeapCache<?> existing = caches.caches.get(name);
+            if (existing != null) {
+                return (OffHeapCache<V>) existing;
+            }
+            OffHeapCache<V> cache = new OffHeapCache<>(name, maxBytes, caches.budget, serializer);
+            caches.caches.put(name, cache);
+            return cache;
+        }
+    }
+
+    /**
+     * 宿主的 ObjectMapper，用于JSON序列化器
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * 获取堆外缓存统计，按插件列出预算使用情况
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> plugins = new TreeMap<>();
+        for (Map.Entry<String, PluginCaches> pluginEntry : registry.entrySet()) {
+            PluginCaches caches = pluginEntry.getValue();
+            List<Map<String, Object>> cacheStats = new ArrayList<>();
+            synchronized (caches) {
+                for (OffHeapCache<?> cache : caches.caches.values()) {
+                    cacheStats.add(cache.getStats());
+                }
+            }
+            Map<String, Object> plugin = new LinkedHashMap<>();
+            plugin.put("budgetBytes", caches.budget.getLimit());
+            plugin.put("reservedBytes", caches.budget.getReserved());
+            plugin.put("caches", cacheStats);
+            plugins.put(pluginEntry.getKey(), plugin);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalBudgetBytes", totalBudget.getLimit());
+        stats.put("totalReservedBytes", totalBudget.getReserved());
+        stats.put("pluginBudgetBytes", pluginBudgetMb * MB);
+        stats.put("plugins", plugins);
+        return stats;
+    }
+
+    /**
+     * 单个插件的缓存和预算，修改时持有该对象的锁
+     */
+    private static final class PluginCaches {
+        private final MemoryBudget budget;
+        private final Map<String, OffHeapCache<?>> caches = new LinkedHashMap<>();
+
+        PluginCaches(MemoryBudget budget) {
+            this.budget = budget;
+        }
+    }
+}
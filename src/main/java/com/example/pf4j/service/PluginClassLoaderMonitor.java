@@ -0,0 +1,221 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.loader.AccountingPluginClassLoader;
+import com.example.pf4j.plugin.loader.ClassLoaderFootprint;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.pf4j.PluginWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 插件类加载器泄漏检测服务
+ * 使用PhantomReference跟踪每个插件类加载器，统计卸载后仍未被回收的类加载器
+ * 以及各插件已加载的类数量和估算内存占用
+ */
+@Service
+public class PluginClassLoaderMonitor implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginClassLoaderMonitor.class);
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    /**
+     * 卸载后超过该时间仍未被回收的类加载器视为疑似泄漏
+     */
+    @Value("${pf4j.leak-detection.grace-period-ms:60000}")
+    private long gracePeriodMillis;
+
+    private final ReferenceQueue<ClassLoader> referenceQueue = new ReferenceQueue<>();
+
+    /**
+     * 存活的类加载器引用，PhantomReference本身必须保持强可达
+     */
+    private final Set<LoaderReference> liveReferences = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已注册的类加载器，弱引用键避免阻止类加载器回收
+     */
+    private final Map<ClassLoader, LoaderReference> registered = new WeakHashMap<>();
+
+    private final Map<String, AtomicLong> collectedCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        lifecycleTracker.addListener(this);
+        registerLoadedPlugins();
+    }
+
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        PluginWrapper plugin = pluginManager.getPlugin(pluginId);
+        if (plugin != null) {
+            register(plugin);
+        }
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        markUnloaded(pluginId);
+    }
+
+    /**
+     * 注册当前插件管理器中所有插件的类加载器
+     */
+    public void registerLoadedPlugins() {
+        for (PluginWrapper plugin : pluginManager.getPlugins()) {
+            register(plugin);
+        }
+    }
+
+    /**
+     * 注册插件类加载器
+     * @param plugin 插件包装器
+     */
+    public void register(PluginWrapper plugin) {
+        ClassLoader classLoader = plugin.getPluginClassLoader();
+        if (classLoader == null) {
+            return;
+        }
+        synchronized (registered) {
+            if (registered.containsKey(classLoader)) {
+                return;
+            }
+            ClassLoaderFootprint footprint = classLoader instanceof AccountingPluginClassLoader
+                    ? ((AccountingPluginClassLoader) classLoader).getFootprint()
+                    : null;
+            LoaderReference reference = new LoaderReference(classLoader, referenceQueue, plugin.getPluginId(),
+                    plugin.getDescriptor().getVersion(), footprint);
+            registered.put(classLoader, reference);
+            liveReferences.add(reference);
+        }
+        logger.debug("注册插件类加载器: {}", plugin.getPluginId());
+    }
+
+    /**
+     * 标记插件的类加载器已卸载，此后应能被垃圾回收
+     * @param pluginId 插件ID
+     */
+    public void markUnloaded(String pluginId) {
+        long now = System.currentTimeMillis();
+        for (LoaderReference reference : liveReferences) {
+            if (reference.pluginId.equals(pluginId) && reference.unloadedAt == 0L) {
+                reference.unloadedAt = now;
+            }
+        }
+    }
+
+    /**
+     * 获取类加载器与内存统计信息
+     * @return 统计数据
+     */
+    public Map<String, Object> getStats() {
+        drainCollected();
+        registerLoadedPlugins();
+
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Object>> perPlugin = new HashMap<>();
+        List<Map<String, Object>> leaks = new ArrayList<>();
+        long totalClasses = 0;
+        long totalBytes = 0;
+
+        for (LoaderReference reference : liveReferences) {
+            long classes = reference.footprint != null ? reference.footprint.getLoadedClasses() : 0L;
+            long bytes = reference.footprint != null ? reference.footprint.getClassBytes() : 0L;
+            totalClasses += classes;
+            totalBytes += bytes;
+
+            Map<String, Object> pluginStats = perPlugin.computeIfAbsent(reference.pluginId, id -> newPluginStats());
+            if (reference.unloadedAt == 0L) {
+                pluginStats.put("version", reference.version);
+                pluginStats.put("loadedClasses", (long) pluginStats.get("loadedClasses") + classes);
+                pluginStats.put("estimatedRetainedBytes", (long) pluginStats.get("estimatedRetainedBytes") + bytes);
+            } else {
+                long survivedMillis = now - reference.unloadedAt;
+                pluginStats.put("pendingCollection", (int) pluginStats.get("pendingCollection") + 1);
+                if (survivedMillis > gracePeriodMillis) {
+                    pluginStats.put("suspectedLeaks", (int) pluginStats.get("suspectedLeaks") + 1);
+                    Map<String, Object> leak = new HashMap<>();
+                    leak.put("pluginId", reference.pluginId);
+                    leak.put("version", reference.version);
+                    leak.put("survivedMillis", survivedMillis);
+                    leak.put("loadedClasses", classes);
+                    leak.put("estimatedRetainedBytes", bytes);
+                    leaks.add(leak);
+                }
+            }
+        }
+        collectedCounts.forEach((pluginId, count) ->
+                perPlugin.computeIfAbsent(pluginId, id -> newPluginStats()).put("collectedLoaders", count.get()));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedLoaders", liveReferences.size());
+        stats.put("loadedClasses", totalClasses);
+        stats.put("estimatedRetainedBytes", totalBytes);
+        stats.put("suspectedLeaks", leaks);
+        stats.put("plugins", perPlugin);
+        return stats;
+    }
+
+    private Map<String, Object> newPluginStats() {
+        Map<String, Object> pluginStats = new HashMap<>();
+        pluginStats.put("loadedClasses", 0L);
+        pluginStats.put("estimatedRetainedBytes", 0L);
+        pluginStats.put("pendingCollection", 0);
+        pluginStats.put("suspectedLeaks", 0);
+        pluginStats.put("collectedLoaders", 0L);
+        return pluginStats;
+    }
+
+    /**
+     * 处理已被回收的类加载器
+     */
+    private void drainCollected() {
+        Reference<? extends ClassLoader> reference;
+        while ((reference = referenceQueue.poll()) != null) {
+            LoaderReference loaderReference = (LoaderReference) reference;
+            liveReferences.remove(loaderReference);
+            collectedCounts.computeIfAbsent(loaderReference.pluginId, id -> new AtomicLong()).incrementAndGet();
+            logger.debug("插件类加载器已回收: {} {}", loaderReference.pluginId, loaderReference.version);
+        }
+    }
+
+    /**
+     * 类加载器虚引用，记录所属插件与卸载时间
+     */
+    private static class LoaderReference extends PhantomReference<ClassLoader> {
+
+        private final String pluginId;
+        private final String version;
+        private final ClassLoaderFootprint footprint;
+        private volatile long unloadedAt;
+
+        LoaderReference(ClassLoader referent, ReferenceQueue<? super ClassLoader> queue, String pluginId,
+                        String version, ClassLoaderFootprint footprint) {
+            super(referent, queue);
+            this.pluginId = pluginId;
+            this.version = version;
+            this.footprint = footprint;
+        }
+    }
+}
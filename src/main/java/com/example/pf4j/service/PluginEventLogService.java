@@ -0,0 +1,258 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.eventlog.EventLog;
+import com.example.pf4j.util.EventLogUtil;
+import com.example.pf4j.util.MpscRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 插件事件日志服务
+ * 为插件提供宿主管理的有界事件日志，按插件统计容量配额，插件卸载时释放。
+ * 开启溢出落盘的日志，被覆盖的记录先进入无锁缓冲区，再由后台按文件批量追加到磁盘，写入线程从不阻塞
+ */
+@Service
+public class PluginEventLogService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginEventLogService.class);
+
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Value("${pf4j.event-log.plugin-quota:16384}")
+    private int pluginQuota;
+
+    @Value("${pf4j.event-log.overflow-dir:logs/event-log}")
+    private String overflowDir;
+
+    @Value("${pf4j.event-log.overflow-buffer-size:16384}")
+    private int overflowBufferSize;
+
+    @Value("${pf4j.event-log.overflow-max-file-bytes:10485760}")
+    private long overflowMaxFileBytes;
+
+    /**
+     * 插件ID -> 该插件的事件日志
+     */
+    private final Map<String, PluginLogs> registry = new ConcurrentHashMap<>();
+
+    private MpscRingBuffer<Spill> overflowBuffer;
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong spillDropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        overflowBuffer = new MpscRingBuffer<>(overflowBufferSize);
+        lifecycleTracker.addListener(this);
+        EventLogUtil.initialize(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushOverflow();
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        PluginLogs logs = registry.remove(pluginId);
+        if (logs != null) {
+            logger.info("插件已卸载，释放事件日志: {}, 数量: {}, 容量: {}", pluginId, logs.logs.size(), logs.allocated);
+        }
+    }
+
+    /**
+     * 获取或创建调用方所在插件的事件日志
+     * 同名日志在插件内共享；插件剩余配额不足时按剩余配额缩小容量
+     *
+     * @param caller 调用方对象，归属按调用栈确定，只在宿主代插件调用时按该对象确定
+     * @param name 日志名称
+     * @param capacity 期望容量（条）
+     * @param overflowToDisk 被覆盖的记录是否写入磁盘
+     * @return 事件日志
+     */
+    public EventLog getLog(Object caller, String name, int capacity, boolean overflowToDisk) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("事件日志容量必须大于0: " + capacity);
+        }
+        String owner = nameResolver.ownerOfCaller(caller);
+        PluginLogs logs = registry.computeIfAbsent(owner, key -> new PluginLogs());
+        synchronized (logs) {
+            LogRegistration existing = logs.logs.get(name);
+            if (existing != null) {
+                return existing.log;
+            }
+            int remaining = pluginQuota - logs.allocated;
+            if (remaining <= 0) {
+                throw new IllegalStateException("插件事件日志配额已用尽: " + owner + ", 配额: " + pluginQuota);
+            }
+            int roundedUp = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+            int granted = roundedUp <= remaining ? roundedUp : Integer.highestOneBit(remaining);
+            if (granted < capacity) {
+                logger.warn("插件事件日志配额不足，容量已缩小: {}/{}, 请求: {}, 分配: {}", owner, name, capacity, granted);
+            }
+            Path file = overflowToDisk ? overflowFile(owner, name) : null;
+            EventLog log = new EventLog(name, granted, file == null ? null : entry -> {
+                if (!overflowBuffer.offer(new Spill(file, entry))) {
+                    spillDropped.incrementAndGet();
+                }
+            });
+            logs.logs.put(name, new LogRegistration(log, capacity, file));
+            logs.allocated += log.getCapacity();
+            return log;
+        }
+    }
+
+    /**
+     * 把溢出的记录批量追加到磁盘
+     */
+    @Scheduled(fixedDelayString = "${pf4j.event-log.overflow-flush-ms:1000}")
+    public synchronized void flushOverflow() {
+        if (overflowBuffer.size() == 0) {
+            return;
+        }
+        Map<Path, List<EventLog.Entry>> byFile = new LinkedHashMap<>();
+        overflowBuffer.drain(spill -> byFile.computeIfAbsent(spill.file, key -> new ArrayList<>()).add(spill.entry),
+                overflowBuffer.capacity());
+        for (Map.Entry<Path, List<EventLog.Entry>> entry : byFile.entrySet()) {
+            try {
+                append(entry.getKey(), entry.getValue());
+                spilled.addAndGet(entry.getValue().size());
+            } catch (IOException e) {
+                spillDropped.addAndGet(entry.getValue().size());
+                logger.warn("事件日志溢出写入失败: {}, 错误: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void append(Path file, List<EventLog.Entry> entries) throws IOException {
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file) && Files.size(file) >= overflowMaxFileBytes) {
+            // 只保留一个历史文件
+            Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (EventLog.Entry entry : entries) {
+                writer.write(TIME_FORMATTER.format(Instant.ofEpochMilli(entry.getTimestamp())));
+                writer.write('\t');
+                writer.write(Long.toString(entry.getSequence()));
+                writer.write('\t');
+                String message = entry.getMessage();
+                writer.write(message == null ? "" : message.replace("\r", "\\r").replace("\n", "\\n"));
+                writer.newLine();
+            }
+        }
+    }
+
+    private Path overflowFile(String owner, String name) {
+        return Paths.get(overflowDir, sanitize(owner), sanitize(name) + ".log");
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[^\\p{L}\\p{N}._-]", "_");
+    }
+
+    /**
+     * 获取事件日志统计，按插件列出配额使用情况
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> plugins = new TreeMap<>();
+        for (Map.Entry<String, PluginLogs> pluginEntry : registry.entrySet()) {
+            PluginLogs logs = pluginEntry.getValue();
+            List<Map<String, Object>> logStats = new ArrayList<>();
+            int allocated;
+            synchronized (logs) {
+                allocated = logs.allocated;
+                for (LogRegistration registration : logs.logs.values()) {
+                    EventLog log = registration.log;
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("name", log.getName());
+                    item.put("requestedCapacity", registration.requestedCapacity);
+                    item.put("capacity", log.getCapacity());
+                    item.put("size", log.size());
+                    item.put("appended", log.getAppendedCount());
+                    item.put("overwritten", log.getOverwrittenCount());
+                    item.put("overflowFile", registration.overflowFile != null ? registration.overflowFile.toString() : null);
+                    logStats.add(item);
+                }
+            }
+            Map<String, Object> plugin = new LinkedHashMap<>();
+            plugin.put("quota", pluginQuota);
+            plugin.put("allocated", allocated);
+            plugin.put("usage", pluginQuota > 0 ? Math.round(allocated * 1000.0 / pluginQuota) / 10.0 : 0.0);
+            plugin.put("logs", logStats);
+            plugins.put(pluginEntry.getKey(), plugin);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pluginQuota", pluginQuota);
+        stats.put("plugins", plugins);
+        stats.put("overflowPending", overflowBuffer.size());
+        stats.put("overflowWritten", spilled.get());
+        stats.put("overflowDropped", spillDropped.get());
+        return stats;
+    }
+
+    /**
+     * 单个插件的事件日志和已分配容量，修改时持有该对象的锁
+     */
+    private static final class PluginLogs {
+        private final Map<String, LogRegistration> logs = new LinkedHashMap<>();
+        private int allocated;
+    }
+
+    private static final class LogRegistration {
+        private final EventLog log;
+        private final int requestedCapacity;
+        private final Path overflowFile;
+
+        LogRegistration(EventLog log, int requestedCapacity, Path overflowFile) {
+            this.log = log;
+            this.requestedCapacity = requestedCapacity;
+            this.overflowFile = overflowFile;
+        }
+    }
+
+    /**
+     * 待写入磁盘的溢出记录
+     */
+    private static final class Spill {
+        private final Path file;
+        private final EventLog.Entry entry;
+
+        Spill(Path file, EventLog.Entry entry) {
+            this.file = file;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.StreamingInputPluginInterface;
+import com.example.pf4j.plugin.stream.JsonInput;
+import com.example.pf4jscaffold.common.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 插件流式输入服务
+ * 把请求体包装为 {@link JsonInput} 交给插件逐个元素读取，不预先绑定为 Map/List。
+ * 按 Content-Type 选择JSON、CBOR或Smile解析器，与响应的消息转换器使用同一套ObjectMapper配置
+ */
+@Service
+public class PluginIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginIngestService.class);
+
+    @Autowired
+    private PluginServiceBus serviceBus;
+
+    @Autowired
+    private PluginMethodService pluginMethodService;
+
+    @Autowired
+    private PluginInvocationMetrics invocationMetrics;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper smileMapper;
+
+    @PostConstruct
+    public void init() {
+        cborMapper = objectMapperBuilder.getObject().factory(new CBORFactory()).build();
+        smileMapper = objectMapperBuilder.getObject().factory(new SmileFactory()).build();
+    }
+
+    /**
+     * 获取所有流式输入插件名称
+     * @return 插件名称列表
+     */
+    public List<String> getIngestPluginNames() {
+        return serviceBus.getServices(StreamingInputPluginInterface.class).stream()
+                .map(StreamingInputPluginInterface::getPluginName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 根据插件名称获取流式输入插件
+     * 名称解析规则见 {@link PluginNameResolver}，与其他插件调用接口一致
+     * @param pluginName 插件名称
+     * @return 插件实例，不存在时返回null
+     */
+    public StreamingInputPluginInterface getIngestPlugin(String pluginName) {
+        return nameResolver.findExtension(serviceBus.getServices(StreamingInputPluginInterface.class),
+                pluginName, StreamingInputPluginInterface::getPluginName);
+    }
+
+    /**
+     * 以流式输入执行插件
+     *
+     * @param pluginName 插件名称
+     * @param body 请求体
+     * @param contentType 请求的Content-Type，决定解析格式
+     * @return 执行结果
+     */
+    public Object ingest(String pluginName, InputStream body, String contentType) {
+        StreamingInputPluginInterface plugin = getIngestPlugin(pluginName);
+        if (plugin == null) {
+            throw new BusinessException(404, "流式输入插件未找到: " + pluginName);
+        }
+        long startTime = System.nanoTime();
+        try (JsonInput input = open(body, contentType)) {
+            Object result = plugin.ingest(input);
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, true);
+            logger.info("流式输入插件执行完成: {}, 读取: {} 字节, 耗时: {}ms", pluginName, input.getBytesRead(),
+                    (System.nanoTime() - startTime) / 1_000_000);
+            return result;
+        } catch (IOException e) {
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, false);
+            throw new BusinessException("读取插件输入失败: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, false);
+            throw e;
+        }
+    }
+
+    /**
+     * 以流式输入执行插件方法，方法必须只有一个 {@link JsonInput} 参数
+     * 与 {@link #ingest} 一样，从打开输入到关闭输入的整个过程计入调用指标，读取失败也记为失败调用
+     *
+     * @param pluginName 插件名称
+     * @param methodName 方法名称
+     * @param body 请求体
+     * @param contentType 请求的Content-Type，决定解析格式
+     * @return 方法执行结果
+     * @throws Exception 执行异常
+     */
+    public Object ingestMethod(String pluginName, String methodName, InputStream body, String contentType) throws Exception {
+        // 插件或方法不存在时不打开输入，也不计入指标
+        pluginMethodService.checkInputMethod(pluginName, methodName);
+        long startTime = System.nanoTime();
+        try (JsonInput input = open(body, contentType)) {
+            Object result = pluginMethodService.executeMethodWithInput(pluginName, methodName, input);
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, true);
+            logger.info("流式输入插件方法执行完成: {}#{}, 读取: {} 字节, 耗时: {}ms", pluginName, methodName,
+                    input.getBytesRead(), (System.nanoTime() - startTime) / 1_000_000);
+            return result;
+        } catch (IOException e) {
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, false);
+            throw new BusinessException("读取插件输入失败: " + e.getMessage(), e);
+        } catch (Exception e) {
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, false);
+            throw e;
+        }
+    }
+
+    /**
+     * 按Content-Type创建流式输入，解析器绑定对应的ObjectMapper，元素可以直接绑定为对象
+     */
+    public JsonInput open(InputStream body, String contentType) throws IOException {
+        return new JsonInput(mapperFor(contentType).getFactory().createParser(body));
+    }
+
+    private ObjectMapper mapperFor(String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase();
+            if (type.startsWith("application/cbor")) {
+                return cborMapper;
+            }
+            if (type.startsWith("application/x-jackson-smile")) {
+                return smileMapper;
+            }
+        }
+        return objectMapper;
+    }
+}
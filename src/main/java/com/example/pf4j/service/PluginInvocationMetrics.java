@@ -0,0 +1,66 @@
+package com.example.pf4j.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 插件调用指标
+ * 记录每个插件的调用次数、失败次数和累计耗时，写入路径只做无锁累加。
+ * 指标按解析后的插件ID归并，别名和大小写变体计入同一插件，无法解析的名称统一计入 {@link RateLimitService#UNKNOWN_PLUGIN}
+ */
+@Component
+public class PluginInvocationMetrics {
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次插件调用
+     *
+     * @param pluginName 插件名称
+     * @param elapsedNanos 调用耗时（纳秒）
+     * @param success 是否成功
+     */
+    public void record(String pluginName, long elapsedNanos, boolean success) {
+        String pluginId = nameResolver.resolvePluginId(pluginName);
+        Counters pluginCounters = counters.computeIfAbsent(pluginId != null ? pluginId : RateLimitService.UNKNOWN_PLUGIN,
+                key -> new Counters());
+        pluginCounters.calls.increment();
+        pluginCounters.totalNanos.add(elapsedNanos);
+        if (!success) {
+            pluginCounters.failures.increment();
+        }
+    }
+
+    /**
+     * 获取各插件调用指标的快照
+     *
+     * @return 插件ID到指标的映射
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        counters.forEach((pluginId, pluginCounters) -> {
+            long calls = pluginCounters.calls.sum();
+            long totalNanos = pluginCounters.totalNanos.sum();
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("calls", calls);
+            metrics.put("failures", pluginCounters.failures.sum());
+            metrics.put("averageMillis", calls == 0 ? 0.0 : totalNanos / 1_000_000.0 / calls);
+            snapshot.put(pluginId, metrics);
+        });
+        return snapshot;
+    }
+
+    private static class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+    }
+}
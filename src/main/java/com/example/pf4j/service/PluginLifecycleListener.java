@@ -0,0 +1,27 @@
+package com.example.pf4j.service;
+
+import org.pf4j.PluginState;
+
+/**
+ * 插件生命周期监听器
+ * 由需要感知插件加载、状态变化和卸载的组件实现，并通过PluginLifecycleTracker注册
+ */
+public interface PluginLifecycleListener {
+
+    /**
+     * 插件状态发生变化
+     * @param pluginId 插件ID
+     * @param state 新状态
+     */
+    default void onPluginStateChanged(String pluginId, PluginState state) {
+        // 默认空实现
+    }
+
+    /**
+     * 插件已卸载
+     * @param pluginId 插件ID
+     */
+    default void onPluginUnloaded(String pluginId) {
+        // 默认空实现
+    }
+}
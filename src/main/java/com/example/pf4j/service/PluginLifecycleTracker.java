@@ -0,0 +1,87 @@
+package com.example.pf4j.service;
+
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.pf4j.PluginStateEvent;
+import org.pf4j.PluginStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 插件生命周期跟踪器
+ * 统一接收PF4J插件状态事件和卸载通知，维护插件版本号并分发给各监听器
+ */
+@Component
+public class PluginLifecycleTracker implements PluginStateListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginLifecycleTracker.class);
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    private final List<PluginLifecycleListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 插件集合版本号，任何插件加载、状态变化或卸载都会使其递增
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pluginManager.addPluginStateListener(this);
+    }
+
+    /**
+     * 注册生命周期监听器
+     * @param listener 监听器
+     */
+    public void addListener(PluginLifecycleListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 获取当前插件集合版本号
+     * @return 版本号
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void pluginStateChanged(PluginStateEvent event) {
+        String pluginId = event.getPlugin().getPluginId();
+        PluginState state = event.getPluginState();
+        version.incrementAndGet();
+        logger.debug("插件状态变化: {} {} -> {}", pluginId, event.getOldState(), state);
+        for (PluginLifecycleListener listener : listeners) {
+            try {
+                listener.onPluginStateChanged(pluginId, state);
+            } catch (Exception e) {
+                logger.error("插件状态监听器执行失败: {}", pluginId, e);
+            }
+        }
+    }
+
+    /**
+     * 通知插件已卸载
+     * @param pluginId 插件ID
+     */
+    public void pluginUnloaded(String pluginId) {
+        version.incrementAndGet();
+        logger.debug("插件已卸载: {}", pluginId);
+        for (PluginLifecycleListener listener : listeners) {
+            try {
+                listener.onPluginUnloaded(pluginId);
+            } catch (Exception e) {
+                logger.error("插件卸载监听器执行失败: {}", pluginId, e);
+            }
+        }
+    }
+}
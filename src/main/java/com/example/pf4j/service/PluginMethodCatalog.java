@@ -0,0 +1,118 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.util.JsonSnapshot;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 插件方法目录
+ * 每个插件加载周期内只通过反射或扩展清单构建一次，
+ * 同时用于方法列表接口的预序列化响应和方法调用时的参数绑定
+ */
+public class PluginMethodCatalog {
+
+    private final String pluginName;
+    private final long version;
+    private final Object instance;
+    private final Map<String, List<CatalogMethod>> methodsByName;
+    private final Map<String, Object> description;
+    private final JsonSnapshot snapshot;
+
+    PluginMethodCatalog(String pluginName, long version, Object instance,
+                        Map<String, List<CatalogMethod>> methodsByName,
+                        Map<String, Object> description, JsonSnapshot snapshot) {
+        this.pluginName = pluginName;
+        this.version = version;
+        this.instance = instance;
+        this.methodsByName = methodsByName;
+        this.description = description;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 查找匹配的方法
+     * 优先匹配参数数量一致的同名方法，否则返回第一个同名方法
+     *
+     * @param methodName 方法名
+     * @param paramCount 调用方提供的参数数量
+     * @return 匹配的方法，不存在时返回null
+     */
+    public CatalogMethod findMethod(String methodName, int paramCount) {
+        List<CatalogMethod> candidates = methodsByName.getOrDefault(methodName, Collections.emptyList());
+        for (CatalogMethod candidate : candidates) {
+            if (candidate.getParameterTypes().length == paramCount) {
+                return candidate;
+            }
+        }
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    /**
+     * 按名称查找只有一个参数、且参数可以接收指定类型的方法
+     */
+    public CatalogMethod findMethod(String methodName, Class<?> argumentType) {
+        for (CatalogMethod candidate : methodsByName.getOrDefault(methodName, Collections.emptyList())) {
+            Class<?>[] parameterTypes = candidate.getParameterTypes();
+            if (parameterTypes.length == 1 && parameterTypes[0].isAssignableFrom(argumentType)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Object getInstance() {
+        return instance;
+    }
+
+    /**
+     * 获取方法描述，包含类名和可调用方法列表
+     */
+    public Map<String, Object> getDescription() {
+        return description;
+    }
+
+    /**
+     * 获取方法列表接口的预序列化响应
+     */
+    public JsonSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 目录中的单个方法，参数名和参数类型在构建时确定
+     */
+    public static class CatalogMethod {
+        private final Method method;
+        private final String[] parameterNames;
+        private final Class<?>[] parameterTypes;
+
+        CatalogMethod(Method method, String[] parameterNames) {
+            this.method = method;
+            this.parameterNames = parameterNames;
+            this.parameterTypes = method.getParameterTypes();
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public String[] getParameterNames() {
+            return parameterNames;
+        }
+
+        public Class<?>[] getParameterTypes() {
+            return parameterTypes;
+        }
+    }
+}
@@ -1,22 +1,33 @@
 package com.example.pf4j.service;
 
-import com.example.pf4j.plugin.PluginInterface;
+import com.example.pf4j.plugin.stream.JsonInput;
+import com.example.pf4j.plugin.index.ExtensionManifest.MethodInfo;
+import com.example.pf4j.plugin.index.ExtensionManifest.ParameterInfo;
+import com.example.pf4j.service.ExtensionIndexService.IndexedExtension;
+import com.example.pf4j.service.PluginMethodCatalog.CatalogMethod;
+import com.example.pf4j.util.JsonSnapshot;
+import com.example.pf4jscaffold.common.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 插件方法调用服务
  * 提供动态调用插件中指定方法的功能
+ * 每个插件加载周期内只构建一次方法目录，方法查找、参数绑定和方法列表都基于目录完成
  */
 @Service
-public class PluginMethodService {
+public class PluginMethodService implements PluginLifecycleListener {
     
     private static final Logger logger = LoggerFactory.getLogger(PluginMethodService.class);
     
@@ -26,6 +37,41 @@ public class PluginMethodService {
     @Autowired
     private PluginService pluginService;
     
+    @Autowired
+    private ExtensionIndexService extensionIndexService;
+    
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PluginInvocationMetrics invocationMetrics;
+    
+    @Autowired
+    private PluginNameResolver nameResolver;
+    
+    /**
+     * 扩展到方法目录的缓存，键为解析后的插件ID和扩展类全名，同一扩展的别名和大小写变体共用一个目录
+     */
+    private final Map<String, PluginMethodCatalog> catalogs = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        lifecycleTracker.addListener(this);
+    }
+    
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        catalogs.clear();
+    }
+    
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        catalogs.clear();
+    }
+    
     /**
      * 执行插件的指定方法
      * 
@@ -38,14 +84,11 @@ public class PluginMethodService {
     public Object executeMethod(String pluginName, String methodName, Map<String, Object> params) throws Exception {
         logger.info("开始执行插件方法: {}#{}", pluginName, methodName);
         
-        // 1. 获取插件实例
-        Object pluginInstance = getPluginInstance(pluginName);
-        if (pluginInstance == null) {
-            throw new IllegalArgumentException("插件未找到: " + pluginName);
-        }
+        // 1. 获取方法目录
+        PluginMethodCatalog catalog = getCatalog(pluginName);
         
         // 2. 获取方法
-        Method method = findMethod(pluginInstance.getClass(), methodName, params);
+        CatalogMethod method = catalog.findMethod(methodName, params == null ? 0 : params.size());
         if (method == null) {
             throw new NoSuchMethodException("方法未找到: " + methodName);
         }
@@ -54,113 +97,224 @@ public class PluginMethodService {
         Object[] args = prepareMethodArguments(method, params);
         
         // 4. 执行方法
-        method.setAccessible(true);
-        Object result = method.invoke(pluginInstance, args);
+        long startTime = System.nanoTime();
+        Object result;
+        try {
+            result = method.getMethod().invoke(catalog.getInstance(), args);
+        } catch (Exception e) {
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, false);
+            throw e;
+        }
+        invocationMetrics.record(pluginName, System.nanoTime() - startTime, true);
         
         logger.info("插件方法执行成功: {}#{}", pluginName, methodName);
         return result;
     }
     
     /**
-     * 获取插件实例
+     * 以流式输入执行插件方法
+     * 方法必须只有一个 {@link JsonInput} 参数，请求体不绑定为参数映射，由方法自行读取。
+     * 输入的读取与方法执行交织在一起，调用指标由打开输入的调用方记录
      * 
      * @param pluginName 插件名称
-     * @return 插件实例
+     * @param methodName 方法名称
+     * @param input 流式输入
+     * @return 方法执行结果
+     * @throws Exception 执行异常
      */
-    private Object getPluginInstance(String pluginName) {
-        // 首先尝试通过PluginInterface获取
-        List<PluginInterface> plugins = pluginManager.getExtensions(PluginInterface.class);
-        for (PluginInterface plugin : plugins) {
-            if (pluginName.equals(plugin.getPluginName()) || 
-                pluginName.equals(plugin.getClass().getSimpleName().toLowerCase().replace("plugin", "").replace("extension", ""))) {
-                return plugin;
-            }
-        }
+    public Object executeMethodWithInput(String pluginName, String methodName, JsonInput input) throws Exception {
+        logger.info("开始以流式输入执行插件方法: {}#{}", pluginName, methodName);
         
-        // 尝试通过所有扩展点获取
-        List<Object> allExtensions = pluginManager.getExtensions(Object.class);
-        for (Object extension : allExtensions) {
-            String className = extension.getClass().getSimpleName().toLowerCase();
-            if (className.contains(pluginName.toLowerCase()) || 
-                className.replace("extension", "").replace("plugin", "").equals(pluginName.toLowerCase())) {
-                return extension;
-            }
-        }
+        PluginMethodCatalog catalog = getCatalog(pluginName);
+        Object result = findInputMethod(catalog, methodName).getMethod().invoke(catalog.getInstance(), input);
         
-        return null;
+        logger.info("插件方法执行成功: {}#{}", pluginName, methodName);
+        return result;
+    }
+    
+    /**
+     * 检查插件是否提供接受流式输入的方法，在打开请求体之前调用
+     * 
+     * @param pluginName 插件名称
+     * @param methodName 方法名称
+     * @throws Exception 插件或方法不存在
+     */
+    public void checkInputMethod(String pluginName, String methodName) throws Exception {
+        findInputMethod(getCatalog(pluginName), methodName);
+    }
+    
+    private static CatalogMethod findInputMethod(PluginMethodCatalog catalog, String methodName) throws NoSuchMethodException {
+        CatalogMethod method = catalog.findMethod(methodName, JsonInput.class);
+        if (method == null) {
+            throw new NoSuchMethodException("方法未找到或不接受流式输入: " + methodName);
+        }
+        return method;
     }
     
     /**
-     * 查找匹配的方法
+     * 获取插件方法目录，插件集合版本变化后重新构建
+     * 名称先解析为唯一的扩展，再按扩展查找缓存
      * 
-     * @param clazz 类
-     * @param methodName 方法名
-     * @param params 参数
-     * @return 匹配的方法
+     * @param pluginName 插件名称
+     * @return 方法目录
+     */
+    public PluginMethodCatalog getCatalog(String pluginName) throws Exception {
+        PluginNameResolver.Target target = nameResolver.resolveTarget(pluginName);
+        if (target == null) {
+            throw new IllegalArgumentException("插件未找到: " + pluginName);
+        }
+        String key = target.key();
+        long version = lifecycleTracker.getVersion();
+        PluginMethodCatalog catalog = catalogs.get(key);
+        if (catalog != null && catalog.getVersion() == version) {
+            return catalog;
+        }
+        synchronized (catalogs) {
+            catalog = catalogs.get(key);
+            if (catalog == null || catalog.getVersion() != version) {
+                catalog = buildCatalog(target, version);
+                catalogs.put(key, catalog);
+            }
+            return catalog;
+        }
+    }
+    
+    /**
+     * 构建方法目录
+     * 提供扩展清单的插件使用清单中的签名和源码参数名，否则回退到反射
      */
-    private Method findMethod(Class<?> clazz, String methodName, Map<String, Object> params) {
-        Method[] methods = clazz.getMethods();
+    private PluginMethodCatalog buildCatalog(PluginNameResolver.Target target, long version) throws Exception {
+        String pluginId = target.getPluginId();
+        Object pluginInstance;
+        String className;
+        List<CatalogMethod> invocable = new ArrayList<>();
+        List<Map<String, Object>> methods = new ArrayList<>();
         
-        for (Method method : methods) {
-            if (method.getName().equals(methodName)) {
-                // 如果没有参数，直接返回无参方法
-                if (params == null || params.isEmpty()) {
-                    if (method.getParameterCount() == 0) {
-                        return method;
-                    }
-                } else {
-                    // 检查参数数量是否匹配
-                    if (method.getParameterCount() == params.size()) {
-                        return method;
-                    }
+        IndexedExtension indexed = extensionIndexService.findByClassName(target.getClassName());
+        if (indexed != null && indexed.getPluginId().equals(pluginId)) {
+            pluginInstance = extensionIndexService.getInstance(indexed);
+            className = indexed.getInfo().getSimpleName();
+            for (MethodInfo methodInfo : indexed.getInfo().getMethods()) {
+                try {
+                    Method method = extensionIndexService.resolveMethod(pluginInstance.getClass(), methodInfo);
+                    invocable.add(new CatalogMethod(method, parameterNames(methodInfo)));
+                    methods.add(describeMethod(methodInfo));
+                } catch (NoSuchMethodException e) {
+                    logger.warn("扩展清单中的方法与插件类不一致，已忽略: {}#{}", target, methodInfo.getName());
+                }
+            }
+        } else {
+            pluginInstance = createInstance(target);
+            className = pluginInstance.getClass().getSimpleName();
+            for (Method method : pluginInstance.getClass().getMethods()) {
+                invocable.add(new CatalogMethod(method, parameterNames(method)));
+                // 过滤掉Object类的基本方法和一些不需要的方法
+                if (shouldIncludeMethod(method)) {
+                    methods.add(describeMethod(method));
                 }
             }
         }
         
-        // 如果没找到精确匹配，尝试找到同名方法（参数数量可能不同）
-        for (Method method : methods) {
-            if (method.getName().equals(methodName)) {
-                return method;
-            }
+        Map<String, List<CatalogMethod>> methodsByName = new HashMap<>();
+        for (CatalogMethod method : invocable) {
+            method.getMethod().setAccessible(true);
+            methodsByName.computeIfAbsent(method.getMethod().getName(), name -> new ArrayList<>()).add(method);
         }
         
-        return null;
+        Map<String, Object> description = new HashMap<>();
+        description.put("className", className);
+        description.put("methods", methods);
+        description = Collections.unmodifiableMap(description);
+        
+        JsonSnapshot snapshot = JsonSnapshot.of(objectMapper,
+                ApiResponse.success(Map.of("plugin", pluginId, "methods", description)));
+        
+        logger.debug("构建插件方法目录: {}, 方法数量: {}", target, invocable.size());
+        return new PluginMethodCatalog(pluginId, version, pluginInstance, methodsByName, description, snapshot);
+    }
+    
+    /**
+     * 实例化未提供扩展清单的扩展
+     * 只加载名称解析得到的扩展类，不再实例化全部扩展逐个比对
+     * 
+     * @param target 名称解析得到的扩展
+     * @return 扩展实例
+     */
+    private Object createInstance(PluginNameResolver.Target target) {
+        ClassLoader classLoader = PluginNameResolver.HOST_OWNER.equals(target.getPluginId())
+                ? getClass().getClassLoader()
+                : pluginManager.getPluginClassLoader(target.getPluginId());
+        if (classLoader == null) {
+            throw new IllegalArgumentException("插件未找到: " + target.getPluginId());
+        }
+        Class<?> extensionClass;
+        try {
+            extensionClass = classLoader.loadClass(target.getClassName());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("扩展类加载失败: " + target.getClassName(), e);
+        }
+        logger.debug("插件未提供扩展清单，按名称解析结果实例化扩展: {}", target);
+        return pluginManager.getExtensionFactory().create(extensionClass);
+    }
+    
+    /**
+     * 获取清单中记录的源码参数名
+     */
+    private String[] parameterNames(MethodInfo methodInfo) {
+        List<ParameterInfo> parameters = methodInfo.getParameters();
+        String[] names = new String[parameters.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = parameters.get(i).getName();
+        }
+        return names;
+    }
+    
+    /**
+     * 获取反射得到的参数名，未使用-parameters编译时为arg0、arg1...
+     */
+    private String[] parameterNames(Method method) {
+        Parameter[] parameters = method.getParameters();
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = parameters[i].getName();
+        }
+        return names;
     }
     
     /**
      * 准备方法参数
      * 
-     * @param method 方法
+     * @param method 目录中的方法
      * @param params 参数映射
      * @return 参数数组
      */
-    private Object[] prepareMethodArguments(Method method, Map<String, Object> params) {
-        Parameter[] parameters = method.getParameters();
-        Object[] args = new Object[parameters.length];
+    private Object[] prepareMethodArguments(CatalogMethod method, Map<String, Object> params) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        String[] parameterNames = method.getParameterNames();
+        Object[] args = new Object[parameterTypes.length];
         
         if (params == null || params.isEmpty()) {
             // 无参数情况，返回空数组或默认值
             for (int i = 0; i < args.length; i++) {
-                args[i] = getDefaultValue(parameters[i].getType());
+                args[i] = getDefaultValue(parameterTypes[i]);
             }
             return args;
         }
         
         // 按参数名称匹配
-        for (int i = 0; i < parameters.length; i++) {
-            Parameter param = parameters[i];
-            String paramName = param.getName();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            String paramName = parameterNames[i];
             
             if (params.containsKey(paramName)) {
-                args[i] = convertParameter(params.get(paramName), param.getType());
+                args[i] = convertParameter(params.get(paramName), parameterTypes[i]);
             } else {
                 // 尝试按索引匹配
                 String indexKey = "arg" + i;
                 if (params.containsKey(indexKey)) {
-                    args[i] = convertParameter(params.get(indexKey), param.getType());
+                    args[i] = convertParameter(params.get(indexKey), parameterTypes[i]);
                 } else {
                     // 使用默认值
-                    args[i] = getDefaultValue(param.getType());
+                    args[i] = getDefaultValue(parameterTypes[i]);
                 }
             }
         }
@@ -226,39 +380,57 @@ public class PluginMethodService {
      * @throws Exception 异常
      */
     public Map<String, Object> getPluginMethods(String pluginName) throws Exception {
-        Object pluginInstance = getPluginInstance(pluginName);
-        if (pluginInstance == null) {
-            throw new IllegalArgumentException("插件未找到: " + pluginName);
-        }
-        
-        Map<String, Object> result = new HashMap<>();
-        List<Map<String, Object>> methods = new ArrayList<>();
+        return getCatalog(pluginName).getDescription();
+    }
+    
+    /**
+     * 获取插件方法列表的预序列化响应
+     * 
+     * @param pluginName 插件名称
+     * @return JSON快照
+     * @throws Exception 异常
+     */
+    public JsonSnapshot getPluginMethodsSnapshot(String pluginName) throws Exception {
+        return getCatalog(pluginName).getSnapshot();
+    }
+    
+    /**
+     * 根据扩展清单描述方法
+     */
+    private Map<String, Object> describeMethod(MethodInfo method) {
+        Map<String, Object> methodInfo = new HashMap<>();
+        methodInfo.put("name", method.getName());
+        methodInfo.put("returnType", method.getReturnType());
         
-        Method[] allMethods = pluginInstance.getClass().getMethods();
-        for (Method method : allMethods) {
-            // 过滤掉Object类的基本方法和一些不需要的方法
-            if (shouldIncludeMethod(method)) {
-                Map<String, Object> methodInfo = new HashMap<>();
-                methodInfo.put("name", method.getName());
-                methodInfo.put("returnType", method.getReturnType().getSimpleName());
-                
-                List<Map<String, String>> params = new ArrayList<>();
-                Parameter[] parameters = method.getParameters();
-                for (Parameter param : parameters) {
-                    Map<String, String> paramInfo = new HashMap<>();
-                    paramInfo.put("name", param.getName());
-                    paramInfo.put("type", param.getType().getSimpleName());
-                    params.add(paramInfo);
-                }
-                methodInfo.put("parameters", params);
-                
-                methods.add(methodInfo);
-            }
+        List<Map<String, String>> params = new ArrayList<>();
+        for (ParameterInfo param : method.getParameters()) {
+            Map<String, String> paramInfo = new HashMap<>();
+            paramInfo.put("name", param.getName());
+            paramInfo.put("type", param.getType());
+            params.add(paramInfo);
         }
+        methodInfo.put("parameters", params);
+        return methodInfo;
+    }
+    
+    /**
+     * 根据反射信息描述方法
+     */
+    private Map<String, Object> describeMethod(Method method) {
+        Map<String, Object> methodInfo = new HashMap<>();
+        methodInfo.put("name", method.getName());
+        methodInfo.put("returnType", method.getReturnType().getSimpleName());
         
-        result.put("className", pluginInstance.getClass().getSimpleName());
-        result.put("methods", methods);
-        return result;
+        List<Map<String, String>> params = new ArrayList<>();
+        Parameter[] parameters = method.getParameters();
+        for (Parameter param : parameters) {
+            Map<String, String> paramInfo = new HashMap<>();
+            paramInfo.put("name", param.getName());
+            paramInfo.put("type", param.getType().getSimpleName());
+            params.add(paramInfo);
+        }
+        methodInfo.put("parameters", params);
+        return methodInfo;
     }
     
     /**
@@ -0,0 +1,307 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.PluginInterface;
+import com.example.pf4j.plugin.StreamingInputPluginInterface;
+import com.example.pf4j.plugin.StreamingPluginInterface;
+import com.example.pf4j.plugin.index.ExtensionManifest;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 插件名称解析服务
+ * 插件调用接口中的 {pluginName} 可以是插件声明的名称、扩展类简单名称、去掉Extension/Plugin后缀的名称或插件ID。
+ * 调用分发和授权、限流都通过本类解析名称，保证请求被授权的插件就是实际被调用的插件：
+ * <ul>
+ *     <li>{@link #findExtension(List, String, Function)} 供调用分发从候选扩展中选出目标</li>
+ *     <li>{@link #resolvePluginId(String)} 把名称解析为所属插件ID，名称不存在或同时指向多个插件时返回null</li>
+ *     <li>{@link #resolveTarget(String)} 把名称解析为唯一的扩展类，供按插件缓存的方法目录等使用规范键</li>
+ * </ul>
+ * 名称表按插件生命周期版本缓存，插件启停后自动重建
+ */
+@Service
+public class PluginNameResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginNameResolver.class);
+
+    /**
+     * 宿主应用自身提供的扩展的所属ID，以@开头，不会与插件ID冲突
+     */
+    public static final String HOST_OWNER = "@host";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final ClassLoader HOST_CLASS_LOADER = PluginNameResolver.class.getClassLoader();
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    /**
+     * 小写名称 -> 可能指向的扩展
+     */
+    private volatile Map<String, Set<Target>> aliases = Collections.emptyMap();
+    private volatile long aliasesVersion = -1;
+
+    /**
+     * 把插件名称解析为插件ID
+     *
+     * @param name 插件名称
+     * @return 插件ID，宿主扩展返回 {@link #HOST_OWNER}；名称不存在或有歧义时返回null
+     */
+    public String resolvePluginId(String name) {
+        if (name == null) {
+            return null;
+        }
+        Set<Target> targets = getAliases().get(name.toLowerCase());
+        if (targets == null) {
+            return null;
+        }
+        String pluginId = null;
+        for (Target target : targets) {
+            if (pluginId != null && !pluginId.equals(target.pluginId)) {
+                return null;
+            }
+            pluginId = target.pluginId;
+        }
+        return pluginId;
+    }
+
+    /**
+     * 把插件名称解析为唯一的扩展类
+     * 插件ID只在插件仅有一个扩展时指向该扩展
+     *
+     * @param name 插件名称
+     * @return 扩展，名称不存在或指向多个扩展时返回null
+     */
+    public Target resolveTarget(String name) {
+        if (name == null) {
+            return null;
+        }
+        Set<Target> targets = getAliases().get(name.toLowerCase());
+        return targets != null && targets.size() == 1 ? targets.iterator().next() : null;
+    }
+
+    /**
+     * 从候选扩展中按名称选出调用目标
+     * 依次按声明名称精确匹配、忽略大小写匹配声明名称或类名别名、匹配插件ID，
+     * 每一步只有唯一结果时才返回，不做模糊匹配
+     *
+     * @param candidates 候选扩展
+     * @param name 插件名称
+     * @param nameFn 取扩展声明名称的函数，扩展没有声明名称时可以为null
+     * @return 目标扩展，未找到或有歧义时返回null
+     */
+    public <T> T findExtension(List<T> candidates, String name, Function<T, String> nameFn) {
+        if (name == null) {
+            return null;
+        }
+        if (nameFn != null) {
+            for (T candidate : candidates) {
+                if (name.equals(nameFn.apply(candidate))) {
+                    return candidate;
+                }
+            }
+        }
+        String lowerName = name.toLowerCase();
+        List<T> matches = new ArrayList<>();
+        for (T candidate : candidates) {
+            String simpleName = candidate.getClass().getSimpleName();
+            if ((nameFn != null && name.equalsIgnoreCase(nameFn.apply(candidate)))
+                    || lowerName.equals(simpleName.toLowerCase())
+                    || lowerName.equals(ExtensionManifest.normalizeName(simpleName))) {
+                matches.add(candidate);
+            }
+        }
+        if (matches.isEmpty()) {
+            for (T candidate : candidates) {
+                if (name.equalsIgnoreCase(ownerOf(candidate.getClass()))) {
+                    matches.add(candidate);
+                }
+            }
+        }
+        return matches.size() == 1 ? matches.get(0) : null;
+    }
+
+    /**
+     * 获取扩展类所属的插件ID
+     *
+     * @param extensionClass 扩展类
+     * @return 插件ID，宿主扩展返回 {@link #HOST_OWNER}
+     */
+    public String ownerOf(Class<?> extensionClass) {
+        PluginWrapper plugin = pluginManager.whichPlugin(extensionClass);
+        return plugin != null ? plugin.getPluginId() : HOST_OWNER;
+    }
+
+    /**
+     * 确定调用方所属的插件ID
+     * 由宿主根据调用栈上最近的插件类确定，插件传入宿主类或其他插件的对象也无法冒充宿主或其他插件；
+     * 调用栈上没有插件类时调用来自宿主自身，宿主可以代插件获取资源，此时按代表的对象确定归属
+     *
+     * @param onBehalfOf 宿主代插件调用时代表的对象，通常是工具类调用方传入的this
+     * @return 插件ID，宿主返回 {@link #HOST_OWNER}
+     */
+    public String ownerOfCaller(Object onBehalfOf) {
+        String pluginId = STACK_WALKER.walk(frames -> frames
+                .map(StackWalker.StackFrame::getDeclaringClass)
+                .filter(PluginNameResolver::mayBelongToPlugin)
+                .map(pluginManager::whichPlugin)
+                .filter(Objects::nonNull)
+                .map(PluginWrapper::getPluginId)
+                .findFirst()
+                .orElse(null));
+        if (pluginId != null) {
+            return pluginId;
+        }
+        return onBehalfOf != null ? ownerOf(onBehalfOf.getClass()) : HOST_OWNER;
+    }
+
+    /**
+     * 宿主和JDK的类不必逐个询问插件管理器
+     */
+    private static boolean mayBelongToPlugin(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        return classLoader != null && classLoader != HOST_CLASS_LOADER;
+    }
+
+    private Map<String, Set<Target>> getAliases() {
+        long version = lifecycleTracker.getVersion();
+        if (aliasesVersion != version) {
+            synchronized (this) {
+                if (aliasesVersion != version) {
+                    aliases = buildAliases();
+                    aliasesVersion = version;
+                }
+            }
+        }
+        return aliases;
+    }
+
+    private Map<String, Set<Target>> buildAliases() {
+        Map<String, Set<Target>> table = new HashMap<>();
+        addClassAliases(table, null, HOST_OWNER);
+        for (PluginWrapper plugin : pluginManager.getStartedPlugins()) {
+            String pluginId = plugin.getPluginId();
+            for (String className : pluginManager.getExtensionClassNames(pluginId)) {
+                addAlias(table, pluginId, new Target(pluginId, className));
+            }
+            addClassAliases(table, pluginId, pluginId);
+        }
+        addDeclaredNames(table, pluginManager.getExtensions(PluginInterface.class), PluginInterface::getPluginName);
+        addDeclaredNames(table, pluginManager.getExtensions(StreamingPluginInterface.class),
+                StreamingPluginInterface::getPluginName);
+        addDeclaredNames(table, pluginManager.getExtensions(StreamingInputPluginInterface.class),
+                StreamingInputPluginInterface::getPluginName);
+
+        int ambiguous = 0;
+        for (Map.Entry<String, Set<Target>> entry : table.entrySet()) {
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+            if (resolvesToManyPlugins(entry.getValue())) {
+                ambiguous++;
+                logger.warn("插件名称有歧义，按名称调用将被拒绝: {} -> {}", entry.getKey(), entry.getValue());
+            }
+        }
+        logger.debug("插件名称表重建完成, 名称数量: {}, 歧义名称: {}", table.size(), ambiguous);
+        return Collections.unmodifiableMap(table);
+    }
+
+    private static boolean resolvesToManyPlugins(Set<Target> targets) {
+        String pluginId = null;
+        for (Target target : targets) {
+            if (pluginId != null && !pluginId.equals(target.pluginId)) {
+                return true;
+            }
+            pluginId = target.pluginId;
+        }
+        return false;
+    }
+
+    private void addClassAliases(Map<String, Set<Target>> table, String pluginId, String owner) {
+        for (String className : pluginManager.getExtensionClassNames(pluginId)) {
+            String simpleName = className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+            Target target = new Target(owner, className);
+            addAlias(table, simpleName, target);
+            addAlias(table, ExtensionManifest.normalizeName(simpleName), target);
+        }
+    }
+
+    private <T> void addDeclaredNames(Map<String, Set<Target>> table, List<T> extensions, Function<T, String> nameFn) {
+        for (T extension : extensions) {
+            addAlias(table, nameFn.apply(extension), new Target(ownerOf(extension.getClass()), extension.getClass().getName()));
+        }
+    }
+
+    private static void addAlias(Map<String, Set<Target>> table, String name, Target target) {
+        if (name != null && !name.isEmpty()) {
+            table.computeIfAbsent(name.toLowerCase(), key -> new LinkedHashSet<>(2)).add(target);
+        }
+    }
+
+    /**
+     * 名称解析得到的扩展：所属插件ID和扩展类全名
+     */
+    public static final class Target {
+        private final String pluginId;
+        private final String className;
+
+        Target(String pluginId, String className) {
+            this.pluginId = pluginId;
+            this.className = className;
+        }
+
+        /**
+         * 所属插件ID，宿主扩展为 {@link #HOST_OWNER}
+         */
+        public String getPluginId() {
+            return pluginId;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * 在插件范围内唯一的键，可用于按扩展缓存
+         */
+        public String key() {
+            return pluginId + ":" + className;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Target)) {
+                return false;
+            }
+            Target target = (Target) other;
+            return pluginId.equals(target.pluginId) && className.equals(target.className);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * pluginId.hashCode() + className.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key();
+        }
+    }
+}
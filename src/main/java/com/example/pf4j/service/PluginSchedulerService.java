@@ -0,0 +1,276 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.scheduler.HashedTimingWheel;
+import com.example.pf4j.scheduler.JobHandle;
+import com.example.pf4j.scheduler.JobScheduler;
+import com.example.pf4j.scheduler.JobTrigger;
+import com.example.pf4j.scheduler.MisfirePolicy;
+import com.example.pf4j.scheduler.ShardedTask;
+import com.example.pf4j.util.SchedulerUtil;
+import com.example.pf4j.util.VirtualThreads;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.pf4j.PluginWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 插件任务调度服务
+ * 宿主提供的共享调度器，所有插件的定时任务共用一个时间轮线程和一个小的工作线程池，
+ * 插件不再需要自建线程池。任务按提交任务的类所在插件归属，插件停止或卸载时自动取消。
+ * 启用集群模式后，每个任务由 {@link ClusterLeaseService} 的租约保证同一时刻只在一个节点上执行
+ */
+@Service
+public class PluginSchedulerService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginSchedulerService.class);
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Autowired
+    private ClusterLeaseService leaseService;
+
+    @Autowired
+    private JobHistoryService historyService;
+
+    @Value("${pf4j.scheduler.tick-ms:100}")
+    private long tickMillis;
+
+    @Value("${pf4j.scheduler.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${pf4j.scheduler.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${pf4j.scheduler.misfire-threshold-ms:5000}")
+    private long misfireThresholdMillis;
+
+    @Value("${pf4j.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private JobScheduler scheduler;
+
+    @PostConstruct
+    public void init() {
+        HashedTimingWheel timingWheel = new HashedTimingWheel(tickMillis, TimeUnit.MILLISECONDS, wheelSize, "plugin-scheduler-tick");
+        ExecutorService workers;
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            workers = VirtualThreads.newThreadPerTaskExecutor("plugin-job-vt-");
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            // 同一任务不会重复排队，队列长度不超过任务数量
+            workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "plugin-job-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        scheduler = new JobScheduler(timingWheel, workers, misfireThresholdMillis);
+        scheduler.setListener(historyService);
+        lifecycleTracker.addListener(this);
+        SchedulerUtil.initialize(this, historyService);
+        logger.info("插件任务调度器初始化完成, tick: {}ms, 槽位: {}, 工作线程: {}",
+                tickMillis, timingWheel.getWheelSize(), virtualThreads && VirtualThreads.isSupported() ? "虚拟线程" : workerThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdown();
+    }
+
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        if (state != PluginState.STARTED) {
+            cancelPluginJobs(pluginId);
+        }
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        cancelPluginJobs(pluginId);
+    }
+
+    private void cancelPluginJobs(String pluginId) {
+        int cancelled = scheduler.cancelAll(pluginId);
+        if (cancelled > 0) {
+            logger.info("插件已停止，取消其定时任务: {}, 数量: {}", pluginId, cancelled);
+        }
+    }
+
+    /**
+     * 调度任务，错过触发时立即补执行一次
+     *
+     * @param name 任务名称
+     * @param trigger 触发器
+     * @param task 任务
+     * @return 任务句柄
+     */
+    public JobHandle schedule(String name, JobTrigger trigger, Runnable task) {
+        return schedule(name, trigger, MisfirePolicy.FIRE_NOW, task);
+    }
+
+    /**
+     * 调度任务
+     * 任务归属于task所属类所在的插件，执行时线程上下文类加载器设置为该插件的类加载器
+     *
+     * @param name 任务名称，集群模式下同一插件的同名任务在集群内只执行一份
+     * @param trigger 触发器
+     * @param misfirePolicy 错过触发策略
+     * @param task 任务
+     * @return 任务句柄
+     */
+    public JobHandle schedule(String name, JobTrigger trigger, MisfirePolicy misfirePolicy, Runnable task) {
+        String owner = resolveOwner(task);
+        if (!leaseService.isEnabled()) {
+            return scheduler.schedule(name, owner, trigger, misfirePolicy, task, task.getClass().getClassLoader());
+        }
+        return scheduleLeased(name, owner, trigger, misfirePolicy, 1, (partition, partitionCount) -> task.run(),
+                task.getClass().getClassLoader());
+    }
+
+    /**
+     * 调度分片任务
+     * 集群模式下各分片分散到不同节点执行，每个分片每次触发只在一个节点上执行；单节点时每次触发依次执行全部分片
+     *
+     * @param name 任务名称
+     * @param trigger 触发器
+     * @param misfirePolicy 错过触发策略
+     * @param partitionCount 分片数量
+     * @param task 分片任务
+     * @return 任务句柄
+     */
+    public JobHandle scheduleSharded(String name, JobTrigger trigger, MisfirePolicy misfirePolicy,
+                                     int partitionCount, ShardedTask task) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("分片数量必须大于0: " + partitionCount);
+        }
+        String owner = resolveOwner(task);
+        if (leaseService.isEnabled()) {
+            return scheduleLeased(name, owner, trigger, misfirePolicy, partitionCount, task, task.getClass().getClassLoader());
+        }
+        Runnable allPartitions = () -> {
+            for (int partition = 0; partition < partitionCount; partition++) {
+                task.run(partition, partitionCount);
+            }
+        };
+        return scheduler.schedule(name, owner, trigger, misfirePolicy, allPartitions, task.getClass().getClassLoader());
+    }
+
+    private JobHandle scheduleLeased(String name, String owner, JobTrigger trigger, MisfirePolicy misfirePolicy,
+                                     int partitionCount, ShardedTask task, ClassLoader classLoader) {
+        // 宿主任务使用不会与插件ID冲突的前缀
+        String key = (owner != null ? owner : "@host") + ":" + name;
+        ClusterLeaseService.LeasedTask leasedTask = leaseService.leased(key, partitionCount, task);
+        JobHandle job = scheduler.schedule(name, owner, trigger, misfirePolicy, leasedTask, classLoader);
+        leasedTask.bind(job);
+        return job;
+    }
+
+    /**
+     * 确认当前执行的集群任务仍持有租约，任务在提交副作用前调用
+     *
+     * @throws IllegalStateException 租约已被其他节点接管
+     */
+    public void ensureLeaseHeld() {
+        leaseService.ensureLeaseHeld();
+    }
+
+    /**
+     * 确定任务所属插件，按调用栈确定，插件传入宿主类的任务对象仍归属该插件
+     *
+     * @return 插件ID，宿主任务返回null
+     */
+    private String resolveOwner(Object task) {
+        String owner = nameResolver.ownerOfCaller(task);
+        if (PluginNameResolver.HOST_OWNER.equals(owner)) {
+            return null;
+        }
+        PluginWrapper plugin = pluginManager.getPlugin(owner);
+        if (plugin.getPluginState() != PluginState.STARTED) {
+            throw new IllegalStateException("插件未启动，不能调度任务: " + plugin.getPluginId());
+        }
+        return plugin.getPluginId();
+    }
+
+    /**
+     * 获取任务
+     *
+     * @param id 任务ID
+     * @return 任务句柄，不存在时返回null
+     */
+    public JobHandle getJob(long id) {
+        return scheduler.getJob(id);
+    }
+
+    /**
+     * 获取指定插件的任务
+     *
+     * @param pluginId 插件ID
+     * @return 任务列表
+     */
+    public List<JobHandle> getJobs(String pluginId) {
+        return scheduler.getJobs(pluginId);
+    }
+
+    /**
+     * 获取调度器概况和全部任务
+     *
+     * @return 调度器信息
+     */
+    public Map<String, Object> getSummary() {
+        HashedTimingWheel timingWheel = scheduler.getTimingWheel();
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("jobCount", scheduler.getJobCount());
+        summary.put("pendingTimeouts", timingWheel.size());
+        summary.put("firedTotal", timingWheel.getExpiredCount());
+        summary.put("tickMillis", timingWheel.getTickMillis());
+        summary.put("wheelSize", timingWheel.getWheelSize());
+        summary.put("cluster", leaseService.getSummary());
+        summary.put("history", historyService.getStats());
+        summary.put("jobs", scheduler.getJobs().stream().map(PluginSchedulerService::describe).collect(Collectors.toList()));
+        return summary;
+    }
+
+    /**
+     * 转换为接口返回的任务信息
+     */
+    public static Map<String, Object> describe(JobHandle job) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("id", job.getId());
+        info.put("name", job.getName());
+        info.put("owner", job.getOwner());
+        info.put("state", job.getState().name());
+        info.put("running", job.isRunning());
+        info.put("nextFireTime", job.getNextFireTime());
+        info.put("lastFireTime", job.getLastFireTime());
+        info.put("executionCount", job.getExecutionCount());
+        info.put("failureCount", job.getFailureCount());
+        info.put("misfireCount", job.getMisfireCount());
+        return info;
+    }
+}
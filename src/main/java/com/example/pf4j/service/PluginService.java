@@ -25,6 +25,18 @@ public class PluginService {
     @Autowired
     private PluginManager pluginManager;
     
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+    
+    @Autowired
+    private PluginClassLoaderMonitor classLoaderMonitor;
+    
+    @Autowired
+    private PluginInvocationMetrics invocationMetrics;
+    
+    @Autowired
+    private PluginNameResolver nameResolver;
+    
     /**
      * 获取所有已加载的插件
      * @return 插件列表
@@ -35,15 +47,12 @@ public class PluginService {
     
     /**
      * 根据插件名称获取插件
+     * 名称解析规则见 {@link PluginNameResolver}
      * @param pluginName 插件名称
      * @return 插件实例
      */
     public PluginInterface getPluginByName(String pluginName) {
-        List<PluginInterface> plugins = getAllPlugins();
-        return plugins.stream()
-                .filter(plugin -> plugin.getPluginName().equals(pluginName))
-                .findFirst()
-                .orElse(null);
+        return nameResolver.findExtension(getAllPlugins(), pluginName, PluginInterface::getPluginName);
     }
     
     /**
@@ -53,16 +62,20 @@ public class PluginService {
      * @return 执行结果
      */
     public Object executePlugin(String pluginName, Object input) {
+        long startTime = System.nanoTime();
         try {
             PluginInterface plugin = getPluginByName(pluginName);
             if (plugin != null) {
                 logger.info("执行插件: {}", pluginName);
-                return plugin.execute(input);
+                Object result = plugin.execute(input);
+                invocationMetrics.record(pluginName, System.nanoTime() - startTime, true);
+                return result;
             } else {
                 logger.warn("未找到插件: {}", pluginName);
                 return "插件未找到: " + pluginName;
             }
         } catch (Exception e) {
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, false);
             logger.error("执行插件失败: {}", pluginName, e);
             return "插件执行失败: " + e.getMessage();
         }
@@ -129,6 +142,7 @@ public class PluginService {
             // 然后卸载插件
             boolean result = pluginManager.unloadPlugin(pluginId);
             if (result) {
+                lifecycleTracker.pluginUnloaded(pluginId);
                 logger.info("插件卸载成功: {}", pluginId);
             } else {
                 logger.warn("插件卸载失败: {}", pluginId);
@@ -145,8 +159,12 @@ public class PluginService {
      */
     public void reloadPlugins() {
         try {
+            List<String> pluginIds = pluginManager.getPlugins().stream()
+                .map(PluginWrapper::getPluginId)
+                .collect(Collectors.toList());
             pluginManager.stopPlugins();
             pluginManager.unloadPlugins();
+            pluginIds.forEach(lifecycleTracker::pluginUnloaded);
             pluginManager.loadPlugins();
             pluginManager.startPlugins();
             logger.info("插件重新加载完成");
@@ -197,6 +215,9 @@ public class PluginService {
             ));
         stats.put("statusDistribution", statusDistribution);
         
+        // 类加载器与内存占用
+        stats.put("memory", classLoaderMonitor.getStats());
+        
         return stats;
     }
 }
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.bus.PluginInvoker;
+import com.example.pf4j.service.ExtensionIndexService.IndexedExtension;
+import com.example.pf4j.util.PluginBusUtil;
+import com.example.pf4j.util.VirtualThreads;
+import com.example.pf4jscaffold.common.BusinessException;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 插件进程内服务总线
+ * 插件之间直接以对象调用，不经过HTTP、JSON序列化和安全过滤器。
+ * 共享的API类型由宿主类加载器加载，参数和返回值可以跨插件类加载器直接传递
+ */
+@Service
+public class PluginServiceBus implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginServiceBus.class);
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private PluginMethodService pluginMethodService;
+
+    @Autowired
+    private ExtensionIndexService extensionIndexService;
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Value("${pf4j.bus.async-threads:4}")
+    private int asyncThreads;
+
+    @Value("${pf4j.bus.async-queue-capacity:1024}")
+    private int asyncQueueCapacity;
+
+    @Value("${pf4j.bus.max-invokers:4096}")
+    private int maxInvokers;
+
+    @Value("${pf4j.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * 扩展点类型到扩展实例列表的缓存，插件状态变化时失效
+     */
+    private final Map<Class<?>, List<?>> services = new ConcurrentHashMap<>();
+
+    /**
+     * 已创建的调用器，键为解析后的扩展和方法签名，同一扩展的别名复用同一个调用器。
+     * 调用器持有参数和返回值的Class，相关插件卸载时整条移除，避免钉住插件类加载器
+     */
+    private final Map<String, CachedInvoker> invokers = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            // 每个异步调用一个虚拟线程，阻塞的插件调用不占用平台线程
+            executor = VirtualThreads.newThreadPerTaskExecutor("plugin-bus-vt-");
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(asyncQueueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "plugin-bus-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    // 队列已满时由调用方线程执行，形成背压
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        lifecycleTracker.addListener(this);
+        PluginBusUtil.initialize(this);
+        logger.info("插件服务总线初始化完成, 异步执行: {}",
+                executor instanceof ThreadPoolExecutor ? asyncThreads + "个平台线程" : "虚拟线程");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void onPluginStateChanged(String pluginId, PluginState state) {
+        invalidate(pluginId);
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        invalidate(pluginId);
+    }
+
+    /**
+     * 释放对插件扩展实例的引用并移除涉及该插件的调用器，其余调用器在下次调用时重新解析
+     */
+    private void invalidate(String pluginId) {
+        services.clear();
+        invokers.values().removeIf(cached -> cached.pluginIds.contains(pluginId));
+        invokers.values().forEach(cached -> cached.invoker.reset());
+    }
+
+    /**
+     * 获取实现指定扩展点的全部扩展实例
+     * 每个插件加载周期内每个扩展只实例化一次
+     *
+     * @param type 扩展点接口，应由宿主类加载器加载
+     * @return 扩展实例列表
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getServices(Class<T> type) {
+        return (List<T>) services.computeIfAbsent(type, this::loadServices);
+    }
+
+    /**
+     * 获取实现指定扩展点的第一个扩展实例
+     *
+     * @param type 扩展点接口
+     * @return 扩展实例
+     */
+    public <T> T getService(Class<T> type) {
+        List<T> candidates = getServices(type);
+        if (candidates.isEmpty()) {
+            throw new BusinessException(404, "未找到扩展点实现: " + type.getName());
+        }
+        return candidates.get(0);
+    }
+
+    private <T> List<T> loadServices(Class<T> type) {
+        List<T> instances = new ArrayList<>();
+        for (Class<? extends T> extensionClass : pluginManager.getExtensionClasses(type)) {
+            IndexedExtension indexed = extensionIndexService.findByClassName(extensionClass.getName());
+            Object instance = indexed != null
+                    ? extensionIndexService.getInstance(indexed)
+                    : pluginManager.getExtensionFactory().create(extensionClass);
+            instances.add(type.cast(instance));
+        }
+        logger.debug("解析扩展点实现: {}, 数量: {}", type.getName(), instances.size());
+        return Collections.unmodifiableList(instances);
+    }
+
+    /**
+     * 获取插件方法调用器
+     * 插件名称的解析规则与 /api/plugins/method 接口一致
+     *
+     * @param extensionName 插件名称
+     * @param methodName 方法名
+     * @param returnType 返回值类型，基本类型按包装类型返回
+     * @param parameterTypes 参数类型
+     * @return 调用器
+     */
+    @SuppressWarnings("unchecked")
+    public <R> PluginInvoker<R> invoker(String extensionName, String methodName, Class<R> returnType,
+                                        Class<?>... parameterTypes) {
+        PluginNameResolver.Target target = nameResolver.resolveTarget(extensionName);
+        if (target == null) {
+            throw new BusinessException(404, "插件未找到: " + extensionName);
+        }
+        Class<R> boxedReturnType = (Class<R>) MethodType.methodType(returnType).wrap().returnType();
+        StringBuilder key = new StringBuilder(target.key()).append('#').append(methodName).append('(');
+        for (Class<?> parameterType : parameterTypes) {
+            key.append(parameterType.getName()).append(',');
+        }
+        key.append(')').append(boxedReturnType.getName());
+        CachedInvoker cached = invokers.get(key.toString());
+        if (cached == null) {
+            cached = new CachedInvoker(new PluginInvoker<>(extensionName, methodName, boxedReturnType,
+                    parameterTypes, lifecycleTracker::getVersion, this::resolveHandle),
+                    involvedPlugins(target, boxedReturnType, parameterTypes));
+            if (invokers.size() >= maxInvokers) {
+                // 超过上限后不再缓存，调用方自行持有调用器仍可正常复用
+                logger.warn("插件方法调用器数量已达上限: {}, 不再缓存: {}", maxInvokers, key);
+                return (PluginInvoker<R>) cached.invoker;
+            }
+            CachedInvoker existing = invokers.putIfAbsent(key.toString(), cached);
+            if (existing != null) {
+                cached = existing;
+            }
+        }
+        return (PluginInvoker<R>) cached.invoker;
+    }
+
+    /**
+     * 收集调用器涉及的插件：目标扩展所属插件，以及参数和返回值类型所属的插件
+     */
+    private Set<String> involvedPlugins(PluginNameResolver.Target target, Class<?> returnType,
+                                        Class<?>[] parameterTypes) {
+        Set<String> pluginIds = new HashSet<>();
+        pluginIds.add(target.getPluginId());
+        pluginIds.add(nameResolver.ownerOf(returnType));
+        for (Class<?> parameterType : parameterTypes) {
+            pluginIds.add(nameResolver.ownerOf(parameterType));
+        }
+        pluginIds.remove(PluginNameResolver.HOST_OWNER);
+        return pluginIds;
+    }
+
+    private MethodHandle resolveHandle(String extensionName, String methodName, Class<?>[] parameterTypes) {
+        Object instance;
+        try {
+            instance = pluginMethodService.getCatalog(extensionName).getInstance();
+        } catch (Exception e) {
+            throw new BusinessException(404, "插件未找到: " + extensionName, e);
+        }
+        try {
+            Method method = instance.getClass().getMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            logger.debug("解析插件方法调用器: {}#{}", extensionName, methodName);
+            return MethodHandles.publicLookup().unreflect(method).bindTo(instance);
+        } catch (NoSuchMethodException e) {
+            throw new BusinessException(404, "方法未找到: " + extensionName + "#" + methodName, e);
+        } catch (IllegalAccessException e) {
+            throw new BusinessException("方法不可访问: " + extensionName + "#" + methodName, e);
+        }
+    }
+
+    /**
+     * 异步调用实现指定扩展点的全部扩展，并汇总结果
+     * 单个扩展调用失败只记录日志，不影响其他扩展的结果
+     *
+     * @param type 扩展点接口
+     * @param call 对单个扩展的调用
+     * @return 成功调用的结果列表，顺序与扩展顺序一致
+     */
+    public <T, R> CompletableFuture<List<R>> fanOut(Class<T> type, Function<? super T, ? extends R> call) {
+        List<T> targets = getServices(type);
+        List<CompletableFuture<R>> futures = new ArrayList<>(targets.size());
+        for (T target : targets) {
+            CompletableFuture<R> future = CompletableFuture.supplyAsync(() -> call.apply(target), executor);
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    logger.warn("扩展异步调用失败: {}, 错误: {}", target.getClass().getName(), error.getMessage());
+                }
+            });
+            futures.add(future);
+        }
+        CompletableFuture<?>[] settled = futures.stream()
+                .map(future -> future.handle((result, error) -> null))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(settled).thenApply(ignored -> futures.stream()
+                .filter(future -> !future.isCompletedExceptionally())
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 缓存的调用器及其涉及的插件
+     */
+    private static final class CachedInvoker {
+        private final PluginInvoker<?> invoker;
+        private final Set<String> pluginIds;
+
+        CachedInvoker(PluginInvoker<?> invoker, Set<String> pluginIds) {
+            this.invoker = invoker;
+            this.pluginIds = pluginIds;
+        }
+    }
+}
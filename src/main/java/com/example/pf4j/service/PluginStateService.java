@@ -0,0 +1,154 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.store.LogStructuredStore;
+import com.example.pf4j.store.PluginStateStore;
+import com.example.pf4j.util.PluginStateUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件状态存储服务
+ * 每个插件一个日志结构存储，目录为 {dir}/{插件ID}，插件内按命名空间隔离。
+ * 写入只进入映射内存，按 fsync-interval-ms 批量刷盘；插件卸载时刷盘并关闭存储，重新加载后从磁盘恢复
+ */
+@Service
+public class PluginStateService implements PluginLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginStateService.class);
+
+    @Autowired
+    private PluginLifecycleTracker lifecycleTracker;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pf4j.state.dir:data/plugin-state}")
+    private String stateDir;
+
+    @Value("${pf4j.state.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${pf4j.state.compaction-garbage-ratio:0.5}")
+    private double compactionGarbageRatio;
+
+    @Value("${pf4j.state.compaction-min-bytes:16777216}")
+    private long compactionMinBytes;
+
+    /**
+     * 插件ID -> 该插件的存储
+     */
+    private final Map<String, LogStructuredStore> stores = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        lifecycleTracker.addListener(this);
+        PluginStateUtil.initialize(this);
+        logger.info("插件状态存储目录: {}, 段大小: {}MB", Paths.get(stateDir).toAbsolutePath(), segmentSizeMb);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (Map.Entry<String, LogStructuredStore> entry : stores.entrySet()) {
+            entry.getValue().close();
+        }
+        stores.clear();
+    }
+
+    @Override
+    public void onPluginUnloaded(String pluginId) {
+        LogStructuredStore store = stores.remove(pluginId);
+        if (store != null) {
+            store.close();
+            logger.info("插件已卸载，关闭状态存储: {}", pluginId);
+        }
+    }
+
+    /**
+     * 获取调用方所在插件的状态存储命名空间
+     *
+     * @param caller 调用方对象，归属按调用栈确定，只在宿主代插件调用时按该对象确定
+     * @param namespace 命名空间
+     * @return 状态存储
+     */
+    public PluginStateStore getStore(Object caller, String namespace) {
+        String owner = nameResolver.ownerOfCaller(caller);
+        return new PluginStateStore(storeFor(owner), namespace, objectMapper);
+    }
+
+    private LogStructuredStore storeFor(String owner) {
+        return stores.computeIfAbsent(owner, key -> {
+            // 插件目录名中的@会被替换，宿主目录不会与任何插件目录重名
+            String directoryName = PluginNameResolver.HOST_OWNER.equals(key)
+                    ? key : key.replaceAll("[^\\p{L}\\p{N}._-]", "_");
+            Path directory = Paths.get(stateDir, directoryName);
+            try {
+                return LogStructuredStore.open(directory, segmentSizeMb * 1024 * 1024);
+            } catch (IOException e) {
+                throw new IllegalStateException("打开插件状态存储失败: " + directory + ", " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 批量刷盘
+     */
+    @Scheduled(fixedDelayString = "${pf4j.state.fsync-interval-ms:1000}")
+    public void flush() {
+        for (Map.Entry<String, LogStructuredStore> entry : stores.entrySet()) {
+            try {
+                entry.getValue().flush();
+            } catch (Exception e) {
+                logger.warn("插件状态存储刷盘失败: {}, 错误: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 压缩失效数据占比过高的存储
+     */
+    @Scheduled(fixedDelayString = "${pf4j.state.compaction-interval-ms:60000}")
+    public void compact() {
+        for (Map.Entry<String, LogStructuredStore> entry : stores.entrySet()) {
+            try {
+                entry.getValue().compact(compactionGarbageRatio, compactionMinBytes);
+            } catch (Exception e) {
+                logger.warn("插件状态存储压缩失败: {}, 错误: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取各插件状态存储的统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> plugins = new TreeMap<>();
+        for (Map.Entry<String, LogStructuredStore> entry : stores.entrySet()) {
+            plugins.put(entry.getKey(), entry.getValue().getStats());
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dir", Paths.get(stateDir).toAbsolutePath().toString());
+        stats.put("segmentSizeMb", segmentSizeMb);
+        stats.put("compactionGarbageRatio", compactionGarbageRatio);
+        stats.put("compactionMinBytes", compactionMinBytes);
+        stats.put("plugins", plugins);
+        return stats;
+    }
+}
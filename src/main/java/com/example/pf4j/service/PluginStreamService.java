@@ -0,0 +1,338 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.plugin.StreamingPluginInterface;
+import com.example.pf4j.util.VirtualThreads;
+import com.example.pf4jscaffold.common.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 插件流式输出服务
+ * 订阅 {@link StreamingPluginInterface} 返回的数据流，把每个元素写入HTTP响应后再向插件请求下一批数据，
+ * 客户端接收慢时插件随之放慢，响应中任何时刻最多只缓存一批元素
+ */
+@Service
+public class PluginStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginStreamService.class);
+
+    private static final byte NEWLINE = '\n';
+
+    @Autowired
+    private PluginServiceBus serviceBus;
+
+    @Autowired
+    private PluginInvocationMetrics invocationMetrics;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pf4j.stream.prefetch:16}")
+    private int prefetch;
+
+    @Value("${pf4j.stream.timeout-ms:600000}")
+    private long timeoutMillis;
+
+    @Value("${pf4j.stream.max-concurrent:64}")
+    private int maxConcurrent;
+
+    @Value("${pf4j.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("plugin-stream-vt-");
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            // 不排队，超过并发上限直接拒绝，避免请求堆积
+            executor = new ThreadPoolExecutor(0, maxConcurrent, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "plugin-stream-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 获取所有流式插件名称
+     * @return 插件名称列表
+     */
+    public List<String> getStreamingPluginNames() {
+        return serviceBus.getServices(StreamingPluginInterface.class).stream()
+                .map(StreamingPluginInterface::getPluginName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 根据插件名称获取流式插件
+     * 名称解析规则见 {@link PluginNameResolver}
+     * @param pluginName 插件名称
+     * @return 插件实例，不存在时返回null
+     */
+    public StreamingPluginInterface getStreamingPlugin(String pluginName) {
+        return nameResolver.findExtension(serviceBus.getServices(StreamingPluginInterface.class),
+                pluginName, StreamingPluginInterface::getPluginName);
+    }
+
+    /**
+     * 以NDJSON格式输出插件结果，每个元素一行JSON，出错时最后一行为 {"error": "..."}
+     *
+     * @param pluginName 插件名称
+     * @param input 输入参数
+     * @return 响应输出
+     */
+    public ResponseBodyEmitter streamNdjson(String pluginName, Object input) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+        start(pluginName, input, emitter, new NdjsonWriter(emitter));
+        return emitter;
+    }
+
+    /**
+     * 以SSE格式输出插件结果，每个元素一个data事件，结束时发送complete事件，出错时发送error事件
+     *
+     * @param pluginName 插件名称
+     * @param input 输入参数
+     * @return 响应输出
+     */
+    public SseEmitter streamSse(String pluginName, Object input) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        start(pluginName, input, emitter, new SseWriter(emitter));
+        return emitter;
+    }
+
+    private void start(String pluginName, Object input, ResponseBodyEmitter emitter, StreamWriter writer) {
+        StreamingPluginInterface plugin = getStreamingPlugin(pluginName);
+        if (plugin == null) {
+            throw new BusinessException(404, "流式插件未找到: " + pluginName);
+        }
+        EmitterSubscriber subscriber = new EmitterSubscriber(pluginName, writer, emitter);
+        emitter.onTimeout(subscriber::abort);
+        emitter.onError(error -> subscriber.abort());
+        emitter.onCompletion(subscriber::abort);
+        try {
+            executor.execute(() -> {
+                Flow.Publisher<?> publisher;
+                try {
+                    publisher = plugin.stream(input);
+                } catch (Exception e) {
+                    subscriber.onError(e);
+                    return;
+                }
+                if (publisher == null) {
+                    subscriber.onComplete();
+                    return;
+                }
+                publisher.subscribe(subscriber);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException(503, "流式调用并发已达上限，请稍后重试");
+        }
+        logger.info("开始流式执行插件: {}", pluginName);
+    }
+
+    /**
+     * 把数据流写入HTTP响应的订阅者
+     * 每写出prefetch个元素才向插件补充请求，写入阻塞时插件不会收到新的请求
+     */
+    private final class EmitterSubscriber implements Flow.Subscriber<Object> {
+
+        private final String pluginName;
+        private final StreamWriter writer;
+        private final ResponseBodyEmitter emitter;
+        private final long startTime = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private long count;
+        private int consumed;
+
+        EmitterSubscriber(String pluginName, StreamWriter writer, ResponseBodyEmitter emitter) {
+            this.pluginName = pluginName;
+            this.writer = writer;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (this.subscription != null || cancelled) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                writer.item(++count, objectMapper.writeValueAsBytes(item));
+            } catch (Exception e) {
+                // 客户端断开或序列化失败，停止向插件请求数据
+                cancel();
+                finish(false);
+                emitter.completeWithError(e);
+                logger.debug("流式输出中断: {}, 已输出: {}, 原因: {}", pluginName, count, e.getMessage());
+                return;
+            }
+            if (++consumed == prefetch) {
+                consumed = 0;
+                subscription.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!finish(false)) {
+                return;
+            }
+            logger.warn("插件流式执行失败: {}, 已输出: {}, 错误: {}", pluginName, count, throwable.getMessage());
+            try {
+                writer.error(objectMapper.writeValueAsBytes(Map.of("error", String.valueOf(throwable.getMessage()))));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!finish(true)) {
+                return;
+            }
+            try {
+                writer.complete(objectMapper.writeValueAsBytes(Map.of("count", count)));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }
+
+        /**
+         * 响应超时、客户端断开或响应已结束，数据流尚未结束时按失败计入调用指标
+         */
+        void abort() {
+            cancel();
+            finish(false);
+        }
+
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        private boolean finish(boolean success) {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            invocationMetrics.record(pluginName, System.nanoTime() - startTime, success);
+            return true;
+        }
+    }
+
+    private interface StreamWriter {
+
+        void item(long sequence, byte[] json) throws Exception;
+
+        void error(byte[] json) throws Exception;
+
+        void complete(byte[] json) throws Exception;
+    }
+
+    private static final class NdjsonWriter implements StreamWriter {
+
+        private final ResponseBodyEmitter emitter;
+
+        NdjsonWriter(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void item(long sequence, byte[] json) throws Exception {
+            writeLine(json);
+        }
+
+        @Override
+        public void error(byte[] json) throws Exception {
+            writeLine(json);
+        }
+
+        @Override
+        public void complete(byte[] json) {
+            // NDJSON以响应结束表示完成
+        }
+
+        private void writeLine(byte[] json) throws Exception {
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = NEWLINE;
+            emitter.send(line, MediaType.APPLICATION_NDJSON);
+        }
+    }
+
+    private static final class SseWriter implements StreamWriter {
+
+        private final SseEmitter emitter;
+
+        SseWriter(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void item(long sequence, byte[] json) throws Exception {
+            emitter.send(SseEmitter.event().name("data").id(String.valueOf(sequence))
+                    .data(new String(json, StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void error(byte[] json) throws Exception {
+            emitter.send(SseEmitter.event().name("error")
+                    .data(new String(json, StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void complete(byte[] json) throws Exception {
+            emitter.send(SseEmitter.event().name("complete")
+                    .data(new String(json, StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+        }
+    }
+}
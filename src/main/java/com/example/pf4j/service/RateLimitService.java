@@ -0,0 +1,261 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 插件调用限流服务
+ * 分别按客户端和按插件方法维护令牌桶，任一维度超限即拒绝，被插件维度拒绝时归还已取得的客户端令牌。
+ * 插件名称先解析为插件ID，同一插件的不同名称共用令牌桶；无法解析的名称只按客户端限流，
+ * 指标中记为 unknown。令牌桶和指标的数量都有上限，不随请求中的名称增长。
+ * 限流参数可以在运行时修改，修改后所有令牌桶按新参数重建
+ */
+@Service
+public class RateLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
+
+    public static final String SCOPE_CLIENT = "client";
+    public static final String SCOPE_PLUGIN = "plugin";
+
+    /**
+     * 无法解析的插件名称在指标中的标签值
+     */
+    public static final String UNKNOWN_PLUGIN = "unknown";
+
+    /**
+     * 客户端令牌桶达到上限后，新客户端共用的令牌桶
+     */
+    private static final String OVERFLOW_CLIENT = "overflow";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PluginNameResolver nameResolver;
+
+    @Value("${pf4j.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pf4j.rate-limit.client.permits-per-second:50}")
+    private double clientRate;
+
+    @Value("${pf4j.rate-limit.client.burst:100}")
+    private int clientBurst;
+
+    @Value("${pf4j.rate-limit.plugin.permits-per-second:200}")
+    private double pluginRate;
+
+    @Value("${pf4j.rate-limit.plugin.burst:400}")
+    private int pluginBurst;
+
+    @Value("${pf4j.rate-limit.max-client-buckets:100000}")
+    private int maxClientBuckets;
+
+    @Value("${pf4j.rate-limit.max-plugin-buckets:4096}")
+    private int maxPluginBuckets;
+
+    private volatile Limits limits;
+
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> pluginBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        limits = new Limits(enabled, clientRate, clientBurst, pluginRate, pluginBurst, Collections.emptyMap());
+        logger.info("插件调用限流初始化完成, 启用: {}, 客户端: {}/s, 插件: {}/s", enabled, clientRate, pluginRate);
+    }
+
+    /**
+     * 尝试放行一次调用
+     *
+     * @param clientId 客户端标识
+     * @param pluginName 插件名称
+     * @param methodName 方法名称，可以为null
+     * @return 放行返回0，否则返回建议的重试等待毫秒数
+     */
+    public long tryAcquire(String clientId, String pluginName, String methodName) {
+        Limits current = limits;
+        if (!current.enabled) {
+            return 0L;
+        }
+        String pluginId = nameResolver.resolvePluginId(pluginName);
+        TokenBucket clientBucket = bucket(clientBuckets, clientId, OVERFLOW_CLIENT, maxClientBuckets,
+                () -> new TokenBucket(current.clientRate, current.clientBurst));
+        long wait = clientBucket.tryAcquire();
+        if (wait > 0) {
+            rejected(SCOPE_CLIENT, pluginId);
+            return toMillis(wait);
+        }
+        if (pluginId == null) {
+            // 未知插件不创建插件令牌桶，由调用分发返回未找到
+            return 0L;
+        }
+        String pluginKey = methodName == null ? pluginId : pluginId + "#" + methodName;
+        wait = bucket(pluginBuckets, pluginKey, pluginId, maxPluginBuckets,
+                () -> current.pluginBucket(pluginId)).tryAcquire();
+        if (wait > 0) {
+            clientBucket.refund();
+            rejected(SCOPE_PLUGIN, pluginId);
+            return toMillis(wait);
+        }
+        return 0L;
+    }
+
+    /**
+     * 获取令牌桶，数量达到上限后新的键改用兜底键对应的令牌桶
+     */
+    private static TokenBucket bucket(Map<String, TokenBucket> buckets, String key, String fallbackKey, int max,
+                                      Supplier<TokenBucket> factory) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= max) {
+            key = fallbackKey;
+        }
+        return buckets.computeIfAbsent(key, k -> factory.get());
+    }
+
+    private void rejected(String scope, String pluginId) {
+        String plugin = pluginId != null ? pluginId : UNKNOWN_PLUGIN;
+        rejectionCounters.computeIfAbsent(scope + ":" + plugin, key -> Counter.builder("pf4j.ratelimit.rejected")
+                .description("被限流拒绝的插件调用次数")
+                .tag("scope", scope)
+                .tag("plugin", plugin)
+                .register(meterRegistry)).increment();
+    }
+
+    private static long toMillis(long nanos) {
+        return Math.max(1L, (nanos + 999_999L) / 1_000_000L);
+    }
+
+    /**
+     * 定期清理已补满的令牌桶，避免客户端数量增长导致内存占用增长
+     */
+    @Scheduled(fixedDelayString = "${pf4j.rate-limit.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        clientBuckets.values().removeIf(TokenBucket::isIdle);
+        pluginBuckets.values().removeIf(TokenBucket::isIdle);
+    }
+
+    /**
+     * 获取当前限流配置
+     *
+     * @return 限流配置
+     */
+    public Map<String, Object> getConfig() {
+        Limits current = limits;
+        Map<String, Object> config = new HashMap<>();
+        config.put("enabled", current.enabled);
+        config.put("clientPermitsPerSecond", current.clientRate);
+        config.put("clientBurst", current.clientBurst);
+        config.put("pluginPermitsPerSecond", current.pluginRate);
+        config.put("pluginBurst", current.pluginBurst);
+        config.put("pluginOverrides", current.pluginOverrides);
+        config.put("activeClientBuckets", clientBuckets.size());
+        config.put("activePluginBuckets", pluginBuckets.size());
+        config.put("maxClientBuckets", maxClientBuckets);
+        config.put("maxPluginBuckets", maxPluginBuckets);
+        return config;
+    }
+
+    /**
+     * 运行时修改限流配置，未提供的字段保持不变
+     *
+     * @param update 配置项，pluginOverrides为 插件ID -> {permitsPerSecond, burst}
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void updateConfig(Map<String, Object> update) {
+        Limits current = limits;
+        Map<String, double[]> overrides = new HashMap<>(current.overrideValues);
+        Object pluginOverrides = update.get("pluginOverrides");
+        if (pluginOverrides instanceof Map) {
+            ((Map<String, Object>) pluginOverrides).forEach((plugin, value) -> {
+                if (value instanceof Map) {
+                    Map<String, Object> limit = (Map<String, Object>) value;
+                    overrides.put(plugin, new double[]{
+                            toDouble(limit.get("permitsPerSecond"), current.pluginRate),
+                            toDouble(limit.get("burst"), current.pluginBurst)});
+                } else {
+                    overrides.remove(plugin);
+                }
+            });
+        }
+        Limits updated = new Limits(
+                update.containsKey("enabled") ? Boolean.TRUE.equals(update.get("enabled")) : current.enabled,
+                toDouble(update.get("clientPermitsPerSecond"), current.clientRate),
+                (int) toDouble(update.get("clientBurst"), current.clientBurst),
+                toDouble(update.get("pluginPermitsPerSecond"), current.pluginRate),
+                (int) toDouble(update.get("pluginBurst"), current.pluginBurst),
+                overrides);
+        // 先校验参数再替换，非法参数不会影响当前配置
+        new TokenBucket(updated.clientRate, updated.clientBurst);
+        updated.overrideValues.keySet().forEach(updated::pluginBucket);
+        updated.pluginBucket("");
+
+        limits = updated;
+        clientBuckets.clear();
+        pluginBuckets.clear();
+        logger.info("插件调用限流配置已更新: {}", getConfig());
+    }
+
+    private static double toDouble(Object value, double defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            return Double.parseDouble((String) value);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 不可变的限流参数
+     */
+    private static final class Limits {
+        private final boolean enabled;
+        private final double clientRate;
+        private final int clientBurst;
+        private final double pluginRate;
+        private final int pluginBurst;
+        private final Map<String, double[]> overrideValues;
+        private final Map<String, Object> pluginOverrides;
+
+        Limits(boolean enabled, double clientRate, int clientBurst, double pluginRate, int pluginBurst,
+               Map<String, double[]> overrideValues) {
+            this.enabled = enabled;
+            this.clientRate = clientRate;
+            this.clientBurst = clientBurst;
+            this.pluginRate = pluginRate;
+            this.pluginBurst = pluginBurst;
+            this.overrideValues = Collections.unmodifiableMap(new HashMap<>(overrideValues));
+            Map<String, Object> view = new HashMap<>();
+            overrideValues.forEach((plugin, value) -> view.put(plugin,
+                    Map.of("permitsPerSecond", value[0], "burst", (int) value[1])));
+            this.pluginOverrides = Collections.unmodifiableMap(view);
+        }
+
+        TokenBucket pluginBucket(String pluginId) {
+            double[] override = overrideValues.get(pluginId);
+            return override != null
+                    ? new TokenBucket(override[0], (int) override[1])
+                    : new TokenBucket(pluginRate, pluginBurst);
+        }
+    }
+}
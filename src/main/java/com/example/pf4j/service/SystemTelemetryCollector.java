@@ -0,0 +1,251 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.health.DataSourceHealthIndicator;
+import com.example.pf4j.health.PluginHealthIndicator;
+import com.example.pf4j.util.JsonSnapshot;
+import com.example.pf4j.util.VirtualThreads;
+import com.example.pf4jscaffold.common.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.pf4j.PluginManager;
+import org.pf4j.PluginState;
+import org.pf4j.PluginWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 系统遥测采集器
+ * 在后台定时采集JVM内存、GC、线程、CPU、磁盘、插件管理器和数据源的状态，
+ * 生成不可变快照并预先序列化，系统接口在请求路径上不再做任何计算。
+ * 数据源和插件状态取自对应健康检查的缓存结果，与 /actuator/health 保持一致
+ */
+@Service
+public class SystemTelemetryCollector {
+
+    private static final String UP = "UP";
+    private static final String DOWN = "DOWN";
+
+    @Autowired
+    private PluginManager pluginManager;
+
+    @Autowired
+    private DataSourceHealthIndicator dataSourceHealthIndicator;
+
+    @Autowired
+    private PluginHealthIndicator pluginHealthIndicator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${plugin.path:plugins}")
+    private String pluginPath;
+
+    @Value("${pf4j.telemetry.disk-min-free-bytes:104857600}")
+    private long diskMinFreeBytes;
+
+    @Value("${pf4j.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private volatile SystemTelemetrySnapshot snapshot;
+
+    /**
+     * 系统信息在运行期间不会变化，只序列化一次
+     */
+    private JsonSnapshot infoResponse;
+
+    @PostConstruct
+    public void init() {
+        infoResponse = JsonSnapshot.of(objectMapper, ApiResponse.success(buildSystemInfo()));
+        collect();
+    }
+
+    /**
+     * 获取最近一次采集的快照
+     * @return 遥测快照
+     */
+    public SystemTelemetrySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 定时采集
+     */
+    @Scheduled(fixedDelayString = "${pf4j.telemetry.interval-ms:5000}", initialDelayString = "${pf4j.telemetry.interval-ms:5000}")
+    public void collect() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Object> pluginStats = collectPlugins();
+        Map<String, Object> disk = collectDisk();
+        Health database = dataSourceHealthIndicator.health();
+        Health plugins = pluginHealthIndicator.health();
+        Map<String, Object> datasource = toMap(database);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "running");
+        status.put("timestamp", now);
+        status.put("version", "1.0.0");
+        status.put("framework", "PF4J Dynamic Loading Scaffold");
+        status.put("jvm", collectJvm());
+        status.put("gc", collectGc());
+        status.put("threads", collectThreads());
+        status.put("cpu", collectCpu());
+        status.put("disk", disk);
+        status.put("plugins", pluginStats);
+        status.put("datasource", datasource);
+        status = Collections.unmodifiableMap(status);
+
+        Map<String, Object> checks = new LinkedHashMap<>();
+        checks.put("database", datasource);
+        checks.put("plugins", toMap(plugins));
+        checks.put("diskSpace", disk);
+        boolean healthy = Status.UP.equals(database.getStatus())
+                && Status.UP.equals(plugins.getStatus())
+                && UP.equals(disk.get("status"));
+
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", healthy ? UP : DOWN);
+        health.put("timestamp", now);
+        health.put("checks", Collections.unmodifiableMap(checks));
+        health = Collections.unmodifiableMap(health);
+
+        snapshot = new SystemTelemetrySnapshot(status, health, healthy,
+                JsonSnapshot.of(objectMapper, ApiResponse.success(status)),
+                JsonSnapshot.of(objectMapper, ApiResponse.success(health)),
+                infoResponse);
+    }
+
+    private Map<String, Object> collectJvm() {
+        Runtime runtime = Runtime.getRuntime();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("totalMemory", runtime.totalMemory());
+        jvm.put("freeMemory", runtime.freeMemory());
+        jvm.put("usedMemory", runtime.totalMemory() - runtime.freeMemory());
+        jvm.put("maxMemory", runtime.maxMemory());
+        jvm.put("processors", runtime.availableProcessors());
+        jvm.put("heapUsed", heap.getUsed());
+        jvm.put("heapCommitted", heap.getCommitted());
+        jvm.put("nonHeapUsed", nonHeap.getUsed());
+        jvm.put("nonHeapCommitted", nonHeap.getCommitted());
+        jvm.put("uptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+        return Collections.unmodifiableMap(jvm);
+    }
+
+    private Map<String, Object> collectGc() {
+        Map<String, Object> gc = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gc.put(collector.getName(), Map.of(
+                    "count", collector.getCollectionCount(),
+                    "timeMillis", collector.getCollectionTime()));
+        }
+        return Collections.unmodifiableMap(gc);
+    }
+
+    private Map<String, Object> collectThreads() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // 虚拟线程不计入ThreadMXBean的线程数
+        return Map.of(
+                "live", threads.getThreadCount(),
+                "daemon", threads.getDaemonThreadCount(),
+                "peak", threads.getPeakThreadCount(),
+                "virtualThreads", virtualThreads && VirtualThreads.isSupported());
+    }
+
+    private Map<String, Object> collectCpu() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        Map<String, Object> cpu = new LinkedHashMap<>();
+        cpu.put("systemLoadAverage", os.getSystemLoadAverage());
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            com.sun.management.OperatingSystemMXBean sunOs = (com.sun.management.OperatingSystemMXBean) os;
+            cpu.put("processCpuLoad", sunOs.getProcessCpuLoad());
+            cpu.put("systemCpuLoad", sunOs.getSystemCpuLoad());
+        }
+        return Collections.unmodifiableMap(cpu);
+    }
+
+    private Map<String, Object> collectDisk() {
+        File directory = new File(pluginPath).getAbsoluteFile();
+        while (directory != null && !directory.exists()) {
+            directory = directory.getParentFile();
+        }
+        Map<String, Object> disk = new LinkedHashMap<>();
+        if (directory == null) {
+            disk.put("status", DOWN);
+            return disk;
+        }
+        long usable = directory.getUsableSpace();
+        disk.put("path", directory.getPath());
+        disk.put("total", directory.getTotalSpace());
+        disk.put("usable", usable);
+        disk.put("threshold", diskMinFreeBytes);
+        disk.put("status", usable >= diskMinFreeBytes ? UP : DOWN);
+        return Collections.unmodifiableMap(disk);
+    }
+
+    private Map<String, Object> collectPlugins() {
+        long total = 0;
+        long started = 0;
+        long failed = 0;
+        for (PluginWrapper plugin : pluginManager.getPlugins()) {
+            total++;
+            if (plugin.getPluginState() == PluginState.STARTED) {
+                started++;
+            } else if (plugin.getPluginState() == PluginState.FAILED) {
+                failed++;
+            }
+        }
+        Map<String, Object> plugins = new HashMap<>();
+        plugins.put("total", total);
+        plugins.put("started", started);
+        plugins.put("failed", failed);
+        return Collections.unmodifiableMap(plugins);
+    }
+
+    private static Map<String, Object> toMap(Health health) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("status", health.getStatus().getCode());
+        map.putAll(health.getDetails());
+        return Collections.unmodifiableMap(map);
+    }
+
+    private Map<String, Object> buildSystemInfo() {
+        Map<String, Object> info = new HashMap<>();
+
+        // 系统属性
+        Map<String, String> systemProps = new HashMap<>();
+        systemProps.put("java.version", System.getProperty("java.version"));
+        systemProps.put("java.vendor", System.getProperty("java.vendor"));
+        systemProps.put("os.name", System.getProperty("os.name"));
+        systemProps.put("os.version", System.getProperty("os.version"));
+        systemProps.put("os.arch", System.getProperty("os.arch"));
+        systemProps.put("user.dir", System.getProperty("user.dir"));
+
+        info.put("system", systemProps);
+        info.put("application", Map.of(
+            "name", "PF4J Dynamic Loading Scaffold",
+            "version", "1.0.0",
+            "description", "基于PF4J的动态插件加载脚手架"
+        ));
+        return info;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.pf4j.service;
+
+import com.example.pf4j.util.JsonSnapshot;
+
+import java.util.Map;
+
+/**
+ * 系统遥测快照
+ * 由后台采集任务生成，创建后不再修改，接口直接返回其中预先序列化好的响应
+ */
+public final class SystemTelemetrySnapshot {
+
+    private final Map<String, Object> status;
+    private final Map<String, Object> health;
+    private final boolean healthy;
+    private final JsonSnapshot statusResponse;
+    private final JsonSnapshot healthResponse;
+    private final JsonSnapshot infoResponse;
+
+    SystemTelemetrySnapshot(Map<String, Object> status, Map<String, Object> health, boolean healthy,
+                            JsonSnapshot statusResponse, JsonSnapshot healthResponse, JsonSnapshot infoResponse) {
+        this.status = status;
+        this.health = health;
+        this.healthy = healthy;
+        this.statusResponse = statusResponse;
+        this.healthResponse = healthResponse;
+        this.infoResponse = infoResponse;
+    }
+
+    /**
+     * 获取系统状态，包含JVM、GC、线程、CPU、磁盘和插件信息
+     */
+    public Map<String, Object> getStatus() {
+        return status;
+    }
+
+    /**
+     * 获取健康检查结果
+     */
+    public Map<String, Object> getHealth() {
+        return health;
+    }
+
+    /**
+     * 所有检查项是否都正常
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public JsonSnapshot getStatusResponse() {
+        return statusResponse;
+    }
+
+    public JsonSnapshot getHealthResponse() {
+        return healthResponse;
+    }
+
+    public JsonSnapshot getInfoResponse() {
+        return infoResponse;
+    }
+}
@@ -0,0 +1,624 @@
+package com.example.pf4j.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 日志结构键值存储
+ * 数据按追加方式写入内存映射的段文件，每条记录为 [总长度][CRC32][键长度][值长度][键][值]，值长度为-1表示删除。
+ * 键的位置保存在堆外哈希索引中，读取只需一次索引查找和一次映射内存拷贝。
+ * 写入只落到页缓存，由 {@link #flush()} 批量刷盘；启动时顺序扫描段文件重建索引，遇到校验失败的尾部记录即截断。
+ * 失效记录占比超过阈值时由 {@link #compact(double, long)} 把存活记录写入新段，作为新的快照替换旧段
+ */
+public final class LogStructuredStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 16;
+    private static final int TOMBSTONE = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxRecordBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 段号 -> 段，段号单调递增，数组下标即段号与首段号的差
+     */
+    private final List<Segment> segments = new ArrayList<>();
+    private OffHeapIndex index;
+    private Segment active;
+
+    private long totalBytes;
+    private long liveBytes;
+    private long compactions;
+    private boolean closed;
+
+    private LogStructuredStore(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxRecordBytes = segmentSize / 4;
+    }
+
+    /**
+     * 打开存储目录，不存在时创建
+     *
+     * @param directory 存储目录
+     * @param segmentSize 单个段文件大小（字节）
+     * @return 存储
+     */
+    public static LogStructuredStore open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < 64 * 1024) {
+            throw new IllegalArgumentException("段文件大小不能小于64KB: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        LogStructuredStore store = new LogStructuredStore(directory, segmentSize);
+        store.recover();
+        return store;
+    }
+
+    private void recover() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("忽略无法识别的段文件: {}", file);
+                }
+            }
+        }
+        ids.sort(null);
+        for (int i = 1; i < ids.size(); i++) {
+            if (ids.get(i) != ids.get(i - 1) + 1) {
+                // 段号必须连续，缺失的段可能包含删除记录，跳过会让已删除的键重新出现
+                throw new IOException("段文件不连续，缺少段: " + (ids.get(i - 1) + 1) + ", 目录: " + directory);
+            }
+        }
+        index = new OffHeapIndex(1024);
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = Segment.open(segmentFile(ids.get(i)), ids.get(i), segmentSize);
+            segments.add(segment);
+            replay(segment, i == ids.size() - 1);
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.open(segmentFile(0), 0, segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+        if (!ids.isEmpty()) {
+            logger.info("状态存储已恢复: {}, 段: {}, 键: {}, 数据: {}KB",
+                    directory, segments.size(), index.size(), totalBytes / 1024);
+        }
+    }
+
+    /**
+     * 顺序扫描段文件重建索引
+     */
+    private void replay(Segment segment, boolean last) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        boolean torn = false;
+        while (position + HEADER_BYTES <= segment.capacity) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < HEADER_BYTES || position + length > segment.capacity || !checksumMatches(buffer, position, length)) {
+                torn = true;
+                break;
+            }
+            byte[] key = readKey(buffer, position);
+            int valueLength = buffer.getInt(position + 12);
+            long previous = valueLength == TOMBSTONE
+                    ? index.remove(hash(key), matcher(key))
+                    : index.put(hash(key), matcher(key), segment.id, position);
+            if (previous >= 0) {
+                liveBytes -= recordLength(previous);
+            }
+            if (valueLength != TOMBSTONE) {
+                liveBytes += length;
+            }
+            totalBytes += length;
+            position += length;
+        }
+        segment.position = position;
+        if (torn) {
+            // 进程在写入过程中退出留下的半条记录：清零尾部，避免旧数据在后续写入之后被误认为有效记录
+            logger.warn("段文件尾部记录校验失败，已截断: {}, 位置: {}{}", segment.file, position,
+                    last ? "" : "（非最后一个段，之后的段仍会继续恢复）");
+            ByteBuffer tail = segment.buffer.duplicate();
+            tail.position(position);
+            while (tail.hasRemaining()) {
+                tail.put((byte) 0);
+            }
+            segment.dirty = true;
+        }
+    }
+
+    /**
+     * 读取键对应的值
+     *
+     * @return 值，不存在时返回null
+     */
+    public byte[] get(byte[] key) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            long location = index.get(hash(key), matcher(key));
+            if (location < 0) {
+                return null;
+            }
+            ByteBuffer buffer = segmentAt(location).buffer.duplicate();
+            int offset = (int) location;
+            int keyLength = buffer.getInt(offset + 8);
+            byte[] value = new byte[buffer.getInt(offset + 12)];
+            buffer.position(offset + HEADER_BYTES + keyLength);
+            buffer.get(value);
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入键值，覆盖已有的值
+     */
+    public void put(byte[] key, byte[] value) {
+        if (value == null) {
+            throw new IllegalArgumentException("值不能为null，删除请使用delete");
+        }
+        write(key, value);
+    }
+
+    /**
+     * 删除键
+     *
+     * @return 键是否存在
+     */
+    public boolean delete(byte[] key) {
+        return write(key, null);
+    }
+
+    /**
+     * 追加一条记录，value为null时追加删除记录；键不存在时不追加删除记录。
+     * 是否存在的判断和追加在同一次写锁内完成
+     */
+    private boolean write(byte[] key, byte[] value) {
+        int length = HEADER_BYTES + key.length + (value == null ? 0 : value.length);
+        if (length > maxRecordBytes) {
+            throw new IllegalArgumentException("记录过大: " + length + "字节，上限: " + maxRecordBytes + "字节");
+        }
+        Segment sealed = null;
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (value == null && index.get(hash(key), matcher(key)) < 0) {
+                return false;
+            }
+            if (active.position + length > active.capacity) {
+                sealed = active;
+                roll();
+            }
+            int offset = active.position;
+            ByteBuffer buffer = active.buffer.duplicate();
+            buffer.position(offset + 8);
+            buffer.putInt(key.length);
+            buffer.putInt(value == null ? TOMBSTONE : value.length);
+            buffer.put(key);
+            if (value != null) {
+                buffer.put(value);
+            }
+            buffer.putInt(offset + 4, checksum(buffer, offset, length));
+            // 长度最后写入，恢复时长度非0的记录一定已完整写入映射内存
+            buffer.putInt(offset, length);
+            active.position += length;
+            active.dirty = true;
+            totalBytes += length;
+
+            long previous = value == null
+                    ? index.remove(hash(key), matcher(key))
+                    : index.put(hash(key), matcher(key), active.id, offset);
+            if (previous >= 0) {
+                liveBytes -= recordLength(previous);
+            }
+            if (value != null) {
+                liveBytes += length;
+            }
+            return value != null || previous >= 0;
+        } finally {
+            lock.writeLock().unlock();
+            if (sealed != null) {
+                // 写满的段在释放写锁之后刷盘，刷盘期间其他线程可以继续写入新段
+                sealed.dirty = false;
+                sealed.force();
+            }
+        }
+    }
+
+    /**
+     * 当前段写满，新建下一个段；写满的段由调用方在释放写锁之后刷盘
+     */
+    private void roll() {
+        active = newSegment(active.id + 1);
+        segments.add(active);
+    }
+
+    private Segment newSegment(int id) {
+        try {
+            return Segment.open(segmentFile(id), id, segmentSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("创建段文件失败: " + segmentFile(id) + ", " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 遍历所有存活的键值，遍历期间阻塞写入
+     */
+    public void forEach(BiConsumer<byte[], byte[]> consumer) {
+        forEach(new byte[0], consumer);
+    }
+
+    /**
+     * 遍历键以指定前缀开头的存活键值，前缀直接在映射内存中比对，不匹配的记录不会被拷贝
+     */
+    public void forEach(byte[] prefix, BiConsumer<byte[], byte[]> consumer) {
+        scan(prefix, (buffer, offset) -> {
+            byte[] key = readKey(buffer, offset);
+            byte[] value = new byte[buffer.getInt(offset + 12)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + HEADER_BYTES + key.length);
+            view.get(value);
+            consumer.accept(key, value);
+        });
+    }
+
+    /**
+     * 遍历以指定前缀开头的存活键，只拷贝键不拷贝值
+     */
+    public void forEachKey(byte[] prefix, Consumer<byte[]> consumer) {
+        scan(prefix, (buffer, offset) -> consumer.accept(readKey(buffer, offset)));
+    }
+
+    /**
+     * 统计以指定前缀开头的存活键数量，只遍历索引并在映射内存中比对前缀，不拷贝任何记录
+     */
+    public int count(byte[] prefix) {
+        int[] count = {0};
+        scan(prefix, (buffer, offset) -> count[0]++);
+        return count[0];
+    }
+
+    private void scan(byte[] prefix, RecordConsumer consumer) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            index.forEach((segmentId, offset) -> {
+                ByteBuffer buffer = segments.get(segmentId - segments.get(0).id).buffer;
+                if (keyStartsWith(buffer, offset, prefix)) {
+                    consumer.accept(buffer, offset);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean keyStartsWith(ByteBuffer buffer, int offset, byte[] prefix) {
+        if (buffer.getInt(offset + 8) < prefix.length) {
+            return false;
+        }
+        int start = offset + HEADER_BYTES;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 处理映射内存中的一条记录
+     */
+    @FunctionalInterface
+    private interface RecordConsumer {
+        void accept(ByteBuffer buffer, int offset);
+    }
+
+    /**
+     * 把映射内存中尚未落盘的段写入磁盘
+     * 段的映射内存本身可并发刷盘，这里只在读锁下取得待刷段的列表
+     */
+    public void flush() {
+        List<Segment> dirty = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            for (Segment segment : segments) {
+                if (segment.dirty) {
+                    segment.dirty = false;
+                    dirty.add(segment);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (Segment segment : dirty) {
+            segment.force();
+        }
+    }
+
+    /**
+     * 失效记录占比超过阈值时压缩存储
+     * 把存活记录按索引顺序写入新段并刷盘，再切换索引、删除旧段；压缩期间持有写锁
+     *
+     * @param garbageRatio 触发压缩的失效数据占比
+     * @param minBytes 数据总量低于该值时不压缩
+     * @return 是否执行了压缩
+     */
+    public boolean compact(double garbageRatio, long minBytes) {
+        lock.writeLock().lock();
+        try {
+            if (closed || totalBytes < minBytes || totalBytes == 0
+                    || (double) (totalBytes - liveBytes) / totalBytes < garbageRatio) {
+                return false;
+            }
+            long before = totalBytes;
+            int nextId = active.id + 1;
+            List<Segment> compacted = new ArrayList<>();
+            OffHeapIndex compactedIndex = new OffHeapIndex(index.size() * 2);
+            Segment[] target = {newSegment(nextId)};
+            compacted.add(target[0]);
+            long[] written = {0L};
+            index.forEach((segmentId, offset) -> {
+                ByteBuffer source = segments.get(segmentId - segments.get(0).id).buffer.duplicate();
+                int length = source.getInt(offset);
+                if (target[0].position + length > target[0].capacity) {
+                    target[0].force();
+                    target[0] = newSegment(target[0].id + 1);
+                    compacted.add(target[0]);
+                }
+                Segment segment = target[0];
+                source.limit(offset + length).position(offset);
+                ByteBuffer destination = segment.buffer.duplicate();
+                destination.position(segment.position);
+                destination.put(source);
+                byte[] key = readKey(destination, segment.position);
+                // 源索引中的键互不相同，新索引不会命中已有键，哈希碰撞时各占一个槽位
+                compactedIndex.put(hash(key), (id, position) -> false, segment.id, segment.position);
+                segment.position += length;
+                written[0] += length;
+            });
+            target[0].force();
+
+            List<Segment> obsolete = new ArrayList<>(segments);
+            segments.clear();
+            segments.addAll(compacted);
+            index = compactedIndex;
+            active = target[0];
+            totalBytes = written[0];
+            liveBytes = written[0];
+            compactions++;
+            for (Segment segment : obsolete) {
+                segment.delete();
+            }
+            logger.info("状态存储压缩完成: {}, 键: {}, 数据: {}KB -> {}KB",
+                    directory, index.size(), before / 1024, totalBytes / 1024);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 刷盘并关闭存储，之后的读写会抛出异常
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments) {
+                segment.force();
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取存储统计
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("directory", directory.toString());
+            stats.put("keys", index.size());
+            stats.put("segments", segments.size());
+            stats.put("totalBytes", totalBytes);
+            stats.put("liveBytes", liveBytes);
+            stats.put("garbageRatio", totalBytes > 0 ? Math.round((totalBytes - liveBytes) * 1000.0 / totalBytes) / 1000.0 : 0.0);
+            stats.put("indexBytes", index.memoryBytes());
+            stats.put("compactions", compactions);
+            stats.put("closed", closed);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("状态存储已关闭: " + directory);
+        }
+    }
+
+    private Segment segmentAt(long location) {
+        return segments.get((int) (location >> 32) - segments.get(0).id);
+    }
+
+    private int recordLength(long location) {
+        return segmentAt(location).buffer.getInt((int) location);
+    }
+
+    /**
+     * 比对索引槽位指向的记录的键
+     */
+    private OffHeapIndex.LocationMatcher matcher(byte[] key) {
+        return (segmentId, offset) -> {
+            ByteBuffer buffer = segments.get(segmentId - segments.get(0).id).buffer;
+            if (buffer.getInt(offset + 8) != key.length) {
+                return false;
+            }
+            int start = offset + HEADER_BYTES;
+            for (int i = 0; i < key.length; i++) {
+                if (buffer.get(start + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private Path segmentFile(int id) {
+        return directory.resolve(String.format("%010d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] readKey(ByteBuffer buffer, int offset) {
+        byte[] key = new byte[buffer.getInt(offset + 8)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + HEADER_BYTES);
+        view.get(key);
+        return key;
+    }
+
+    /**
+     * 校验范围为长度和校验和之后的全部字节
+     */
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length).position(offset + 8);
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    private static boolean checksumMatches(ByteBuffer buffer, int offset, int length) {
+        int keyLength = buffer.getInt(offset + 8);
+        int valueLength = buffer.getInt(offset + 12);
+        if (keyLength < 0 || valueLength < TOMBSTONE
+                || HEADER_BYTES + keyLength + Math.max(0, valueLength) != length) {
+            return false;
+        }
+        return buffer.getInt(offset + 4) == checksum(buffer, offset, length);
+    }
+
+    /**
+     * FNV-1a 64位哈希，末尾再做一次混合让低位分布更均匀
+     */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * 段文件，整个文件映射为一块内存
+     */
+    private static final class Segment {
+
+        private final int id;
+        private final Path file;
+        private final RandomAccessFile raf;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int position;
+        private volatile boolean dirty;
+
+        private Segment(int id, Path file, RandomAccessFile raf, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.raf = raf;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(Path file, int id, int size) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+            try {
+                // 新文件按稀疏文件预分配；调大段大小配置前写入的旧段保持原大小
+                long length = raf.length();
+                if (length == 0) {
+                    raf.setLength(size);
+                    length = size;
+                }
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+                return new Segment(id, file, raf, buffer);
+            } catch (IOException | RuntimeException e) {
+                raf.close();
+                throw e;
+            }
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                logger.warn("关闭段文件失败: {}, 错误: {}", file, e.getMessage());
+            }
+        }
+
+        /**
+         * 删除段文件
+         * Java 11 无法主动解除映射，映射内存在缓冲区被回收后释放；Linux 下删除已映射的文件不受影响
+         */
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("删除段文件失败: {}, 错误: {}", file, e.getMessage());
+            }
+        }
+    }
+}
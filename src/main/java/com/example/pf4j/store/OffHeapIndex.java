@@ -0,0 +1,193 @@
+package com.example.pf4j.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 堆外哈希索引
+ * 开放寻址（线性探测）哈希表存放在直接内存中，每个槽位16字节：键的64位哈希、段号、段内偏移。
+ * 键本身不进索引，哈希相同时由调用方回到数据段比对完整的键，因此上百万个键也不会在堆上产生对象。
+ * 非线程安全，由 {@link LogStructuredStore} 的读写锁保护
+ */
+final class OffHeapIndex {
+
+    private static final int SLOT_BYTES = 16;
+    private static final long EMPTY = 0L;
+    private static final int DELETED_SEGMENT = -1;
+    private static final double MAX_LOAD = 0.7;
+
+    /**
+     * 校验索引槽位指向的记录是否就是要找的键
+     */
+    @FunctionalInterface
+    interface LocationMatcher {
+        boolean matches(int segment, int offset);
+    }
+
+    /**
+     * 遍历索引中的记录位置
+     */
+    @FunctionalInterface
+    interface LocationConsumer {
+        void accept(int segment, int offset);
+    }
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int deleted;
+
+    OffHeapIndex(int initialCapacity) {
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity) - 1) << 1);
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        long bytes = (long) capacity * SLOT_BYTES;
+        if (capacity <= 0 || bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("索引容量超出上限: " + capacity + "个槽位");
+        }
+        this.capacity = capacity;
+        this.slots = ByteBuffer.allocateDirect((int) bytes);
+        this.size = 0;
+        this.deleted = 0;
+    }
+
+    /**
+     * 查找键的位置
+     *
+     * @return 位置（段号在高32位，偏移在低32位），不存在时返回-1
+     */
+    long get(long hash, LocationMatcher matcher) {
+        int slot = find(normalize(hash), matcher);
+        return slot < 0 ? -1L : location(slot);
+    }
+
+    /**
+     * 写入键的位置
+     *
+     * @return 被替换的旧位置，新键返回-1
+     */
+    long put(long hash, LocationMatcher matcher, int segment, int offset) {
+        long key = normalize(hash);
+        int slot = find(key, matcher);
+        if (slot >= 0) {
+            long previous = location(slot);
+            write(slot, key, segment, offset);
+            return previous;
+        }
+        if (size + deleted + 1 > capacity * MAX_LOAD) {
+            // 墓碑较多时原容量重建即可，否则扩容一倍
+            rehash(size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = slots.getLong(index * SLOT_BYTES);
+            if (current == EMPTY || slots.getInt(index * SLOT_BYTES + 8) == DELETED_SEGMENT) {
+                if (current != EMPTY) {
+                    deleted--;
+                }
+                write(index, key, segment, offset);
+                size++;
+                return -1L;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+    }
+
+    /**
+     * 删除键
+     *
+     * @return 被删除的位置，不存在时返回-1
+     */
+    long remove(long hash, LocationMatcher matcher) {
+        int slot = find(normalize(hash), matcher);
+        if (slot < 0) {
+            return -1L;
+        }
+        long previous = location(slot);
+        // 保留哈希作为墓碑，线性探测链不会因此断开
+        slots.putInt(slot * SLOT_BYTES + 8, DELETED_SEGMENT);
+        size--;
+        deleted++;
+        return previous;
+    }
+
+    void forEach(LocationConsumer consumer) {
+        for (int i = 0; i < capacity; i++) {
+            int base = i * SLOT_BYTES;
+            if (slots.getLong(base) != EMPTY && slots.getInt(base + 8) != DELETED_SEGMENT) {
+                consumer.accept(slots.getInt(base + 8), slots.getInt(base + 12));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 索引占用的堆外内存字节数
+     */
+    long memoryBytes() {
+        return (long) capacity * SLOT_BYTES;
+    }
+
+    private int find(long key, LocationMatcher matcher) {
+        int index = indexFor(key);
+        while (true) {
+            int base = index * SLOT_BYTES;
+            long current = slots.getLong(base);
+            if (current == EMPTY) {
+                return -1;
+            }
+            int segment = slots.getInt(base + 8);
+            if (current == key && segment != DELETED_SEGMENT && matcher.matches(segment, slots.getInt(base + 12))) {
+                return index;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            int base = i * SLOT_BYTES;
+            long key = old.getLong(base);
+            int segment = old.getInt(base + 8);
+            if (key == EMPTY || segment == DELETED_SEGMENT) {
+                continue;
+            }
+            int index = indexFor(key);
+            while (slots.getLong(index * SLOT_BYTES) != EMPTY) {
+                index = (index + 1) & (capacity - 1);
+            }
+            write(index, key, segment, old.getInt(base + 12));
+            size++;
+        }
+    }
+
+    private void write(int slot, long key, int segment, int offset) {
+        int base = slot * SLOT_BYTES;
+        slots.putLong(base, key);
+        slots.putInt(base + 8, segment);
+        slots.putInt(base + 12, offset);
+    }
+
+    private long location(int slot) {
+        int base = slot * SLOT_BYTES;
+        return ((long) slots.getInt(base + 8) << 32) | (slots.getInt(base + 12) & 0xffffffffL);
+    }
+
+    private int indexFor(long key) {
+        return (int) (key ^ (key >>> 32)) & (capacity - 1);
+    }
+
+    /**
+     * 0表示空槽位，哈希为0的键映射为1
+     */
+    private static long normalize(long hash) {
+        return hash == EMPTY ? 1L : hash;
+    }
+}
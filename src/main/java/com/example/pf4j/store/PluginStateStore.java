@@ -0,0 +1,168 @@
+package com.example.pf4j.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 插件状态存储
+ * 插件在宿主管理的持久化键值存储中的一个命名空间，数据保存在插件自己的存储目录下，插件热重载和宿主重启后仍然保留。
+ * 写入立即对读取可见，由宿主按固定间隔批量刷盘；需要立即落盘时调用 {@link #flush()}
+ */
+public final class PluginStateStore {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+            new TypeReference<LinkedHashMap<String, Object>>() {
+            };
+
+    private final LogStructuredStore store;
+    private final String namespace;
+    private final byte[] prefix;
+    private final ObjectMapper objectMapper;
+
+    public PluginStateStore(LogStructuredStore store, String namespace, ObjectMapper objectMapper) {
+        if (namespace == null || namespace.isEmpty() || namespace.indexOf('/') >= 0) {
+            throw new IllegalArgumentException("命名空间不能为空且不能包含'/': " + namespace);
+        }
+        this.store = store;
+        this.namespace = namespace;
+        this.prefix = (namespace + "/").getBytes(StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * 读取原始字节值
+     *
+     * @return 值，不存在时返回null
+     */
+    public byte[] get(String key) {
+        return store.get(encode(key));
+    }
+
+    /**
+     * 写入原始字节值
+     */
+    public void put(String key, byte[] value) {
+        store.put(encode(key), value);
+    }
+
+    /**
+     * 删除键
+     *
+     * @return 键是否存在
+     */
+    public boolean delete(String key) {
+        return store.delete(encode(key));
+    }
+
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    public String getString(String key) {
+        byte[] value = get(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    public void putString(String key, String value) {
+        put(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取长整数，不存在时返回默认值
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public void putLong(String key, long value) {
+        putString(key, Long.toString(value));
+    }
+
+    /**
+     * 读取JSON对象
+     *
+     * @return 对象，不存在时返回null
+     */
+    public Map<String, Object> getMap(String key) {
+        byte[] value = get(key);
+        return value == null ? null : readMap(value);
+    }
+
+    /**
+     * 以JSON格式写入对象
+     */
+    public void putMap(String key, Map<String, ?> value) {
+        try {
+            put(key, objectMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("状态序列化失败: " + namespace + "/" + key + ", " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取命名空间内的全部键
+     * 遍历插件存储的索引，只拷贝本命名空间的键，适合管理类操作，不要放在高频路径上
+     */
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        store.forEachKey(prefix, key -> keys.add(decode(key)));
+        return keys;
+    }
+
+    /**
+     * 获取命名空间内全部JSON对象，键 -> 对象
+     * 与 {@link #keys()} 一样需要遍历插件存储的索引
+     */
+    public Map<String, Map<String, Object>> mapEntries() {
+        Map<String, Map<String, Object>> entries = new LinkedHashMap<>();
+        store.forEach(prefix, (key, value) -> entries.put(decode(key), readMap(value)));
+        return entries;
+    }
+
+    public int size() {
+        return store.count(prefix);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 立即把尚未落盘的写入刷到磁盘
+     */
+    public void flush() {
+        store.flush();
+    }
+
+    private Map<String, Object> readMap(byte[] value) {
+        try {
+            return objectMapper.readValue(value, MAP_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("状态反序列化失败: " + namespace + ", " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] encode(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = new byte[prefix.length + keyBytes.length];
+        System.arraycopy(prefix, 0, encoded, 0, prefix.length);
+        System.arraycopy(keyBytes, 0, encoded, prefix.length, keyBytes.length);
+        return encoded;
+    }
+
+    private String decode(byte[] key) {
+        return new String(key, prefix.length, key.length - prefix.length, StandardCharsets.UTF_8);
+    }
+}
@@ -42,6 +42,15 @@ public class DatabaseUtil {
         }
     }
     
+    /**
+     * 数据库扩展是否已初始化
+     * 
+     * @return 是否可用
+     */
+    public static boolean isAvailable() {
+        return databaseExtension != null;
+    }
+    
     /**
      * 检查数据库扩展是否可用
      */
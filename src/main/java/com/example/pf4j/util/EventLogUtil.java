@@ -0,0 +1,60 @@
+package com.example.pf4j.util;
+
+import com.example.pf4j.plugin.eventlog.EventLog;
+import com.example.pf4j.service.PluginEventLogService;
+
+/**
+ * 事件日志工具类
+ * 为插件提供宿主管理的有界事件日志，代替插件自行维护的 synchronized 列表
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public class EventLogUtil {
+
+    private static volatile PluginEventLogService eventLogService;
+
+    /**
+     * 初始化事件日志工具类
+     *
+     * @param service 插件事件日志服务
+     */
+    public static void initialize(PluginEventLogService service) {
+        eventLogService = service;
+    }
+
+    /**
+     * 检查事件日志服务是否可用
+     */
+    private static PluginEventLogService service() {
+        PluginEventLogService service = eventLogService;
+        if (service == null) {
+            throw new RuntimeException("事件日志服务未初始化，宿主应用尚未启动完成");
+        }
+        return service;
+    }
+
+    /**
+     * 获取或创建事件日志，写满后覆盖最旧的记录
+     *
+     * @param caller 调用方，通常传入this
+     * @param name 日志名称，插件内唯一
+     * @param capacity 容量（条）
+     * @return 事件日志
+     */
+    public static EventLog getLog(Object caller, String name, int capacity) {
+        return service().getLog(caller, name, capacity, false);
+    }
+
+    /**
+     * 获取或创建事件日志，被覆盖的记录追加写入磁盘
+     *
+     * @param caller 调用方，通常传入this
+     * @param name 日志名称，插件内唯一
+     * @param capacity 容量（条）
+     * @return 事件日志
+     */
+    public static EventLog getLogWithOverflow(Object caller, String name, int capacity) {
+        return service().getLog(caller, name, capacity, true);
+    }
+}
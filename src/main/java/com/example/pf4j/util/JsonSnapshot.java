@@ -0,0 +1,127 @@
+package com.example.pf4j.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 预序列化的JSON响应快照
+ * 保存序列化后的字节、ETag和生成时间，请求路径上只需比较ETag并直接写出字节
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public final class JsonSnapshot {
+
+    private final byte[] body;
+    private final String etag;
+    private final long lastModified;
+
+    private JsonSnapshot(byte[] body, String etag, long lastModified) {
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 序列化对象并生成快照
+     *
+     * @param objectMapper JSON序列化器
+     * @param value 要序列化的对象
+     * @return 快照
+     */
+    public static JsonSnapshot of(ObjectMapper objectMapper, Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            // HTTP日期精度为秒，截断后Last-Modified与If-Modified-Since才能精确比较
+            long lastModified = System.currentTimeMillis() / 1000 * 1000;
+            return new JsonSnapshot(body, computeEtag(body), lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 根据内容计算强ETag
+     */
+    private static String computeEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder etag = new StringBuilder(34).append('"');
+            for (int i = 0; i < 16; i++) {
+                etag.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+                etag.append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 判断客户端缓存是否仍然有效
+     *
+     * @param ifNoneMatch If-None-Match请求头
+     * @param ifModifiedSince If-Modified-Since请求头解析后的时间，未提供时为-1
+     * @return 是否未修改
+     */
+    public boolean isNotModified(String ifNoneMatch, long ifModifiedSince) {
+        if (ifNoneMatch != null) {
+            if ("*".equals(ifNoneMatch.trim())) {
+                return true;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (etag.equals(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * 生成HTTP响应，客户端缓存有效时返回304且不写出响应体
+     *
+     * @param ifNoneMatch If-None-Match请求头
+     * @param ifModifiedSince If-Modified-Since请求头解析后的时间，未提供时为-1
+     * @return HTTP响应
+     */
+    public ResponseEntity<byte[]> toResponse(String ifNoneMatch, long ifModifiedSince) {
+        if (isNotModified(ifNoneMatch, ifModifiedSince)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .body(body);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.pf4j.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 多生产者单消费者的有界无锁环形缓冲区
+ * 每个槽位带序号，生产者通过CAS领取写入位置，消费者按序号判断槽位是否已写完。
+ * 写入从不阻塞，缓冲区满时offer直接返回false，由调用方决定丢弃还是降级
+ *
+ * @param <E> 元素类型
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 只由消费者线程修改，volatile只用于 size() 的读取
+     */
+    private volatile long head;
+
+    /**
+     * @param capacity 容量，会向上取整为2的幂
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("容量必须在1到2^30之间: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素，可由任意线程调用
+     *
+     * @param element 元素
+     * @return 缓冲区已满时返回false
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // 序号发布在元素之后，消费者看到新序号时一定能读到元素
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 取出最多maxElements个已写完的元素，只能由单个消费者线程调用
+     *
+     * @param consumer 元素处理器
+     * @param maxElements 最大数量
+     * @return 实际取出的数量
+     */
+    public int drain(Consumer<? super E> consumer, int maxElements) {
+        long position = head;
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                // 槽位为空，或生产者已领取位置但尚未写完
+                break;
+            }
+            E element = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+            consumer.accept(element);
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * 当前元素数量的近似值
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0L, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.pf4j.util;
+
+import com.example.pf4j.cache.CacheSerializer;
+import com.example.pf4j.cache.OffHeapCache;
+import com.example.pf4j.service.PluginCacheService;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.util.Map;
+
+/**
+ * 堆外缓存工具类
+ * 为插件提供值保存在直接内存中的缓存，大量数据不再占用堆空间、不拉长GC停顿
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public class OffHeapCacheUtil {
+
+    private static final long MB = 1024L * 1024L;
+
+    private static volatile PluginCacheService cacheService;
+
+    /**
+     * 初始化堆外缓存工具类
+     *
+     * @param service 插件堆外缓存服务
+     */
+    public static void initialize(PluginCacheService service) {
+        cacheService = service;
+    }
+
+    /**
+     * 检查堆外缓存服务是否可用
+     */
+    private static PluginCacheService service() {
+        PluginCacheService service = cacheService;
+        if (service == null) {
+            throw new RuntimeException("堆外缓存服务未初始化，宿主应用尚未启动完成");
+        }
+        return service;
+    }
+
+    /**
+     * 获取或创建堆外缓存
+     *
+     * @param caller 调用方，通常传入this
+     * @param name 缓存名称，插件内唯一
+     * @param maxMb 缓存内存上限（MB），同时受插件预算限制
+     * @param serializer 值序列化器
+     * @return 堆外缓存
+     */
+    public static <V> OffHeapCache<V> getCache(Object caller, String name, int maxMb, CacheSerializer<V> serializer) {
+        return service().getCache(caller, name, maxMb * MB, serializer);
+    }
+
+    /**
+     * 获取或创建以JSON保存 Map 的堆外缓存
+     *
+     * @param caller 调用方，通常传入this
+     * @param name 缓存名称，插件内唯一
+     * @param maxMb 缓存内存上限（MB），同时受插件预算限制
+     * @return 堆外缓存
+     */
+    public static OffHeapCache<Map<String, Object>> getMapCache(Object caller, String name, int maxMb) {
+        PluginCacheService service = service();
+        return service.getCache(caller, name, maxMb * MB,
+                CacheSerializer.json(service.getObjectMapper(), new TypeReference<Map<String, Object>>() {
+                }));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.pf4j.util;
+
+import com.example.pf4j.security.PermissionMatrix;
+import com.example.pf4j.service.PermissionMatrixService;
+
+/**
+ * 权限矩阵工具类
+ * 为插件提供按用户、角色和操作判断权限的矩阵，判断不加锁、不分配对象，适合在每次调用前检查
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public class PermissionUtil {
+
+    private static volatile PermissionMatrixService matrixService;
+
+    /**
+     * 初始化权限矩阵工具类
+     *
+     * @param service 权限矩阵服务
+     */
+    public static void initialize(PermissionMatrixService service) {
+        matrixService = service;
+    }
+
+    /**
+     * 检查权限矩阵服务是否可用
+     */
+    private static PermissionMatrixService service() {
+        PermissionMatrixService service = matrixService;
+        if (service == null) {
+            throw new RuntimeException("权限矩阵服务未初始化，宿主应用尚未启动完成");
+        }
+        return service;
+    }
+
+    /**
+     * 获取或创建权限矩阵
+     *
+     * @param caller 调用方，通常传入this
+     * @param name 矩阵名称，插件内唯一
+     * @return 权限矩阵
+     */
+    public static PermissionMatrix getMatrix(Object caller, String name) {
+        return service().getMatrix(caller, name);
+    }
+}
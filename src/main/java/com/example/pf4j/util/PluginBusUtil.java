@@ -0,0 +1,85 @@
+package com.example.pf4j.util;
+
+import com.example.pf4j.plugin.bus.PluginInvoker;
+import com.example.pf4j.service.PluginServiceBus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 插件服务总线工具类
+ * 为插件提供进程内调用其他插件的便捷方法
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public class PluginBusUtil {
+
+    private static volatile PluginServiceBus serviceBus;
+
+    /**
+     * 初始化服务总线工具类
+     *
+     * @param bus 插件服务总线
+     */
+    public static void initialize(PluginServiceBus bus) {
+        serviceBus = bus;
+    }
+
+    /**
+     * 检查服务总线是否可用
+     */
+    private static PluginServiceBus bus() {
+        PluginServiceBus bus = serviceBus;
+        if (bus == null) {
+            throw new RuntimeException("插件服务总线未初始化，宿主应用尚未启动完成");
+        }
+        return bus;
+    }
+
+    /**
+     * 获取实现指定扩展点的第一个扩展实例
+     *
+     * @param type 扩展点接口
+     * @return 扩展实例
+     */
+    public static <T> T getService(Class<T> type) {
+        return bus().getService(type);
+    }
+
+    /**
+     * 获取实现指定扩展点的全部扩展实例
+     *
+     * @param type 扩展点接口
+     * @return 扩展实例列表
+     */
+    public static <T> List<T> getServices(Class<T> type) {
+        return bus().getServices(type);
+    }
+
+    /**
+     * 获取插件方法调用器，调用器应缓存后重复使用
+     *
+     * @param pluginName 插件名称
+     * @param methodName 方法名
+     * @param returnType 返回值类型
+     * @param parameterTypes 参数类型
+     * @return 调用器
+     */
+    public static <R> PluginInvoker<R> invoker(String pluginName, String methodName, Class<R> returnType,
+                                               Class<?>... parameterTypes) {
+        return bus().invoker(pluginName, methodName, returnType, parameterTypes);
+    }
+
+    /**
+     * 异步调用实现指定扩展点的全部扩展
+     *
+     * @param type 扩展点接口
+     * @param call 对单个扩展的调用
+     * @return 成功调用的结果列表
+     */
+    public static <T, R> CompletableFuture<List<R>> fanOut(Class<T> type, Function<? super T, ? extends R> call) {
+        return bus().fanOut(type, call);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.pf4j.util;
+
+import com.example.pf4j.service.PluginStateService;
+import com.example.pf4j.store.PluginStateStore;
+
+/**
+ * 插件状态存储工具类
+ * 为插件提供持久化的键值存储，代替插件自行维护的内存Map，数据在插件热重载和宿主重启后保留
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public class PluginStateUtil {
+
+    private static volatile PluginStateService stateService;
+
+    /**
+     * 初始化状态存储工具类
+     *
+     * @param service 插件状态存储服务
+     */
+    public static void initialize(PluginStateService service) {
+        stateService = service;
+    }
+
+    /**
+     * 检查状态存储服务是否可用
+     */
+    private static PluginStateService service() {
+        PluginStateService service = stateService;
+        if (service == null) {
+            throw new RuntimeException("状态存储服务未初始化，宿主应用尚未启动完成");
+        }
+        return service;
+    }
+
+    /**
+     * 获取状态存储
+     *
+     * @param caller 调用方，通常传入this
+     * @param namespace 命名空间，插件内唯一，不能包含'/'
+     * @return 状态存储
+     */
+    public static PluginStateStore getStore(Object caller, String namespace) {
+        return service().getStore(caller, namespace);
+    }
+}
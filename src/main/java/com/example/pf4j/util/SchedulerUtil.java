@@ -0,0 +1,135 @@
+package com.example.pf4j.util;
+
+import com.example.pf4j.scheduler.JobHandle;
+import com.example.pf4j.scheduler.JobTrigger;
+import com.example.pf4j.scheduler.MisfirePolicy;
+import com.example.pf4j.scheduler.ShardedTask;
+import com.example.pf4j.entity.JobExecutionHistory;
+import com.example.pf4j.service.JobHistoryService;
+import com.example.pf4j.service.PluginSchedulerService;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 任务调度工具类
+ * 为插件提供宿主共享调度器的便捷方法，插件停止或卸载时其任务自动取消。
+ * 集群模式下同一插件的同名任务在集群内只由一个节点执行，任务名称应在插件内保持唯一且各节点一致
+ *
+ * @author PF4J Framework
+ * @version 1.0.0
+ */
+public class SchedulerUtil {
+
+    private static volatile PluginSchedulerService schedulerService;
+    private static volatile JobHistoryService historyService;
+
+    /**
+     * 初始化调度工具类
+     *
+     * @param service 任务调度服务
+     * @param history 任务执行历史服务
+     */
+    public static void initialize(PluginSchedulerService service, JobHistoryService history) {
+        schedulerService = service;
+        historyService = history;
+    }
+
+    /**
+     * 检查调度服务是否可用
+     */
+    private static PluginSchedulerService scheduler() {
+        PluginSchedulerService service = schedulerService;
+        if (service == null) {
+            throw new RuntimeException("任务调度服务未初始化，宿主应用尚未启动完成");
+        }
+        return service;
+    }
+
+    /**
+     * 按固定频率执行任务
+     *
+     * @param name 任务名称
+     * @param period 执行间隔
+     * @param initialDelay 首次执行延迟
+     * @param task 任务
+     * @return 任务句柄
+     */
+    public static JobHandle scheduleAtFixedRate(String name, Duration period, Duration initialDelay, Runnable task) {
+        return scheduler().schedule(name, JobTrigger.fixedRate(period, initialDelay), task);
+    }
+
+    /**
+     * 按cron表达式执行任务
+     *
+     * @param name 任务名称
+     * @param cron Spring格式的cron表达式（秒 分 时 日 月 周）
+     * @param task 任务
+     * @return 任务句柄
+     */
+    public static JobHandle scheduleCron(String name, String cron, Runnable task) {
+        return scheduler().schedule(name, JobTrigger.cron(cron), task);
+    }
+
+    /**
+     * 延迟执行一次任务
+     *
+     * @param name 任务名称
+     * @param delay 延迟时间
+     * @param task 任务
+     * @return 任务句柄
+     */
+    public static JobHandle scheduleOnce(String name, Duration delay, Runnable task) {
+        return scheduler().schedule(name, JobTrigger.once(delay), task);
+    }
+
+    /**
+     * 使用自定义触发器和错过触发策略调度任务
+     *
+     * @param name 任务名称
+     * @param trigger 触发器
+     * @param misfirePolicy 错过触发策略
+     * @param task 任务
+     * @return 任务句柄
+     */
+    public static JobHandle schedule(String name, JobTrigger trigger, MisfirePolicy misfirePolicy, Runnable task) {
+        return scheduler().schedule(name, trigger, misfirePolicy, task);
+    }
+
+    /**
+     * 调度分片任务，集群模式下各分片分散到不同节点执行
+     *
+     * @param name 任务名称
+     * @param trigger 触发器
+     * @param partitionCount 分片数量
+     * @param task 分片任务
+     * @return 任务句柄
+     */
+    public static JobHandle scheduleSharded(String name, JobTrigger trigger, int partitionCount, ShardedTask task) {
+        return scheduler().scheduleSharded(name, trigger, MisfirePolicy.FIRE_NOW, partitionCount, task);
+    }
+
+    /**
+     * 确认当前执行的任务仍持有集群租约
+     * 执行时间可能超过租约时长的任务，应在写库、发消息等提交副作用的操作之前调用；
+     * 租约已被其他节点接管时抛出异常，本次执行应直接放弃。非集群模式或不在任务中调用时直接返回
+     *
+     * @throws IllegalStateException 租约已失效
+     */
+    public static void ensureLeaseHeld() {
+        scheduler().ensureLeaseHeld();
+    }
+
+    /**
+     * 查询调用方所在插件的任务执行历史，按触发时间倒序
+     *
+     * @param caller 调用方，通常传入this
+     * @param jobName 任务名称，为null时查询插件的全部任务
+     * @param limit 最大条数
+     * @return 执行历史
+     */
+    public static List<JobExecutionHistory> getHistory(Object caller, String jobName, int limit) {
+        scheduler();
+        return historyService.queryForCaller(caller, jobName, limit);
+    }
+}
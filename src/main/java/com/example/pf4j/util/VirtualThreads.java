@@ -0,0 +1,101 @@
+package com.example.pf4j.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具类
+ * 项目以Java 11为编译目标，虚拟线程相关API（JDK 21+）全部通过反射访问，
+ * 在低版本JDK上运行时 {@link #isSupported()} 返回false，调用方继续使用平台线程
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final String TRACE_PINNED_PROPERTY = "jdk.tracePinnedThreads";
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+    private static final Method IS_VIRTUAL = lookup(Thread.class, "isVirtual");
+
+    private VirtualThreads() {
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 当前JDK是否支持虚拟线程
+     *
+     * @return JDK 21及以上返回true
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * 判断线程是否为虚拟线程
+     *
+     * @param thread 线程
+     * @return 是否为虚拟线程，不支持虚拟线程的JDK上总是返回false
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     *
+     * @param namePrefix 线程名前缀，后接自增序号
+     * @return 执行器
+     * @throws IllegalStateException 当前JDK不支持虚拟线程
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("当前JDK不支持虚拟线程: " + Runtime.version());
+        }
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 开启虚拟线程固定（pinning）诊断
+     * 虚拟线程在synchronized块或本地方法中阻塞时，JDK会把线程栈打印到标准输出。
+     * 该属性在第一个虚拟线程创建时读取，必须在创建任何虚拟线程之前调用
+     *
+     * @param mode short只打印固定位置，full打印完整线程栈，其他值不开启
+     */
+    public static void tracePinnedThreads(String mode) {
+        if (!"short".equals(mode) && !"full".equals(mode)) {
+            return;
+        }
+        if (System.getProperty(TRACE_PINNED_PROPERTY) == null) {
+            System.setProperty(TRACE_PINNED_PROPERTY, mode);
+            logger.info("已开启虚拟线程固定诊断: -D{}={}", TRACE_PINNED_PROPERTY, mode);
+        }
+    }
+}
@@ -2,17 +2,19 @@ package com.example.pf4jscaffold.service;
 
 import com.example.pf4jscaffold.config.DatabaseConfig;
 import com.example.pf4jscaffold.config.DatabaseConfigManager;
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 数据库配置服务
@@ -31,8 +33,19 @@ public class DatabaseConfigService {
     @Autowired
     private DatabaseConfigManager configManager;
     
+    @Value("${pf4j.health.database-config.cache-ms:10000}")
+    private long connectionCacheMillis;
+    
+    @Value("${pf4j.health.database-config.timeout-ms:3000}")
+    private long connectionTimeoutMillis;
+    
     private DatabaseConfig currentConfig;
-    private DataSource currentDataSource;
+    private volatile DataSource currentDataSource;
+    
+    /**
+     * 最近一次连接检查的结果，在缓存有效期内isConnected直接返回
+     */
+    private volatile ConnectionStatus connectionStatus;
     
     /**
      * 初始化服务，加载保存的配置
@@ -141,16 +154,9 @@ public class DatabaseConfigService {
         try {
             log.debug("开始测试数据库连接: {}", config.getSummary());
             
-            // 创建临时数据源进行测试
-            DataSource testDataSource = DataSourceBuilder.create()
-                    .url(config.getJdbcUrl())
-                    .username(config.getUsername())
-                    .password(config.getPassword())
-                    .driverClassName(config.getDriverClassName())
-                    .build();
-            
-            // 尝试获取连接并测试
-            try (Connection connection = testDataSource.getConnection()) {
+            // 创建临时数据源进行测试，测试完成后关闭
+            try (HikariDataSource testDataSource = buildDataSource(config);
+                 Connection connection = testDataSource.getConnection()) {
                 // 执行简单查询测试连接，设置5秒超时
                 boolean isValid = connection.isValid(5);
                 
@@ -187,39 +193,82 @@ public class DatabaseConfigService {
             DatabaseConfig config = getCurrentConfig();
             
             if (config.isValid()) {
-                this.currentDataSource = DataSourceBuilder.create()
-                        .url(config.getJdbcUrl())
-                        .username(config.getUsername())
-                        .password(config.getPassword())
-                        .driverClassName(config.getDriverClassName())
-                        .build();
-                
+                replaceDataSource(buildDataSource(config));
                 log.info("数据源重新加载成功: {}", config.getSummary());
             } else {
                 log.warn("配置无效，无法重新加载数据源");
-                this.currentDataSource = null;
+                replaceDataSource(null);
             }
             
         } catch (Exception e) {
             log.error("重新加载数据源失败", e);
-            this.currentDataSource = null;
+            replaceDataSource(null);
             throw new RuntimeException("重新加载数据源失败: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * 创建连接池数据源
+     * 连接池延迟建立连接，获取连接超时由 pf4j.health.database-config.timeout-ms 控制
+     */
+    private HikariDataSource buildDataSource(DatabaseConfig config) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(config.getJdbcUrl())
+                .username(config.getUsername())
+                .password(config.getPassword())
+                .driverClassName(config.getDriverClassName())
+                .build();
+        dataSource.setConnectionTimeout(Math.max(250L, connectionTimeoutMillis));
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+    
+    /**
+     * 替换当前数据源并关闭旧的连接池
+     */
+    private synchronized void replaceDataSource(DataSource dataSource) {
+        DataSource previous = this.currentDataSource;
+        this.currentDataSource = dataSource;
+        this.connectionStatus = null;
+        if (previous instanceof HikariDataSource && previous != dataSource) {
+            ((HikariDataSource) previous).close();
+        }
+    }
+    
     /**
      * 检查当前是否已连接
+     * 从当前数据源的连接池借出连接验证，结果缓存 pf4j.health.database-config.cache-ms 毫秒，
+     * 频繁调用不会反复建立物理连接
      * 
      * @return 是否已连接
      */
     public boolean isConnected() {
+        ConnectionStatus status = connectionStatus;
+        if (status != null && System.currentTimeMillis() - status.checkedAt < connectionCacheMillis) {
+            return status.connected;
+        }
+        return refreshConnectionStatus();
+    }
+    
+    private synchronized boolean refreshConnectionStatus() {
+        ConnectionStatus status = connectionStatus;
+        if (status != null && System.currentTimeMillis() - status.checkedAt < connectionCacheMillis) {
+            return status.connected;
+        }
+        boolean connected = false;
         try {
-            ConnectionTestResult result = testCurrentConnection();
-            return result.isSuccess();
+            DataSource dataSource = getCurrentDataSource();
+            if (dataSource != null) {
+                try (Connection connection = dataSource.getConnection()) {
+                    connected = connection.isValid((int) Math.max(1L, connectionTimeoutMillis / 1000L));
+                }
+            }
         } catch (Exception e) {
-            log.debug("检查连接状态时发生异常", e);
-            return false;
+            log.debug("检查连接状态时发生异常: {}", e.getMessage());
         }
+        connectionStatus = new ConnectionStatus(connected, System.currentTimeMillis());
+        return connected;
     }
     
     /**
@@ -253,7 +302,7 @@ public class DatabaseConfigService {
             
             // 重置为默认配置
             this.currentConfig = DatabaseConfig.createDefault();
-            this.currentDataSource = null;
+            replaceDataSource(null);
             
             log.info("数据库配置已重置为默认值");
             return true;
@@ -264,6 +313,11 @@ public class DatabaseConfigService {
         }
     }
     
+    @PreDestroy
+    public void destroy() {
+        replaceDataSource(null);
+    }
+    
     /**
      * 获取配置管理器
      * 
@@ -273,6 +327,16 @@ public class DatabaseConfigService {
         return configManager;
     }
     
+    private static final class ConnectionStatus {
+        private final boolean connected;
+        private final long checkedAt;
+        
+        ConnectionStatus(boolean connected, long checkedAt) {
+            this.connected = connected;
+            this.checkedAt = checkedAt;
+        }
+    }
+    
     /**
      * 连接测试结果
      */
@@ -0,0 +1,108 @@
+package com.example.pf4j.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 堆外缓存的分级分配、跨分级转页和淘汰测试
+ */
+class OffHeapCacheTest {
+
+    private static final int PAGE_SIZE = OffHeapCache.PAGE_SIZE;
+
+    @Test
+    void failedPutKeepsExistingValue() {
+        OffHeapCache<byte[]> cache = newCache(2);
+        byte[] small = filled(100, 1);
+        assertTrue(cache.put("key", small));
+
+        assertFalse(cache.put("key", new byte[PAGE_SIZE + 1]));
+        assertArrayEquals(small, cache.get("key"));
+    }
+
+    @Test
+    void overwriteReplacesValueAcrossClasses() {
+        OffHeapCache<byte[]> cache = newCache(2);
+        assertTrue(cache.put("key", filled(100, 1)));
+        assertTrue(cache.put("key", filled(5000, 2)));
+
+        assertArrayEquals(filled(5000, 2), cache.get("key"));
+        assertEquals(1, cache.size());
+        assertEquals(5000L, cache.getStats().get("usedBytes"));
+    }
+
+    @Test
+    void otherClassGetsPagesOnceBudgetIsFullOfOneClass() {
+        OffHeapCache<byte[]> cache = newCache(2);
+        // 用64字节分级占满两页
+        int smallCount = 2 * PAGE_SIZE / 64;
+        for (int i = 0; i < smallCount; i++) {
+            assertTrue(cache.put("small-" + i, filled(64, i)));
+        }
+        assertEquals(0L, cache.getStats().get("evictions"));
+
+        assertTrue(cache.put("large", filled(100 * 1024, 7)), "其他分级无法分配内存");
+        assertArrayEquals(filled(100 * 1024, 7), cache.get("large"));
+        assertTrue((Long) cache.getStats().get("pageReassignments") >= 1);
+        assertEquals(smallCount + 1 - (Long) cache.getStats().get("evictions"), (long) cache.size());
+    }
+
+    @Test
+    void emptyPagesAreReassignedWithoutEviction() {
+        OffHeapCache<byte[]> cache = newCache(1);
+        for (int i = 0; i < PAGE_SIZE / 64; i++) {
+            cache.put("small-" + i, filled(64, i));
+        }
+        for (int i = 0; i < PAGE_SIZE / 64; i++) {
+            cache.remove("small-" + i);
+        }
+
+        assertTrue(cache.put("large", filled(200 * 1024, 3)));
+        assertEquals(0L, cache.getStats().get("evictions"));
+        assertEquals(1L, cache.getStats().get("pageReassignments"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAcrossClasses() {
+        OffHeapCache<byte[]> cache = newCache(2);
+        // 两页分别属于两个分级，随后访问第一页的条目使第二页的条目成为最久未访问
+        for (int i = 0; i < PAGE_SIZE / 1024; i++) {
+            cache.put("kb-" + i, filled(1024, i));
+        }
+        for (int i = 0; i < PAGE_SIZE / 2048; i++) {
+            cache.put("2kb-" + i, filled(2048, i));
+        }
+        for (int i = 0; i < PAGE_SIZE / 1024; i++) {
+            assertNotNull(cache.get("kb-" + i));
+        }
+
+        assertTrue(cache.put("large", filled(300 * 1024, 9)));
+        for (int i = 0; i < PAGE_SIZE / 1024; i++) {
+            assertNotNull(cache.get("kb-" + i), "最近访问的条目被淘汰: kb-" + i);
+        }
+        assertNull(cache.get("2kb-0"));
+        Map<String, Object> stats = cache.getStats();
+        assertEquals((long) PAGE_SIZE / 2048, stats.get("evictions"));
+    }
+
+    private static OffHeapCache<byte[]> newCache(int pages) {
+        MemoryBudget budget = new MemoryBudget("test", (long) pages * PAGE_SIZE, null);
+        return new OffHeapCache<>("test", (long) pages * PAGE_SIZE, budget, CacheSerializer.bytes());
+    }
+
+    private static byte[] filled(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (seed + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.pf4j.config;
+
+import com.example.pf4j.interceptor.PluginPermissionInterceptor;
+import com.example.pf4j.interceptor.RateLimitInterceptor;
+import com.example.pf4j.interceptor.SecurityInterceptor;
+import com.example.pf4j.security.PrincipalSnapshot;
+import com.example.pf4j.security.RoleRegistry;
+import com.example.pf4j.service.AuthService;
+import com.example.pf4j.service.PluginAuthorizationService;
+import com.example.pf4j.service.PluginNameResolver;
+import com.example.pf4j.service.PluginServiceBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 插件调用授权拦截器的路径注册测试
+ */
+class WebConfigTest {
+
+    private final RoleRegistry roleRegistry = new RoleRegistry();
+    private final AuthService authService = mock(AuthService.class);
+    private final PluginNameResolver nameResolver = mock(PluginNameResolver.class);
+
+    private PluginPermissionInterceptor permissionInterceptor;
+    private List<Object> interceptors;
+
+    @BeforeEach
+    void setUp() {
+        PluginAuthorizationService authorizationService = new PluginAuthorizationService();
+        ReflectionTestUtils.setField(authorizationService, "enabled", true);
+        ReflectionTestUtils.setField(authorizationService, "defaultRoles", RoleRegistry.ADMIN);
+        ReflectionTestUtils.setField(authorizationService, "roleRegistry", roleRegistry);
+        ReflectionTestUtils.setField(authorizationService, "serviceBus", mock(PluginServiceBus.class));
+        ReflectionTestUtils.setField(authorizationService, "nameResolver", nameResolver);
+        PluginAuthorizationService.PolicyRule rule = new PluginAuthorizationService.PolicyRule();
+        rule.setPlugin("hello");
+        rule.setRoles(RoleRegistry.ADMIN);
+        authorizationService.compile(List.of(rule));
+        when(nameResolver.resolvePluginId("hello")).thenReturn("hello");
+
+        permissionInterceptor = new PluginPermissionInterceptor();
+        ReflectionTestUtils.setField(permissionInterceptor, "authService", authService);
+        ReflectionTestUtils.setField(permissionInterceptor, "authorizationService", authorizationService);
+
+        WebConfig webConfig = new WebConfig();
+        ReflectionTestUtils.setField(webConfig, "securityInterceptor", mock(SecurityInterceptor.class));
+        ReflectionTestUtils.setField(webConfig, "pluginPermissionInterceptor", permissionInterceptor);
+        ReflectionTestUtils.setField(webConfig, "rateLimitInterceptor", mock(RateLimitInterceptor.class));
+        ExposedInterceptorRegistry registry = new ExposedInterceptorRegistry();
+        webConfig.addInterceptors(registry);
+        interceptors = registry.interceptors();
+    }
+
+    @Test
+    void apiDocCallRejectsRoleWithoutPermission() throws Exception {
+        when(authService.getPrincipalSnapshot())
+                .thenReturn(new PrincipalSnapshot("user", true, roleRegistry.bit("USER"), roleRegistry.adminBit()));
+        MockHttpServletRequest request = pluginRequest("/api-docs/call/hello", "hello");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MappedInterceptor mapped = findPermissionInterceptor(request);
+        assertNotNull(mapped, "/api-docs/call/** 未注册插件授权拦截器");
+        assertFalse(mapped.preHandle(request, response, new Object()));
+        assertEquals(403, response.getStatus());
+    }
+
+    @Test
+    void apiDocCallAllowsRoleWithPermission() throws Exception {
+        when(authService.getPrincipalSnapshot())
+                .thenReturn(new PrincipalSnapshot("admin", true, roleRegistry.adminBit(), roleRegistry.adminBit()));
+        MockHttpServletRequest request = pluginRequest("/api-docs/call/hello", "hello");
+
+        MappedInterceptor mapped = findPermissionInterceptor(request);
+        assertNotNull(mapped);
+        assertTrue(mapped.preHandle(request, new MockHttpServletResponse(), new Object()));
+    }
+
+    @Test
+    void unresolvedPluginNameIsRejected() throws Exception {
+        when(authService.getPrincipalSnapshot())
+                .thenReturn(new PrincipalSnapshot("admin", true, roleRegistry.adminBit(), roleRegistry.adminBit()));
+        MockHttpServletRequest request = pluginRequest("/api-docs/call/Hello2", "Hello2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MappedInterceptor mapped = findPermissionInterceptor(request);
+        assertNotNull(mapped);
+        assertFalse(mapped.preHandle(request, response, new Object()));
+        assertEquals(403, response.getStatus());
+    }
+
+    private MockHttpServletRequest pluginRequest(String uri, String pluginName) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("pluginName", pluginName));
+        ServletRequestPathUtils.parseAndCache(request);
+        return request;
+    }
+
+    private MappedInterceptor findPermissionInterceptor(MockHttpServletRequest request) {
+        for (Object interceptor : interceptors) {
+            if (interceptor instanceof MappedInterceptor) {
+                MappedInterceptor mapped = (MappedInterceptor) interceptor;
+                if (mapped.getInterceptor() == permissionInterceptor && mapped.matches(request)) {
+                    return mapped;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 公开已注册的拦截器以便检查路径映射
+     */
+    private static class ExposedInterceptorRegistry extends InterceptorRegistry {
+        List<Object> interceptors() {
+            return getInterceptors();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.pf4j.plugin.eventlog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 覆盖式事件日志的回绕、溢出处理和并发追加测试
+ */
+class EventLogTest {
+
+    @Test
+    void keepsMostRecentEntriesAfterWraparound() {
+        List<String> overflow = new ArrayList<>();
+        EventLog log = new EventLog("test", 4, entry -> overflow.add(entry.getMessage()));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, log.append("event-" + i));
+        }
+
+        assertEquals(List.of("event-6", "event-7", "event-8", "event-9"), log.messages(Integer.MAX_VALUE));
+        assertEquals(List.of("event-8", "event-9"), log.messages(2));
+        assertEquals(List.of("event-0", "event-1", "event-2", "event-3", "event-4", "event-5"), overflow);
+        assertEquals(4, log.size());
+        assertEquals(10, log.getAppendedCount());
+        assertEquals(6, log.getOverwrittenCount());
+    }
+
+    @Test
+    void snapshotBeforeFirstWraparound() {
+        EventLog log = new EventLog("test", 5, null);
+        assertEquals(8, log.getCapacity());
+        assertTrue(log.snapshot().isEmpty());
+        log.append("a");
+        log.append("b");
+
+        List<EventLog.Entry> entries = log.snapshot();
+        assertEquals(2, entries.size());
+        assertEquals(0, entries.get(0).getSequence());
+        assertEquals("b", entries.get(1).getMessage());
+        assertEquals(0, log.getOverwrittenCount());
+        assertTrue(log.messages(0).isEmpty());
+    }
+
+    @Test
+    void concurrentAppendsAreRetainedOrOverflowedExactlyOnce() throws InterruptedException {
+        int threads = 4;
+        int perThread = 20_000;
+        Set<Long> overflowed = Collections.synchronizedSet(new HashSet<>());
+        EventLog log = new EventLog("test", 1024, entry -> overflowed.add(entry.getSequence()));
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    log.append("event");
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        long total = (long) threads * perThread;
+        List<EventLog.Entry> retained = log.snapshot();
+        assertEquals(log.getCapacity(), retained.size());
+        assertEquals(total, log.getAppendedCount());
+        // 每条记录要么仍在日志中，要么恰好交给溢出处理器一次
+        assertEquals(total - log.getCapacity(), overflowed.size());
+        for (EventLog.Entry entry : retained) {
+            assertTrue(entry.getSequence() >= total - log.getCapacity(), "保留的不是最近的记录: " + entry.getSequence());
+            assertFalse(overflowed.contains(entry.getSequence()), "保留的记录也被交给了溢出处理器");
+        }
+    }
+}
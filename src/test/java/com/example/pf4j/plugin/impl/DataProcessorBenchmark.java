@@ -0,0 +1,154 @@
+package com.example.pf4j.plugin.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataProcessorPlugin 列表统计和字符串处理的基准测试，与改造前的实现对比。
+ * 改造前的实现按当前的输出约定返回同样的字段，大输入的原始数据和派生结果同样截断为预览，
+ * 两边的差异只来自计算方式
+ * 运行: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.pf4j.plugin.impl.DataProcessorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataProcessorBenchmark {
+
+    @Param({"1000", "100000", "5000000"})
+    private int size;
+
+    private final DataProcessorPlugin plugin = new DataProcessorPlugin();
+    private List<Object> numbers;
+    private String text;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        numbers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            numbers.add(random.nextInt(3) == 0 ? (Object) random.nextInt(1000) : (Object) (random.nextDouble() * 1000));
+        }
+        StringBuilder builder = new StringBuilder(size * 6);
+        while (builder.length() < size * 5) {
+            builder.append("word").append(random.nextInt(100)).append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+        text = builder.toString();
+        checkSameKeys(legacyProcessList(numbers), plugin.processList(numbers));
+        checkSameKeys(legacyProcessString(text), plugin.processString(text));
+    }
+
+    private static void checkSameKeys(Map<String, Object> legacy, Map<String, Object> current) {
+        if (!legacy.keySet().equals(current.keySet())) {
+            throw new IllegalStateException("输出字段不一致: " + legacy.keySet() + " / " + current.keySet());
+        }
+    }
+
+    @Benchmark
+    public Object listStatisticsLegacy() {
+        return legacyProcessList(numbers);
+    }
+
+    @Benchmark
+    public Object listStatistics() {
+        return plugin.processList(numbers);
+    }
+
+    @Benchmark
+    public Object stringLegacy() {
+        return legacyProcessString(text);
+    }
+
+    @Benchmark
+    public Object string() {
+        return plugin.processString(text);
+    }
+
+    /**
+     * 改造前的列表统计：装箱到 List<Double> 后遍历四次
+     */
+    private static Map<String, Object> legacyProcessList(List<?> input) {
+        Map<String, Object> result = new HashMap<>();
+        if (input.size() < DataProcessorPlugin.PARALLEL_THRESHOLD) {
+            result.put("originalData", input);
+        } else {
+            result.put("originalData", new ArrayList<>(input.subList(0, DataProcessorPlugin.PREVIEW_ELEMENTS)));
+            result.put("originalTruncated", true);
+        }
+        result.put("dataType", "List");
+        result.put("size", input.size());
+        result.put("firstElement", input.get(0));
+        result.put("lastElement", input.get(input.size() - 1));
+        List<Double> numbers = new ArrayList<>();
+        for (Object item : input) {
+            if (item instanceof Number) {
+                numbers.add(((Number) item).doubleValue());
+            }
+        }
+        double sum = numbers.stream().mapToDouble(Double::doubleValue).sum();
+        Map<String, Double> statistics = new HashMap<>();
+        statistics.put("sum", sum);
+        statistics.put("average", sum / numbers.size());
+        statistics.put("max", numbers.stream().mapToDouble(Double::doubleValue).max().orElse(0));
+        statistics.put("min", numbers.stream().mapToDouble(Double::doubleValue).min().orElse(0));
+        result.put("statistics", statistics);
+        return result;
+    }
+
+    /**
+     * 改造前的字符串处理：完整生成全部派生字符串，单词数通过 split 计算；
+     * 超过大字符串阈值时再把完整结果截断为与当前实现相同的预览
+     */
+    private static Map<String, Object> legacyProcessString(String input) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("dataType", "String");
+        result.put("length", input.length());
+        String upperCase = input.toUpperCase();
+        String lowerCase = input.toLowerCase();
+        result.put("wordCount", input.split("\\s+").length);
+        String reversed = new StringBuilder(input).reverse().toString();
+        if (input.length() <= DataProcessorPlugin.LARGE_STRING_THRESHOLD) {
+            result.put("originalData", input);
+            result.put("upperCase", upperCase);
+            result.put("lowerCase", lowerCase);
+            result.put("reversed", reversed);
+        } else {
+            int preview = DataProcessorPlugin.PREVIEW_LENGTH;
+            result.put("originalData", input.substring(0, preview));
+            result.put("originalTruncated", true);
+            result.put("upperCase", upperCase.substring(0, preview));
+            result.put("lowerCase", lowerCase.substring(0, preview));
+            result.put("reversed", reversed.substring(0, preview));
+            result.put("previewLength", preview);
+            result.put("derivedTruncated", true);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DataProcessorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
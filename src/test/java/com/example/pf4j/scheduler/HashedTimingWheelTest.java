@@ -0,0 +1,110 @@
+package com.example.pf4j.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 哈希时间轮的到期测试：每个定时项恰好执行一次，不早于到期时间，跨多轮和取消后不丢失也不重复
+ */
+class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // 8个槽位、每个tick 5毫秒，一轮只有40毫秒，下面的延迟大多需要跨越多轮
+        wheel = new HashedTimingWheel(5, TimeUnit.MILLISECONDS, 8, "test-wheel");
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void everyTimeoutFiresExactlyOnceAndNotEarly() throws InterruptedException {
+        int count = 2000;
+        AtomicIntegerArray fired = new AtomicIntegerArray(count);
+        AtomicInteger early = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            long delay = random.nextInt(300);
+            long notBefore = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            wheel.schedule(() -> {
+                if (System.nanoTime() < notBefore) {
+                    early.incrementAndGet();
+                }
+                fired.incrementAndGet(index);
+                done.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "部分定时项未到期执行");
+        Thread.sleep(100);
+        for (int i = 0; i < count; i++) {
+            assertEquals(1, fired.get(i), "定时项执行次数错误: " + i);
+        }
+        assertEquals(0, early.get(), "定时项早于到期时间执行");
+        assertEquals(count, wheel.getExpiredCount());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() throws InterruptedException {
+        List<HashedTimingWheel.Timeout> timeouts = new ArrayList<>();
+        AtomicInteger firedCount = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            timeouts.add(wheel.schedule(firedCount::incrementAndGet, 50 + i, TimeUnit.MILLISECONDS));
+        }
+        CountDownLatch kept = new CountDownLatch(1);
+        HashedTimingWheel.Timeout keptTimeout = wheel.schedule(kept::countDown, 100, TimeUnit.MILLISECONDS);
+        for (HashedTimingWheel.Timeout timeout : timeouts) {
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+        }
+        assertEquals(1, wheel.size());
+
+        assertTrue(kept.await(2, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(0, firedCount.get());
+        assertTrue(keptTimeout.isExpired());
+        assertFalse(keptTimeout.cancel(), "已到期的定时项不能再取消");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timeoutsScheduledFromCallbacksAreNotLost() throws InterruptedException {
+        int chain = 50;
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        Runnable[] step = new Runnable[1];
+        step[0] = () -> {
+            // 在tick线程上追加的定时项在下一个tick转入槽位
+            if (runs.incrementAndGet() < chain) {
+                wheel.schedule(step[0], runs.get() % 3 * 7, TimeUnit.MILLISECONDS);
+            } else {
+                done.countDown();
+            }
+        };
+        wheel.schedule(step[0], 0, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "回调中追加的定时项丢失");
+        Thread.sleep(50);
+        assertEquals(chain, runs.get());
+    }
+}
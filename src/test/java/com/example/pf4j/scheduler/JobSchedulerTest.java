@@ -0,0 +1,151 @@
+package com.example.pf4j.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 任务调度器的触发语义测试：执行期间到达的触发不丢失也不重复，监听器不在任务锁内回调
+ */
+class JobSchedulerTest {
+
+    private JobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        HashedTimingWheel wheel = new HashedTimingWheel(5, TimeUnit.MILLISECONDS, 64, "test-wheel");
+        scheduler = new JobScheduler(wheel, Executors.newFixedThreadPool(4), 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void triggersDuringExecutionRunExactlyOnceAfterwards() throws Exception {
+        CountDownLatch firstRunStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRun = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+
+        JobHandle job = scheduler.schedule("busy", null, fixedTimes(10, 30, 50, 70), MisfirePolicy.FIRE_NOW, () -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                if (runs.incrementAndGet() == 1) {
+                    firstRunStarted.countDown();
+                    await(releaseFirstRun);
+                }
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }, null);
+
+        assertTrue(firstRunStarted.await(2, TimeUnit.SECONDS));
+        // 等到其余三次触发都在第一次执行期间到达
+        waitUntil(() -> job.getMisfireCount() == 3);
+        releaseFirstRun.countDown();
+        waitUntil(() -> job.getExecutionCount() == 2 && !job.isRunning());
+        Thread.sleep(100);
+
+        assertEquals(2, runs.get());
+        assertEquals(2, job.getExecutionCount());
+        assertEquals(1, maxConcurrent.get());
+    }
+
+    @Test
+    void skipPolicyDropsTriggersDuringExecution() throws Exception {
+        CountDownLatch releaseFirstRun = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        JobHandle job = scheduler.schedule("skip", null, fixedTimes(10, 30, 50), MisfirePolicy.SKIP, () -> {
+            if (runs.incrementAndGet() == 1) {
+                await(releaseFirstRun);
+            }
+        }, null);
+
+        waitUntil(() -> job.getMisfireCount() == 2);
+        releaseFirstRun.countDown();
+        waitUntil(() -> !job.isRunning());
+        Thread.sleep(100);
+
+        assertEquals(1, runs.get());
+        assertEquals(JobState.COMPLETED, job.getState());
+    }
+
+    @Test
+    void slowMisfireListenerDoesNotHoldJobLock() throws Exception {
+        CountDownLatch listenerEntered = new CountDownLatch(1);
+        CountDownLatch releaseListener = new CountDownLatch(1);
+        CountDownLatch releaseTask = new CountDownLatch(1);
+        scheduler.setListener(new JobListener() {
+            @Override
+            public void onExecuted(JobHandle job, long fireTime, long durationMillis, Throwable error) {
+            }
+
+            @Override
+            public void onMisfire(JobHandle job, long scheduledTime, boolean fired) {
+                listenerEntered.countDown();
+                await(releaseListener);
+            }
+        });
+
+        JobHandle job = scheduler.schedule("listener", null, fixedTimes(10, 30, 5000), MisfirePolicy.FIRE_NOW,
+                () -> await(releaseTask), null);
+
+        assertTrue(listenerEntered.await(2, TimeUnit.SECONDS));
+        try {
+            CountDownLatch paused = new CountDownLatch(1);
+            new Thread(() -> {
+                job.pause();
+                paused.countDown();
+            }).start();
+            assertTrue(paused.await(1, TimeUnit.SECONDS), "监听器回调期间任务锁被占用");
+            assertEquals(JobState.PAUSED, job.getState());
+        } finally {
+            releaseListener.countDown();
+            releaseTask.countDown();
+        }
+    }
+
+    /**
+     * 相对创建时间依次在给定偏移处触发的触发器
+     */
+    private static JobTrigger fixedTimes(long... offsetsMillis) {
+        long start = System.currentTimeMillis();
+        return afterMillis -> {
+            for (long offset : offsetsMillis) {
+                if (start + offset > afterMillis) {
+                    return start + offset;
+                }
+            }
+            return -1L;
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pf4j.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 权限矩阵的继承、拒绝、循环检测和并发读取测试
+ */
+class PermissionMatrixTest {
+
+    private static final String DEFAULT_ROLE = "role:default";
+
+    @Test
+    void denyOverridesInheritedGrant() {
+        PermissionMatrix matrix = new PermissionMatrix("test");
+        matrix.grant(DEFAULT_ROLE, "read", "write");
+        matrix.inherit("alice", DEFAULT_ROLE);
+        matrix.deny("alice", "write");
+
+        assertTrue(matrix.isAllowed("alice", "read"));
+        assertFalse(matrix.isAllowed("alice", "write"));
+        assertFalse(matrix.isAllowed("alice", "delete"));
+
+        // 父主体的修改传播到后代
+        matrix.grant(DEFAULT_ROLE, "delete");
+        assertTrue(matrix.isAllowed("alice", "delete"));
+        matrix.disinherit("alice", DEFAULT_ROLE);
+        assertFalse(matrix.isAllowed("alice", "read"));
+    }
+
+    @Test
+    void inheritRejectsCycles() {
+        PermissionMatrix matrix = new PermissionMatrix("test");
+        matrix.inherit("a", "b");
+        matrix.inherit("b", "c");
+
+        assertThrows(IllegalArgumentException.class, () -> matrix.inherit("c", "a"));
+        assertThrows(IllegalArgumentException.class, () -> matrix.inherit("a", "a"));
+        assertTrue(matrix.parents("c").isEmpty(), "循环继承被拒绝后不应留下继承关系");
+        assertEquals(1, matrix.parents("a").size());
+    }
+
+    @Test
+    void unknownSubjectsUseDefaultWithoutGrowingMatrix() {
+        PermissionMatrix matrix = new PermissionMatrix("test");
+        matrix.grant(DEFAULT_ROLE, "read");
+        matrix.grant("bob", "write");
+        Object subjects = matrix.getStats().get("subjects");
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(matrix.isAllowed("user-" + i, DEFAULT_ROLE, "read"));
+            assertFalse(matrix.isAllowed("user-" + i, DEFAULT_ROLE, "write"));
+        }
+        // 已登记的主体按自身权限判断
+        assertTrue(matrix.isAllowed("bob", DEFAULT_ROLE, "write"));
+        assertFalse(matrix.isAllowed("bob", DEFAULT_ROLE, "read"));
+        assertEquals(subjects, matrix.getStats().get("subjects"));
+        assertFalse(matrix.hasSubject("user-0"));
+    }
+
+    @Test
+    void readersSeeCompleteRowsWhileSubjectsAreAdded() throws InterruptedException {
+        PermissionMatrix matrix = new PermissionMatrix("test");
+        matrix.grant(DEFAULT_ROLE, "read");
+        matrix.inherit("reader", DEFAULT_ROLE);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (!matrix.isAllowed("reader", "read")) {
+                    failure.set("扩容或重新计算期间读取到不完整的权限");
+                    return;
+                }
+            }
+        });
+        reader.start();
+        try {
+            // 新增主体触发多次扩容，反复修改父主体触发逐行重新发布
+            for (int i = 0; i < 2000; i++) {
+                matrix.inherit("user-" + i, DEFAULT_ROLE);
+                matrix.grant(DEFAULT_ROLE, "op-" + (i % 100));
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(2002, matrix.getStats().get("subjects"));
+        assertTrue(matrix.isAllowed("user-1999", "op-99"));
+    }
+}
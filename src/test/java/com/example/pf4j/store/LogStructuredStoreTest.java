@@ -0,0 +1,166 @@
+package com.example.pf4j.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 日志结构存储的恢复、截断、滚动和压缩测试
+ */
+class LogStructuredStoreTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final int HEADER_BYTES = 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void valuesAndDeletesSurviveReopen() throws IOException {
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            store.put(bytes("a"), bytes("1"));
+            store.put(bytes("b"), bytes("2"));
+            store.put(bytes("a"), bytes("3"));
+            assertTrue(store.delete(bytes("b")));
+        }
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            assertEquals("3", string(store.get(bytes("a"))));
+            assertNull(store.get(bytes("b")));
+            assertEquals(1, store.count(new byte[0]));
+        }
+    }
+
+    @Test
+    void deletingMissingKeyAppendsNothing() throws IOException {
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            store.put(bytes("a"), bytes("1"));
+            Object before = store.getStats().get("totalBytes");
+            assertFalse(store.delete(bytes("missing")));
+            assertEquals(before, store.getStats().get("totalBytes"));
+        }
+    }
+
+    @Test
+    void tornTailRecordIsTruncatedOnRecovery() throws IOException {
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            store.put(bytes("first"), bytes("value-1"));
+            store.put(bytes("second"), bytes("value-2"));
+        }
+        // 破坏第二条记录的值，模拟写入过程中进程退出
+        int firstLength = HEADER_BYTES + "first".length() + "value-1".length();
+        int secondValueOffset = firstLength + HEADER_BYTES + "second".length();
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            file.seek(secondValueOffset);
+            file.write('X');
+        }
+
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            assertEquals("value-1", string(store.get(bytes("first"))));
+            assertNull(store.get(bytes("second")));
+            store.put(bytes("third"), bytes("value-3"));
+        }
+        // 截断位置之后的新记录在下一次恢复时仍然有效
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            assertEquals("value-1", string(store.get(bytes("first"))));
+            assertNull(store.get(bytes("second")));
+            assertEquals("value-3", string(store.get(bytes("third"))));
+        }
+    }
+
+    @Test
+    void rollsOverSegmentsAndRecoversAllOfThem() throws IOException {
+        byte[] value = new byte[10 * 1024];
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 20; i++) {
+                value[0] = (byte) i;
+                store.put(bytes("key-" + i), value);
+            }
+            assertTrue((Integer) store.getStats().get("segments") > 1);
+        }
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals((byte) i, store.get(bytes("key-" + i))[0]);
+            }
+        }
+    }
+
+    @Test
+    void compactionKeepsLiveValuesAndRemovesOldSegments() throws IOException {
+        byte[] value = new byte[4 * 1024];
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < 5; i++) {
+                    value[0] = (byte) round;
+                    store.put(bytes("key-" + i), value);
+                }
+            }
+            store.put(bytes("deleted"), value);
+            store.delete(bytes("deleted"));
+            List<Path> before = segmentFiles();
+
+            assertTrue(store.compact(0.5, 0));
+            assertEquals(0.0, store.getStats().get("garbageRatio"));
+            for (Path file : before) {
+                assertFalse(Files.exists(file), "旧段未删除: " + file);
+            }
+            assertFalse(store.compact(0.5, 0));
+        }
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            assertEquals(5, store.count(new byte[0]));
+            for (int i = 0; i < 5; i++) {
+                assertEquals((byte) 9, store.get(bytes("key-" + i))[0]);
+            }
+            assertNull(store.get(bytes("deleted")));
+        }
+    }
+
+    @Test
+    void prefixScansOnlyTouchMatchingKeys() throws IOException {
+        try (LogStructuredStore store = LogStructuredStore.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 5000; i++) {
+                store.put(bytes((i % 2 == 0 ? "even/" : "odd/") + i), bytes(Integer.toString(i)));
+            }
+            assertEquals(2500, store.count(bytes("even/")));
+            List<String> keys = new ArrayList<>();
+            store.forEachKey(bytes("odd/"), key -> keys.add(string(key)));
+            assertEquals(2500, keys.size());
+            assertTrue(keys.stream().allMatch(key -> key.startsWith("odd/")));
+            assertEquals(0, store.count(bytes("none/")));
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(file -> file.toString().endsWith(".seg")).sorted().forEach(result::add);
+            return result;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.pf4j.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多生产者单消费者环形缓冲区的满载、回绕和并发写入测试
+ */
+class MpscRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, new MpscRingBuffer<String>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<String>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<String>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<String>(0));
+    }
+
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterDrain() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4), "缓冲区已满时应拒绝写入");
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertEquals(List.of(0, 1), drained);
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertFalse(buffer.offer(6));
+    }
+
+    @Test
+    void preservesOrderAcrossManyWraparounds() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 100; round++) {
+            // 每轮写入数量不同，让读写位置在各个槽位上回绕
+            for (int i = 0; i < round % 4 + 1; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            buffer.drain(drained::add, Integer.MAX_VALUE);
+            assertEquals(0, buffer.size());
+        }
+        assertEquals(next, drained.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals(i, (int) drained.get(i));
+        }
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; ) {
+                    if (buffer.offer(new long[]{producer, i})) {
+                        i++;
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] expected = new long[producers];
+        long[] received = {0};
+        boolean[] ordered = {true};
+        start.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (received[0] < (long) producers * perProducer && System.currentTimeMillis() < deadline) {
+            buffer.drain(element -> {
+                // 同一生产者的元素按写入顺序取出
+                int producer = (int) element[0];
+                if (element[1] != expected[producer]) {
+                    ordered[0] = false;
+                }
+                expected[producer] = element[1] + 1;
+                received[0]++;
+            }, 1024);
+        }
+        for (Thread thread : threads) {
+            thread.join(1000);
+        }
+
+        assertEquals((long) producers * perProducer, received[0]);
+        assertTrue(ordered[0], "同一生产者的元素顺序错乱");
+        assertEquals(0, buffer.size());
+    }
+}